@@ -2,9 +2,12 @@ package com.github.zeger_tak.enversvalidationplugin;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -14,9 +17,14 @@ import com.github.zeger_tak.enversvalidationplugin.annotation.Validate;
 import com.github.zeger_tak.enversvalidationplugin.annotation.ValidationType;
 import com.github.zeger_tak.enversvalidationplugin.connection.ConnectionProviderInstance;
 import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.ContentValidationMode;
+import com.github.zeger_tak.enversvalidationplugin.entities.RevisionCheckpoint;
+import com.github.zeger_tak.enversvalidationplugin.entities.SamplingReport;
 import com.github.zeger_tak.enversvalidationplugin.entities.ValidationResults;
+import com.github.zeger_tak.enversvalidationplugin.entities.ValidationSettings;
 import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
 import com.github.zeger_tak.enversvalidationplugin.execution.SetupExecutor;
+import com.github.zeger_tak.enversvalidationplugin.utils.IgnoreMatcher;
 import com.github.zeger_tak.enversvalidationplugin.utils.PropertyUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.AbstractMojo;
@@ -37,6 +45,17 @@ public class EnversValidationMojo extends AbstractMojo
 	private static final String PACKAGE_TO_SCAN_FOR_VALIDATORS_PROPERTY_KEY = "packageToScanForValidators";
 	private static final String IGNORABLES_PROPERTY_KEY = "ignorables";
 	private static final String SCHEMA_PROPERTY_KEY = "schema";
+	private static final String CONTENT_VALIDATION_MODE_PROPERTY_KEY = "contentValidationMode";
+	private static final String FETCH_SIZE_PROPERTY_KEY = "fetchSize";
+	private static final String CHUNK_SIZE_PROPERTY_KEY = "chunkSize";
+	private static final String SQL_PUSHDOWN_PROPERTY_KEY = "sqlPushdown";
+	private static final String PARALLELISM_PROPERTY_KEY = "parallelism";
+	private static final String SCHEMA_METADATA_CACHE_FILE_PROPERTY_KEY = "schemaMetadataCacheFile";
+	private static final String REVISION_CHECKPOINT_FILE_PROPERTY_KEY = "revisionCheckpointFile";
+	private static final String REVISION_CHECKPOINT_OVERLAP_PROPERTY_KEY = "revisionCheckpointOverlap";
+	private static final String SAMPLE_FRACTION_PROPERTY_KEY = "sampleFraction";
+	private static final String SAMPLE_SIZE_PROPERTY_KEY = "sampleSize";
+	private static final String SAMPLE_SEED_PROPERTY_KEY = "sampleSeed";
 
 	/**
 	 * Database username used to connect with the database.
@@ -105,10 +124,109 @@ public class EnversValidationMojo extends AbstractMojo
 	 * Method level: E.g. RevisionValidator.validateHistoryIsAValidFlow
 	 * Individual runs: E.g. RevisionValidator.validateHistoryIsAValidFlow.AUDIT_TABLE_TO_IGNORE.
 	 * (In case of a {@link Validate} method with data generated by a {@link Parameterized} method)
+	 * Wildcards: E.g. RevisionValidator.*.LOG_*_AUD, where '*' matches any characters and '?' a single character within a part of the identifier.
+	 * A wildcard pattern also ignores the identifiers starting with the parts it matches, e.g. RevisionValidator.validate* ignores all runs of these methods.
+	 * Regular expressions: E.g. regex:RevisionValidator\.validate.*\.LOG_.*, which have to match the entire identifier.
+	 *
+	 * Validators parameterized per audit table are not executed for an audit table, nor is its data loaded, if all their validations are ignored for that audit table.
 	 */
 	@Parameter(property = IGNORABLES_PROPERTY_KEY)
 	private List<String> ignorables;
 
+	/**
+	 * Determines how the content of the audit and content tables is read while validating revisions.
+	 * IN_MEMORY (default): Both tables are fully loaded into memory before the validations run.
+	 * STREAMING: Both tables are read ordered by primary key and validated one entity at a time, memory usage no longer depends on the size of the tables.
+	 * Streaming requires the database to order textual primary keys using a binary collation.
+	 * CHUNKED: Both tables are read in chunks of {@link #chunkSize} entities using keyset pagination on the primary key, each chunk is validated before the next one is read.
+	 * Every query is short, so no query has to stay open for the whole table. Only numeric and textual primary keys are supported.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = CONTENT_VALIDATION_MODE_PROPERTY_KEY)
+	private ContentValidationMode contentValidationMode;
+
+	/**
+	 * Number of rows retrieved from the database per round trip while reading query results, defaults to 1000.
+	 * Query results are read using forward-only cursors, so this also determines how many rows are held in memory at once.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = FETCH_SIZE_PROPERTY_KEY)
+	private Integer fetchSize;
+
+	/**
+	 * Maximum number of entities read at once when the {@link #contentValidationMode} is CHUNKED, defaults to 10000.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = CHUNK_SIZE_PROPERTY_KEY)
+	private Integer chunkSize;
+
+	/**
+	 * If true, the revision validations are evaluated by the database and only the offending identifiers are retrieved.
+	 * Takes precedence over the {@link #contentValidationMode}.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = SQL_PUSHDOWN_PROPERTY_KEY)
+	private Boolean sqlPushdown;
+
+	/**
+	 * Maximum number of validations executed at the same time, defaults to 1.
+	 * Each validation executed in parallel uses a database connection of its own.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = PARALLELISM_PROPERTY_KEY)
+	private Integer parallelism;
+
+	/**
+	 * File in which the schema metadata (tables, primary key columns, nonnull columns and foreign keys to the revision table) is kept between runs.
+	 * The metadata is only retrieved again once the schema has changed, which is detected using a single query. (E.g. '${project.build.directory}/schema-metadata.properties').
+	 * If not provided, the metadata is retrieved every run.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = SCHEMA_METADATA_CACHE_FILE_PROPERTY_KEY)
+	private File schemaMetadataCacheFile;
+
+	/**
+	 * File in which the highest revision validated per audit table is kept between runs.
+	 * If provided, the revision validations only read the entities changed by revisions added since the last successful validation of their audit table.
+	 * Content records without any newer revision are not validated again, remove the file to validate all records again.
+	 * Takes precedence over {@link #sqlPushdown}, the first run of an audit table uses the {@link #contentValidationMode}.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = REVISION_CHECKPOINT_FILE_PROPERTY_KEY)
+	private File revisionCheckpointFile;
+
+	/**
+	 * Number of revisions below the validated revision of an audit table which are validated again, defaults to 1000.
+	 * Revision numbers are assigned when a transaction starts, so a revision lower than the validated revision may still be committed afterwards.
+	 * The overlap should exceed the number of revisions created while the longest transaction writing audit records is running.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = REVISION_CHECKPOINT_OVERLAP_PROPERTY_KEY)
+	private Long revisionCheckpointOverlap;
+
+	/**
+	 * If provided, the revision validations only validate the history and content record of approximately this fraction of the entities of each audit table. (E.g. '0.01').
+	 * Entities are selected by hashing their primary identifier, the number of entities validated and the estimated error rate of all entities are logged per audit table.
+	 * Takes precedence over {@link #sqlPushdown} and {@link #contentValidationMode}, may not be combined with {@link #sampleSize} or {@link #revisionCheckpointFile}.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = SAMPLE_FRACTION_PROPERTY_KEY)
+	private Double sampleFraction;
+
+	/**
+	 * Alternative to {@link #sampleFraction}, validates approximately this number of entities of each audit table.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = SAMPLE_SIZE_PROPERTY_KEY)
+	private Integer sampleSize;
+
+	/**
+	 * Seed determining which entities are sampled, defaults to a random seed which is logged so a run can be repeated with the same sample.
+	 * This parameter may also be provided in the {@link #connectionPropertyFile}.
+	 */
+	@Parameter(property = SAMPLE_SEED_PROPERTY_KEY)
+	private Long sampleSeed;
+
 	@Override
 	public void execute() throws MojoFailureException
 	{
@@ -120,12 +238,33 @@ public class EnversValidationMojo extends AbstractMojo
 		try
 		{
 			new SetupExecutor(getLog(), ignorables, connectionProvider).execute(packageToScanForValidators, auditTableInformationMap, validationResults);
+
+			final RevisionCheckpoint revisionCheckpoint = connectionProvider.getRevisionCheckpoint();
+			if (revisionCheckpoint != null)
+			{
+				revisionCheckpoint.save();
+				getLog().info("Validated revisions saved: " + revisionCheckpoint);
+			}
+
+			final SamplingReport samplingReport = connectionProvider.getSamplingReport();
+			if (samplingReport != null)
+			{
+				getLog().info("Sampled entities using seed " + samplingReport.getSeed() + ":");
+				samplingReport.getSummaries().forEach(getLog()::info);
+			}
 		}
 		catch (RuntimeException e)
 		{
 			getLog().error(e);
 			throw new MojoFailureException("Exception occurred: " + e.getMessage());
 		}
+		finally
+		{
+			getLog().info("Database connections used: " + connectionProvider.getConnectionPool());
+			getLog().info("Schema metadata: " + connectionProvider.getQueries());
+			getLog().info("Prepared statements: " + connectionProvider.getStatementStatistics());
+			connectionProvider.close();
+		}
 
 		final List<Class> validatorClassesIgnored = validationResults.getValidatorClassesIgnored();
 		if (!validatorClassesIgnored.isEmpty())
@@ -146,7 +285,79 @@ public class EnversValidationMojo extends AbstractMojo
 		updatePropertiesFromPropertyFile(file);
 		validateAllRequiredPropertiesAreAvailable();
 
-		return new ConnectionProviderInstance(url, driver, username, password, schema, auditTableInformationFile);
+		return new ConnectionProviderInstance(url, driver, username, password, schema, auditTableInformationFile, createValidationSettings());
+	}
+
+	@Nonnull
+	private ValidationSettings createValidationSettings() throws MojoFailureException
+	{
+		if (fetchSize != null && fetchSize < 1)
+		{
+			throw new MojoFailureException("Invalid value '" + fetchSize + "' for property " + FETCH_SIZE_PROPERTY_KEY + ", expected a positive number.");
+		}
+		if (chunkSize != null && chunkSize < 1)
+		{
+			throw new MojoFailureException("Invalid value '" + chunkSize + "' for property " + CHUNK_SIZE_PROPERTY_KEY + ", expected a positive number.");
+		}
+		if (parallelism != null && parallelism < 1)
+		{
+			throw new MojoFailureException("Invalid value '" + parallelism + "' for property " + PARALLELISM_PROPERTY_KEY + ", expected a positive number.");
+		}
+
+		if (revisionCheckpointOverlap != null && revisionCheckpointOverlap < 0)
+		{
+			throw new MojoFailureException("Invalid value '" + revisionCheckpointOverlap + "' for property " + REVISION_CHECKPOINT_OVERLAP_PROPERTY_KEY + ", expected a number of at least 0.");
+		}
+
+		if (sampleFraction != null && (sampleFraction <= 0 || sampleFraction > 1))
+		{
+			throw new MojoFailureException("Invalid value '" + sampleFraction + "' for property " + SAMPLE_FRACTION_PROPERTY_KEY + ", expected a number greater than 0 and at most 1.");
+		}
+		if (sampleSize != null && sampleSize < 1)
+		{
+			throw new MojoFailureException("Invalid value '" + sampleSize + "' for property " + SAMPLE_SIZE_PROPERTY_KEY + ", expected a positive number.");
+		}
+		if (sampleFraction != null && sampleSize != null)
+		{
+			throw new MojoFailureException("Properties " + SAMPLE_FRACTION_PROPERTY_KEY + " and " + SAMPLE_SIZE_PROPERTY_KEY + " may not be combined.");
+		}
+		if ((sampleFraction != null || sampleSize != null) && revisionCheckpointFile != null)
+		{
+			throw new MojoFailureException("Sampling may not be combined with property " + REVISION_CHECKPOINT_FILE_PROPERTY_KEY + ", as a sample does not validate all revisions.");
+		}
+
+		final ValidationSettings validationSettings = new ValidationSettings();
+		if (contentValidationMode != null)
+		{
+			validationSettings.setContentValidationMode(contentValidationMode);
+		}
+		if (fetchSize != null)
+		{
+			validationSettings.setFetchSize(fetchSize);
+		}
+		if (chunkSize != null)
+		{
+			validationSettings.setChunkSize(chunkSize);
+		}
+		if (sqlPushdown != null)
+		{
+			validationSettings.setSqlPushdown(sqlPushdown);
+		}
+		if (parallelism != null)
+		{
+			validationSettings.setParallelism(parallelism);
+		}
+		validationSettings.setSchemaMetadataCacheFile(schemaMetadataCacheFile);
+		validationSettings.setRevisionCheckpointFile(revisionCheckpointFile);
+		if (revisionCheckpointOverlap != null)
+		{
+			validationSettings.setRevisionCheckpointOverlap(revisionCheckpointOverlap);
+		}
+		validationSettings.setIgnoreMatcher(IgnoreMatcher.compile(ignorables == null ? Collections.emptyList() : ignorables));
+		validationSettings.setSampleFraction(sampleFraction);
+		validationSettings.setSampleSize(sampleSize);
+		validationSettings.setSampleSeed(sampleSeed != null ? sampleSeed : ThreadLocalRandom.current().nextLong(Long.MAX_VALUE));
+		return validationSettings;
 	}
 
 	private void updatePropertiesFromPropertyFile(@Nullable File file) throws MojoFailureException
@@ -185,6 +396,122 @@ public class EnversValidationMojo extends AbstractMojo
 		{
 			schema = connectionPropertiesInFile.getProperty(SCHEMA_PROPERTY_KEY);
 		}
+		if (contentValidationMode == null)
+		{
+			contentValidationMode = parseEnum(ContentValidationMode.class, connectionPropertiesInFile.getProperty(CONTENT_VALIDATION_MODE_PROPERTY_KEY), CONTENT_VALIDATION_MODE_PROPERTY_KEY);
+		}
+		if (fetchSize == null)
+		{
+			fetchSize = parseInteger(connectionPropertiesInFile.getProperty(FETCH_SIZE_PROPERTY_KEY), FETCH_SIZE_PROPERTY_KEY);
+		}
+		if (chunkSize == null)
+		{
+			chunkSize = parseInteger(connectionPropertiesInFile.getProperty(CHUNK_SIZE_PROPERTY_KEY), CHUNK_SIZE_PROPERTY_KEY);
+		}
+		if (sqlPushdown == null && StringUtils.isNotBlank(connectionPropertiesInFile.getProperty(SQL_PUSHDOWN_PROPERTY_KEY)))
+		{
+			sqlPushdown = Boolean.valueOf(connectionPropertiesInFile.getProperty(SQL_PUSHDOWN_PROPERTY_KEY).trim());
+		}
+		if (parallelism == null)
+		{
+			parallelism = parseInteger(connectionPropertiesInFile.getProperty(PARALLELISM_PROPERTY_KEY), PARALLELISM_PROPERTY_KEY);
+		}
+		if (schemaMetadataCacheFile == null && StringUtils.isNotBlank(connectionPropertiesInFile.getProperty(SCHEMA_METADATA_CACHE_FILE_PROPERTY_KEY)))
+		{
+			schemaMetadataCacheFile = new File(connectionPropertiesInFile.getProperty(SCHEMA_METADATA_CACHE_FILE_PROPERTY_KEY).trim());
+		}
+		if (revisionCheckpointFile == null && StringUtils.isNotBlank(connectionPropertiesInFile.getProperty(REVISION_CHECKPOINT_FILE_PROPERTY_KEY)))
+		{
+			revisionCheckpointFile = new File(connectionPropertiesInFile.getProperty(REVISION_CHECKPOINT_FILE_PROPERTY_KEY).trim());
+		}
+		if (revisionCheckpointOverlap == null)
+		{
+			revisionCheckpointOverlap = parseLong(connectionPropertiesInFile.getProperty(REVISION_CHECKPOINT_OVERLAP_PROPERTY_KEY), REVISION_CHECKPOINT_OVERLAP_PROPERTY_KEY);
+		}
+		if (sampleFraction == null)
+		{
+			sampleFraction = parseDouble(connectionPropertiesInFile.getProperty(SAMPLE_FRACTION_PROPERTY_KEY), SAMPLE_FRACTION_PROPERTY_KEY);
+		}
+		if (sampleSize == null)
+		{
+			sampleSize = parseInteger(connectionPropertiesInFile.getProperty(SAMPLE_SIZE_PROPERTY_KEY), SAMPLE_SIZE_PROPERTY_KEY);
+		}
+		if (sampleSeed == null)
+		{
+			sampleSeed = parseLong(connectionPropertiesInFile.getProperty(SAMPLE_SEED_PROPERTY_KEY), SAMPLE_SEED_PROPERTY_KEY);
+		}
+	}
+
+	@Nullable
+	private static Integer parseInteger(@Nullable String value, @Nonnull String propertyKey) throws MojoFailureException
+	{
+		if (StringUtils.isBlank(value))
+		{
+			return null;
+		}
+
+		try
+		{
+			return Integer.valueOf(value.trim());
+		}
+		catch (NumberFormatException e)
+		{
+			throw new MojoFailureException("Invalid value '" + value + "' for property " + propertyKey + ", expected a number.");
+		}
+	}
+
+	@Nullable
+	private static Long parseLong(@Nullable String value, @Nonnull String propertyKey) throws MojoFailureException
+	{
+		if (StringUtils.isBlank(value))
+		{
+			return null;
+		}
+
+		try
+		{
+			return Long.valueOf(value.trim());
+		}
+		catch (NumberFormatException e)
+		{
+			throw new MojoFailureException("Invalid value '" + value + "' for property " + propertyKey + ", expected a number.");
+		}
+	}
+
+	@Nullable
+	private static Double parseDouble(@Nullable String value, @Nonnull String propertyKey) throws MojoFailureException
+	{
+		if (StringUtils.isBlank(value))
+		{
+			return null;
+		}
+
+		try
+		{
+			return Double.valueOf(value.trim());
+		}
+		catch (NumberFormatException e)
+		{
+			throw new MojoFailureException("Invalid value '" + value + "' for property " + propertyKey + ", expected a number.");
+		}
+	}
+
+	@Nullable
+	private static <E extends Enum<E>> E parseEnum(@Nonnull Class<E> enumClass, @Nullable String value, @Nonnull String propertyKey) throws MojoFailureException
+	{
+		if (StringUtils.isBlank(value))
+		{
+			return null;
+		}
+
+		try
+		{
+			return Enum.valueOf(enumClass, value.trim().toUpperCase());
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new MojoFailureException("Invalid value '" + value + "' for property " + propertyKey + ", expected one of " + Arrays.toString(enumClass.getEnumConstants()) + ".");
+		}
 	}
 
 	private void validateAllRequiredPropertiesAreAvailable() throws MojoFailureException
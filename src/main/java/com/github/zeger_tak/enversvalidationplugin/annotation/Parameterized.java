@@ -7,6 +7,11 @@ import java.lang.annotation.Target;
 
 import javax.annotation.Nonnull;
 
+/**
+ * Marks the static method generating the constructor arguments of a validator, one instance is created for each argument array.
+ * The method may return a {@link java.util.List}, {@link Iterable}, {@link java.util.Iterator} or {@link java.util.stream.Stream} of argument arrays.
+ * Lazy results are consumed one instance at a time, each instance is executed before the next arguments are generated.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Parameterized
@@ -14,4 +19,10 @@ public @interface Parameterized
 	@Nonnull String name() default "{index}";
 
 	@Nonnull String uniqueIdentifier() default "{index}";
+
+	/**
+	 * Whether the method generates the instances of a single audit table, when it is given an audit table information map holding just that table.
+	 * Such validators are executed separately for each audit table, as soon as that audit table has passed the validators of earlier phases.
+	 */
+	boolean perAuditTable() default false;
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.github.zeger_tak.enversvalidationplugin.annotation;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.Nonnull;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Writes an index of the {@link ValidationType} classes of a compilation, so the validators are found at runtime without scanning the classpath.
+ * Each line of the index holds the binary name of a validator class, its methods are looked up when the validator is executed.
+ *
+ * The index of an earlier compilation to the same output directory is merged, so partial recompilations keep the validators that were not recompiled.
+ */
+@SupportedAnnotationTypes("com.github.zeger_tak.enversvalidationplugin.annotation.ValidationType")
+public class ValidatorIndexProcessor extends AbstractProcessor
+{
+	public static final String INDEX_RESOURCE_NAME = "META-INF/envers-validation/validators.idx";
+
+	private final Set<String> validatorClassNames = new TreeSet<>();
+	private boolean previousIndexRead;
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+	{
+		if (!previousIndexRead)
+		{
+			readPreviousIndex();
+			previousIndexRead = true;
+		}
+
+		for (Element element : roundEnv.getElementsAnnotatedWith(ValidationType.class))
+		{
+			if (element.getKind() == ElementKind.CLASS)
+			{
+				final TypeElement validatorClass = (TypeElement) element;
+				final String binaryName = processingEnv.getElementUtils().getBinaryName(validatorClass).toString();
+				validateParameterizedMethods(binaryName, validatorClass);
+				validatorClassNames.add(binaryName);
+			}
+		}
+
+		if (roundEnv.processingOver() && !validatorClassNames.isEmpty())
+		{
+			writeIndex();
+		}
+		return false;
+	}
+
+	/**
+	 * Reports a validator with more than one {@link Parameterized} method at compile time, selecting the methods as the validator executors select them from all public methods including the inherited ones.
+	 */
+	private void validateParameterizedMethods(@Nonnull String binaryName, @Nonnull TypeElement validatorClass)
+	{
+		int parameterizedMethodCount = 0;
+		for (Element member : processingEnv.getElementUtils().getAllMembers(validatorClass))
+		{
+			if (member.getKind() == ElementKind.METHOD && member.getModifiers().contains(Modifier.PUBLIC) && member.getModifiers().contains(Modifier.STATIC) && member.getAnnotation(Validate.class) == null && member.getAnnotation(Parameterized.class) != null)
+			{
+				parameterizedMethodCount++;
+			}
+		}
+
+		if (parameterizedMethodCount > 1)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, binaryName + " defines more than one " + Parameterized.class.getSimpleName() + " annotated method.", validatorClass);
+		}
+	}
+
+	/**
+	 * Keeps the validators of the previous index that still exist, as these may not be part of this compilation.
+	 */
+	private void readPreviousIndex()
+	{
+		try
+		{
+			final FileObject previousIndex = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE_NAME);
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(previousIndex.openInputStream(), StandardCharsets.UTF_8)))
+			{
+				String line;
+				while ((line = reader.readLine()) != null)
+				{
+					// Indexes written by earlier versions list the methods after the class name.
+					final String binaryName = line.split("\t", 2)[0];
+					final TypeElement validatorClass = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+					if (validatorClass != null && validatorClass.getAnnotation(ValidationType.class) != null)
+					{
+						validatorClassNames.add(binaryName);
+					}
+				}
+			}
+		}
+		catch (FileNotFoundException | NoSuchFileException | IllegalArgumentException e)
+		{
+			// No validators were indexed before.
+		}
+		catch (IOException e)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Unable to read the previous validator index, only the validators of this compilation are indexed: " + e.getMessage());
+		}
+	}
+
+	private void writeIndex()
+	{
+		try
+		{
+			final FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE_NAME);
+			try (Writer writer = index.openWriter())
+			{
+				for (String validatorClassName : validatorClassNames)
+				{
+					writer.write(validatorClassName);
+					writer.write('\n');
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write the validator index: " + e.getMessage());
+		}
+	}
+}
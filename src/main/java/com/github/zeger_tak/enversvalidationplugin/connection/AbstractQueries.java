@@ -1,29 +1,70 @@
 package com.github.zeger_tak.enversvalidationplugin.connection;
 
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.CompactAuditRows;
+import com.github.zeger_tak.enversvalidationplugin.entities.EntityHistory;
+import com.github.zeger_tak.enversvalidationplugin.entities.IntegralPrimaryIdentifierMap;
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+import com.github.zeger_tak.enversvalidationplugin.entities.RevisionConstants;
 import com.github.zeger_tak.enversvalidationplugin.entities.TableRow;
+import com.github.zeger_tak.enversvalidationplugin.entities.TableRowSchema;
+import com.github.zeger_tak.enversvalidationplugin.entities.ValidationSettings;
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
 import org.apache.commons.lang3.StringUtils;
-import org.dbunit.database.CachedResultSetTable;
+import org.dbunit.database.ForwardOnlyResultSetTable;
 import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.database.ResultSetTableMetaData;
 import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
 import org.dbunit.dataset.ITableMetaData;
 
 public abstract class AbstractQueries implements DatabaseQueries
 {
+	/**
+	 * The number of buckets entities are hashed into when sampling, which determines the smallest fraction that can be sampled.
+	 */
+	static final int SAMPLE_BUCKETS = 10000;
+
 	private final String auditTablePostFix = "_AUD";
 	private final String revTypeColumnName = "REVTYPE";
 	private final String revisionTableName = "REVINFO";
 	private final String revisionTableIdentifierColumnName = "REV";
 
+	private final ConnectionProviderInstance connectionProvider;
+	private volatile SchemaMetadata schemaMetadata;
+
+	AbstractQueries(@Nonnull ConnectionProviderInstance connectionProvider)
+	{
+		this.connectionProvider = connectionProvider;
+	}
+
+	@Nonnull
+	ConnectionProviderInstance getConnectionProvider()
+	{
+		return connectionProvider;
+	}
+
 	@Nonnull
 	@Override
 	public String getAuditTablePostFix()
@@ -54,39 +95,277 @@ public abstract class AbstractQueries implements DatabaseQueries
 
 	@Nonnull
 	@Override
-	public Map<String, TableRow> getContentRecords(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	public Map<PrimaryIdentifier, TableRow> getContentRecords(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull RecordSelection selection) throws SQLException, DataSetException
 	{
-		final CachedResultSetTable recordsInContentTable = selectAllRecordsFromTable(databaseConnection, auditTableInformation, primaryIdentifierColumnNames);
-		final List<String> columnNames = getColumnNames(recordsInContentTable);
+		final List<Object> parameters = new ArrayList<>();
+		final String query = createContentTableSelectQuery(auditTableInformation, primaryIdentifierColumnNames) + createSelectionPredicate(selection, auditTableInformation.getContentTableName(), auditTableInformation, primaryIdentifierColumnNames, parameters);
+		return selectContentRecords(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, query, parameters);
+	}
 
-		final Map<String, TableRow> recordsInTableById = new HashMap<>();
-		for (int rowIndex = 0; rowIndex < recordsInContentTable.getRowCount(); rowIndex++)
+	@Nonnull
+	private Map<PrimaryIdentifier, TableRow> selectContentRecords(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull String query, @Nonnull List<?> parameters) throws SQLException, DataSetException
+	{
+		final Map<PrimaryIdentifier, TableRow> recordsInTableById = createPrimaryIdentifierMap(primaryIdentifierColumnNames);
+		try (TableRowCursor recordsInContentTable = createQueryCursor(databaseConnection, auditTableInformation.getContentTableName(), query, parameters))
 		{
-			final TableRow tableRow = new TableRow();
-			for (String columnName : columnNames)
+			while (recordsInContentTable.next())
 			{
-				tableRow.addColumn(columnName, recordsInContentTable.getValue(rowIndex, columnName));
+				final PrimaryIdentifier identifier = getPrimaryIdentifier(recordsInContentTable.getTable(), recordsInContentTable.getRowIndex(), primaryIdentifierColumnNames);
+				recordsInTableById.put(identifier, recordsInContentTable.getTableRow());
 			}
-
-			final String identifier = getPrimaryIdentifierAsString(recordsInContentTable, rowIndex, primaryIdentifierColumnNames);
-			recordsInTableById.put(identifier, tableRow);
 		}
 
 		return recordsInTableById;
 	}
 
 	@Nonnull
-	private CachedResultSetTable selectAllRecordsFromTable(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	private static <V> Map<PrimaryIdentifier, V> createPrimaryIdentifierMap(@Nonnull List<String> primaryIdentifierColumnNames)
+	{
+		return primaryIdentifierColumnNames.size() == 1 ? new IntegralPrimaryIdentifierMap<>() : new HashMap<>();
+	}
+
+	@Nonnull
+	@Override
+	public TableRowCursor createQueryCursor(@Nonnull String tableName, @Nonnull String query) throws SQLException, DataSetException
+	{
+		return createQueryCursor(tableName, query, Collections.emptyList());
+	}
+
+	/**
+	 * @param parameters The values bound to the parameter markers of the query, in order of appearance.
+	 */
+	@Nonnull
+	TableRowCursor createQueryCursor(@Nonnull String tableName, @Nonnull String query, @Nonnull List<?> parameters) throws SQLException, DataSetException
+	{
+		final PooledConnection connection = connectionProvider.borrowConnection();
+		try
+		{
+			return createQueryCursor(connection.getDatabaseConnection(), tableName, query, parameters, connection);
+		}
+		catch (SQLException | DataSetException | RuntimeException e)
+		{
+			connection.close();
+			throw e;
+		}
+	}
+
+	@Nonnull
+	private TableRowCursor createQueryCursor(@Nonnull IDatabaseConnection databaseConnection, @Nonnull String tableName, @Nonnull String query) throws SQLException, DataSetException
+	{
+		return createQueryCursor(databaseConnection, tableName, query, Collections.emptyList(), null);
+	}
+
+	@Nonnull
+	private TableRowCursor createQueryCursor(@Nonnull IDatabaseConnection databaseConnection, @Nonnull String tableName, @Nonnull String query, @Nonnull List<?> parameters) throws SQLException, DataSetException
+	{
+		return createQueryCursor(databaseConnection, tableName, query, parameters, null);
+	}
+
+	/**
+	 * Executes the query using a prepared statement of the {@link StatementCache} of the connection, the statement is returned to the cache once the cursor is closed.
+	 *
+	 * @param connection The borrowed connection to return once the cursor is closed, if any.
+	 */
+	@Nonnull
+	private TableRowCursor createQueryCursor(@Nonnull IDatabaseConnection databaseConnection, @Nonnull String tableName, @Nonnull String query, @Nonnull List<?> parameters, @Nullable PooledConnection connection) throws SQLException, DataSetException
+	{
+		final StatementCache statementCache = connectionProvider.getStatementCache(databaseConnection);
+		PreparedStatement statement = null;
+		try
+		{
+			statement = statementCache.acquire(query);
+			for (int i = 0; i < parameters.size(); i++)
+			{
+				statement.setObject(i + 1, parameters.get(i));
+			}
+
+			final ResultSet resultSet = statement.executeQuery();
+			statementCache.executed();
+			return new TableRowCursor(new CachedStatementResultSetTable(new ResultSetTableMetaData(tableName, resultSet, databaseConnection, false), resultSet, statementCache, query, statement), connection);
+		}
+		catch (SQLException | DataSetException e)
+		{
+			if (statement != null)
+			{
+				statementCache.discard(statement);
+			}
+			rollbackFailedTransaction(databaseConnection);
+			throw e;
+		}
+	}
+
+	/**
+	 * Without auto commit a failed query aborts the running transaction, which would cause every following query to fail as well.
+	 */
+	private void rollbackFailedTransaction(@Nonnull IDatabaseConnection databaseConnection) throws SQLException
+	{
+		final Connection connection = databaseConnection.getConnection();
+		if (!connection.getAutoCommit())
+		{
+			connection.rollback();
+		}
+	}
+
+	@Override
+	public boolean tableExists(@Nonnull String tableName) throws SQLException, DataSetException
+	{
+		return getSchemaMetadata().containsTable(tableName);
+	}
+
+	@Nonnull
+	@Override
+	public List<String> getPrimaryKeyColumnNames(@Nonnull String tableName) throws SQLException, DataSetException
+	{
+		return getSchemaMetadata().getPrimaryKeyColumnNames(tableName);
+	}
+
+	@Nonnull
+	@Override
+	public Set<String> getAllNonnullColumns(@Nonnull String tableName) throws SQLException, DataSetException
+	{
+		return getSchemaMetadata().getNonnullColumnNames(tableName);
+	}
+
+	@Nonnull
+	@Override
+	public Set<String> getListOfTablesWithForeignKeysToRevisionTable() throws SQLException, DataSetException
+	{
+		return getSchemaMetadata().getTablesWithForeignKeysToRevisionTable();
+	}
+
+	@Nonnull
+	@Override
+	public Set<String> getTablesByNameEndingWith(@Nonnull String postFix) throws SQLException, DataSetException
+	{
+		return getSchemaMetadata().getTablesByNameEndingWith(postFix);
+	}
+
+	/**
+	 * Retrieves the metadata of all tables in the schema on first use, threads requesting metadata meanwhile wait for it to be retrieved.
+	 * The first request is made while setting up the validations, before any thread holds on to a connection.
+	 *
+	 * If a {@link ValidationSettings#getSchemaMetadataCacheFile() cache file} is configured, the metadata of an earlier run is reused while the schema fingerprint is unchanged.
+	 */
+	@Nonnull
+	SchemaMetadata getSchemaMetadata() throws SQLException, DataSetException
+	{
+		SchemaMetadata result = schemaMetadata;
+		if (result == null)
+		{
+			synchronized (this)
+			{
+				if (schemaMetadata == null)
+				{
+					schemaMetadata = loadOrReadSchemaMetadata();
+				}
+				result = schemaMetadata;
+			}
+		}
+		return result;
+	}
+
+	@Nonnull
+	private SchemaMetadata loadOrReadSchemaMetadata() throws SQLException, DataSetException
+	{
+		final File cacheFile = connectionProvider.getSettings().getSchemaMetadataCacheFile();
+		if (cacheFile == null)
+		{
+			return loadSchemaMetadata();
+		}
+
+		final SchemaMetadataCache cache = new SchemaMetadataCache(cacheFile, connectionProvider.getSchemaIdentifier());
+		final String fingerprint = selectSchemaFingerprint();
+		final SchemaMetadata cachedSchemaMetadata = cache.read(fingerprint);
+		if (cachedSchemaMetadata != null)
+		{
+			// Only the fingerprint was queried.
+			cachedSchemaMetadata.queryExecuted();
+			return cachedSchemaMetadata;
+		}
+
+		final SchemaMetadata loadedSchemaMetadata = loadSchemaMetadata();
+		// The fingerprint query.
+		loadedSchemaMetadata.queryExecuted();
+		cache.write(fingerprint, loadedSchemaMetadata);
+		return loadedSchemaMetadata;
+	}
+
+	/**
+	 * Retrieves the tables, primary key columns and nonnull columns of the whole schema using a single query for each, together with the tables with a foreign key to the revision table.
+	 * Each query is counted by the returned metadata.
+	 */
+	@Nonnull
+	abstract SchemaMetadata loadSchemaMetadata() throws SQLException, DataSetException;
+
+	/**
+	 * Determines a value which changes whenever a table, column or constraint of the schema is created, altered or dropped.
+	 * It is retrieved using a single query that is cheap compared to retrieving the metadata itself.
+	 */
+	@Nonnull
+	abstract String selectSchemaFingerprint() throws SQLException, DataSetException;
+
+	/**
+	 * Passes the values of both columns of every row returned by the query to the consumer.
+	 */
+	void selectColumnValues(@Nonnull String tableName, @Nonnull String query, @Nonnull String tableNameColumnName, @Nonnull String columnName, @Nonnull BiConsumer<String, String> consumer) throws SQLException, DataSetException
+	{
+		try (TableRowCursor cursor = createQueryCursor(tableName, query, Collections.emptyList()))
+		{
+			while (cursor.next())
+			{
+				consumer.accept((String) cursor.getValue(tableNameColumnName), (String) cursor.getValue(columnName));
+			}
+		}
+	}
+
+	/**
+	 * Reads the values of the given column for all rows returned by the query.
+	 */
+	@Nonnull
+	<C extends Collection<String>> C selectColumnValues(@Nonnull String tableName, @Nonnull String query, @Nonnull String columnName, @Nonnull C result) throws SQLException, DataSetException
+	{
+		return selectColumnValues(tableName, query, Collections.emptyList(), columnName, result);
+	}
+
+	/**
+	 * @param parameters The values bound to the parameter markers of the query, in order of appearance.
+	 */
+	@Nonnull
+	<C extends Collection<String>> C selectColumnValues(@Nonnull String tableName, @Nonnull String query, @Nonnull List<?> parameters, @Nonnull String columnName, @Nonnull C result) throws SQLException, DataSetException
+	{
+		try (TableRowCursor cursor = createQueryCursor(tableName, query, parameters))
+		{
+			while (cursor.next())
+			{
+				result.add((String) cursor.getValue(columnName));
+			}
+		}
+		return result;
+	}
+
+	@Nonnull
+	@Override
+	public TableRowCursor getContentRecordsOrderedByPrimaryKey(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
 	{
-		final String query = createContentTableSelectQuery(auditTableInformation, primaryIdentifierColumnNames);
-		return (CachedResultSetTable) databaseConnection.createQueryTable(auditTableInformation.getContentTableName(), query);
+		final StringBuilder query = new StringBuilder(createContentTableSelectQuery(auditTableInformation, primaryIdentifierColumnNames));
+		appendOrderBy(query, auditTableInformation.getContentTableName(), primaryIdentifierColumnNames);
+
+		return createQueryCursor(databaseConnection, auditTableInformation.getContentTableName(), query.toString());
 	}
 
 	@Nonnull
 	private String createContentTableSelectQuery(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames)
 	{
-		final StringBuilder query = new StringBuilder("select * from ");
-		query.append(auditTableInformation.getContentTableName());
+		return "select * from " + createContentTableFromClause(auditTableInformation, primaryIdentifierColumnNames);
+	}
+
+	/**
+	 * Creates the tables to select from for the given content table, joined with the content tables of its parents on primary identifier.
+	 */
+	@Nonnull
+	String createContentTableFromClause(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames)
+	{
+		final StringBuilder query = new StringBuilder(auditTableInformation.getContentTableName());
 		query.append(" ");
 		query.append(auditTableInformation.getContentTableName());
 		query.append(" ");
@@ -131,62 +410,272 @@ public abstract class AbstractQueries implements DatabaseQueries
 	}
 
 	@Nonnull
-	private List<String> getColumnNames(@Nonnull CachedResultSetTable recordsInAuditTable) throws DataSetException
+	@Override
+	public Map<PrimaryIdentifier, List<TableRow>> getAuditRecordsGroupedByContentPrimaryKey(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull RecordSelection selection) throws SQLException, DataSetException
 	{
-		final ITableMetaData tableMetaData = recordsInAuditTable.getTableMetaData();
-		final Column[] columns = tableMetaData.getColumns();
+		final List<Object> parameters = new ArrayList<>();
+		final String predicate = createSelectionPredicate(selection, auditTableInformation.getAuditTableName(), auditTableInformation, primaryIdentifierColumnNames, parameters);
+		return selectAuditRecordsGroupedByContentPrimaryKey(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, createAuditTableSelectQuery(auditTableInformation, primaryIdentifierColumnNames, predicate), parameters);
+	}
 
-		List<String> columnNames = new ArrayList<>(columns.length);
-		for (Column column : columns)
+	/**
+	 * Creates the where clause of the selection for the given table, which is empty if all records are selected.
+	 *
+	 * @param parameters The values bound to the predicate are added to these parameters.
+	 */
+	@Nonnull
+	String createSelectionPredicate(@Nonnull RecordSelection selection, @Nonnull String tableAlias, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull List<Object> parameters)
+	{
+		final List<Object> values = selection.getValues();
+		switch (selection.getPredicate())
 		{
-			columnNames.add(column.getColumnName());
+			case CHANGED_AFTER_REVISION:
+				return createChangedAfterRevisionPredicate(tableAlias, auditTableInformation, primaryIdentifierColumnNames, (Long) values.get(0), parameters);
+			case SAMPLE:
+				return createSamplePredicate(tableAlias, primaryIdentifierColumnNames, (Double) values.get(0), (Long) values.get(1), parameters);
+			case KEY_RANGE:
+				return createKeyRangePredicate(tableAlias, primaryIdentifierColumnNames, (PrimaryIdentifier) values.get(0), (PrimaryIdentifier) values.get(1), parameters);
+			default:
+				return "";
 		}
+	}
 
-		return columnNames;
+	@CheckForNull
+	@Override
+	public PrimaryIdentifier getChunkUpperBound(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nullable PrimaryIdentifier afterKey, int chunkSize) throws SQLException, DataSetException
+	{
+		final List<Object> parameters = new ArrayList<>();
+		final String query = createChunkKeysQuery(auditTableInformation, primaryIdentifierColumnNames, afterKey, chunkSize, parameters);
+		final List<PrimaryIdentifier> chunkKeys = selectPrimaryIdentifiers(databaseConnection, auditTableInformation.getAuditTableName(), query, parameters, primaryIdentifierColumnNames);
+		return chunkKeys.size() < chunkSize ? null : chunkKeys.get(chunkKeys.size() - 1);
 	}
 
+	/**
+	 * Creates a query selecting the first keys after the given key of both tables, as content records without revisions and revisions of removed records are validated as well.
+	 * Each table is limited to the chunk size on its own, so both are read using a range scan of at most the chunk size on their primary key index before being merged.
+	 */
 	@Nonnull
-	@Override
-	public Map<String, List<TableRow>> getAuditRecordsGroupedByContentPrimaryKey(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	String createChunkKeysQuery(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nullable PrimaryIdentifier afterKey, int chunkSize, @Nonnull List<Object> parameters)
+	{
+		final StringBuilder query = new StringBuilder("select * from (select * from (");
+		query.append(createLimitedKeysQuery(auditTableInformation.getContentTableName(), "", primaryIdentifierColumnNames, afterKey, chunkSize, parameters));
+		query.append(") content_keys union select * from (");
+		query.append(createLimitedKeysQuery(auditTableInformation.getAuditTableName(), "distinct ", primaryIdentifierColumnNames, afterKey, chunkSize, parameters));
+		query.append(") audit_keys) chunk_keys");
+		appendOrderBy(query, "chunk_keys", primaryIdentifierColumnNames);
+		return createLimitedQuery(query.toString(), chunkSize);
+	}
+
+	@Nonnull
+	private String createLimitedKeysQuery(@Nonnull String tableName, @Nonnull String selectModifier, @Nonnull List<String> primaryIdentifierColumnNames, @Nullable PrimaryIdentifier afterKey, int chunkSize, @Nonnull List<Object> parameters)
+	{
+		final StringBuilder query = new StringBuilder("select ").append(selectModifier);
+		appendColumns(query, tableName, primaryIdentifierColumnNames);
+		query.append(" from ").append(tableName).append(" ").append(tableName);
+		query.append(createKeyRangePredicate(tableName, primaryIdentifierColumnNames, afterKey, null, parameters));
+		appendOrderBy(query, tableName, primaryIdentifierColumnNames);
+		return createLimitedQuery(query.toString(), chunkSize);
+	}
+
+	/**
+	 * Creates a where clause only selecting the records with a primary identifier after the first key, up to and including the second key.
+	 * Composite primary identifiers are compared column by column, as not every database supports comparing row values.
+	 *
+	 * @param afterKey The key before the range, or null if the range is not bounded below.
+	 * @param upToKey The last key of the range, or null if the range is not bounded above.
+	 * @param parameters The key values bound to the predicate are added to these parameters.
+	 */
+	@Nonnull
+	private String createKeyRangePredicate(@Nonnull String tableAlias, @Nonnull List<String> primaryIdentifierColumnNames, @Nullable PrimaryIdentifier afterKey, @Nullable PrimaryIdentifier upToKey, @Nonnull List<Object> parameters)
 	{
-		final CachedResultSetTable recordsInTable = selectAllRecordsFromTableOrderByRevAscending(databaseConnection, auditTableInformation, primaryIdentifierColumnNames);
-		final List<String> columnNames = getColumnNames(recordsInTable);
+		final List<String> predicates = new ArrayList<>();
+		if (afterKey != null)
+		{
+			predicates.add(createKeyComparison(tableAlias, primaryIdentifierColumnNames, afterKey, " > ", false, parameters));
+		}
+		if (upToKey != null)
+		{
+			predicates.add(createKeyComparison(tableAlias, primaryIdentifierColumnNames, upToKey, " < ", true, parameters));
+		}
+		return predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+	}
 
-		final Map<String, List<TableRow>> recordsInTableGroupedById = new HashMap<>();
-		for (int rowIndex = 0; rowIndex < recordsInTable.getRowCount(); rowIndex++)
+	@Nonnull
+	private String createKeyComparison(@Nonnull String tableAlias, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull PrimaryIdentifier key, @Nonnull String operator, boolean inclusive, @Nonnull List<Object> parameters)
+	{
+		final List<String> alternatives = new ArrayList<>();
+		for (int i = 0; i < primaryIdentifierColumnNames.size(); i++)
+		{
+			final StringBuilder alternative = new StringBuilder("(");
+			for (int j = 0; j < i; j++)
+			{
+				alternative.append(tableAlias).append(".").append(primaryIdentifierColumnNames.get(j)).append(" = ? and ");
+				parameters.add(getKeyValue(key, j));
+			}
+			alternative.append(tableAlias).append(".").append(primaryIdentifierColumnNames.get(i)).append(operator).append("?)");
+			parameters.add(getKeyValue(key, i));
+			alternatives.add(alternative.toString());
+		}
+		if (inclusive)
 		{
-			final TableRow tableRow = new TableRow();
-			for (String columnName : columnNames)
+			final List<String> equalities = new ArrayList<>();
+			for (int i = 0; i < primaryIdentifierColumnNames.size(); i++)
 			{
-				tableRow.addColumn(columnName, recordsInTable.getValue(rowIndex, columnName));
+				equalities.add(tableAlias + "." + primaryIdentifierColumnNames.get(i) + " = ?");
+				parameters.add(getKeyValue(key, i));
 			}
+			alternatives.add("(" + String.join(" and ", equalities) + ")");
+		}
+		return "(" + String.join(" or ", alternatives) + ")";
+	}
 
-			final String id = getPrimaryIdentifierAsString(recordsInTable, rowIndex, primaryIdentifierColumnNames);
-			recordsInTableGroupedById.computeIfAbsent(id, k -> new ArrayList<>());
+	@Nonnull
+	private static Object getKeyValue(@Nonnull PrimaryIdentifier key, int index)
+	{
+		final Object value = key.getValue(index);
+		if (value instanceof Number || value instanceof String)
+		{
+			return value;
+		}
+		throw new ValidationException("Primary key value " + value + " is not supported when reading records in chunks, only numeric and textual primary keys are supported.");
+	}
+
+	/**
+	 * Limits the ordered query to its first rows.
+	 */
+	@Nonnull
+	abstract String createLimitedQuery(@Nonnull String orderedQuery, int rowCount);
+
+	@Nonnull
+	private Map<PrimaryIdentifier, List<TableRow>> selectAuditRecordsGroupedByContentPrimaryKey(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull String query, @Nonnull List<?> parameters) throws SQLException, DataSetException
+	{
+		final Map<PrimaryIdentifier, List<TableRow>> recordsInTableGroupedById = createPrimaryIdentifierMap(primaryIdentifierColumnNames);
+		final CompactAuditRows.Layout layout = new CompactAuditRows.Layout(getRevTypeColumnName(), getRevisionTableIdentifierColumnName(), primaryIdentifierColumnNames);
+		try (TableRowCursor recordsInTable = createQueryCursor(databaseConnection, auditTableInformation.getAuditTableName(), query, parameters))
+		{
+			while (recordsInTable.next())
+			{
+				final PrimaryIdentifier id = getPrimaryIdentifier(recordsInTable.getTable(), recordsInTable.getRowIndex(), primaryIdentifierColumnNames);
+				recordsInTableGroupedById.computeIfAbsent(id, k -> new CompactAuditRows(layout));
 
-			final List<TableRow> tableRows = recordsInTableGroupedById.get(id);
-			tableRows.add(tableRow);
+				final List<TableRow> tableRows = recordsInTableGroupedById.get(id);
+				tableRows.add(recordsInTable.getTableRow());
+			}
 		}
 
 		return recordsInTableGroupedById;
 	}
 
 	@Nonnull
-	private CachedResultSetTable selectAllRecordsFromTableOrderByRevAscending(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformationMap, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	@Override
+	public TableRowCursor getAuditRecordsOrderedByPrimaryKeyAndRevision(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	{
+		final List<String> orderByColumnNames = new ArrayList<>(primaryIdentifierColumnNames);
+		orderByColumnNames.add(getRevisionTableIdentifierColumnName());
+
+		final StringBuilder query = new StringBuilder(createAuditTableSelectQueryWithoutOrder(auditTableInformation, primaryIdentifierColumnNames));
+		appendOrderBy(query, auditTableInformation.getAuditTableName(), orderByColumnNames);
+
+		return createQueryCursor(databaseConnection, auditTableInformation.getAuditTableName(), query.toString());
+	}
+
+	void appendOrderBy(@Nonnull StringBuilder query, @Nonnull String tableAlias, @Nonnull List<String> columnNames)
+	{
+		query.append(" order by ");
+		appendColumns(query, tableAlias, columnNames);
+	}
+
+	/**
+	 * @param predicate Where clause restricting the selected records, may be empty.
+	 */
+	@Nonnull
+	private String createAuditTableSelectQuery(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull String predicate)
+	{
+		final StringBuilder query = new StringBuilder(createAuditTableSelectQueryWithoutOrder(auditTableInformation, primaryIdentifierColumnNames));
+		query.append(predicate);
+		query.append(" order by ");
+		query.append(auditTableInformation.getAuditTableName());
+		query.append(".");
+		query.append(getRevisionTableIdentifierColumnName());
+
+		return query.toString();
+	}
+
+	@Nonnull
+	private String createAuditTableSelectQueryWithoutOrder(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames)
+	{
+		return "select * from " + createAuditTableFromClause(auditTableInformation, primaryIdentifierColumnNames);
+	}
+
+	/**
+	 * Creates a where clause only selecting the records of entities that have a revision after the given revision in the audit table.
+	 */
+	@Nonnull
+	private String createChangedAfterRevisionPredicate(@Nonnull String tableAlias, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, long revision, @Nonnull List<Object> parameters)
+	{
+		final StringBuilder predicate = new StringBuilder(" where (");
+		appendColumns(predicate, tableAlias, primaryIdentifierColumnNames);
+		predicate.append(") in (select ");
+		appendColumns(predicate, "changed", primaryIdentifierColumnNames);
+		predicate.append(" from ").append(auditTableInformation.getAuditTableName()).append(" changed");
+		predicate.append(" where changed.").append(getRevisionTableIdentifierColumnName()).append(" > ?)");
+		parameters.add(revision);
+		return predicate.toString();
+	}
+
+	/**
+	 * Creates a where clause only selecting the records of entities whose primary identifier hashes into the sample.
+	 * As the hash only depends on the primary identifier and seed, the content table and audit table select the same entities.
+	 */
+	@Nonnull
+	private String createSamplePredicate(@Nonnull String tableAlias, @Nonnull List<String> primaryIdentifierColumnNames, double fraction, long seed, @Nonnull List<Object> parameters)
+	{
+		parameters.add(String.valueOf(seed));
+		parameters.add(Math.max(1, Math.min(SAMPLE_BUCKETS, Math.round(fraction * SAMPLE_BUCKETS))));
+		return " where " + createSampleBucketExpression(tableAlias, primaryIdentifierColumnNames) + " < ?";
+	}
+
+	/**
+	 * Creates an expression hashing the given columns together with the seed into a bucket from 0 up to {@link #SAMPLE_BUCKETS}.
+	 * The seed is bound as text to the only parameter marker of the expression.
+	 */
+	@Nonnull
+	abstract String createSampleBucketExpression(@Nonnull String tableAlias, @Nonnull List<String> columnNames);
+
+	@Override
+	public long getEntityCount(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	{
+		final StringBuilder query = new StringBuilder("select count(*) ENTITY_COUNT from (select distinct ");
+		appendColumns(query, auditTableInformation.getAuditTableName(), primaryIdentifierColumnNames);
+		query.append(" from ").append(auditTableInformation.getAuditTableName()).append(" ").append(auditTableInformation.getAuditTableName()).append(") entities");
+		try (TableRowCursor cursor = createQueryCursor(auditTableInformation.getAuditTableName(), query.toString()))
+		{
+			return cursor.next() ? ((Number) cursor.getValue("ENTITY_COUNT")).longValue() : 0;
+		}
+	}
+
+	@CheckForNull
+	@Override
+	public Long getHighestRevision(@Nonnull AuditTableInformation auditTableInformation) throws SQLException, DataSetException
 	{
-		final String query = createAuditTableSelectQuery(auditTableInformationMap, primaryIdentifierColumnNames);
-		return (CachedResultSetTable) databaseConnection.createQueryTable(auditTableInformationMap.getAuditTableName(), query);
+		final String query = "select max(" + getRevisionTableIdentifierColumnName() + ") HIGHEST_REVISION from " + auditTableInformation.getAuditTableName();
+		try (TableRowCursor cursor = createQueryCursor(auditTableInformation.getAuditTableName(), query))
+		{
+			final Object highestRevision = cursor.next() ? cursor.getValue("HIGHEST_REVISION") : null;
+			return highestRevision == null ? null : ((Number) highestRevision).longValue();
+		}
 	}
 
+	/**
+	 * Creates the tables to select from for the given audit table, joined with the audit tables of its parents on primary identifier and revision.
+	 */
 	@Nonnull
-	private String createAuditTableSelectQuery(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames)
+	String createAuditTableFromClause(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames)
 	{
-		final String revisionTableIdentifierColumnName = getRevisionTableIdentifierColumnName();
 		final List<String> primaryIdentifierColumnsAuditTable = new ArrayList<>(primaryIdentifierColumnNames);
-		primaryIdentifierColumnsAuditTable.add(revisionTableIdentifierColumnName);
+		primaryIdentifierColumnsAuditTable.add(getRevisionTableIdentifierColumnName());
 
-		final StringBuilder query = new StringBuilder("select * from ");
-		query.append(auditTableInformation.getAuditTableName());
+		final StringBuilder query = new StringBuilder(auditTableInformation.getAuditTableName());
 		query.append(" ");
 		query.append(auditTableInformation.getAuditTableName());
 		query.append(" ");
@@ -196,12 +685,6 @@ public abstract class AbstractQueries implements DatabaseQueries
 		{
 			appendQueryWithJoinsOnParentAuditTables(query, auditTableParent, auditTableInformation.getAuditTableName(), primaryIdentifierColumnsAuditTable);
 		}
-
-		query.append(" order by ");
-		query.append(auditTableInformation.getAuditTableName());
-		query.append(".");
-		query.append(revisionTableIdentifierColumnName);
-
 		return query.toString();
 	}
 
@@ -238,21 +721,529 @@ public abstract class AbstractQueries implements DatabaseQueries
 
 	@Nonnull
 	@Override
-	public String getPrimaryIdentifierAsString(@Nonnull CachedResultSetTable recordsInContentTable, int rowIndex, @Nonnull List<String> primaryIdentifierColumnNames) throws DataSetException
+	public List<PrimaryIdentifier> getIdentifiersWithInvalidHistory(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull Collection<PrimaryIdentifier> identifiersWithoutRevType) throws SQLException, DataSetException
+	{
+		final List<PrimaryIdentifier> identifiersWithInvalidHistory = new ArrayList<>();
+		try (TableRowCursor cursor = createQueryCursor(auditTableInformation.getAuditTableName(), createInvalidHistoryQuery(auditTableInformation, primaryIdentifierColumnNames)))
+		{
+			while (cursor.next())
+			{
+				final PrimaryIdentifier identifier = getPrimaryIdentifier(cursor.getTable(), cursor.getRowIndex(), primaryIdentifierColumnNames);
+				final Number firstRevisionWithoutRevType = (Number) cursor.getValue("first_missing_revtype");
+				final Number firstInvalidRevision = (Number) cursor.getValue("first_invalid_rev");
+
+				// The history is only validated up to the first revision without revision type.
+				if (firstRevisionWithoutRevType != null && (firstInvalidRevision == null || firstRevisionWithoutRevType.longValue() < firstInvalidRevision.longValue()))
+				{
+					identifiersWithoutRevType.add(identifier);
+				}
+				else
+				{
+					identifiersWithInvalidHistory.add(identifier);
+				}
+			}
+		}
+		return identifiersWithInvalidHistory;
+	}
+
+	/**
+	 * Creates a query selecting, for each primary identifier with an invalid history or a revision without revision type, the first revision of either.
+	 * The first revision of an entity is recognized by the absence of a previous revision, as the previous revision type may also be missing.
+	 */
+	@Nonnull
+	String createInvalidHistoryQuery(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames)
+	{
+		final String auditTableName = auditTableInformation.getAuditTableName();
+		final String revType = getRootAuditTableName(auditTableInformation) + "." + getRevTypeColumnName();
+		final String revision = auditTableName + "." + getRevisionTableIdentifierColumnName();
+
+		final StringBuilder window = new StringBuilder(" over (partition by ");
+		appendColumns(window, auditTableName, primaryIdentifierColumnNames);
+		window.append(" order by ").append(revision).append(")");
+
+		// An entity exists after any revision other than a Remove revision, only an Add revision may follow on a non existing entity.
+		//@formatter:off
+		final String invalidRevision = "(history.revtype <> " + RevisionConstants.ADD_REVISION + " and (history.previous_rev is null or history.previous_revtype = " + RevisionConstants.REMOVE_REVISION + "))"
+				+ " or (history.revtype = " + RevisionConstants.ADD_REVISION + " and history.previous_revtype <> " + RevisionConstants.REMOVE_REVISION + ")";
+		//@formatter:on
+
+		final StringBuilder query = new StringBuilder("select ");
+		appendColumns(query, "history", primaryIdentifierColumnNames);
+		query.append(", min(case when history.revtype is null then history.rev end) first_missing_revtype");
+		query.append(", min(case when ").append(invalidRevision).append(" then history.rev end) first_invalid_rev");
+		query.append(" from (select ");
+		appendColumns(query, auditTableName, primaryIdentifierColumnNames);
+		query.append(", ").append(revision).append(" rev");
+		query.append(", ").append(revType).append(" revtype");
+		query.append(", lag(").append(revision).append(")").append(window).append(" previous_rev");
+		query.append(", lag(").append(revType).append(")").append(window).append(" previous_revtype");
+		query.append(" from ");
+		query.append(createAuditTableFromClause(auditTableInformation, primaryIdentifierColumnNames));
+		query.append(") history");
+		query.append(" where history.revtype is null or ").append(invalidRevision);
+		query.append(" group by ");
+		appendColumns(query, "history", primaryIdentifierColumnNames);
+		appendOrderBy(query, "history", primaryIdentifierColumnNames);
+		return query.toString();
+	}
+
+	@Nonnull
+	@Override
+	public List<EntityHistory> getContentRecordsWithInvalidLatestRevision(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	{
+		final List<String> contentTableNames = new ArrayList<>();
+		final List<String> auditTableNames = new ArrayList<>();
+		for (AuditTableInformation current = auditTableInformation; current != null; current = current.getAuditTableParent())
+		{
+			contentTableNames.add(current.getContentTableName());
+			auditTableNames.add(current.getAuditTableName());
+		}
+		final Map<String, SelectedColumn> contentColumns = selectColumnsOfTables(contentTableNames);
+		final Map<String, SelectedColumn> auditColumns = selectColumnsOfTables(auditTableNames);
+
+		final String contentTableName = auditTableInformation.getContentTableName();
+		final String revType = "latest." + getRevTypeColumnName();
+		final String revision = "latest." + getRevisionTableIdentifierColumnName();
+		final Set<String> columnNamesNotInAuditTable = auditTableInformation.getColumnNamesPresentInContentTableButNotInAuditTable();
+
+		final StringBuilder query = new StringBuilder("select ");
+		appendColumns(query, contentTableName, primaryIdentifierColumnNames);
+		query.append(", ").append(revType).append(" latest_revtype, ").append(revision).append(" latest_rev");
+
+		final StringBuilder differences = new StringBuilder();
+		int columnIndex = 0;
+		for (Map.Entry<String, SelectedColumn> contentColumn : contentColumns.entrySet())
+		{
+			final String actualValue = contentColumn.getValue().tableAlias + "." + contentColumn.getValue().columnName;
+			final boolean mayBeMissingInAuditTable = columnNamesNotInAuditTable.contains(contentColumn.getKey());
+			final SelectedColumn auditColumn = auditColumns.get(contentColumn.getKey());
+
+			query.append(", ").append(actualValue).append(" actual_").append(columnIndex);
+			if (auditColumn != null)
+			{
+				final String auditValue = "latest." + auditColumn.columnName;
+				query.append(", ").append(auditValue).append(" audit_").append(columnIndex);
+
+				final boolean comparableInDatabase = contentColumn.getValue().comparableInDatabase && auditColumn.comparableInDatabase;
+				differences.append(" or ").append(createDifferencePredicate(actualValue, auditValue, mayBeMissingInAuditTable, comparableInDatabase));
+			}
+			else if (!mayBeMissingInAuditTable)
+			{
+				differences.append(" or ").append(actualValue).append(" is not null");
+			}
+			columnIndex++;
+		}
+
+		query.append(" from ");
+		query.append(createContentTableFromClause(auditTableInformation, primaryIdentifierColumnNames));
+		query.append(" left join (");
+		query.append(createLatestRevisionQuery(auditTableInformation, primaryIdentifierColumnNames, auditColumns.values()));
+		query.append(") latest on ");
+		for (int i = 0; i < primaryIdentifierColumnNames.size(); i++)
+		{
+			if (i > 0)
+			{
+				query.append(" and ");
+			}
+			query.append("latest.").append(primaryIdentifierColumnNames.get(i)).append(" = ").append(contentTableName).append(".").append(primaryIdentifierColumnNames.get(i));
+		}
+		query.append(" where ").append(revision).append(" is null or ").append(revType).append(" = ").append(RevisionConstants.REMOVE_REVISION);
+		query.append(differences);
+		appendOrderBy(query, contentTableName, primaryIdentifierColumnNames);
+
+		final List<String> contentRowColumnNames = new ArrayList<>();
+		final List<String> auditRowColumnNames = new ArrayList<>();
+		for (Map.Entry<String, SelectedColumn> contentColumn : contentColumns.entrySet())
+		{
+			contentRowColumnNames.add(contentColumn.getValue().columnName);
+			if (auditColumns.containsKey(contentColumn.getKey()))
+			{
+				auditRowColumnNames.add(contentColumn.getValue().columnName);
+			}
+		}
+		auditRowColumnNames.add(getRevTypeColumnName());
+		auditRowColumnNames.add(getRevisionTableIdentifierColumnName());
+		final TableRowSchema contentRowSchema = new TableRowSchema(contentRowColumnNames);
+		final TableRowSchema auditRowSchema = new TableRowSchema(auditRowColumnNames);
+
+		final List<EntityHistory> entityHistories = new ArrayList<>();
+		try (TableRowCursor cursor = createQueryCursor(contentTableName, query.toString()))
+		{
+			while (cursor.next())
+			{
+				final Object[] contentValues = new Object[contentRowSchema.size()];
+				final Object[] auditValues = new Object[auditRowSchema.size()];
+				columnIndex = 0;
+				for (Map.Entry<String, SelectedColumn> contentColumn : contentColumns.entrySet())
+				{
+					final String columnName = contentColumn.getValue().columnName;
+					contentValues[contentRowSchema.indexOf(columnName)] = cursor.getValue("actual_" + columnIndex);
+					if (auditColumns.containsKey(contentColumn.getKey()))
+					{
+						auditValues[auditRowSchema.indexOf(columnName)] = cursor.getValue("audit_" + columnIndex);
+					}
+					columnIndex++;
+				}
+
+				final Object latestRevision = cursor.getValue("latest_rev");
+				auditValues[auditRowSchema.indexOf(getRevTypeColumnName())] = cursor.getValue("latest_revtype");
+				auditValues[auditRowSchema.indexOf(getRevisionTableIdentifierColumnName())] = latestRevision;
+
+				final PrimaryIdentifier identifier = getPrimaryIdentifier(cursor.getTable(), cursor.getRowIndex(), primaryIdentifierColumnNames);
+				final TableRow auditRow = new TableRow(auditRowSchema, auditValues);
+				entityHistories.add(new EntityHistory(identifier, latestRevision == null ? Collections.emptyList() : Collections.singletonList(auditRow), new TableRow(contentRowSchema, contentValues)));
+			}
+		}
+		return entityHistories;
+	}
+
+	@Nonnull
+	@Override
+	public List<PrimaryIdentifier> getIdentifiersWithAddOrModifyLatestRevisionWithoutContent(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull Collection<PrimaryIdentifier> identifiersWithoutRevType) throws SQLException, DataSetException
 	{
-		List<String> primaryIdentifierValue = new ArrayList<>(primaryIdentifierColumnNames.size());
+		final List<PrimaryIdentifier> identifiersWithoutContent = new ArrayList<>();
+		try (TableRowCursor cursor = createQueryCursor(auditTableInformation.getAuditTableName(), createLatestRevisionWithoutContentQuery(auditTableInformation, primaryIdentifierColumnNames)))
+		{
+			while (cursor.next())
+			{
+				final PrimaryIdentifier identifier = getPrimaryIdentifier(cursor.getTable(), cursor.getRowIndex(), primaryIdentifierColumnNames);
+				if (cursor.getValue("latest_revtype") == null)
+				{
+					identifiersWithoutRevType.add(identifier);
+				}
+				else
+				{
+					identifiersWithoutContent.add(identifier);
+				}
+			}
+		}
+		return identifiersWithoutContent;
+	}
+
+	/**
+	 * Creates a query selecting the primary identifiers of which the latest revision is an Add or Modify revision without a content record, or has no revision type.
+	 */
+	@Nonnull
+	String createLatestRevisionWithoutContentQuery(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames)
+	{
+		final String contentTableName = auditTableInformation.getContentTableName();
+		final List<SelectedColumn> auditColumns = new ArrayList<>();
 		for (String primaryIdentifierColumnName : primaryIdentifierColumnNames)
 		{
-			final Object identifierValue = recordsInContentTable.getValue(rowIndex, StringUtils.upperCase(primaryIdentifierColumnName));
-			if (identifierValue == null)
+			auditColumns.add(new SelectedColumn(auditTableInformation.getAuditTableName(), primaryIdentifierColumnName));
+		}
+		auditColumns.add(new SelectedColumn(getRootAuditTableName(auditTableInformation), getRevTypeColumnName()));
+		final String latestRevType = "latest." + getRevTypeColumnName();
+
+		final StringBuilder query = new StringBuilder("select ");
+		appendColumns(query, "latest", primaryIdentifierColumnNames);
+		query.append(", ").append(latestRevType).append(" latest_revtype");
+		query.append(" from (");
+		query.append(createLatestRevisionQuery(auditTableInformation, primaryIdentifierColumnNames, auditColumns));
+		query.append(") latest where ").append(latestRevType).append(" is null or (").append(latestRevType).append(" <> ").append(RevisionConstants.REMOVE_REVISION);
+		query.append(" and not exists (select 1 from ");
+		query.append(createContentTableFromClause(auditTableInformation, primaryIdentifierColumnNames));
+		query.append(" where ");
+		for (int i = 0; i < primaryIdentifierColumnNames.size(); i++)
+		{
+			if (i > 0)
+			{
+				query.append(" and ");
+			}
+			query.append(contentTableName).append(".").append(primaryIdentifierColumnNames.get(i)).append(" = latest.").append(primaryIdentifierColumnNames.get(i));
+		}
+		query.append("))");
+		appendOrderBy(query, "latest", primaryIdentifierColumnNames);
+		return query.toString();
+	}
+
+	@Nonnull
+	@Override
+	public Map<PrimaryIdentifier, List<Object>> getRemoveRevisionsWithNullableColumnsFilled(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	{
+		final String auditTableName = auditTableInformation.getAuditTableName();
+		final List<String> auditTableNames = new ArrayList<>();
+		for (AuditTableInformation current = auditTableInformation; current != null; current = current.getAuditTableParent())
+		{
+			auditTableNames.add(current.getAuditTableName());
+		}
+		final Set<String> nonnullColumns = getAllNonnullColumns(auditTableName);
+
+		final StringBuilder nullableColumnFilled = new StringBuilder();
+		for (SelectedColumn column : selectColumnsOfTables(auditTableNames).values())
+		{
+			if (nonnullColumns.contains(column.columnName))
+			{
+				continue;
+			}
+
+			nullableColumnFilled.append(nullableColumnFilled.length() == 0 ? "(" : " or ");
+			nullableColumnFilled.append(column.tableAlias).append(".").append(column.columnName).append(" is not null");
+		}
+
+		final Map<PrimaryIdentifier, List<Object>> revisionsByIdentifier = new LinkedHashMap<>();
+		if (nullableColumnFilled.length() == 0)
+		{
+			return revisionsByIdentifier;
+		}
+		nullableColumnFilled.append(")");
+
+		final List<String> selectedColumnNames = new ArrayList<>(primaryIdentifierColumnNames);
+		selectedColumnNames.add(getRevisionTableIdentifierColumnName());
+
+		final StringBuilder query = new StringBuilder("select ");
+		appendColumns(query, auditTableName, selectedColumnNames);
+		query.append(" from ");
+		query.append(createAuditTableFromClause(auditTableInformation, primaryIdentifierColumnNames));
+		query.append(" where ").append(getRootAuditTableName(auditTableInformation)).append(".").append(getRevTypeColumnName()).append(" = ").append(RevisionConstants.REMOVE_REVISION);
+		query.append(" and ").append(nullableColumnFilled);
+		appendOrderBy(query, auditTableName, selectedColumnNames);
+
+		try (TableRowCursor cursor = createQueryCursor(auditTableName, query.toString()))
+		{
+			while (cursor.next())
+			{
+				final PrimaryIdentifier identifier = getPrimaryIdentifier(cursor.getTable(), cursor.getRowIndex(), primaryIdentifierColumnNames);
+				revisionsByIdentifier.computeIfAbsent(identifier, k -> new ArrayList<>()).add(cursor.getValue(getRevisionTableIdentifierColumnName()));
+			}
+		}
+		return revisionsByIdentifier;
+	}
+
+	/**
+	 * Creates a predicate which is true if the actual value may differ from the audit value.
+	 * Values the database cannot compare are compared after reading the row, the predicate then only excludes rows in which both values are null.
+	 *
+	 * @param mayBeMissingInAuditTable Whether a null audit value is considered equal to any actual value.
+	 */
+	@Nonnull
+	String createDifferencePredicate(@Nonnull String actualValue, @Nonnull String auditValue, boolean mayBeMissingInAuditTable, boolean comparableInDatabase)
+	{
+		if (!comparableInDatabase)
+		{
+			return mayBeMissingInAuditTable ? auditValue + " is not null" : "(" + actualValue + " is not null or " + auditValue + " is not null)";
+		}
+		if (mayBeMissingInAuditTable)
+		{
+			return "(" + auditValue + " is not null and " + createIsDistinctFromPredicate(actualValue, auditValue) + ")";
+		}
+		return createIsDistinctFromPredicate(actualValue, auditValue);
+	}
+
+	/**
+	 * @return False if the database cannot compare values of the column, such as large objects.
+	 */
+	boolean isComparableInDatabase(@Nonnull Column column)
+	{
+		switch (column.getDataType().getSqlType())
+		{
+			case Types.BLOB:
+			case Types.CLOB:
+			case Types.NCLOB:
+			case Types.SQLXML:
+			case Types.LONGVARBINARY:
+			case Types.LONGVARCHAR:
+			case Types.LONGNVARCHAR:
+				return false;
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Creates a query selecting the given audit columns of only the latest revision for each primary identifier.
+	 */
+	@Nonnull
+	String createLatestRevisionQuery(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull Collection<SelectedColumn> auditColumns)
+	{
+		final String auditTableName = auditTableInformation.getAuditTableName();
+
+		final StringBuilder query = new StringBuilder("select * from (select ");
+		appendSelectedColumns(query, auditColumns);
+		query.append(", row_number() over (partition by ");
+		appendColumns(query, auditTableName, primaryIdentifierColumnNames);
+		query.append(" order by ").append(auditTableName).append(".").append(getRevisionTableIdentifierColumnName()).append(" desc) revision_rank from ");
+		query.append(createAuditTableFromClause(auditTableInformation, primaryIdentifierColumnNames));
+		query.append(") ranked where revision_rank = 1");
+		return query.toString();
+	}
+
+	/**
+	 * Creates a predicate which is true if both values differ, where null is considered equal to null.
+	 */
+	@Nonnull
+	String createIsDistinctFromPredicate(@Nonnull String value, @Nonnull String otherValue)
+	{
+		return "(" + value + " <> " + otherValue + " or (" + value + " is null and " + otherValue + " is not null) or (" + value + " is not null and " + otherValue + " is null))";
+	}
+
+	void appendSelectedColumns(@Nonnull StringBuilder query, @Nonnull Collection<SelectedColumn> columns)
+	{
+		boolean first = true;
+		for (SelectedColumn column : columns)
+		{
+			if (!first)
+			{
+				query.append(", ");
+			}
+			query.append(column.tableAlias).append(".").append(column.columnName);
+			first = false;
+		}
+	}
+
+	/**
+	 * Determines the columns of the given tables, identified by their upper case name. Columns present in multiple tables are selected from the first table.
+	 */
+	@Nonnull
+	private Map<String, SelectedColumn> selectColumnsOfTables(@Nonnull List<String> tableNames) throws SQLException, DataSetException
+	{
+		final Map<String, SelectedColumn> columns = new LinkedHashMap<>();
+		for (String tableName : tableNames)
+		{
+			try (TableRowCursor cursor = createQueryCursor(tableName, "select * from " + tableName + " where 1 = 0"))
+			{
+				for (Column column : cursor.getTable().getTableMetaData().getColumns())
+				{
+					columns.putIfAbsent(column.getColumnName().toUpperCase(), new SelectedColumn(tableName, column.getColumnName(), isComparableInDatabase(column)));
+				}
+			}
+		}
+		return columns;
+	}
+
+	static final class SelectedColumn
+	{
+		private final String tableAlias;
+		private final String columnName;
+		private final boolean comparableInDatabase;
+
+		private SelectedColumn(@Nonnull String tableAlias, @Nonnull String columnName)
+		{
+			this(tableAlias, columnName, true);
+		}
+
+		private SelectedColumn(@Nonnull String tableAlias, @Nonnull String columnName, boolean comparableInDatabase)
+		{
+			this.tableAlias = tableAlias;
+			this.columnName = columnName;
+			this.comparableInDatabase = comparableInDatabase;
+		}
+	}
+
+	/**
+	 * Reads the primary identifiers returned by the query.
+	 */
+	@Nonnull
+	List<PrimaryIdentifier> selectPrimaryIdentifiers(@Nonnull String tableName, @Nonnull String query, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	{
+		try (TableRowCursor cursor = createQueryCursor(tableName, query))
+		{
+			return readPrimaryIdentifiers(cursor, primaryIdentifierColumnNames);
+		}
+	}
+
+	/**
+	 * Reads the primary identifiers returned by the query, using the given connection.
+	 *
+	 * @param parameters The values bound to the parameter markers of the query, in order of appearance.
+	 */
+	@Nonnull
+	List<PrimaryIdentifier> selectPrimaryIdentifiers(@Nonnull IDatabaseConnection databaseConnection, @Nonnull String tableName, @Nonnull String query, @Nonnull List<?> parameters, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException
+	{
+		try (TableRowCursor cursor = createQueryCursor(databaseConnection, tableName, query, parameters))
+		{
+			return readPrimaryIdentifiers(cursor, primaryIdentifierColumnNames);
+		}
+	}
+
+	@Nonnull
+	private List<PrimaryIdentifier> readPrimaryIdentifiers(@Nonnull TableRowCursor cursor, @Nonnull List<String> primaryIdentifierColumnNames) throws DataSetException
+	{
+		final List<PrimaryIdentifier> identifiers = new ArrayList<>();
+		while (cursor.next())
+		{
+			identifiers.add(getPrimaryIdentifier(cursor.getTable(), cursor.getRowIndex(), primaryIdentifierColumnNames));
+		}
+		return identifiers;
+	}
+
+	/**
+	 * The revision type is only stored in the audit table of the top most parent entity.
+	 */
+	@Nonnull
+	String getRootAuditTableName(@Nonnull AuditTableInformation auditTableInformation)
+	{
+		AuditTableInformation root = auditTableInformation;
+		while (root.getAuditTableParent() != null)
+		{
+			root = root.getAuditTableParent();
+		}
+		return root.getAuditTableName();
+	}
+
+	void appendColumns(@Nonnull StringBuilder query, @Nonnull String tableAlias, @Nonnull List<String> columnNames)
+	{
+		for (int i = 0; i < columnNames.size(); i++)
+		{
+			if (i > 0)
+			{
+				query.append(", ");
+			}
+
+			query.append(tableAlias);
+			query.append(".");
+			query.append(columnNames.get(i));
+		}
+	}
+
+	@Nonnull
+	@Override
+	public PrimaryIdentifier getPrimaryIdentifier(@Nonnull ITable records, int rowIndex, @Nonnull List<String> primaryIdentifierColumnNames) throws DataSetException
+	{
+		final Object[] primaryIdentifierValues = new Object[primaryIdentifierColumnNames.size()];
+		for (int i = 0; i < primaryIdentifierValues.length; i++)
+		{
+			primaryIdentifierValues[i] = records.getValue(rowIndex, StringUtils.upperCase(primaryIdentifierColumnNames.get(i)));
+		}
+		return new PrimaryIdentifier(primaryIdentifierValues);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[schemaMetadata=" + schemaMetadata + "]";
+	}
+
+	/**
+	 * Returns its statement to the {@link StatementCache} once closed, instead of closing it.
+	 */
+	private static final class CachedStatementResultSetTable extends ForwardOnlyResultSetTable
+	{
+		private final StatementCache statementCache;
+		private final String query;
+		private final PreparedStatement statement;
+
+		private CachedStatementResultSetTable(@Nonnull ITableMetaData metaData, @Nonnull ResultSet resultSet, @Nonnull StatementCache statementCache, @Nonnull String query, @Nonnull PreparedStatement statement) throws SQLException, DataSetException
+		{
+			super(metaData, resultSet);
+			this.statementCache = statementCache;
+			this.query = query;
+			this.statement = statement;
+		}
+
+		@Override
+		public void close() throws DataSetException
+		{
+			try
 			{
-				primaryIdentifierValue.add(null);
+				super.close();
+				statementCache.release(query, statement);
 			}
-			else
+			catch (DataSetException | RuntimeException e)
 			{
-				primaryIdentifierValue.add(identifierValue.toString());
+				statementCache.discard(statement);
+				throw e;
 			}
 		}
-		return StringUtils.join(primaryIdentifierValue, "-");
 	}
 }
\ No newline at end of file
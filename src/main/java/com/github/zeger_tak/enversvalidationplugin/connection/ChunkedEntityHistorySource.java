@@ -0,0 +1,114 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.EntityHistory;
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+import com.github.zeger_tak.enversvalidationplugin.entities.TableRow;
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+import org.dbunit.dataset.DataSetException;
+
+/**
+ * Reads the content table and the audit table in chunks of consecutive primary keys, using a short query per table for each chunk.
+ * The key range of the next chunk starts after the last key of the previous chunk, so no query has to stay open while validating.
+ * Only the records of the current chunk are held in memory, a chunk that fails to be read is read again without restarting the table.
+ */
+public class ChunkedEntityHistorySource implements EntityHistorySource
+{
+	/**
+	 * The number of times a chunk is read before the failure is reported, as a chunk may fail because of concurrent changes to the tables.
+	 */
+	private static final int CHUNK_READ_ATTEMPTS = 3;
+
+	private final ConnectionProviderInstance connectionProvider;
+	private final AuditTableInformation auditTableInformation;
+	private final List<String> primaryIdentifierColumnNames;
+	private final int chunkSize;
+
+	/**
+	 * @param chunkSize The maximum number of entities read at once.
+	 */
+	public ChunkedEntityHistorySource(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, int chunkSize)
+	{
+		this.connectionProvider = connectionProvider;
+		this.auditTableInformation = auditTableInformation;
+		this.primaryIdentifierColumnNames = primaryIdentifierColumnNames;
+		this.chunkSize = chunkSize;
+	}
+
+	@Nonnull
+	@Override
+	public EntityHistoryCursor open()
+	{
+		return new ChunkedEntityHistoryCursor();
+	}
+
+	private class ChunkedEntityHistoryCursor implements EntityHistoryCursor
+	{
+		private EntityHistoryCursor chunk = new InMemoryEntityHistorySource<>(Collections.emptyMap(), Collections.emptyMap()).open();
+		private PrimaryIdentifier lastKeyRead;
+		private boolean lastChunkRead;
+
+		@Override
+		public boolean next()
+		{
+			while (!chunk.next())
+			{
+				chunk.close();
+				if (lastChunkRead)
+				{
+					return false;
+				}
+				chunk = readNextChunk();
+			}
+			return true;
+		}
+
+		@Nonnull
+		private EntityHistoryCursor readNextChunk()
+		{
+			for (int attempt = 1; ; attempt++)
+			{
+				try (PooledConnection connection = connectionProvider.borrowConnection())
+				{
+					final DatabaseQueries databaseQueries = connectionProvider.getQueries();
+					final PrimaryIdentifier upperBound = databaseQueries.getChunkUpperBound(connection.getDatabaseConnection(), auditTableInformation, primaryIdentifierColumnNames, lastKeyRead, chunkSize);
+					final RecordSelection keyRange = RecordSelection.keyRange(lastKeyRead, upperBound);
+					final Map<PrimaryIdentifier, TableRow> recordsInContentTable = databaseQueries.getContentRecords(connection.getDatabaseConnection(), auditTableInformation, primaryIdentifierColumnNames, keyRange);
+					final Map<PrimaryIdentifier, List<TableRow>> recordsInAuditTable = databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(connection.getDatabaseConnection(), auditTableInformation, primaryIdentifierColumnNames, keyRange);
+
+					lastKeyRead = upperBound;
+					lastChunkRead = upperBound == null;
+					return new InMemoryEntityHistorySource<>(recordsInAuditTable, recordsInContentTable).open();
+				}
+				catch (SQLException | DataSetException e)
+				{
+					if (attempt == CHUNK_READ_ATTEMPTS)
+					{
+						throw new ValidationException("Unable to read the records of " + auditTableInformation.getAuditTableName() + " and " + auditTableInformation.getContentTableName() + " after key " + lastKeyRead + ".", e);
+					}
+				}
+			}
+		}
+
+		@Nonnull
+		@Override
+		public EntityHistory getEntityHistory()
+		{
+			return chunk.getEntityHistory();
+		}
+
+		@Override
+		public void close()
+		{
+			chunk.close();
+			lastChunkRead = true;
+		}
+	}
+}
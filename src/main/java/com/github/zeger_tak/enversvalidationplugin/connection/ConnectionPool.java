@@ -0,0 +1,215 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.exceptions.DatabaseNotSupportedException;
+import org.dbunit.database.IDatabaseConnection;
+
+/**
+ * Bounded pool of database connections, which are opened when needed and kept open until the pool is closed.
+ *
+ * A thread holds at most one connection: borrowing again while holding a connection returns that same connection.
+ * This way cursors opened by the same thread share their connection and transaction, as they did before connections were pooled.
+ */
+public class ConnectionPool implements AutoCloseable
+{
+	private final Callable<IDatabaseConnection> connectionFactory;
+	private final int maximumSize;
+	private final Semaphore permits;
+	private final Deque<IDatabaseConnection> idleConnections = new ArrayDeque<>();
+	private final List<IDatabaseConnection> allConnections = new ArrayList<>();
+	private final ThreadLocal<PooledConnection> borrowedConnections = new ThreadLocal<>();
+
+	private final AtomicInteger activeCount = new AtomicInteger();
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong waitTimeNanos = new AtomicLong();
+
+	ConnectionPool(@Nonnull Callable<IDatabaseConnection> connectionFactory, int maximumSize)
+	{
+		this.connectionFactory = connectionFactory;
+		this.maximumSize = maximumSize;
+		permits = new Semaphore(maximumSize, true);
+	}
+
+	/**
+	 * Waits until a connection is available if all connections are borrowed by other threads.
+	 *
+	 * @return The connection, to be returned to the pool by closing it.
+	 */
+	@Nonnull
+	public PooledConnection borrow()
+	{
+		final PooledConnection borrowedConnection = borrowedConnections.get();
+		if (borrowedConnection != null)
+		{
+			borrowedConnection.retain();
+			return borrowedConnection;
+		}
+
+		final long waitStart = System.nanoTime();
+		permits.acquireUninterruptibly();
+		waitTimeNanos.addAndGet(System.nanoTime() - waitStart);
+
+		IDatabaseConnection connection;
+		synchronized (this)
+		{
+			connection = idleConnections.poll();
+		}
+		if (connection == null)
+		{
+			connection = openConnection();
+		}
+
+		activeCount.incrementAndGet();
+		borrowCount.incrementAndGet();
+		final PooledConnection pooledConnection = new PooledConnection(this, connection);
+		borrowedConnections.set(pooledConnection);
+		return pooledConnection;
+	}
+
+	@Nonnull
+	private IDatabaseConnection openConnection()
+	{
+		final IDatabaseConnection connection;
+		try
+		{
+			connection = connectionFactory.call();
+		}
+		catch (Exception e)
+		{
+			permits.release();
+			throw new DatabaseNotSupportedException("Database connection could not be established.", e);
+		}
+
+		synchronized (this)
+		{
+			allConnections.add(connection);
+		}
+		return connection;
+	}
+
+	/**
+	 * Adds an already opened connection to the idle connections.
+	 */
+	synchronized void addIdleConnection(@Nonnull IDatabaseConnection connection)
+	{
+		allConnections.add(connection);
+		idleConnections.push(connection);
+	}
+
+	/**
+	 * Ends the transaction of a connection without auto commit before it becomes idle, so it does not keep its snapshot open while idle nor pass it on to the next thread.
+	 * A connection of which the transaction could not be ended is closed instead.
+	 */
+	void release(@Nonnull PooledConnection pooledConnection)
+	{
+		borrowedConnections.remove();
+		final IDatabaseConnection connection = pooledConnection.getDatabaseConnection();
+		final boolean transactionEnded = endTransaction(connection);
+		synchronized (this)
+		{
+			if (transactionEnded)
+			{
+				idleConnections.push(connection);
+			}
+			else
+			{
+				allConnections.remove(connection);
+			}
+		}
+		if (!transactionEnded)
+		{
+			closeQuietly(connection);
+		}
+		activeCount.decrementAndGet();
+		permits.release();
+	}
+
+	private static boolean endTransaction(@Nonnull IDatabaseConnection connection)
+	{
+		try
+		{
+			final Connection jdbcConnection = connection.getConnection();
+			if (!jdbcConnection.getAutoCommit())
+			{
+				// Only queries are executed, so there is nothing to commit.
+				jdbcConnection.rollback();
+			}
+			return true;
+		}
+		catch (SQLException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * @return The number of connections currently borrowed.
+	 */
+	public int getActiveCount()
+	{
+		return activeCount.get();
+	}
+
+	/**
+	 * @return The number of open connections not currently borrowed.
+	 */
+	public synchronized int getIdleCount()
+	{
+		return idleConnections.size();
+	}
+
+	/**
+	 * @return The number of times a connection was borrowed by a thread not already holding one.
+	 */
+	public long getBorrowCount()
+	{
+		return borrowCount.get();
+	}
+
+	/**
+	 * @return The total time threads waited for a connection to become available.
+	 */
+	public long getWaitTimeMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(waitTimeNanos.get());
+	}
+
+	@Override
+	public synchronized void close()
+	{
+		allConnections.forEach(ConnectionPool::closeQuietly);
+		allConnections.clear();
+		idleConnections.clear();
+	}
+
+	private static void closeQuietly(@Nonnull IDatabaseConnection connection)
+	{
+		try
+		{
+			connection.close();
+		}
+		catch (SQLException e)
+		{
+			// The connection is no longer used, failing to close it does not affect the validations.
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ConnectionPool[maximumSize=" + maximumSize + ", active=" + getActiveCount() + ", idle=" + getIdleCount() + ", borrowed=" + getBorrowCount() + ", waitTimeMillis=" + getWaitTimeMillis() + "]";
+	}
+}
@@ -1,8 +1,16 @@
 package com.github.zeger_tak.enversvalidationplugin.connection;
 
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.github.zeger_tak.enversvalidationplugin.entities.RevisionCheckpoint;
+import com.github.zeger_tak.enversvalidationplugin.entities.SamplingReport;
+import com.github.zeger_tak.enversvalidationplugin.entities.ValidationSettings;
 import com.github.zeger_tak.enversvalidationplugin.exceptions.DatabaseNotSupportedException;
 import org.dbunit.IDatabaseTester;
 import org.dbunit.JdbcDatabaseTester;
@@ -11,23 +19,39 @@ import org.dbunit.database.IDatabaseConnection;
 import org.dbunit.ext.oracle.OracleDataTypeFactory;
 import org.dbunit.ext.postgresql.PostgresqlDataTypeFactory;
 
-public class ConnectionProviderInstance
+/**
+ * Provides the database queries and pooled connections to the database, the pool holds at most one connection for each validator executed in parallel.
+ * All pooled connections share the same {@link DatabaseConfig} and datatype factory.
+ * The schema metadata is retrieved by the queries for all tables at once and kept for the lifetime of this instance, see {@link SchemaMetadata}.
+ * Each connection keeps its prepared statements in a {@link StatementCache}.
+ */
+public class ConnectionProviderInstance implements AutoCloseable
 {
 	static final String ORACLE_DRIVER = "oracle.jdbc.OracleDriver";
 	static final String POSTGRESQL_DRIVER = "org.postgresql.Driver";
 
+	/**
+	 * The maximum number of idle prepared statements kept open per connection.
+	 */
+	private static final int STATEMENT_CACHE_SIZE = 100;
+
 	private final String driverClass;
 	private final String connectionUrl;
 	private final String username;
 	private final String password;
 	private final String schema;
 	private final String auditTableInformationFile;
+	private final ValidationSettings settings;
+	private final DatabaseConfig databaseConfig = new DatabaseConfig();
 	private final IDatabaseTester databaseTester;
+	private final DatabaseQueries databaseQueries;
+	private final ConnectionPool connectionPool;
+	private final RevisionCheckpoint revisionCheckpoint;
+	private final SamplingReport samplingReport;
+	private final StatementStatistics statementStatistics = new StatementStatistics();
+	private final Map<IDatabaseConnection, StatementCache> statementCaches = new ConcurrentHashMap<>();
 
-	private IDatabaseConnection databaseConnection;
-	private DatabaseQueries databaseQueries;
-
-	public ConnectionProviderInstance(@Nonnull String connectionUrl, @Nonnull String driverClass, @Nonnull String username, @Nonnull String password, @Nullable String schema, @Nonnull String auditTableInformationFile)
+	public ConnectionProviderInstance(@Nonnull String connectionUrl, @Nonnull String driverClass, @Nonnull String username, @Nonnull String password, @Nullable String schema, @Nonnull String auditTableInformationFile, @Nonnull ValidationSettings settings)
 	{
 		this.driverClass = driverClass;
 		this.connectionUrl = connectionUrl;
@@ -35,7 +59,40 @@ public class ConnectionProviderInstance
 		this.username = username;
 		this.schema = schema;
 		this.auditTableInformationFile = auditTableInformationFile;
+		this.settings = settings;
+		databaseQueries = newDatabaseQueries();
 		databaseTester = newDatabaseTester();
+		connectionPool = new ConnectionPool(this::openConnection, Math.max(1, settings.getParallelism()));
+		revisionCheckpoint = settings.getRevisionCheckpointFile() == null ? null : RevisionCheckpoint.load(settings.getRevisionCheckpointFile(), getSchemaIdentifier());
+		samplingReport = settings.isSampling() ? new SamplingReport(settings.getSampleSeed()) : null;
+
+		// The first connection is opened right away, so an incorrect configuration is reported before validating.
+		try
+		{
+			connectionPool.addIdleConnection(openConnection());
+		}
+		catch (Exception e)
+		{
+			throw new DatabaseNotSupportedException("An error occurred while trying to initialise the database connection provider, is it correctly configured? " + e.getMessage(), e);
+		}
+	}
+
+	@Nonnull
+	private DatabaseQueries newDatabaseQueries()
+	{
+		databaseConfig.setProperty(DatabaseConfig.PROPERTY_FETCH_SIZE, settings.getFetchSize());
+		if (driverClass.equals(ORACLE_DRIVER))
+		{
+			databaseConfig.setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, new OracleDataTypeFactory());
+			return new OracleQueries(this);
+		}
+		else if (driverClass.equals(POSTGRESQL_DRIVER))
+		{
+			databaseConfig.setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, new PostgresqlDataTypeFactory());
+			return new PostgresQueries(this);
+		}
+
+		throw new DatabaseNotSupportedException("Unable to determine database type.");
 	}
 
 	@Nonnull
@@ -43,65 +100,126 @@ public class ConnectionProviderInstance
 	{
 		try
 		{
-			final JdbcDatabaseTester jdbcDatabaseTester = new JdbcDatabaseTester(driverClass, connectionUrl, username, password, schema);
-			databaseConnection = jdbcDatabaseTester.getConnection();
-			if (driverClass.equals(ORACLE_DRIVER))
-			{
-				// For Oracle, provide the schema name. Otherwise, metadata for ALL objects is retrieved.
-				getDatabaseConnection().getConfig().setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, new OracleDataTypeFactory());
-				databaseQueries = new OracleQueries(this);
-				return jdbcDatabaseTester;
-			}
-			else if (driverClass.equals(POSTGRESQL_DRIVER))
-			{
-				// For Postgresql
-				getDatabaseConnection().getConfig().setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, new PostgresqlDataTypeFactory());
-				databaseQueries = new PostgresQueries(this);
-				return jdbcDatabaseTester;
-			}
+			// For Oracle, provide the schema name. Otherwise, metadata for ALL objects is retrieved.
+			return new JdbcDatabaseTester(driverClass, connectionUrl, username, password, schema);
 		}
 		catch (Exception e)
 		{
 			throw new DatabaseNotSupportedException("An error occurred while trying to initialise the database connection provider, is it correctly configured? " + e.getMessage(), e);
 		}
-
-		throw new DatabaseNotSupportedException("Unable to determine database type.");
 	}
 
 	@Nonnull
-	public IDatabaseConnection getDatabaseConnection()
+	private IDatabaseConnection openConnection() throws Exception
 	{
-		if (databaseConnection == null)
+		final IDatabaseConnection connection = databaseTester.getConnection();
+		connection.getConfig().setProperty(DatabaseConfig.PROPERTY_FETCH_SIZE, databaseConfig.getProperty(DatabaseConfig.PROPERTY_FETCH_SIZE));
+		connection.getConfig().setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, databaseConfig.getProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY));
+		if (driverClass.equals(POSTGRESQL_DRIVER))
 		{
-			try
-			{
-				databaseConnection = databaseTester.getConnection();
-			}
-			catch (Exception e)
-			{
-				throw new DatabaseNotSupportedException("Database connection could not be established.", e);
-			}
+			// For Postgresql, the fetch size is only honoured within a transaction. Otherwise the complete result is retrieved at once.
+			// The transaction is ended whenever the connection is returned to the pool.
+			connection.getConnection().setAutoCommit(false);
 		}
-		return databaseConnection;
+		return connection;
 	}
 
+	/**
+	 * Borrows a connection from the pool, to be used in a try-with-resources statement.
+	 * Borrowing again from the same thread returns the connection already borrowed by that thread.
+	 */
 	@Nonnull
-	public DatabaseQueries getQueries()
+	public PooledConnection borrowConnection()
+	{
+		return connectionPool.borrow();
+	}
+
+	/**
+	 * @return The prepared statements of the connection, only to be used by the thread that borrowed the connection.
+	 */
+	@Nonnull
+	StatementCache getStatementCache(@Nonnull IDatabaseConnection databaseConnection)
+	{
+		return statementCaches.computeIfAbsent(databaseConnection, this::newStatementCache);
+	}
+
+	@Nonnull
+	private StatementCache newStatementCache(@Nonnull IDatabaseConnection databaseConnection)
 	{
-		if (databaseQueries == null)
+		try
 		{
-			newDatabaseTester();
+			return new StatementCache(databaseConnection.getConnection(), settings.getFetchSize(), STATEMENT_CACHE_SIZE, statementStatistics);
 		}
+		catch (SQLException e)
+		{
+			throw new DatabaseNotSupportedException("Database connection could not be used.", e);
+		}
+	}
+
+	@Nonnull
+	public StatementStatistics getStatementStatistics()
+	{
+		return statementStatistics;
+	}
+
+	@Nonnull
+	public ConnectionPool getConnectionPool()
+	{
+		return connectionPool;
+	}
 
+	@Nonnull
+	public DatabaseQueries getQueries()
+	{
 		return databaseQueries;
 	}
 
+	/**
+	 * @return The revisions validated in earlier runs, or null if all revisions are validated every run.
+	 */
+	@CheckForNull
+	public RevisionCheckpoint getRevisionCheckpoint()
+	{
+		return revisionCheckpoint;
+	}
+
+	/**
+	 * @return The outcome of validating a sample of the entities, or null if the revisions of all entities are validated.
+	 */
+	@CheckForNull
+	public SamplingReport getSamplingReport()
+	{
+		return samplingReport;
+	}
+
+	/**
+	 * @return Identifies the database and schema connected to, without the credentials.
+	 */
+	@Nonnull
+	String getSchemaIdentifier()
+	{
+		return driverClass + "|" + connectionUrl + "|" + username + "|" + (schema == null ? "" : schema);
+	}
+
 	@Nonnull
 	public String getAuditTableInformationFile()
 	{
 		return auditTableInformationFile;
 	}
 
+	@Nonnull
+	public ValidationSettings getSettings()
+	{
+		return settings;
+	}
+
+	@Override
+	public void close()
+	{
+		statementCaches.values().forEach(StatementCache::close);
+		connectionPool.close();
+	}
+
 	@Override
 	public String toString()
 	{
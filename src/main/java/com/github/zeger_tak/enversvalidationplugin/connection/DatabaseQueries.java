@@ -1,17 +1,22 @@
 package com.github.zeger_tak.enversvalidationplugin.connection;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.EntityHistory;
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
 import com.github.zeger_tak.enversvalidationplugin.entities.TableRow;
-import org.dbunit.database.CachedResultSetTable;
 import org.dbunit.database.IDatabaseConnection;
 import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
 
 public interface DatabaseQueries
 {
@@ -27,20 +32,98 @@ public interface DatabaseQueries
 	@Nonnull
 	String getRevisionTableName();
 	
+	boolean tableExists(@Nonnull String tableName) throws SQLException, DataSetException;
+
+	/**
+	 * Opens a forward-only cursor over the results of the given query, rows are fetched in batches of the configured fetch size.
+	 */
 	@Nonnull
-	CachedResultSetTable getTableByName(@Nonnull String tableName) throws SQLException, DataSetException;
+	TableRowCursor createQueryCursor(@Nonnull String tableName, @Nonnull String query) throws SQLException, DataSetException;
 
+	/**
+	 * @return The upper case names of the tables of which the name ends with the postfix, ignoring case. Answered from the schema metadata retrieved once per run.
+	 */
 	@Nonnull
 	Set<String> getTablesByNameEndingWith(@Nonnull String postFix) throws SQLException, DataSetException;
 
 	@Nonnull
 	List<String> getPrimaryKeyColumnNames(@Nonnull String tableName) throws SQLException, DataSetException;
 
+	/**
+	 * Reads the content records of the selected entities.
+	 */
+	@Nonnull
+	Map<PrimaryIdentifier, TableRow> getContentRecords(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull RecordSelection selection) throws SQLException, DataSetException;
+
+	/**
+	 * Reads the complete audit history of the selected entities.
+	 */
+	@Nonnull
+	Map<PrimaryIdentifier, List<TableRow>> getAuditRecordsGroupedByContentPrimaryKey(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull RecordSelection selection) throws SQLException, DataSetException;
+
+	/**
+	 * Determines the last key of the next chunk of at most the given number of entities, where an entity may be present in either the content table or the audit table.
+	 *
+	 * @param afterKey The last key of the previous chunk, or null for the first chunk.
+	 * @return The last key of the chunk, or null if fewer entities remain in which case the chunk holds all remaining entities.
+	 */
+	@CheckForNull
+	PrimaryIdentifier getChunkUpperBound(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nullable PrimaryIdentifier afterKey, int chunkSize) throws SQLException, DataSetException;
+
+	/**
+	 * @return The number of distinct primary identifiers in the audit table.
+	 */
+	long getEntityCount(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException;
+
+	/**
+	 * @return The highest revision in the audit table, or null if the audit table is empty.
+	 */
+	@CheckForNull
+	Long getHighestRevision(@Nonnull AuditTableInformation auditTableInformation) throws SQLException, DataSetException;
+
+	/**
+	 * Opens a forward-only cursor over the content table, ordered by the primary identifier columns.
+	 */
+	@Nonnull
+	TableRowCursor getContentRecordsOrderedByPrimaryKey(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException;
+
+	/**
+	 * Opens a forward-only cursor over the audit table, ordered by the primary identifier columns of the content table and then by revision.
+	 */
+	@Nonnull
+	TableRowCursor getAuditRecordsOrderedByPrimaryKeyAndRevision(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException;
+
+	/**
+	 * Determines within the database which primary identifiers have an invalid sequence of revision types in the audit table.
+	 * As when validating the history in memory, the history of an entity is only validated up to its first revision without revision type.
+	 *
+	 * @param identifiersWithoutRevType Receives the primary identifiers with a revision without revision type, before any invalid revision.
+	 */
+	@Nonnull
+	List<PrimaryIdentifier> getIdentifiersWithInvalidHistory(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull Collection<PrimaryIdentifier> identifiersWithoutRevType) throws SQLException, DataSetException;
+
+	/**
+	 * Determines within the database which content records have no latest revision, a Remove revision as latest revision, or a latest revision with values different from the content record.
+	 * Each returned {@link EntityHistory} holds the content record and, if present, the latest revision limited to the compared columns.
+	 */
+	@Nonnull
+	List<EntityHistory> getContentRecordsWithInvalidLatestRevision(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException;
+
+	/**
+	 * Determines within the database which primary identifiers have an Add or Modify revision as latest revision, while no content record exists.
+	 *
+	 * @param identifiersWithoutRevType Receives the primary identifiers of which the latest revision has no revision type, regardless of the content record.
+	 */
 	@Nonnull
-	Map<String, TableRow> getContentRecords(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException;
+	List<PrimaryIdentifier> getIdentifiersWithAddOrModifyLatestRevisionWithoutContent(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull Collection<PrimaryIdentifier> identifiersWithoutRevType) throws SQLException, DataSetException;
 
+	/**
+	 * Determines within the database which Remove revisions have a value in at least one of the nullable columns of the audit table.
+	 *
+	 * @return The offending revisions, grouped by primary identifier.
+	 */
 	@Nonnull
-	Map<String, List<TableRow>> getAuditRecordsGroupedByContentPrimaryKey(@Nonnull IDatabaseConnection databaseConnection, @Nonnull AuditTableInformation auditTableInformation, List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException;
+	Map<PrimaryIdentifier, List<Object>> getRemoveRevisionsWithNullableColumnsFilled(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames) throws SQLException, DataSetException;
 
 	@Nonnull
 	Set<String> getListOfTablesWithForeignKeysToRevisionTable() throws SQLException, DataSetException;
@@ -49,5 +132,5 @@ public interface DatabaseQueries
 	Set<String> getAllNonnullColumns(@Nonnull String tableName) throws SQLException, DataSetException;
 
 	@Nonnull
-	String getPrimaryIdentifierAsString(@Nonnull CachedResultSetTable recordsInContentTable, int rowIndex, @Nonnull List<String> primaryIdentifierColumnNames) throws DataSetException;
+	PrimaryIdentifier getPrimaryIdentifier(@Nonnull ITable records, int rowIndex, @Nonnull List<String> primaryIdentifierColumnNames) throws DataSetException;
 }
\ No newline at end of file
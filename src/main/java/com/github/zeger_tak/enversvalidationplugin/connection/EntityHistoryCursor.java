@@ -0,0 +1,21 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.EntityHistory;
+
+public interface EntityHistoryCursor extends AutoCloseable
+{
+	/**
+	 * Moves the cursor to the next entity.
+	 *
+	 * @return false if there are no more entities.
+	 */
+	boolean next();
+
+	@Nonnull
+	EntityHistory getEntityHistory();
+
+	@Override
+	void close();
+}
@@ -0,0 +1,15 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.EntityHistory;
+
+/**
+ * Provides the {@link EntityHistory} of every primary key present in either an audit table or its content table.
+ * Every call to {@link #open()} starts reading from the first entity again.
+ */
+public interface EntityHistorySource
+{
+	@Nonnull
+	EntityHistoryCursor open();
+}
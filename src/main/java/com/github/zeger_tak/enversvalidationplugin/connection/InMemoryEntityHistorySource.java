@@ -0,0 +1,86 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.EntityHistory;
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+import com.github.zeger_tak.enversvalidationplugin.entities.TableRow;
+
+/**
+ * Joins fully loaded audit and content records on their primary identifier.
+ *
+ * @param <K> Type of the primary identifiers, usually {@link PrimaryIdentifier}.
+ * Entities present in the audit table are provided first, followed by entities only present in the content table.
+ */
+public class InMemoryEntityHistorySource<K> implements EntityHistorySource
+{
+	private final Map<K, List<TableRow>> recordsInAuditTable;
+	private final Map<K, TableRow> recordsInContentTable;
+
+	public InMemoryEntityHistorySource(@Nonnull Map<K, List<TableRow>> recordsInAuditTable, @Nonnull Map<K, TableRow> recordsInContentTable)
+	{
+		this.recordsInAuditTable = recordsInAuditTable;
+		this.recordsInContentTable = recordsInContentTable;
+	}
+
+	@Nonnull
+	@Override
+	public EntityHistoryCursor open()
+	{
+		return new InMemoryEntityHistoryCursor();
+	}
+
+	private class InMemoryEntityHistoryCursor implements EntityHistoryCursor
+	{
+		private final Iterator<Map.Entry<K, List<TableRow>>> auditIterator = recordsInAuditTable.entrySet().iterator();
+		private final Iterator<Map.Entry<K, TableRow>> contentIterator = recordsInContentTable.entrySet().iterator();
+
+		private EntityHistory entityHistory;
+
+		@Override
+		public boolean next()
+		{
+			if (auditIterator.hasNext())
+			{
+				final Map.Entry<K, List<TableRow>> auditEntry = auditIterator.next();
+				entityHistory = new EntityHistory(auditEntry.getKey(), auditEntry.getValue(), recordsInContentTable.get(auditEntry.getKey()));
+				return true;
+			}
+
+			while (contentIterator.hasNext())
+			{
+				final Map.Entry<K, TableRow> contentEntry = contentIterator.next();
+				if (!recordsInAuditTable.containsKey(contentEntry.getKey()))
+				{
+					entityHistory = new EntityHistory(contentEntry.getKey(), Collections.emptyList(), contentEntry.getValue());
+					return true;
+				}
+			}
+
+			entityHistory = null;
+			return false;
+		}
+
+		@Nonnull
+		@Override
+		public EntityHistory getEntityHistory()
+		{
+			if (entityHistory == null)
+			{
+				throw new IllegalStateException("The cursor is not positioned on an entity.");
+			}
+			return entityHistory;
+		}
+
+		@Override
+		public void close()
+		{
+			entityHistory = null;
+		}
+	}
+}
@@ -2,107 +2,109 @@ package com.github.zeger_tak.enversvalidationplugin.connection;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
 
-import org.dbunit.database.CachedResultSetTable;
+import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
 
 public class OracleQueries extends AbstractQueries
 {
-	private final ConnectionProviderInstance connectionProvider;
-
 	public OracleQueries(@Nonnull ConnectionProviderInstance connectionProvider)
 	{
-		this.connectionProvider = connectionProvider;
+		super(connectionProvider);
 	}
 
 	@Nonnull
 	@Override
-	public CachedResultSetTable getTableByName(@Nonnull String tableName) throws SQLException, DataSetException
+	String selectSchemaFingerprint() throws SQLException, DataSetException
 	{
-		final String query = "select TABLE_NAME from USER_TABLES where UPPER(TABLE_NAME) = UPPER('" + tableName + "')";
-		return (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable("USER_TABLES", query);
+		// Any change to a table or its constraints updates the LAST_DDL_TIME of the table, dropped objects change the count.
+		final String query = "select to_char(max(LAST_DDL_TIME), 'YYYYMMDDHH24MISS') || '-' || count(*) FINGERPRINT from USER_OBJECTS";
+		return selectColumnValues("USER_OBJECTS", query, "FINGERPRINT", new ArrayList<>()).get(0);
 	}
 
+	/**
+	 * @return The tables with a foreign key to the revision table, retrieved together with the rest of the {@link SchemaMetadata}.
+	 */
 	@Nonnull
-	@Override
-	public Set<String> getTablesByNameEndingWith(@Nonnull String postFix) throws SQLException, DataSetException
+	private Set<String> selectTablesWithForeignKeysToRevisionTable() throws SQLException, DataSetException
 	{
-		final String query = "select TABLE_NAME from USER_TABLES where TABLE_NAME like '%" + connectionProvider.getQueries().getAuditTablePostFix() + "'";
-		final CachedResultSetTable allKnownTablesEndingWithPostFix = (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable("USER_TABLES", query);
-
-		final Set<String> auditTablesInDatabase = new HashSet<>(allKnownTablesEndingWithPostFix.getRowCount());
-		for (int i = 0; i < allKnownTablesEndingWithPostFix.getRowCount(); i++)
-		{
-			auditTablesInDatabase.add((String) allKnownTablesEndingWithPostFix.getValue(i, "TABLE_NAME"));
-		}
+		final String query =
+				//@formatter:off
+				"select c1.table_name from user_constraints c1 " 
+				+ "inner  join user_constraints c2 on c2.constraint_name = c1.r_constraint_name " 
+				+ "where c1.constraint_type = 'R' " 
+				+ "and c2.constraint_type = 'P' and c2.table_name = ?";
+				//@formatter:on
 
-		return auditTablesInDatabase;
+		return selectColumnValues("USER_CONSTRAINTS", query, Collections.singletonList(getRevisionTableName()), "TABLE_NAME", new HashSet<>());
 	}
 
 	@Nonnull
 	@Override
-	public List<String> getPrimaryKeyColumnNames(@Nonnull String tableName) throws SQLException, DataSetException
+	SchemaMetadata loadSchemaMetadata() throws SQLException, DataSetException
 	{
-		final String query = "SELECT COLUMN_NAME FROM all_cons_columns WHERE constraint_name = (" + " SELECT constraint_name FROM user_constraints" + " WHERE UPPER(table_name) = UPPER('" + tableName + "') AND CONSTRAINT_TYPE = 'P'" + ")";
-		final CachedResultSetTable result = (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable(tableName, query);
+		final SchemaMetadata schemaMetadata = new SchemaMetadata();
+		selectColumnValues("USER_TABLES", "select TABLE_NAME from USER_TABLES", "TABLE_NAME", new ArrayList<>()).forEach(schemaMetadata::addTable);
+		schemaMetadata.queryExecuted();
 
-		final List<String> primaryIdentifiers = new ArrayList<>();
-		for (int i = 0; i < result.getRowCount(); i++)
-		{
-			primaryIdentifiers.add((String) result.getValue(i, "COLUMN_NAME"));
-		}
-
-		return primaryIdentifiers;
+		final String primaryKeyColumnsQuery =
+				//@formatter:off
+				"select c.TABLE_NAME, cc.COLUMN_NAME from USER_CONSTRAINTS c "
+				+ "inner join USER_CONS_COLUMNS cc on cc.CONSTRAINT_NAME = c.CONSTRAINT_NAME "
+				+ "where c.CONSTRAINT_TYPE = 'P' "
+				+ "order by c.TABLE_NAME, cc.POSITION";
+				//@formatter:on
+		selectColumnValues("USER_CONSTRAINTS", primaryKeyColumnsQuery, "TABLE_NAME", "COLUMN_NAME", schemaMetadata::addPrimaryKeyColumn);
+		schemaMetadata.queryExecuted();
+
+		final String nonnullColumnsQuery = "select TABLE_NAME, COLUMN_NAME from USER_TAB_COLUMNS where NULLABLE = 'N'";
+		selectColumnValues("USER_TAB_COLUMNS", nonnullColumnsQuery, "TABLE_NAME", "COLUMN_NAME", schemaMetadata::addNonnullColumn);
+		schemaMetadata.queryExecuted();
+		schemaMetadata.addTablesWithForeignKeysToRevisionTable(selectTablesWithForeignKeysToRevisionTable());
+		schemaMetadata.queryExecuted();
+		return schemaMetadata;
 	}
 
 	@Nonnull
 	@Override
-	public Set<String> getListOfTablesWithForeignKeysToRevisionTable() throws SQLException, DataSetException
+	String createIsDistinctFromPredicate(@Nonnull String value, @Nonnull String otherValue)
 	{
-		final String query =
-				//@formatter:off
-				"select c1.table_name from user_constraints c1 " 
-				+ "inner  join user_constraints c2 on c2.constraint_name = c1.r_constraint_name " 
-				+ "where c1.constraint_type = 'R' " 
-				+ "and c2.constraint_type = 'P' and c2.table_name = '" + getRevisionTableName() + "'";
-				//@formatter:on
-
-		final CachedResultSetTable tablesInDatabaseWithForeignKeyToRevisionTable = (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable("USER_CONSTRAINTS", query);
-
-		final Set<String> auditTablesInDatabase = new HashSet<>(tablesInDatabaseWithForeignKeyToRevisionTable.getRowCount());
-		for (int i = 0; i < tablesInDatabaseWithForeignKeyToRevisionTable.getRowCount(); i++)
-		{
-			auditTablesInDatabase.add((String) tablesInDatabaseWithForeignKeyToRevisionTable.getValue(i, "TABLE_NAME"));
-		}
+		// Decode considers two null values to be equal.
+		return "decode(" + value + ", " + otherValue + ", 0, 1) = 1";
+	}
 
-		return auditTablesInDatabase;
+	/**
+	 * Besides large objects, values of type XMLTYPE cannot be compared by Oracle.
+	 */
+	@Override
+	boolean isComparableInDatabase(@Nonnull Column column)
+	{
+		return super.isComparableInDatabase(column) && !column.getSqlTypeName().toUpperCase().endsWith("XMLTYPE");
 	}
 
 	@Nonnull
 	@Override
-	public Set<String> getAllNonnullColumns(@Nonnull String tableName) throws SQLException, DataSetException
+	String createSampleBucketExpression(@Nonnull String tableAlias, @Nonnull List<String> columnNames)
 	{
-		final String query =
-				//@formatter:off
-				"select column_name" 
-				+ " from user_tab_columns " 
-				+ "where table_name = '" + tableName + "'" 
-				+ "and nullable = 'N'";
-				//@formatter:on
-
-		final CachedResultSetTable tablesInDatabaseWithForeignKeyToRevisionTable = (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable("user_tab_columns", query);
-
-		final Set<String> auditTablesInDatabase = new HashSet<>(tablesInDatabaseWithForeignKeyToRevisionTable.getRowCount());
-		for (int i = 0; i < tablesInDatabaseWithForeignKeyToRevisionTable.getRowCount(); i++)
+		final StringBuilder expression = new StringBuilder("ora_hash(");
+		for (String columnName : columnNames)
 		{
-			auditTablesInDatabase.add((String) tablesInDatabaseWithForeignKeyToRevisionTable.getValue(i, "column_name"));
+			expression.append(tableAlias).append(".").append(columnName).append(" || '|' || ");
 		}
+		return expression.append("?, ").append(SAMPLE_BUCKETS - 1).append(")").toString();
+	}
 
-		return auditTablesInDatabase;
+	@Nonnull
+	@Override
+	String createLimitedQuery(@Nonnull String orderedQuery, int rowCount)
+	{
+		// Rownum is assigned before ordering, so the ordered query is limited by an enclosing query.
+		return "select * from (" + orderedQuery + ") where rownum <= " + rowCount;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import javax.annotation.Nonnull;
+
+import org.dbunit.database.IDatabaseConnection;
+
+/**
+ * Database connection borrowed from a {@link ConnectionPool}, returned to the pool once closed as often as it was borrowed by its thread.
+ */
+public class PooledConnection implements AutoCloseable
+{
+	private final ConnectionPool connectionPool;
+	private final IDatabaseConnection databaseConnection;
+
+	private int borrowCount = 1;
+
+	PooledConnection(@Nonnull ConnectionPool connectionPool, @Nonnull IDatabaseConnection databaseConnection)
+	{
+		this.connectionPool = connectionPool;
+		this.databaseConnection = databaseConnection;
+	}
+
+	@Nonnull
+	public IDatabaseConnection getDatabaseConnection()
+	{
+		return databaseConnection;
+	}
+
+	void retain()
+	{
+		borrowCount++;
+	}
+
+	@Override
+	public void close()
+	{
+		if (borrowCount > 0 && --borrowCount == 0)
+		{
+			connectionPool.release(this);
+		}
+	}
+}
@@ -1,23 +1,28 @@
 package com.github.zeger_tak.enversvalidationplugin.connection;
 
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
 
-import org.dbunit.database.CachedResultSetTable;
+import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
 
+/**
+ * The metadata is retrieved from the current schema only, the schema in which the unqualified table names of all other queries are resolved.
+ */
 public class PostgresQueries extends AbstractQueries
 {
-	private final ConnectionProviderInstance connectionProvider;
-
 	public PostgresQueries(@Nonnull ConnectionProviderInstance connectionProvider)
 	{
-		this.connectionProvider = connectionProvider;
+		super(connectionProvider);
 	}
 
 	@Nonnull
@@ -43,85 +48,113 @@ public class PostgresQueries extends AbstractQueries
 
 	@Nonnull
 	@Override
-	public CachedResultSetTable getTableByName(@Nonnull String tableName) throws SQLException, DataSetException
+	String selectSchemaFingerprint() throws SQLException, DataSetException
 	{
-		final String query = "select upper(table_name) table_name from information_schema.tables where UPPER(TABLE_NAME) = UPPER('" + tableName + "')";
-		return (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable("tables", query);
+		final String query =
+				//@formatter:off
+				"select md5("
+				+ "coalesce((select string_agg(table_schema || '.' || table_name || '.' || column_name || '.' || is_nullable, ',' order by table_schema, table_name, column_name) from information_schema.columns where table_schema = current_schema()), '') "
+				+ "|| coalesce((select string_agg(table_schema || '.' || table_name || '.' || constraint_name || '.' || column_name || '.' || ordinal_position, ',' order by table_schema, table_name, constraint_name, ordinal_position) from information_schema.key_column_usage where table_schema = current_schema()), '') "
+				+ "|| coalesce((select string_agg(constraint_schema || '.' || constraint_name || '.' || unique_constraint_name, ',' order by constraint_schema, constraint_name) from information_schema.referential_constraints where constraint_schema = current_schema()), '')"
+				+ ") fingerprint";
+				//@formatter:on
+		return selectColumnValues("columns", query, "fingerprint", new ArrayList<>()).get(0);
 	}
 
+	/**
+	 * @return The tables with a foreign key to the revision table, retrieved together with the rest of the {@link SchemaMetadata}.
+	 */
 	@Nonnull
-	@Override
-	public Set<String> getTablesByNameEndingWith(@Nonnull String postFix) throws SQLException, DataSetException
+	private Set<String> selectTablesWithForeignKeysToRevisionTable() throws SQLException, DataSetException
 	{
-		final String query = "select table_name from information_schema.tables where UPPER(TABLE_NAME) like '%" + connectionProvider.getQueries().getAuditTablePostFix() + "'";
-
-		final CachedResultSetTable allKnownTablesEndingWithPostFix = (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable("tables", query);
-		final Set<String> auditTablesInDatabase = new HashSet<>(allKnownTablesEndingWithPostFix.getRowCount());
-		for (int i = 0; i < allKnownTablesEndingWithPostFix.getRowCount(); i++)
-		{
-			auditTablesInDatabase.add((String) allKnownTablesEndingWithPostFix.getValue(i, "table_name"));
-		}
+		final String query =
+				//@formatter:off	
+				"select upper(tc.table_name) table_name from information_schema.referential_constraints rc "
+				+ "inner join information_schema.table_constraints tc on tc.constraint_schema = rc.constraint_schema and tc.constraint_name = rc.constraint_name "
+				+ "inner join information_schema.table_constraints tc2 on tc2.constraint_schema = rc.unique_constraint_schema and tc2.constraint_name = rc.unique_constraint_name "
+				+ "where rc.constraint_schema = current_schema() and tc2.table_schema = current_schema() and tc2.constraint_type = 'PRIMARY KEY' and tc2.table_name = ?";
+				//@formatter:on
 
-		return auditTablesInDatabase;
+		return selectColumnValues("USER_TABLES", query, Collections.singletonList(getRevisionTableName()), "TABLE_NAME", new HashSet<>());
 	}
 
 	@Nonnull
 	@Override
-	public List<String> getPrimaryKeyColumnNames(@Nonnull String tableName) throws SQLException, DataSetException
+	SchemaMetadata loadSchemaMetadata() throws SQLException, DataSetException
 	{
-		final String query = "select kcu.column_name from information_schema.table_constraints tc inner join information_schema.key_column_usage kcu on tc.constraint_name = kcu.constraint_name where tc.constraint_type= 'PRIMARY KEY'" + " and UPPER(tc.table_name) = UPPER('" + tableName + "')";
-		final CachedResultSetTable result = (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable(tableName, query);
+		final SchemaMetadata schemaMetadata = new SchemaMetadata();
+		final String tablesQuery = "select table_name from information_schema.tables where table_schema = current_schema()";
+		selectColumnValues("tables", tablesQuery, "table_name", new ArrayList<>()).forEach(schemaMetadata::addTable);
+		schemaMetadata.queryExecuted();
 
-		final List<String> primaryIdentifiers = new ArrayList<>();
-		for (int i = 0; i < result.getRowCount(); i++)
-		{
-			primaryIdentifiers.add((String) result.getValue(i, "column_name"));
-		}
-		return primaryIdentifiers;
+		final String primaryKeyColumnsQuery =
+				//@formatter:off
+				"select tc.table_name, kcu.column_name from information_schema.table_constraints tc "
+				+ "inner join information_schema.key_column_usage kcu on tc.constraint_name = kcu.constraint_name and tc.table_schema = kcu.table_schema and tc.table_name = kcu.table_name "
+				+ "where tc.table_schema = current_schema() and tc.constraint_type = 'PRIMARY KEY' "
+				+ "order by tc.table_name, kcu.ordinal_position";
+				//@formatter:on
+		selectColumnValues("table_constraints", primaryKeyColumnsQuery, "table_name", "column_name", schemaMetadata::addPrimaryKeyColumn);
+		schemaMetadata.queryExecuted();
+
+		final String nonnullColumnsQuery = "select table_name, column_name from information_schema.columns where table_schema = current_schema() and is_nullable = 'NO'";
+		selectColumnValues("columns", nonnullColumnsQuery, "table_name", "column_name", schemaMetadata::addNonnullColumn);
+		schemaMetadata.queryExecuted();
+		schemaMetadata.addTablesWithForeignKeysToRevisionTable(selectTablesWithForeignKeysToRevisionTable());
+		schemaMetadata.queryExecuted();
+		return schemaMetadata;
 	}
 
 	@Nonnull
 	@Override
-	public Set<String> getListOfTablesWithForeignKeysToRevisionTable() throws SQLException, DataSetException
+	String createLatestRevisionQuery(@Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull Collection<SelectedColumn> auditColumns)
 	{
-		final String query =
-				//@formatter:off	
-				"select upper(tc.table_name) table_name from information_schema.referential_constraints rc " 
-				+ "inner join information_schema.table_constraints tc on tc.constraint_name = rc.constraint_name " 
-				+ "inner join information_schema.table_constraints tc2 on tc2.constraint_name = rc.unique_constraint_name " 
-				+ "where tc2.constraint_type = 'PRIMARY KEY' and tc2.table_name = '" + getRevisionTableName() + "'";
-				//@formatter:on
-
-		final CachedResultSetTable tablesInDatabaseWithForeignKeyToRevisionTable = (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable("USER_TABLES", query);
-
-		final Set<String> auditTablesInDatabase = new HashSet<>(tablesInDatabaseWithForeignKeyToRevisionTable.getRowCount());
-		for (int i = 0; i < tablesInDatabaseWithForeignKeyToRevisionTable.getRowCount(); i++)
-		{
-			auditTablesInDatabase.add((String) tablesInDatabaseWithForeignKeyToRevisionTable.getValue(i, "TABLE_NAME"));
-		}
-
-		return auditTablesInDatabase;
+		final String auditTableName = auditTableInformation.getAuditTableName();
+
+		final StringBuilder query = new StringBuilder("select distinct on (");
+		appendColumns(query, auditTableName, primaryIdentifierColumnNames);
+		query.append(") ");
+		appendSelectedColumns(query, auditColumns);
+		query.append(" from ");
+		query.append(createAuditTableFromClause(auditTableInformation, primaryIdentifierColumnNames));
+		appendOrderBy(query, auditTableName, primaryIdentifierColumnNames);
+		query.append(", ").append(auditTableName).append(".").append(getRevisionTableIdentifierColumnName()).append(" desc");
+		return query.toString();
 	}
 
 	@Nonnull
 	@Override
-	public Set<String> getAllNonnullColumns(@Nonnull String tableName) throws SQLException, DataSetException
+	String createIsDistinctFromPredicate(@Nonnull String value, @Nonnull String otherValue)
 	{
-		final String query =
-				//@formatter:off
-				"select column_name from information_schema.columns " 
-				+ "where upper(table_name) = upper('" + tableName + "') " 
-				+ "and is_nullable = 'NO';";
-				//@formatter:on
+		return value + " is distinct from " + otherValue;
+	}
 
-		final CachedResultSetTable tablesInDatabaseWithForeignKeyToRevisionTable = (CachedResultSetTable) connectionProvider.getDatabaseConnection().createQueryTable("columns", query);
+	/**
+	 * Postgres compares text and binary values of any length, but has no equality operator for values of type json and xml.
+	 */
+	@Override
+	boolean isComparableInDatabase(@Nonnull Column column)
+	{
+		return !"json".equalsIgnoreCase(column.getSqlTypeName()) && !"xml".equalsIgnoreCase(column.getSqlTypeName()) && column.getDataType().getSqlType() != Types.SQLXML;
+	}
 
-		final Set<String> auditTablesInDatabase = new HashSet<>(tablesInDatabaseWithForeignKeyToRevisionTable.getRowCount());
-		for (int i = 0; i < tablesInDatabaseWithForeignKeyToRevisionTable.getRowCount(); i++)
+	@Nonnull
+	@Override
+	String createSampleBucketExpression(@Nonnull String tableAlias, @Nonnull List<String> columnNames)
+	{
+		final StringBuilder expression = new StringBuilder("mod(hashtext(concat_ws('|', ");
+		for (String columnName : columnNames)
 		{
-			auditTablesInDatabase.add((String) tablesInDatabaseWithForeignKeyToRevisionTable.getValue(i, "column_name"));
+			expression.append(tableAlias).append(".").append(columnName).append(", ");
 		}
+		// Shifted from the signed range of hashtext, as mod keeps the sign of a negative hash.
+		return expression.append("cast(? as text)))::bigint + 2147483648, ").append(SAMPLE_BUCKETS).append(")").toString();
+	}
 
-		return auditTablesInDatabase;
+	@Nonnull
+	@Override
+	String createLimitedQuery(@Nonnull String orderedQuery, int rowCount)
+	{
+		return orderedQuery + " limit " + rowCount;
 	}
 }
\ No newline at end of file
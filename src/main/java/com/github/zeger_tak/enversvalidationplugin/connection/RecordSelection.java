@@ -0,0 +1,112 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+
+/**
+ * Selects the entities of which the content records and audit records are read, as a predicate together with the values bound to it.
+ * The same selection applied to the content table and the audit table selects the same entities, so both can be validated against each other.
+ */
+public final class RecordSelection
+{
+	/**
+	 * Selects all entities.
+	 */
+	public static final RecordSelection ALL = new RecordSelection(Predicate.ALL);
+
+	private final Predicate predicate;
+	private final List<Object> values;
+
+	private RecordSelection(@Nonnull Predicate predicate, @Nullable Object... values)
+	{
+		this.predicate = predicate;
+		this.values = Collections.unmodifiableList(Arrays.asList(values));
+	}
+
+	/**
+	 * Selects the entities that have a revision after the given revision in the audit table.
+	 */
+	@Nonnull
+	public static RecordSelection changedAfterRevision(long revision)
+	{
+		return new RecordSelection(Predicate.CHANGED_AFTER_REVISION, revision);
+	}
+
+	/**
+	 * Selects a sample of the entities by hashing their primary identifier together with the seed.
+	 *
+	 * @param fraction The approximate fraction of entities to select, the same fraction and seed always select the same entities.
+	 */
+	@Nonnull
+	public static RecordSelection sample(double fraction, long seed)
+	{
+		return new RecordSelection(Predicate.SAMPLE, fraction, seed);
+	}
+
+	/**
+	 * Selects the entities with a primary identifier after the first key, up to and including the second key, where a missing key leaves the range unbounded.
+	 */
+	@Nonnull
+	public static RecordSelection keyRange(@Nullable PrimaryIdentifier afterKey, @Nullable PrimaryIdentifier upToKey)
+	{
+		return new RecordSelection(Predicate.KEY_RANGE, afterKey, upToKey);
+	}
+
+	@Nonnull
+	Predicate getPredicate()
+	{
+		return predicate;
+	}
+
+	/**
+	 * @return The values of the selection, in the order of the arguments of the method creating it.
+	 */
+	@Nonnull
+	List<Object> getValues()
+	{
+		return values;
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o)
+		{
+			return true;
+		}
+		if (o == null || getClass() != o.getClass())
+		{
+			return false;
+		}
+
+		final RecordSelection that = (RecordSelection) o;
+		return predicate == that.predicate && values.equals(that.values);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(predicate, values);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "RecordSelection[predicate=" + predicate + ", values=" + values + "]";
+	}
+
+	enum Predicate
+	{
+		ALL,
+		CHANGED_AFTER_REVISION,
+		SAMPLE,
+		KEY_RANGE
+	}
+}
@@ -0,0 +1,183 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The tables of the schema together with their primary key columns and nonnull columns, retrieved for all tables at once instead of per table.
+ * Also holds the tables with a foreign key to the revision table. Tables are looked up case insensitively, column names are kept as returned by the database.
+ *
+ * The metadata is retrieved once per run and shared by all validators.
+ * It counts the queries executed to obtain it, which are none besides the fingerprint if it was read from the cache file, and the lookups it served.
+ */
+final class SchemaMetadata
+{
+	private static final String TABLES_PROPERTY_KEY = "tables";
+	private static final String FOREIGN_KEYS_TO_REVISION_TABLE_PROPERTY_KEY = "tablesWithForeignKeysToRevisionTable";
+	private static final String PRIMARY_KEY_PROPERTY_KEY_PREFIX = "primaryKey.";
+	private static final String NONNULL_COLUMNS_PROPERTY_KEY_PREFIX = "nonnullColumns.";
+	private static final String SEPARATOR = ",";
+
+	private final Set<String> tableNames = new HashSet<>();
+	private final Map<String, List<String>> primaryKeyColumnNames = new HashMap<>();
+	private final Map<String, Set<String>> nonnullColumnNames = new HashMap<>();
+	private final Set<String> tablesWithForeignKeysToRevisionTable = new HashSet<>();
+	private final AtomicLong queryCount = new AtomicLong();
+	private final AtomicLong lookupCount = new AtomicLong();
+
+	void addTable(@Nonnull String tableName)
+	{
+		tableNames.add(tableName.toUpperCase());
+	}
+
+	/**
+	 * Primary key columns are to be added in the order of their position within the primary key.
+	 */
+	void addPrimaryKeyColumn(@Nonnull String tableName, @Nonnull String columnName)
+	{
+		primaryKeyColumnNames.computeIfAbsent(tableName.toUpperCase(), k -> new ArrayList<>()).add(columnName);
+	}
+
+	void addNonnullColumn(@Nonnull String tableName, @Nonnull String columnName)
+	{
+		nonnullColumnNames.computeIfAbsent(tableName.toUpperCase(), k -> new HashSet<>()).add(columnName);
+	}
+
+	void addTablesWithForeignKeysToRevisionTable(@Nonnull Set<String> tableNames)
+	{
+		tablesWithForeignKeysToRevisionTable.addAll(tableNames);
+	}
+
+	boolean containsTable(@Nonnull String tableName)
+	{
+		lookupCount.incrementAndGet();
+		return tableNames.contains(tableName.toUpperCase());
+	}
+
+	@Nonnull
+	List<String> getPrimaryKeyColumnNames(@Nonnull String tableName)
+	{
+		lookupCount.incrementAndGet();
+		return new ArrayList<>(primaryKeyColumnNames.getOrDefault(tableName.toUpperCase(), Collections.emptyList()));
+	}
+
+	@Nonnull
+	Set<String> getNonnullColumnNames(@Nonnull String tableName)
+	{
+		lookupCount.incrementAndGet();
+		return new HashSet<>(nonnullColumnNames.getOrDefault(tableName.toUpperCase(), Collections.emptySet()));
+	}
+
+	/**
+	 * @return The table names as returned by the database.
+	 */
+	@Nonnull
+	Set<String> getTablesWithForeignKeysToRevisionTable()
+	{
+		lookupCount.incrementAndGet();
+		return new HashSet<>(tablesWithForeignKeysToRevisionTable);
+	}
+
+	/**
+	 * @return The tables of which the upper case name ends with the upper case postfix, as upper case names.
+	 */
+	@Nonnull
+	Set<String> getTablesByNameEndingWith(@Nonnull String postFix)
+	{
+		lookupCount.incrementAndGet();
+		final String upperCasePostFix = postFix.toUpperCase();
+		final Set<String> result = new HashSet<>();
+		for (String tableName : tableNames)
+		{
+			if (tableName.endsWith(upperCasePostFix))
+			{
+				result.add(tableName);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Counts a query executed to obtain this metadata.
+	 */
+	void queryExecuted()
+	{
+		queryCount.incrementAndGet();
+	}
+
+	/**
+	 * @return The number of queries executed to obtain this metadata.
+	 */
+	long getQueryCount()
+	{
+		return queryCount.get();
+	}
+
+	/**
+	 * @return The number of lookups served from this metadata, each of which would otherwise have required a query.
+	 */
+	long getLookupCount()
+	{
+		return lookupCount.get();
+	}
+
+	void writeTo(@Nonnull Properties properties)
+	{
+		properties.setProperty(TABLES_PROPERTY_KEY, String.join(SEPARATOR, tableNames));
+		properties.setProperty(FOREIGN_KEYS_TO_REVISION_TABLE_PROPERTY_KEY, String.join(SEPARATOR, tablesWithForeignKeysToRevisionTable));
+		primaryKeyColumnNames.forEach((tableName, columnNames) -> properties.setProperty(PRIMARY_KEY_PROPERTY_KEY_PREFIX + tableName, String.join(SEPARATOR, columnNames)));
+		nonnullColumnNames.forEach((tableName, columnNames) -> properties.setProperty(NONNULL_COLUMNS_PROPERTY_KEY_PREFIX + tableName, String.join(SEPARATOR, columnNames)));
+	}
+
+	/**
+	 * Reads the metadata written by {@link #writeTo(Properties)}.
+	 */
+	@Nonnull
+	static SchemaMetadata readFrom(@Nonnull Properties properties)
+	{
+		final SchemaMetadata schemaMetadata = new SchemaMetadata();
+		split(properties.getProperty(TABLES_PROPERTY_KEY)).forEach(schemaMetadata::addTable);
+		schemaMetadata.tablesWithForeignKeysToRevisionTable.addAll(split(properties.getProperty(FOREIGN_KEYS_TO_REVISION_TABLE_PROPERTY_KEY)));
+		for (String key : properties.stringPropertyNames())
+		{
+			if (key.startsWith(PRIMARY_KEY_PROPERTY_KEY_PREFIX))
+			{
+				schemaMetadata.primaryKeyColumnNames.put(key.substring(PRIMARY_KEY_PROPERTY_KEY_PREFIX.length()), split(properties.getProperty(key)));
+			}
+			else if (key.startsWith(NONNULL_COLUMNS_PROPERTY_KEY_PREFIX))
+			{
+				schemaMetadata.nonnullColumnNames.put(key.substring(NONNULL_COLUMNS_PROPERTY_KEY_PREFIX.length()), new HashSet<>(split(properties.getProperty(key))));
+			}
+		}
+		return schemaMetadata;
+	}
+
+	@Nonnull
+	private static List<String> split(@Nullable String value)
+	{
+		final List<String> values = new ArrayList<>();
+		for (String part : StringUtils.split(StringUtils.defaultString(value), SEPARATOR))
+		{
+			values.add(part);
+		}
+		return values;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "SchemaMetadata[tables=" + tableNames.size() + ", tablesWithPrimaryKey=" + primaryKeyColumnNames.size() + ", tablesWithForeignKeysToRevisionTable=" + tablesWithForeignKeysToRevisionTable.size() + ", queries=" + getQueryCount() + ", lookups=" + getLookupCount() + "]";
+	}
+}
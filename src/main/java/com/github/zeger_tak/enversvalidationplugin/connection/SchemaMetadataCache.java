@@ -0,0 +1,115 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the {@link SchemaMetadata} in a file between runs, it is reused as long as the fingerprint of the schema is unchanged.
+ * The fingerprint is determined by the database and changes whenever the definition of a table or constraint changes.
+ *
+ * The file only serves to skip retrieving the metadata, so a file that cannot be read or written is treated as if there is no cached metadata.
+ */
+final class SchemaMetadataCache
+{
+	private static final String FINGERPRINT_PROPERTY_KEY = "fingerprint";
+	private static final String SCHEMA_PROPERTY_KEY = "schema";
+
+	private final File file;
+	private final String schemaIdentifier;
+
+	/**
+	 * @param schemaIdentifier Identifies the database and schema the metadata was retrieved from, metadata of another schema is never reused.
+	 */
+	SchemaMetadataCache(@Nonnull File file, @Nonnull String schemaIdentifier)
+	{
+		this.file = file;
+		this.schemaIdentifier = schemaIdentifier;
+	}
+
+	/**
+	 * @return The cached metadata, or null if no metadata was cached for the given fingerprint.
+	 */
+	@CheckForNull
+	SchemaMetadata read(@Nonnull String fingerprint)
+	{
+		if (!file.isFile())
+		{
+			return null;
+		}
+
+		final Properties properties = new Properties();
+		try (InputStream inputStream = Files.newInputStream(file.toPath()))
+		{
+			properties.load(inputStream);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+
+		if (!fingerprint.equals(properties.getProperty(FINGERPRINT_PROPERTY_KEY)) || !schemaIdentifier.equals(properties.getProperty(SCHEMA_PROPERTY_KEY)))
+		{
+			return null;
+		}
+		return SchemaMetadata.readFrom(properties);
+	}
+
+	void write(@Nonnull String fingerprint, @Nonnull SchemaMetadata schemaMetadata)
+	{
+		final Properties properties = new Properties();
+		properties.setProperty(FINGERPRINT_PROPERTY_KEY, fingerprint);
+		properties.setProperty(SCHEMA_PROPERTY_KEY, schemaIdentifier);
+		schemaMetadata.writeTo(properties);
+
+		final Path directory = file.getAbsoluteFile().toPath().getParent();
+		Path temporaryFile = null;
+		try
+		{
+			Files.createDirectories(directory);
+
+			// Written to a temporary file first, so a concurrent build never reads a partially written file.
+			temporaryFile = Files.createTempFile(directory, file.getName(), ".tmp");
+			try (OutputStream outputStream = Files.newOutputStream(temporaryFile))
+			{
+				properties.store(outputStream, "Schema metadata cached by the envers validation plugin");
+			}
+			Files.move(temporaryFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			// The metadata is retrieved again next run.
+			deleteQuietly(temporaryFile);
+		}
+	}
+
+	private static void deleteQuietly(@Nullable Path temporaryFile)
+	{
+		try
+		{
+			if (temporaryFile != null)
+			{
+				Files.deleteIfExists(temporaryFile);
+			}
+		}
+		catch (IOException e)
+		{
+			// Only a leftover temporary file.
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "SchemaMetadataCache[file=" + file + "]";
+	}
+}
@@ -0,0 +1,107 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Prepared statements of a single connection, kept open after use so executing the same query again does not require the database to parse it again.
+ * A statement is taken out of the cache while its result set is read, so the same query can be read by more than one cursor at a time.
+ *
+ * The least recently used statement is closed once more than the maximum number of statements are kept.
+ */
+final class StatementCache
+{
+	private final Connection connection;
+	private final int fetchSize;
+	private final int maximumSize;
+	private final StatementStatistics statistics;
+	private final Map<String, PreparedStatement> idleStatements = new LinkedHashMap<>(16, 0.75f, true);
+
+	StatementCache(@Nonnull Connection connection, int fetchSize, int maximumSize, @Nonnull StatementStatistics statistics)
+	{
+		this.connection = connection;
+		this.fetchSize = fetchSize;
+		this.maximumSize = maximumSize;
+		this.statistics = statistics;
+	}
+
+	/**
+	 * @return The statement for the query, to be handed back using {@link #release(String, PreparedStatement)} or {@link #discard(PreparedStatement)}.
+	 */
+	@Nonnull
+	synchronized PreparedStatement acquire(@Nonnull String query) throws SQLException
+	{
+		final PreparedStatement idleStatement = idleStatements.remove(query);
+		if (idleStatement != null)
+		{
+			return idleStatement;
+		}
+
+		final PreparedStatement statement = connection.prepareStatement(query);
+		statement.setFetchSize(fetchSize);
+		statistics.statementPrepared();
+		return statement;
+	}
+
+	void executed()
+	{
+		statistics.statementExecuted();
+	}
+
+	/**
+	 * Keeps the statement for the next execution of the query, once its result set is closed.
+	 */
+	synchronized void release(@Nonnull String query, @Nonnull PreparedStatement statement)
+	{
+		final PreparedStatement replacedStatement = idleStatements.put(query, statement);
+		if (replacedStatement != null)
+		{
+			closeQuietly(replacedStatement);
+		}
+
+		final Iterator<PreparedStatement> leastRecentlyUsed = idleStatements.values().iterator();
+		while (idleStatements.size() > maximumSize)
+		{
+			closeQuietly(leastRecentlyUsed.next());
+			leastRecentlyUsed.remove();
+		}
+	}
+
+	/**
+	 * Closes a statement that failed, instead of keeping it.
+	 */
+	void discard(@Nonnull PreparedStatement statement)
+	{
+		closeQuietly(statement);
+	}
+
+	synchronized void close()
+	{
+		idleStatements.values().forEach(StatementCache::closeQuietly);
+		idleStatements.clear();
+	}
+
+	private static void closeQuietly(@Nonnull PreparedStatement statement)
+	{
+		try
+		{
+			statement.close();
+		}
+		catch (SQLException e)
+		{
+			// The statement is no longer used.
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "StatementCache[idle=" + idleStatements.size() + ", maximumSize=" + maximumSize + "]";
+	}
+}
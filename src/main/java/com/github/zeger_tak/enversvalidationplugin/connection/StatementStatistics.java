@@ -0,0 +1,45 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how often statements were prepared and executed over all connections, each prepare being a parse of the statement by the database.
+ * A statement executed more often than it was prepared was reused from a {@link StatementCache}.
+ */
+public class StatementStatistics
+{
+	private final AtomicLong prepareCount = new AtomicLong();
+	private final AtomicLong executeCount = new AtomicLong();
+
+	void statementPrepared()
+	{
+		prepareCount.incrementAndGet();
+	}
+
+	void statementExecuted()
+	{
+		executeCount.incrementAndGet();
+	}
+
+	/**
+	 * @return The number of statements prepared, and therefore parsed by the database.
+	 */
+	public long getPrepareCount()
+	{
+		return prepareCount.get();
+	}
+
+	/**
+	 * @return The number of statements executed.
+	 */
+	public long getExecuteCount()
+	{
+		return executeCount.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "StatementStatistics[prepared=" + getPrepareCount() + ", executed=" + getExecuteCount() + "]";
+	}
+}
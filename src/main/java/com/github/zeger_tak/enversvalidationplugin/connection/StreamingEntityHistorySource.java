@@ -0,0 +1,271 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.ContentValidationMode;
+import com.github.zeger_tak.enversvalidationplugin.entities.EntityHistory;
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+import com.github.zeger_tak.enversvalidationplugin.entities.TableRow;
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+import org.dbunit.dataset.DataSetException;
+
+/**
+ * Reads the content table and the audit table through forward-only cursors, both ordered by primary key, and merge-joins them one entity at a time.
+ * Only the history of the current entity is held in memory.
+ */
+public class StreamingEntityHistorySource implements EntityHistorySource
+{
+	private final ConnectionProviderInstance connectionProvider;
+	private final AuditTableInformation auditTableInformation;
+	private final List<String> primaryIdentifierColumnNames;
+
+	public StreamingEntityHistorySource(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames)
+	{
+		this.connectionProvider = connectionProvider;
+		this.auditTableInformation = auditTableInformation;
+		this.primaryIdentifierColumnNames = primaryIdentifierColumnNames;
+	}
+
+	@Nonnull
+	@Override
+	public EntityHistoryCursor open()
+	{
+		final DatabaseQueries databaseQueries = connectionProvider.getQueries();
+		final PooledConnection connection = connectionProvider.borrowConnection();
+		TableRowCursor contentCursor = null;
+		TableRowCursor auditCursor = null;
+		try
+		{
+			contentCursor = databaseQueries.getContentRecordsOrderedByPrimaryKey(connection.getDatabaseConnection(), auditTableInformation, primaryIdentifierColumnNames);
+			auditCursor = databaseQueries.getAuditRecordsOrderedByPrimaryKeyAndRevision(connection.getDatabaseConnection(), auditTableInformation, primaryIdentifierColumnNames);
+			return new MergeJoinCursor(databaseQueries, connection, contentCursor, auditCursor);
+		}
+		catch (SQLException | DataSetException | RuntimeException e)
+		{
+			closeQuietly(contentCursor);
+			closeQuietly(auditCursor);
+			connection.close();
+			if (e instanceof RuntimeException)
+			{
+				throw (RuntimeException) e;
+			}
+			throw new ValidationException("Unable to read the records of " + auditTableInformation.getAuditTableName() + " and " + auditTableInformation.getContentTableName() + ".", e);
+		}
+	}
+
+	private static void closeQuietly(@Nullable TableRowCursor cursor)
+	{
+		if (cursor == null)
+		{
+			return;
+		}
+
+		try
+		{
+			cursor.close();
+		}
+		catch (DataSetException e)
+		{
+			// Nothing left to read from this cursor.
+		}
+	}
+
+	/**
+	 * Compares primary key values the way the database orders them, as long as the database uses a binary collation for textual keys.
+	 */
+	static int compareKeys(@Nonnull PrimaryIdentifier key1, @Nonnull PrimaryIdentifier key2)
+	{
+		for (int i = 0; i < key1.size(); i++)
+		{
+			final int compare = compareKeyValues(key1.getValue(i), key2.getValue(i));
+			if (compare != 0)
+			{
+				return compare;
+			}
+		}
+		return 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static int compareKeyValues(@Nullable Object value1, @Nullable Object value2)
+	{
+		if (value1 == value2)
+		{
+			return 0;
+		}
+		else if (value1 == null)
+		{
+			return 1;
+		}
+		else if (value2 == null)
+		{
+			return -1;
+		}
+		else if (value1 instanceof Number && value2 instanceof Number)
+		{
+			return compareNumbers((Number) value1, (Number) value2);
+		}
+		else if (value1 instanceof Comparable && value1.getClass().equals(value2.getClass()))
+		{
+			return ((Comparable<Object>) value1).compareTo(value2);
+		}
+		return value1.toString().compareTo(value2.toString());
+	}
+
+	/**
+	 * Compares numbers by value, only converting them if they are neither both {@link BigDecimal}s nor both integral values within the range of a long.
+	 * NaN and infinite floating point numbers are ordered as {@link Double#compare(double, double)} orders them.
+	 */
+	private static int compareNumbers(@Nonnull Number value1, @Nonnull Number value2)
+	{
+		if (value1 instanceof BigDecimal && value2 instanceof BigDecimal)
+		{
+			return ((BigDecimal) value1).compareTo((BigDecimal) value2);
+		}
+		if (PrimaryIdentifier.isLongValued(value1) && PrimaryIdentifier.isLongValued(value2))
+		{
+			return Long.compare(value1.longValue(), value2.longValue());
+		}
+
+		final BigDecimal decimal1 = PrimaryIdentifier.toBigDecimal(value1);
+		final BigDecimal decimal2 = PrimaryIdentifier.toBigDecimal(value2);
+		if (decimal1 == null || decimal2 == null)
+		{
+			return Double.compare(value1.doubleValue(), value2.doubleValue());
+		}
+		return decimal1.compareTo(decimal2);
+	}
+
+	private class MergeJoinCursor implements EntityHistoryCursor
+	{
+		private final DatabaseQueries databaseQueries;
+		private final PooledConnection connection;
+		private final TableRowCursor contentCursor;
+		private final TableRowCursor auditCursor;
+
+		private PrimaryIdentifier contentKey;
+		private PrimaryIdentifier auditKey;
+		private EntityHistory entityHistory;
+
+		private MergeJoinCursor(@Nonnull DatabaseQueries databaseQueries, @Nonnull PooledConnection connection, @Nonnull TableRowCursor contentCursor, @Nonnull TableRowCursor auditCursor) throws DataSetException
+		{
+			this.databaseQueries = databaseQueries;
+			this.connection = connection;
+			this.contentCursor = contentCursor;
+			this.auditCursor = auditCursor;
+
+			contentKey = moveToNextKey(contentCursor, null);
+			auditKey = moveToNextKey(auditCursor, null);
+		}
+
+		@Override
+		public boolean next()
+		{
+			try
+			{
+				entityHistory = readNextEntityHistory();
+				return entityHistory != null;
+			}
+			catch (DataSetException e)
+			{
+				throw new ValidationException("Unable to read the records of " + auditTableInformation.getAuditTableName() + " and " + auditTableInformation.getContentTableName() + ".", e);
+			}
+		}
+
+		@CheckForNull
+		private EntityHistory readNextEntityHistory() throws DataSetException
+		{
+			if (contentKey == null && auditKey == null)
+			{
+				return null;
+			}
+
+			final int compare;
+			if (contentKey == null)
+			{
+				compare = 1;
+			}
+			else if (auditKey == null)
+			{
+				compare = -1;
+			}
+			else
+			{
+				compare = compareKeys(contentKey, auditKey);
+			}
+
+			TableRow contentRow = null;
+			PrimaryIdentifier identifier = null;
+			if (compare <= 0)
+			{
+				identifier = contentKey;
+				contentRow = contentCursor.getTableRow();
+				contentKey = moveToNextKey(contentCursor, contentKey);
+			}
+
+			List<TableRow> auditRows = Collections.emptyList();
+			if (compare >= 0)
+			{
+				identifier = auditKey;
+				auditRows = new ArrayList<>();
+
+				final PrimaryIdentifier currentAuditKey = auditKey;
+				do
+				{
+					auditRows.add(auditCursor.getTableRow());
+					auditKey = moveToNextKey(auditCursor, auditKey);
+				}
+				while (auditKey != null && compareKeys(currentAuditKey, auditKey) == 0);
+			}
+
+			return new EntityHistory(identifier, auditRows, contentRow);
+		}
+
+		@CheckForNull
+		private PrimaryIdentifier moveToNextKey(@Nonnull TableRowCursor cursor, @Nullable PrimaryIdentifier previousKey) throws DataSetException
+		{
+			if (!cursor.next())
+			{
+				return null;
+			}
+
+			final PrimaryIdentifier key = databaseQueries.getPrimaryIdentifier(cursor.getTable(), cursor.getRowIndex(), primaryIdentifierColumnNames);
+
+			if (previousKey != null && compareKeys(previousKey, key) > 0)
+			{
+				throw new ValidationException("The records of " + cursor.getTable().getTableMetaData().getTableName() + " are not returned in the primary key order expected for streaming, key " + key + " was read after key " + previousKey
+						+ ". This happens when the database uses a non binary collation for textual primary keys, use the " + ContentValidationMode.IN_MEMORY + " mode for this table instead.");
+			}
+			return key;
+		}
+
+		@Nonnull
+		@Override
+		public EntityHistory getEntityHistory()
+		{
+			if (entityHistory == null)
+			{
+				throw new IllegalStateException("The cursor is not positioned on an entity.");
+			}
+			return entityHistory;
+		}
+
+		@Override
+		public void close()
+		{
+			entityHistory = null;
+			closeQuietly(contentCursor);
+			closeQuietly(auditCursor);
+			connection.close();
+		}
+	}
+}
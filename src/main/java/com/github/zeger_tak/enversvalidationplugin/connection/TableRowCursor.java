@@ -0,0 +1,131 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.TableRow;
+import com.github.zeger_tak.enversvalidationplugin.entities.TableRowSchema;
+import org.dbunit.database.IResultSetTable;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.RowOutOfBoundsException;
+
+/**
+ * Forward-only cursor over the rows of an {@link ITable}.
+ * Rows are only read once and are never held by the cursor after moving to the next row.
+ * If the cursor was given the connection it reads from, the connection is returned to its pool once the cursor is closed.
+ */
+public class TableRowCursor implements AutoCloseable
+{
+	private final ITable table;
+	private final List<String> columnNames;
+	private final TableRowSchema schema;
+	private final PooledConnection connection;
+
+	private int rowIndex = -1;
+	private boolean endOfTable;
+
+	public TableRowCursor(@Nonnull ITable table) throws DataSetException
+	{
+		this(table, null);
+	}
+
+	public TableRowCursor(@Nonnull ITable table, @Nullable PooledConnection connection) throws DataSetException
+	{
+		this.table = table;
+		this.connection = connection;
+
+		final Column[] columns = table.getTableMetaData().getColumns();
+		columnNames = new ArrayList<>(columns.length);
+		for (Column column : columns)
+		{
+			columnNames.add(column.getColumnName());
+		}
+		schema = new TableRowSchema(columnNames);
+	}
+
+	/**
+	 * Moves the cursor to the next row.
+	 *
+	 * @return false if there are no more rows.
+	 */
+	public boolean next() throws DataSetException
+	{
+		if (endOfTable)
+		{
+			return false;
+		}
+
+		rowIndex++;
+		try
+		{
+			// Reading a value forces forward-only tables to move to the requested row.
+			table.getValue(rowIndex, columnNames.get(0));
+			return true;
+		}
+		catch (RowOutOfBoundsException e)
+		{
+			endOfTable = true;
+			return false;
+		}
+	}
+
+	@CheckForNull
+	public Object getValue(@Nonnull String columnName) throws DataSetException
+	{
+		return table.getValue(rowIndex, columnName);
+	}
+
+	@Nonnull
+	public TableRow getTableRow() throws DataSetException
+	{
+		final Object[] values = new Object[columnNames.size()];
+		for (int i = 0; i < values.length; i++)
+		{
+			values[i] = table.getValue(rowIndex, columnNames.get(i));
+		}
+		return new TableRow(schema, values);
+	}
+
+	@Nonnull
+	public List<String> getColumnNames()
+	{
+		return Collections.unmodifiableList(columnNames);
+	}
+
+	@Nonnull
+	public ITable getTable()
+	{
+		return table;
+	}
+
+	public int getRowIndex()
+	{
+		return rowIndex;
+	}
+
+	@Override
+	public void close() throws DataSetException
+	{
+		try
+		{
+			if (table instanceof IResultSetTable)
+			{
+				((IResultSetTable) table).close();
+			}
+		}
+		finally
+		{
+			if (connection != null)
+			{
+				connection.close();
+			}
+		}
+	}
+}
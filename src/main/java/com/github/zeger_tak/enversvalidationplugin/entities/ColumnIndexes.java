@@ -0,0 +1,47 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The indexes of a fixed set of columns, looked up once for each {@link TableRowSchema} and reused for all rows sharing that schema.
+ * The rows of a table share a few schemas at most, rows built column by column are the exception as each of those has a schema of its own.
+ *
+ * Not to be shared between threads.
+ */
+public final class ColumnIndexes
+{
+	private static final int MAXIMUM_SCHEMA_COUNT = 16;
+
+	private final List<String> columnNames;
+	private final Map<TableRowSchema, int[]> indexesBySchema = new IdentityHashMap<>();
+
+	public ColumnIndexes(@Nonnull String... columnNames)
+	{
+		this.columnNames = Arrays.asList(columnNames);
+	}
+
+	/**
+	 * @return The indexes of the columns within the schema of the row, in the order the columns were given.
+	 */
+	@Nonnull
+	public int[] of(@Nonnull TableRow tableRow)
+	{
+		final TableRowSchema schema = tableRow.getSchema();
+		int[] indexes = indexesBySchema.get(schema);
+		if (indexes == null)
+		{
+			if (indexesBySchema.size() == MAXIMUM_SCHEMA_COUNT)
+			{
+				indexesBySchema.clear();
+			}
+			indexes = schema.indexesOf(columnNames);
+			indexesBySchema.put(schema, indexes);
+		}
+		return indexes;
+	}
+}
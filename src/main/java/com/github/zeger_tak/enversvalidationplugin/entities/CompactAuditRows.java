@@ -0,0 +1,185 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Audit rows of a single entity, ordered by revision, of which only the revision type and revision are kept for most rows.
+ * The values of all columns are only kept for the latest revision and for Remove revisions holding data besides their identifying columns.
+ *
+ * Rows of which only the revision type and revision are kept are provided as a {@link TableRow} holding just those two columns.
+ */
+public class CompactAuditRows extends AbstractList<TableRow>
+{
+	private static final int INITIAL_CAPACITY = 4;
+
+	private final Layout layout;
+
+	private byte[] revTypes = new byte[INITIAL_CAPACITY];
+	private long[] revisions = new long[INITIAL_CAPACITY];
+	private TableRow[] fullRows = new TableRow[INITIAL_CAPACITY];
+	private int size;
+
+	private Class<?> revTypeClass;
+	private Class<?> revisionClass;
+
+	public CompactAuditRows(@Nonnull Layout layout)
+	{
+		this.layout = layout;
+	}
+
+	@Override
+	public boolean add(@Nonnull TableRow tableRow)
+	{
+		if (size == fullRows.length)
+		{
+			revTypes = Arrays.copyOf(revTypes, size * 2);
+			revisions = Arrays.copyOf(revisions, size * 2);
+			fullRows = Arrays.copyOf(fullRows, size * 2);
+		}
+
+		// The previous row is no longer the latest revision.
+		if (size > 0)
+		{
+			compact(size - 1);
+		}
+
+		fullRows[size] = tableRow;
+		size++;
+		modCount++;
+		return true;
+	}
+
+	@Nonnull
+	@Override
+	public TableRow get(int index)
+	{
+		if (index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+
+		final TableRow fullRow = fullRows[index];
+		if (fullRow != null)
+		{
+			return fullRow;
+		}
+		return new TableRow(layout.compactSchema, new Object[] { toNumber(revTypes[index], revTypeClass), toNumber(revisions[index], revisionClass) });
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	private void compact(int index)
+	{
+		final TableRow tableRow = fullRows[index];
+		final int[] columnIndexes = layout.revisionColumnIndexes.of(tableRow);
+		final Object revType = tableRow.getColumnValue(columnIndexes[0]);
+		final Object revision = tableRow.getColumnValue(columnIndexes[1]);
+		if (!isCompactable(revType, revTypeClass) || !isCompactable(revision, revisionClass))
+		{
+			return;
+		}
+
+		final long revTypeValue = ((Number) revType).longValue();
+		if (revTypeValue < Byte.MIN_VALUE || revTypeValue > Byte.MAX_VALUE || (revTypeValue == RevisionConstants.REMOVE_REVISION && hasData(tableRow)))
+		{
+			return;
+		}
+
+		revTypeClass = revType.getClass();
+		revisionClass = revision.getClass();
+		revTypes[index] = (byte) revTypeValue;
+		revisions[index] = ((Number) revision).longValue();
+		fullRows[index] = null;
+	}
+
+	/**
+	 * Values can only be compacted if they are integral and of the same type as the values compacted before.
+	 */
+	private static boolean isCompactable(@Nullable Object value, @Nullable Class<?> expectedClass)
+	{
+		if (value == null || (expectedClass != null && !expectedClass.equals(value.getClass())))
+		{
+			return false;
+		}
+		if (value instanceof Long || value instanceof Integer || value instanceof Short)
+		{
+			return true;
+		}
+		if (value instanceof BigInteger)
+		{
+			return ((BigInteger) value).bitLength() < 64;
+		}
+		return value instanceof BigDecimal && ((BigDecimal) value).scale() == 0 && ((BigDecimal) value).unscaledValue().bitLength() < 64;
+	}
+
+	@Nonnull
+	private static Object toNumber(long value, @Nonnull Class<?> numberClass)
+	{
+		if (numberClass.equals(BigDecimal.class))
+		{
+			return BigDecimal.valueOf(value);
+		}
+		if (numberClass.equals(BigInteger.class))
+		{
+			return BigInteger.valueOf(value);
+		}
+		if (numberClass.equals(Integer.class))
+		{
+			return (int) value;
+		}
+		if (numberClass.equals(Short.class))
+		{
+			return (short) value;
+		}
+		return value;
+	}
+
+	private boolean hasData(@Nonnull TableRow tableRow)
+	{
+		final TableRowSchema schema = tableRow.getSchema();
+		for (int i = 0; i < schema.size(); i++)
+		{
+			if (tableRow.getColumnValue(i) != null && !layout.identifyingColumnNames.contains(schema.getColumnName(i).toUpperCase()))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Column names shared by the audit rows of all entities of an audit table, only to be used by the thread reading the audit table.
+	 */
+	public static final class Layout
+	{
+		private final ColumnIndexes revisionColumnIndexes;
+		private final TableRowSchema compactSchema;
+		private final Set<String> identifyingColumnNames = new HashSet<>();
+
+		public Layout(@Nonnull String revTypeColumnName, @Nonnull String revisionColumnName, @Nonnull List<String> primaryIdentifierColumnNames)
+		{
+			revisionColumnIndexes = new ColumnIndexes(revTypeColumnName, revisionColumnName);
+			compactSchema = new TableRowSchema(Arrays.asList(revTypeColumnName, revisionColumnName));
+
+			identifyingColumnNames.add(revTypeColumnName.toUpperCase());
+			identifyingColumnNames.add(revisionColumnName.toUpperCase());
+			for (String primaryIdentifierColumnName : primaryIdentifierColumnNames)
+			{
+				identifyingColumnNames.add(primaryIdentifierColumnName.toUpperCase());
+			}
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+/**
+ * Determines how the content of audit and content tables is read while validating revisions.
+ */
+public enum ContentValidationMode
+{
+	/**
+	 * Both the content table and the audit table are fully loaded into memory before any validation runs.
+	 */
+	IN_MEMORY,
+
+	/**
+	 * Both tables are read through forward-only cursors ordered by primary key and merge-joined one entity at a time.
+	 * Memory usage is bound by the largest history of a single entity instead of by the size of the tables.
+	 */
+	STREAMING,
+
+	/**
+	 * Both tables are read in chunks of consecutive primary keys using keyset pagination, each chunk is validated before the next one is read.
+	 * Memory usage is bound by the chunk size and every query is short, at the cost of a few queries per chunk.
+	 */
+	CHUNKED
+}
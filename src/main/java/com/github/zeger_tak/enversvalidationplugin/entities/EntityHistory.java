@@ -0,0 +1,57 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * All audit rows of a single primary key, ordered by revision, together with the matching row in the content table.
+ */
+public class EntityHistory
+{
+	private final Object identifier;
+	private final List<TableRow> auditRows;
+	private final TableRow contentRow;
+
+	/**
+	 * @param identifier Identifies the entity in validation messages, usually a {@link PrimaryIdentifier}.
+	 */
+	public EntityHistory(@Nonnull Object identifier, @Nonnull List<TableRow> auditRows, @Nullable TableRow contentRow)
+	{
+		this.identifier = identifier;
+		this.auditRows = auditRows;
+		this.contentRow = contentRow;
+	}
+
+	@Nonnull
+	public Object getIdentifier()
+	{
+		return identifier;
+	}
+
+	@Nonnull
+	public List<TableRow> getAuditRows()
+	{
+		return auditRows;
+	}
+
+	@CheckForNull
+	public TableRow getLatestAuditRow()
+	{
+		return auditRows.isEmpty() ? null : auditRows.get(auditRows.size() - 1);
+	}
+
+	@CheckForNull
+	public TableRow getContentRow()
+	{
+		return contentRow;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "EntityHistory[identifier=" + identifier + ", auditRows=" + auditRows + ", contentRow=" + contentRow + "]";
+	}
+}
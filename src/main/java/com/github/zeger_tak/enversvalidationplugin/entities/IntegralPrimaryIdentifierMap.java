@@ -0,0 +1,201 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Map for primary identifiers consisting of a single integral column, which is the case for most audited entities.
+ * These identifiers are stored as primitive longs in an open addressing table, no key or entry objects are kept per record.
+ * Any other identifier is stored in a regular {@link HashMap}.
+ *
+ * Keys are recreated while iterating, holding their value as a {@link BigDecimal} like any integral {@link PrimaryIdentifier}.
+ * Null values and removal of entries are not supported.
+ */
+public class IntegralPrimaryIdentifierMap<V> extends AbstractMap<PrimaryIdentifier, V>
+{
+	private static final int INITIAL_CAPACITY = 16;
+
+	private long[] keys = new long[INITIAL_CAPACITY];
+	private Object[] values = new Object[INITIAL_CAPACITY];
+	private int integralSize;
+
+	private final Map<PrimaryIdentifier, V> otherIdentifiers = new HashMap<>();
+
+	@CheckForNull
+	@Override
+	public V get(@Nullable Object key)
+	{
+		final Long integralKey = toIntegralKey(key);
+		if (integralKey == null)
+		{
+			return otherIdentifiers.get(key);
+		}
+		return valueAt(indexOf(integralKey));
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key)
+	{
+		return get(key) != null;
+	}
+
+	@CheckForNull
+	@Override
+	public V put(@Nonnull PrimaryIdentifier key, @Nonnull V value)
+	{
+		if (value == null)
+		{
+			throw new IllegalArgumentException("Null values are not supported.");
+		}
+
+		final Long integralKey = toIntegralKey(key);
+		if (integralKey == null)
+		{
+			return otherIdentifiers.put(key, value);
+		}
+
+		final int index = indexOf(integralKey);
+		final V previousValue = valueAt(index);
+		keys[index] = integralKey;
+		values[index] = value;
+		if (previousValue == null && ++integralSize * 2 > keys.length)
+		{
+			resize();
+		}
+		return previousValue;
+	}
+
+	@Override
+	public int size()
+	{
+		return integralSize + otherIdentifiers.size();
+	}
+
+	@Nonnull
+	@Override
+	public Set<Entry<PrimaryIdentifier, V>> entrySet()
+	{
+		return new AbstractSet<Entry<PrimaryIdentifier, V>>()
+		{
+			@Nonnull
+			@Override
+			public Iterator<Entry<PrimaryIdentifier, V>> iterator()
+			{
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size()
+			{
+				return IntegralPrimaryIdentifierMap.this.size();
+			}
+		};
+	}
+
+	/**
+	 * @return The value of the identifier if it consists of a single integral value within the range of a long, otherwise null.
+	 * {@link PrimaryIdentifier} holds integral values as a {@link BigDecimal} with a scale of 0, so equal identifiers always map to the same key.
+	 */
+	@CheckForNull
+	private static Long toIntegralKey(@Nullable Object key)
+	{
+		if (!(key instanceof PrimaryIdentifier) || ((PrimaryIdentifier) key).size() != 1)
+		{
+			return null;
+		}
+
+		final Object value = ((PrimaryIdentifier) key).getValue(0);
+		if (value instanceof BigDecimal && ((BigDecimal) value).scale() == 0 && ((BigDecimal) value).unscaledValue().bitLength() < 64)
+		{
+			return ((BigDecimal) value).longValue();
+		}
+		return null;
+	}
+
+	/**
+	 * @return The slot holding the key, or the empty slot where it should be stored.
+	 */
+	private int indexOf(long key)
+	{
+		final int mask = keys.length - 1;
+		final long hash = key * 0x9E3779B97F4A7C15L;
+		int index = (int) (hash ^ (hash >>> 32)) & mask;
+		while (values[index] != null && keys[index] != key)
+		{
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	@CheckForNull
+	@SuppressWarnings("unchecked")
+	private V valueAt(int index)
+	{
+		return (V) values[index];
+	}
+
+	private void resize()
+	{
+		final long[] previousKeys = keys;
+		final Object[] previousValues = values;
+		keys = new long[previousKeys.length * 2];
+		values = new Object[previousValues.length * 2];
+		for (int i = 0; i < previousKeys.length; i++)
+		{
+			if (previousValues[i] != null)
+			{
+				final int index = indexOf(previousKeys[i]);
+				keys[index] = previousKeys[i];
+				values[index] = previousValues[i];
+			}
+		}
+	}
+
+	private class EntryIterator implements Iterator<Entry<PrimaryIdentifier, V>>
+	{
+		private final Iterator<Entry<PrimaryIdentifier, V>> otherIdentifiersIterator = otherIdentifiers.entrySet().iterator();
+		private int index = nextIntegralIndex(0);
+
+		private int nextIntegralIndex(int from)
+		{
+			int next = from;
+			while (next < values.length && values[next] == null)
+			{
+				next++;
+			}
+			return next;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return index < values.length || otherIdentifiersIterator.hasNext();
+		}
+
+		@Override
+		public Entry<PrimaryIdentifier, V> next()
+		{
+			if (index < values.length)
+			{
+				final Entry<PrimaryIdentifier, V> entry = new SimpleImmutableEntry<>(new PrimaryIdentifier(BigDecimal.valueOf(keys[index])), valueAt(index));
+				index = nextIntegralIndex(index + 1);
+				return entry;
+			}
+			if (otherIdentifiersIterator.hasNext())
+			{
+				return otherIdentifiersIterator.next();
+			}
+			throw new NoSuchElementException();
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Immutable primary identifier of a record, holding the values of the primary identifier columns as read from the database.
+ * Numeric values are compared by value, so identifiers read from the content table and the audit table match regardless of their scale.
+ * Integral values are held as a {@link BigDecimal} with a scale of 0, regardless of the type returned by the driver.
+ */
+public final class PrimaryIdentifier
+{
+	private final Object[] values;
+	private final int hash;
+
+	public PrimaryIdentifier(@Nonnull Object... values)
+	{
+		this.values = new Object[values.length];
+		for (int i = 0; i < values.length; i++)
+		{
+			this.values[i] = normalize(values[i]);
+		}
+		hash = Arrays.hashCode(this.values);
+	}
+
+	@CheckForNull
+	private static Object normalize(@Nullable Object value)
+	{
+		if (value instanceof BigDecimal || value instanceof BigInteger || isLongValued(value))
+		{
+			return toBigDecimal((Number) value);
+		}
+		return value;
+	}
+
+	/**
+	 * @return True if the value is of a type holding an integral value within the range of a long.
+	 */
+	public static boolean isLongValued(@Nullable Object value)
+	{
+		return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+	}
+
+	/**
+	 * Converts the number to a {@link BigDecimal} without trailing zeros, integral values having a scale of 0 as held by an identifier.
+	 *
+	 * @return The number as {@link BigDecimal}, or null for a NaN or infinite floating point number.
+	 */
+	@CheckForNull
+	public static BigDecimal toBigDecimal(@Nonnull Number number)
+	{
+		if (isLongValued(number))
+		{
+			return BigDecimal.valueOf(number.longValue());
+		}
+		if (number instanceof BigInteger)
+		{
+			return new BigDecimal((BigInteger) number);
+		}
+
+		if ((number instanceof Double || number instanceof Float) && (Double.isNaN(number.doubleValue()) || Double.isInfinite(number.doubleValue())))
+		{
+			return null;
+		}
+
+		final BigDecimal value = number instanceof BigDecimal ? (BigDecimal) number : new BigDecimal(number.toString());
+
+		if (value.scale() == 0)
+		{
+			return value;
+		}
+		final BigDecimal stripped = value.stripTrailingZeros();
+		return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+	}
+
+	public int size()
+	{
+		return values.length;
+	}
+
+	@CheckForNull
+	public Object getValue(int index)
+	{
+		return values[index];
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o)
+		{
+			return true;
+		}
+		if (o == null || getClass() != o.getClass())
+		{
+			return false;
+		}
+
+		final PrimaryIdentifier that = (PrimaryIdentifier) o;
+		return hash == that.hash && Arrays.equals(values, that.values);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return hash;
+	}
+
+	/**
+	 * @return The values joined by a '-', as shown in validation messages.
+	 */
+	@Override
+	public String toString()
+	{
+		return StringUtils.join(values, "-");
+	}
+}
@@ -0,0 +1,172 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+
+/**
+ * The highest revision validated for each audit table, kept in a file between runs so later runs only validate the entities changed by newer revisions.
+ * A revision only becomes the validated revision of an audit table once all revision validations of that audit table succeeded, or failed but are ignored.
+ * As revisions may be committed out of order, the entities changed by the revisions just below the validated revision are validated again, see {@link ValidationSettings#getRevisionCheckpointOverlap()}.
+ */
+public class RevisionCheckpoint
+{
+	private static final String SCHEMA_PROPERTY_KEY = "schema";
+	private static final String VALIDATED_REVISION_PROPERTY_KEY_PREFIX = "validatedRevision.";
+
+	private final File file;
+	private final String schemaIdentifier;
+	private final Map<String, Long> validatedRevisions = new ConcurrentHashMap<>();
+	private final Map<String, Long> revisionsBeingValidated = new ConcurrentHashMap<>();
+
+	private RevisionCheckpoint(@Nonnull File file, @Nonnull String schemaIdentifier)
+	{
+		this.file = file;
+		this.schemaIdentifier = schemaIdentifier;
+	}
+
+	/**
+	 * @param schemaIdentifier Identifies the database and schema validated, revisions validated in another schema are not used.
+	 */
+	@Nonnull
+	public static RevisionCheckpoint load(@Nonnull File file, @Nonnull String schemaIdentifier)
+	{
+		final RevisionCheckpoint revisionCheckpoint = new RevisionCheckpoint(file, schemaIdentifier);
+		if (!file.isFile())
+		{
+			return revisionCheckpoint;
+		}
+
+		final Properties properties = new Properties();
+		try (InputStream inputStream = Files.newInputStream(file.toPath()))
+		{
+			properties.load(inputStream);
+		}
+		catch (IOException e)
+		{
+			throw new ValidationException("Unable to read the revision checkpoint file " + file + ".", e);
+		}
+
+		if (schemaIdentifier.equals(properties.getProperty(SCHEMA_PROPERTY_KEY)))
+		{
+			for (String key : properties.stringPropertyNames())
+			{
+				if (key.startsWith(VALIDATED_REVISION_PROPERTY_KEY_PREFIX))
+				{
+					revisionCheckpoint.validatedRevisions.put(key.substring(VALIDATED_REVISION_PROPERTY_KEY_PREFIX.length()), parseRevision(file, properties.getProperty(key)));
+				}
+			}
+		}
+		return revisionCheckpoint;
+	}
+
+	@Nonnull
+	private static Long parseRevision(@Nonnull File file, @Nonnull String value)
+	{
+		try
+		{
+			return Long.valueOf(value.trim());
+		}
+		catch (NumberFormatException e)
+		{
+			throw new ValidationException("Invalid revision '" + value + "' in revision checkpoint file " + file + ".", e);
+		}
+	}
+
+	/**
+	 * @return The highest revision of which all changes have been validated, or null if the audit table has not been validated before.
+	 */
+	@CheckForNull
+	public Long getValidatedRevision(@Nonnull String auditTableName)
+	{
+		return validatedRevisions.get(auditTableName);
+	}
+
+	/**
+	 * @param highestRevision The highest revision in the audit table before its records are read, or null if the audit table has no revisions.
+	 */
+	public void startValidation(@Nonnull String auditTableName, @Nullable Long highestRevision)
+	{
+		if (highestRevision == null)
+		{
+			revisionsBeingValidated.remove(auditTableName);
+		}
+		else
+		{
+			revisionsBeingValidated.put(auditTableName, highestRevision);
+		}
+	}
+
+	/**
+	 * Marks the revisions read since {@link #startValidation(String, Long)} as validated.
+	 */
+	public void validationSucceeded(@Nonnull String auditTableName)
+	{
+		final Long validatedRevision = revisionsBeingValidated.remove(auditTableName);
+		if (validatedRevision != null)
+		{
+			validatedRevisions.put(auditTableName, validatedRevision);
+		}
+	}
+
+	public void save()
+	{
+		final Properties properties = new Properties();
+		properties.setProperty(SCHEMA_PROPERTY_KEY, schemaIdentifier);
+		validatedRevisions.forEach((auditTableName, revision) -> properties.setProperty(VALIDATED_REVISION_PROPERTY_KEY_PREFIX + auditTableName, revision.toString()));
+
+		final Path directory = file.getAbsoluteFile().toPath().getParent();
+		Path temporaryFile = null;
+		try
+		{
+			Files.createDirectories(directory);
+
+			// Written to a temporary file first, so an interrupted build never leaves a partially written file behind.
+			temporaryFile = Files.createTempFile(directory, file.getName(), ".tmp");
+			try (OutputStream outputStream = Files.newOutputStream(temporaryFile))
+			{
+				properties.store(outputStream, "Revisions validated by the envers validation plugin");
+			}
+			Files.move(temporaryFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			deleteQuietly(temporaryFile);
+			throw new ValidationException("Unable to write the revision checkpoint file " + file + ".", e);
+		}
+	}
+
+	private static void deleteQuietly(@Nullable Path temporaryFile)
+	{
+		try
+		{
+			if (temporaryFile != null)
+			{
+				Files.deleteIfExists(temporaryFile);
+			}
+		}
+		catch (IOException e)
+		{
+			// Only a leftover temporary file.
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "RevisionCheckpoint[file=" + file + ", auditTablesValidated=" + validatedRevisions.size() + "]";
+	}
+}
@@ -0,0 +1,106 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Outcome of the revision validations on a sample of the entities of each audit table, from which the error rate of all entities is estimated.
+ * The same seed is used to select the sample of every audit table during a run, a run is repeated with the same sample by reusing its seed.
+ */
+public class SamplingReport
+{
+	/**
+	 * Standard score of a two sided 95% confidence interval.
+	 */
+	private static final double Z = 1.96;
+
+	private final long seed;
+	private final Map<String, Long> populationSizes = new ConcurrentHashMap<>();
+	private final Map<String, Sample> samples = new ConcurrentSkipListMap<>();
+
+	public SamplingReport(long seed)
+	{
+		this.seed = seed;
+	}
+
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * @param populationSize The number of entities in the audit table, of which a sample is validated.
+	 */
+	public void startSample(@Nonnull String auditTableName, long populationSize)
+	{
+		populationSizes.put(auditTableName, populationSize);
+	}
+
+	/**
+	 * @param sampleSize The number of entities validated.
+	 * @param invalidEntityCount The number of validated entities failing at least one validation.
+	 */
+	public void sampleValidated(@Nonnull String auditTableName, int sampleSize, int invalidEntityCount)
+	{
+		samples.put(auditTableName, new Sample(populationSizes.getOrDefault(auditTableName, (long) sampleSize), sampleSize, invalidEntityCount));
+	}
+
+	/**
+	 * @return A line per validated audit table, ordered by audit table name.
+	 */
+	@Nonnull
+	public List<String> getSummaries()
+	{
+		final List<String> summaries = new ArrayList<>();
+		samples.forEach((auditTableName, sample) -> summaries.add(auditTableName + ": " + sample));
+		return summaries;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "SamplingReport[seed=" + seed + ", auditTablesSampled=" + samples.size() + "]";
+	}
+
+	private static final class Sample
+	{
+		private final long populationSize;
+		private final int sampleSize;
+		private final int invalidEntityCount;
+
+		private Sample(long populationSize, int sampleSize, int invalidEntityCount)
+		{
+			this.populationSize = populationSize;
+			this.sampleSize = sampleSize;
+			this.invalidEntityCount = invalidEntityCount;
+		}
+
+		/**
+		 * Upper bound of the Wilson score interval, which unlike the normal approximation remains meaningful for small samples and error rates close to zero.
+		 */
+		private double getErrorRateUpperBound()
+		{
+			final double errorRate = (double) invalidEntityCount / sampleSize;
+			final double zSquared = Z * Z;
+			final double center = errorRate + zSquared / (2 * sampleSize);
+			final double margin = Z * Math.sqrt(errorRate * (1 - errorRate) / sampleSize + zSquared / (4d * sampleSize * sampleSize));
+			return Math.min(1d, (center + margin) / (1 + zSquared / sampleSize));
+		}
+
+		@Override
+		public String toString()
+		{
+			if (sampleSize == 0)
+			{
+				return "no entities sampled out of " + populationSize + ".";
+			}
+			return String.format(Locale.ROOT, "%d out of %d entities sampled, %d invalid, estimated error rate %.2f%% (95%% upper bound %.2f%%).", sampleSize, populationSize, invalidEntityCount, 100d * invalidEntityCount / sampleSize, 100d * getErrorRateUpperBound());
+		}
+	}
+}
@@ -1,37 +1,104 @@
 package com.github.zeger_tak.enversvalidationplugin.entities;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Set;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+/**
+ * Values of a single row, stored by column index in the order of its {@link TableRowSchema}.
+ * Rows read from the database share the schema of their query, rows built using {@link #addColumn(String, Object)} get their own schema.
+ */
 public class TableRow
 {
-	private final Map<String, Object> columns = new HashMap<>();
+	private static final Object[] NO_VALUES = new Object[0];
+
+	private TableRowSchema schema = TableRowSchema.EMPTY;
+	private Object[] values = NO_VALUES;
+	private boolean ownsSchema;
+
+	public TableRow()
+	{
+	}
+
+	/**
+	 * @param values Values in the order of the columns of the schema, the array is not copied.
+	 */
+	public TableRow(@Nonnull TableRowSchema schema, @Nonnull Object[] values)
+	{
+		if (values.length != schema.size())
+		{
+			throw new IllegalArgumentException("Expected " + schema.size() + " values but got " + values.length + ".");
+		}
+		this.schema = schema;
+		this.values = values;
+	}
 
 	public void addColumn(@Nonnull String columnName, @Nullable Object value)
 	{
-		columns.put(columnName, value);
+		int index = schema.indexOf(columnName);
+		if (index < 0)
+		{
+			if (!ownsSchema)
+			{
+				schema = schema.copy();
+				ownsSchema = true;
+			}
+			index = schema.addColumn(columnName);
+			if (index >= values.length)
+			{
+				values = Arrays.copyOf(values, Math.max(4, values.length * 2));
+			}
+		}
+		values[index] = value;
 	}
 
 	@CheckForNull
 	public Object getColumnValue(@Nonnull String columnName)
 	{
-		return columns.get(columnName);
+		return getColumnValue(schema.indexOf(columnName));
+	}
+
+	/**
+	 * Reads a value by the index of its column in the {@link #getSchema() schema}, which is looked up once for all rows sharing the schema.
+	 *
+	 * @param index The index of the column, or -1 for a column not in the schema.
+	 */
+	@CheckForNull
+	public Object getColumnValue(int index)
+	{
+		return index < 0 || index >= schema.size() ? null : values[index];
 	}
 
 	@Nonnull
 	public Set<String> getColumnNames()
 	{
-		return columns.keySet();
+		return schema.getColumnNames();
+	}
+
+	/**
+	 * @return The schema of this row, shared with the other rows read by the same query.
+	 */
+	@Nonnull
+	public TableRowSchema getSchema()
+	{
+		return schema;
 	}
 
 	@Override
 	public String toString()
 	{
-		return "TableRow[" + "columns=" + columns + ']';
+		final StringBuilder columns = new StringBuilder("{");
+		for (int i = 0; i < schema.size(); i++)
+		{
+			if (columns.length() > 1)
+			{
+				columns.append(", ");
+			}
+			columns.append(schema.getColumnName(i)).append('=').append(values[i]);
+		}
+		return "TableRow[" + "columns=" + columns + "}]";
 	}
-}
\ No newline at end of file
+}
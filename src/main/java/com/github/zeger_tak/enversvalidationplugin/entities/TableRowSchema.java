@@ -0,0 +1,105 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Column names of a table, mapped to the index of their value in each {@link TableRow}.
+ * A single schema is shared by all rows read from the same query, so the index of a column only has to be looked up once for all rows of a query.
+ */
+public final class TableRowSchema
+{
+	static final TableRowSchema EMPTY = new TableRowSchema(Collections.emptyList());
+
+	private final Map<String, Integer> columnIndexes;
+	private final List<String> columnNames;
+
+	public TableRowSchema(@Nonnull List<String> columnNames)
+	{
+		columnIndexes = new LinkedHashMap<>(columnNames.size() * 2);
+		this.columnNames = new ArrayList<>(columnNames.size());
+		for (String columnName : columnNames)
+		{
+			if (columnIndexes.putIfAbsent(columnName, columnIndexes.size()) == null)
+			{
+				this.columnNames.add(columnName);
+			}
+		}
+	}
+
+	private TableRowSchema(@Nonnull TableRowSchema schema)
+	{
+		columnIndexes = new LinkedHashMap<>(schema.columnIndexes);
+		columnNames = new ArrayList<>(schema.columnNames);
+	}
+
+	/**
+	 * @return The index of the column, or -1 if the schema does not contain the column.
+	 */
+	public int indexOf(@Nonnull String columnName)
+	{
+		final Integer index = columnIndexes.get(columnName);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return The indexes of the given columns in this schema, -1 for each column the schema does not contain.
+	 */
+	@Nonnull
+	public int[] indexesOf(@Nonnull Collection<String> columnNames)
+	{
+		final int[] indexes = new int[columnNames.size()];
+		int i = 0;
+		for (String columnName : columnNames)
+		{
+			indexes[i++] = indexOf(columnName);
+		}
+		return indexes;
+	}
+
+	@Nonnull
+	public String getColumnName(int index)
+	{
+		return columnNames.get(index);
+	}
+
+	public int size()
+	{
+		return columnIndexes.size();
+	}
+
+	@Nonnull
+	public Set<String> getColumnNames()
+	{
+		return Collections.unmodifiableSet(columnIndexes.keySet());
+	}
+
+	/**
+	 * Copies this schema, to be extended by a single row only.
+	 */
+	@Nonnull
+	TableRowSchema copy()
+	{
+		return new TableRowSchema(this);
+	}
+
+	/**
+	 * Only to be used on a schema that is not shared between rows.
+	 *
+	 * @return The index of the added column.
+	 */
+	int addColumn(@Nonnull String columnName)
+	{
+		final int index = columnIndexes.size();
+		columnIndexes.put(columnName, index);
+		columnNames.add(columnName);
+		return index;
+	}
+}
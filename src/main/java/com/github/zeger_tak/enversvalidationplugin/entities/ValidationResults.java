@@ -1,17 +1,21 @@
 package com.github.zeger_tak.enversvalidationplugin.entities;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
 
+/**
+ * Results of all validations, which may be added to by validations executed in parallel.
+ */
 public class ValidationResults
 {
-	private final List<Class> validatorClassesIgnored = new ArrayList<>();
-	private final List<Method> validatorMethodsIgnored = new ArrayList<>();
-	private int executionsFailed;
+	private final List<Class> validatorClassesIgnored = new CopyOnWriteArrayList<>();
+	private final List<Method> validatorMethodsIgnored = new CopyOnWriteArrayList<>();
+	private final AtomicInteger executionsFailed = new AtomicInteger();
 
 	public void addClassToIgnored(@Nonnull Class<?> validatorClass)
 	{
@@ -25,7 +29,7 @@ public class ValidationResults
 
 	public void addFailedExecution()
 	{
-		executionsFailed++;
+		executionsFailed.incrementAndGet();
 	}
 
 	@Nonnull
@@ -42,6 +46,6 @@ public class ValidationResults
 
 	public int getExecutionsFailed()
 	{
-		return executionsFailed;
+		return executionsFailed.get();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import java.io.File;
+import java.util.Collections;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.zeger_tak.enversvalidationplugin.utils.IgnoreMatcher;
+
+public class ValidationSettings
+{
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+	public static final int DEFAULT_CHUNK_SIZE = 10000;
+	public static final long DEFAULT_REVISION_CHECKPOINT_OVERLAP = 1000;
+
+	private ContentValidationMode contentValidationMode = ContentValidationMode.IN_MEMORY;
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private boolean sqlPushdown;
+	private int parallelism = 1;
+	private File schemaMetadataCacheFile;
+	private File revisionCheckpointFile;
+	private long revisionCheckpointOverlap = DEFAULT_REVISION_CHECKPOINT_OVERLAP;
+	private IgnoreMatcher ignoreMatcher = IgnoreMatcher.compile(Collections.emptyList());
+	private Double sampleFraction;
+	private Integer sampleSize;
+	private long sampleSeed;
+
+	@Nonnull
+	public ContentValidationMode getContentValidationMode()
+	{
+		return contentValidationMode;
+	}
+
+	public void setContentValidationMode(@Nonnull ContentValidationMode contentValidationMode)
+	{
+		this.contentValidationMode = contentValidationMode;
+	}
+
+	/**
+	 * @return The number of rows retrieved from the database per round trip.
+	 */
+	public int getFetchSize()
+	{
+		return fetchSize;
+	}
+
+	public void setFetchSize(int fetchSize)
+	{
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * @return The maximum number of entities read at once by the {@link ContentValidationMode#CHUNKED} mode.
+	 */
+	public int getChunkSize()
+	{
+		return chunkSize;
+	}
+
+	public void setChunkSize(int chunkSize)
+	{
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return True if validations that support it should be evaluated by the database, instead of reading the records.
+	 */
+	public boolean isSqlPushdown()
+	{
+		return sqlPushdown;
+	}
+
+	public void setSqlPushdown(boolean sqlPushdown)
+	{
+		this.sqlPushdown = sqlPushdown;
+	}
+
+	/**
+	 * @return The maximum number of validator instances executed at the same time.
+	 */
+	public int getParallelism()
+	{
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism)
+	{
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return The file in which the schema metadata is kept between runs, or null if the metadata is retrieved every run.
+	 */
+	@CheckForNull
+	public File getSchemaMetadataCacheFile()
+	{
+		return schemaMetadataCacheFile;
+	}
+
+	public void setSchemaMetadataCacheFile(@Nullable File schemaMetadataCacheFile)
+	{
+		this.schemaMetadataCacheFile = schemaMetadataCacheFile;
+	}
+
+	/**
+	 * @return The file holding the highest revision validated per audit table, or null if all revisions are validated every run.
+	 */
+	@CheckForNull
+	public File getRevisionCheckpointFile()
+	{
+		return revisionCheckpointFile;
+	}
+
+	public void setRevisionCheckpointFile(@Nullable File revisionCheckpointFile)
+	{
+		this.revisionCheckpointFile = revisionCheckpointFile;
+	}
+
+	/**
+	 * @return The number of revisions below the validated revision of an audit table that are validated again, as revisions may be committed out of order.
+	 */
+	public long getRevisionCheckpointOverlap()
+	{
+		return revisionCheckpointOverlap;
+	}
+
+	public void setRevisionCheckpointOverlap(long revisionCheckpointOverlap)
+	{
+		this.revisionCheckpointOverlap = revisionCheckpointOverlap;
+	}
+
+	/**
+	 * @return The ignorables, validations matched by it are not executed.
+	 */
+	@Nonnull
+	public IgnoreMatcher getIgnoreMatcher()
+	{
+		return ignoreMatcher;
+	}
+
+	public void setIgnoreMatcher(@Nonnull IgnoreMatcher ignoreMatcher)
+	{
+		this.ignoreMatcher = ignoreMatcher;
+	}
+
+	/**
+	 * @return The approximate fraction of the entities of each audit table whose revisions are validated, or null if not sampling by fraction.
+	 */
+	@CheckForNull
+	public Double getSampleFraction()
+	{
+		return sampleFraction;
+	}
+
+	public void setSampleFraction(@Nullable Double sampleFraction)
+	{
+		this.sampleFraction = sampleFraction;
+	}
+
+	/**
+	 * @return The approximate number of entities of each audit table whose revisions are validated, or null if not sampling by size.
+	 */
+	@CheckForNull
+	public Integer getSampleSize()
+	{
+		return sampleSize;
+	}
+
+	public void setSampleSize(@Nullable Integer sampleSize)
+	{
+		this.sampleSize = sampleSize;
+	}
+
+	/**
+	 * @return True if the revisions of only a sample of the entities are validated.
+	 */
+	public boolean isSampling()
+	{
+		return sampleFraction != null || sampleSize != null;
+	}
+
+	/**
+	 * @return The seed determining which entities are sampled.
+	 */
+	public long getSampleSeed()
+	{
+		return sampleSeed;
+	}
+
+	public void setSampleSeed(long sampleSeed)
+	{
+		this.sampleSeed = sampleSeed;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ValidationSettings[contentValidationMode=" + contentValidationMode + ", fetchSize=" + fetchSize + ", chunkSize=" + chunkSize + ", sqlPushdown=" + sqlPushdown + ", parallelism=" + parallelism + ", schemaMetadataCacheFile=" + schemaMetadataCacheFile + ", revisionCheckpointFile=" + revisionCheckpointFile + ", revisionCheckpointOverlap=" + revisionCheckpointOverlap + ", sampleFraction=" + sampleFraction + ", sampleSize=" + sampleSize + ", sampleSeed=" + sampleSeed + "]";
+	}
+}
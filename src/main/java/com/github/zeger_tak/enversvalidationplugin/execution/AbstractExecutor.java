@@ -1,228 +1,373 @@
 package com.github.zeger_tak.enversvalidationplugin.execution;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-import com.github.zeger_tak.enversvalidationplugin.annotation.AuditTableInformationMap;
-import com.github.zeger_tak.enversvalidationplugin.annotation.ConnectionProvider;
 import com.github.zeger_tak.enversvalidationplugin.annotation.Parameterized;
 import com.github.zeger_tak.enversvalidationplugin.annotation.TargetPhase;
-import com.github.zeger_tak.enversvalidationplugin.annotation.Validate;
 import com.github.zeger_tak.enversvalidationplugin.connection.ConnectionProviderInstance;
 import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
 import com.github.zeger_tak.enversvalidationplugin.entities.ValidationResults;
 import com.github.zeger_tak.enversvalidationplugin.exceptions.SetupValidationForSpecificAuditTableInformationException;
 import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
-import com.github.zeger_tak.enversvalidationplugin.utils.IgnoreUtils;
-import com.github.zeger_tak.enversvalidationplugin.utils.ReflectionUtils;
+import com.github.zeger_tak.enversvalidationplugin.utils.IgnoreMatcher;
 import org.apache.maven.plugin.logging.Log;
 
 abstract class AbstractExecutor
 {
 	private final ConnectionProviderInstance connectionProvider;
 	private final Log log;
-	private final List<String> ignorables;
+	private final IgnoreMatcher ignoreMatcher;
+	private final int parallelism;
+	private final Map<Class<?>, ValidatorPlan> plans = new ConcurrentHashMap<>();
 
 	AbstractExecutor(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull Log log, @Nonnull List<String> ignorables)
 	{
 		this.connectionProvider = connectionProvider;
 		this.log = log;
-		this.ignorables = ignorables;
+		ignoreMatcher = IgnoreMatcher.compile(ignorables);
+		parallelism = connectionProvider.getSettings().getParallelism();
 	}
 
+	/**
+	 * @return The plan of the validator class, compiled the first time it is requested.
+	 */
 	@Nonnull
-	private List<ValidatorWrapper> createValidatorInstances(@Nonnull Class<?> validatorClass, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap, @Nonnull ValidationResults validationResults)
+	private ValidatorPlan getPlan(@Nonnull Class<?> validatorClass)
+	{
+		return plans.computeIfAbsent(validatorClass, ValidatorPlan::compile);
+	}
+
+	/**
+	 * Instances of parameterized validators are created lazily, one for each set of generated constructor arguments.
+	 *
+	 * @param firstIndex The index of the first instance, used to name the validations of instances created for a single audit table.
+	 */
+	@Nonnull
+	private Iterator<ValidatorWrapper> createValidatorInstances(@Nonnull ValidatorPlan plan, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap, int firstIndex, @Nonnull ValidationResults validationResults)
 	{
 		try
 		{
-			final List<Method> validateMethods = new ArrayList<>();
-			Method parameterizedMethod = null;
-
-			for (Method method : validatorClass.getMethods())
-			{
-				final Validate validate = method.getAnnotation(Validate.class);
-				if (validate != null)
-				{
-					validateMethods.add(method);
-					continue;
-				}
-
-				final Parameterized parameterized = method.getAnnotation(Parameterized.class);
-				if (parameterized != null && Modifier.isStatic(method.getModifiers()))
-				{
-					if (parameterizedMethod == null)
-					{
-						parameterizedMethod = method;
-					}
-					else
-					{
-						throw new ValidationException(validatorClass.getCanonicalName() + " could not be used for validating, as the class defines more than one " + Parameterized.class.getSimpleName() + " annotated methods.");
-					}
-				}
-			}
-
-			if (parameterizedMethod == null)
+			if (!plan.isParameterized())
 			{
 				final Object[] constructorArguments = {};
-				final Object validatorInstance = createValidatorInstance(validatorClass, constructorArguments, auditTableInformationMap);
-				return Collections.singletonList(new SingleValidatorWrapper(validatorInstance, validateMethods));
+				final Object validatorInstance = plan.createInstance(constructorArguments, connectionProvider, auditTableInformationMap);
+				final ValidatorWrapper wrapper = new SingleValidatorWrapper(validatorInstance, plan.getMethods());
+				return Collections.singletonList(wrapper).iterator();
 			}
 			else
 			{
 				try
 				{
-					final List<Object[]> generatedData = generateDataForConstructorArguments(parameterizedMethod, auditTableInformationMap);
-					final List<ValidatorWrapper> validatorInstances = new ArrayList<>(generatedData.size());
-					for (int index = 0; index < generatedData.size(); index++)
-					{
-						final Object[] constructorArguments = generatedData.get(index);
-						final Object validatorInstance = createValidatorInstance(validatorClass, constructorArguments, auditTableInformationMap);
-						validatorInstances.add(new ParameterizedValidatorWrapper(validatorInstance, constructorArguments, validateMethods, index));
-					}
-					return validatorInstances;
-				}
-				catch (ClassCastException e)
-				{
-					throw new ValidationException("Unable to create " + validatorClass.getCanonicalName() + " test, because parameterized method " + parameterizedMethod.getName() + " has an invalid return type");
+					final Iterator<?> generatedData = generateDataForConstructorArguments(plan, auditTableInformationMap);
+					return new ParameterizedValidatorIterator(plan, generatedData, auditTableInformationMap, firstIndex, validationResults);
 				}
-				catch (IllegalAccessException | InvocationTargetException e)
+				catch (InvocationTargetException e)
 				{
-					throw new ValidationException("Unable to create " + validatorClass.getCanonicalName() + " test, because parameterized method " + parameterizedMethod.getName() + " could not be invoked ", e);
+					throw new ValidationException("Unable to create " + plan.getValidatorClass().getCanonicalName() + " test, because parameterized method " + plan.getParameterizedMethodName() + " could not be invoked ", e);
 				}
 			}
 		}
-		catch (IllegalAccessException | InstantiationException | InvocationTargetException e)
+		catch (IllegalAccessException | InstantiationException | InvocationTargetException | NoSuchMethodException e)
 		{
 			log.error(TargetPhase.class.getSimpleName() + " " + TargetPhase.SETUP + " could not be instantiated.");
 			validationResults.addFailedExecution();
-			return Collections.emptyList();
+			return Collections.emptyIterator();
+		}
+	}
+
+	/**
+	 * @return The constructor arguments generated by the parameterized method, which may return a {@link List}, {@link Iterable}, {@link Iterator} or {@link Stream} of argument arrays.
+	 */
+	@Nonnull
+	private Iterator<?> generateDataForConstructorArguments(@Nonnull ValidatorPlan plan, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap) throws InvocationTargetException
+	{
+		final Object generatedData = plan.generateData(connectionProvider, auditTableInformationMap);
+		if (generatedData instanceof Iterable)
+		{
+			return ((Iterable<?>) generatedData).iterator();
+		}
+		if (generatedData instanceof Iterator)
+		{
+			return (Iterator<?>) generatedData;
+		}
+		if (generatedData instanceof Stream)
+		{
+			return ((Stream<?>) generatedData).iterator();
 		}
+		throw new ValidationException("Unable to create " + plan.getValidatorClass().getCanonicalName() + " test, because parameterized method " + plan.getParameterizedMethodName() + " has an invalid return type");
 	}
 
+	/**
+	 * Executes the validators of all phases. Validators parameterized {@link Parameterized#perAuditTable() per audit table} are executed separately for each audit table,
+	 * as soon as the validators of earlier phases have finished for that audit table and the validators of earlier phases validating all audit tables at once have finished.
+	 * Any other validator is executed once all validators of earlier phases have finished.
+	 *
+	 * Audit tables failing their setup are skipped by all validators executed afterwards.
+	 *
+	 * @return The audit table information of the audit tables that passed their setup validations.
+	 */
 	@Nonnull
-	@SuppressWarnings("unchecked")
-	private List<Object[]> generateDataForConstructorArguments(@Nonnull Method parameterizedMethod, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap) throws IllegalAccessException, InvocationTargetException
+	Map<String, AuditTableInformation> executeValidators(@Nonnull Map<TargetPhase, Set<Class<?>>> validators, @Nonnull Map<String, AuditTableInformation> providedAuditTableInformationMap, @Nonnull ValidationResults validationResults)
 	{
-		final List<Object> constructorParameters = createParametersForParameterizedMethod(parameterizedMethod, auditTableInformationMap);
-		return (List<Object[]>) parameterizedMethod.invoke(null, constructorParameters.toArray());
+		// Validators executed in parallel may remove audit tables that failed their setup.
+		final Map<String, AuditTableInformation> result = Collections.synchronizedMap(new HashMap<>(providedAuditTableInformationMap));
+		final List<ValidationTask> tasks = createValidationTasks(validators, new ArrayList<>(providedAuditTableInformationMap.keySet()), validationResults);
+		new ValidationScheduler(parallelism, task -> executeValidationTask(task, result, validationResults)).execute(tasks);
+		return result;
 	}
 
 	@Nonnull
-	private List<Object> createParametersForParameterizedMethod(@Nonnull Method method, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap)
+	List<ValidationTask> createValidationTasks(@Nonnull Map<TargetPhase, Set<Class<?>>> validators, @Nonnull List<String> auditTableNames, @Nonnull ValidationResults validationResults)
 	{
-		final List<Object> methodParameters = new ArrayList<>(method.getParameterCount());
-		for (Parameter parameter : method.getParameters())
+		final List<ValidationTask> tasks = new ArrayList<>();
+		final List<ValidationTask> tasksForAllAuditTables = new ArrayList<>();
+		final Map<String, List<ValidationTask>> tasksPerAuditTable = new HashMap<>();
+		for (TargetPhase targetPhase : TargetPhase.values())
 		{
-			final ConnectionProvider connectionProviderAnnotation = parameter.getAnnotation(ConnectionProvider.class);
-			if (connectionProviderAnnotation != null)
+			final List<ValidationTask> tasksForTargetPhase = new ArrayList<>();
+			for (Class<?> validator : validators.getOrDefault(targetPhase, Collections.emptySet()))
 			{
-				methodParameters.add(connectionProvider);
-				continue;
+				if (ignoreMatcher.matches(validator.getSimpleName()))
+				{
+					validationResults.addClassToIgnored(validator);
+					continue;
+				}
+
+				final ValidatorPlan plan = getPlan(validator);
+				if (!plan.isPerAuditTable())
+				{
+					final ValidationTask task = new ValidationTask(validator, targetPhase, null, 0, tasks.size() + tasksForTargetPhase.size());
+					tasks.forEach(task::addDependency);
+					tasksForTargetPhase.add(task);
+					continue;
+				}
+
+				for (int i = 0; i < auditTableNames.size(); i++)
+				{
+					final String auditTableName = auditTableNames.get(i);
+					if (isIgnoredForAuditTable(plan, auditTableName, validationResults))
+					{
+						continue;
+					}
+
+					final ValidationTask task = new ValidationTask(validator, targetPhase, auditTableName, i, tasks.size() + tasksForTargetPhase.size());
+					tasksForAllAuditTables.forEach(task::addDependency);
+					tasksPerAuditTable.getOrDefault(auditTableName, Collections.emptyList()).forEach(task::addDependency);
+					tasksForTargetPhase.add(task);
+				}
 			}
 
-			final AuditTableInformationMap auditTableInformationMapAnnotation = parameter.getAnnotation(AuditTableInformationMap.class);
-			if (auditTableInformationMapAnnotation != null)
+			// Only added now, as tasks only depend on tasks of earlier phases.
+			for (ValidationTask task : tasksForTargetPhase)
 			{
-				methodParameters.add(auditTableInformationMap);
+				tasks.add(task);
+				if (task.getAuditTableName() == null)
+				{
+					tasksForAllAuditTables.add(task);
+				}
+				else
+				{
+					tasksPerAuditTable.computeIfAbsent(task.getAuditTableName(), k -> new ArrayList<>()).add(task);
+				}
 			}
 		}
-		return methodParameters;
+		return tasks;
 	}
 
-	@Nonnull
-	private Object createValidatorInstance(@Nonnull Class<?> validatorClass, @Nonnull Object[] constructorArguments, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap) throws InstantiationException, IllegalAccessException, InvocationTargetException
+	/**
+	 * Validations of validators parameterized per audit table may be ignored using the name of the audit table, e.g. RevisionValidator.*.AUDIT_TABLE_TO_IGNORE.
+	 * If all validations are ignored for an audit table, no task is created, so the data of the audit table is never generated.
+	 */
+	private boolean isIgnoredForAuditTable(@Nonnull ValidatorPlan plan, @Nonnull String auditTableName, @Nonnull ValidationResults validationResults)
 	{
-		final Object newInstance = validatorClass.getConstructors()[0].newInstance(constructorArguments);
+		for (Method method : plan.getMethods())
+		{
+			if (!ignoreMatcher.matches(createAuditTableIdentifier(plan, method, auditTableName)))
+			{
+				return false;
+			}
+		}
 
-		final List<Field> declaredFields = ReflectionUtils.getAllDeclaredFields(validatorClass);
-		for (Field declaredField : declaredFields)
+		for (Method method : plan.getMethods())
 		{
-			declaredField.setAccessible(true);
+			log.info("Ignored validation method " + createAuditTableIdentifier(plan, method, auditTableName));
+			validationResults.addMethodToIgnored(method);
+		}
+		return true;
+	}
+
+	@Nonnull
+	private static String createAuditTableIdentifier(@Nonnull ValidatorPlan plan, @Nonnull Method method, @Nonnull String auditTableName)
+	{
+		return plan.getValidatorClass().getSimpleName() + "." + method.getName() + "." + auditTableName;
+	}
 
-			final ConnectionProvider connectionProviderAnnotation = declaredField.getAnnotation(ConnectionProvider.class);
-			if (connectionProviderAnnotation != null)
+	private void executeValidationTask(@Nonnull ValidationTask task, @Nonnull Map<String, AuditTableInformation> result, @Nonnull ValidationResults validationResults)
+	{
+		final Map<String, AuditTableInformation> auditTableInformationMap;
+		final String auditTableName = task.getAuditTableName();
+		if (auditTableName == null)
+		{
+			synchronized (result)
 			{
-				declaredField.set(newInstance, connectionProvider);
-				continue;
+				auditTableInformationMap = new HashMap<>(result);
 			}
-
-			final AuditTableInformationMap auditTableInformationMapAnnotation = declaredField.getAnnotation(AuditTableInformationMap.class);
-			if (auditTableInformationMapAnnotation != null)
+		}
+		else
+		{
+			final AuditTableInformation auditTableInformation = result.get(auditTableName);
+			if (auditTableInformation == null)
 			{
-				declaredField.set(newInstance, auditTableInformationMap);
+				// The audit table failed its setup.
+				return;
 			}
+			auditTableInformationMap = Collections.singletonMap(auditTableName, auditTableInformation);
 		}
 
-		return newInstance;
+		final ValidationLog validationLog = new ValidationLog(log, parallelism > 1);
+		final ValidatorPlan plan = getPlan(task.getValidatorClass());
+		final Iterator<ValidatorWrapper> validatorInstances = createValidatorInstances(plan, auditTableInformationMap, task.getAuditTableIndex(), validationResults);
+		while (validatorInstances.hasNext())
+		{
+			// Each instance only stays reachable while its validations are executed.
+			executeValidator(plan, validatorInstances.next(), auditTableName, result, validationResults, validationLog);
+			validationLog.flush();
+		}
 	}
 
-	@Nonnull
-	Map<String, AuditTableInformation> executeValidators(@Nonnull Map<TargetPhase, Set<Class<?>>> validators, @Nonnull TargetPhase targetPhase, @Nonnull Map<String, AuditTableInformation> providedAuditTableInformationMap, @Nonnull ValidationResults validationResults)
+	/**
+	 * @param auditTableName The audit table the instance was created for, if the validator is parameterized per audit table.
+	 */
+	private void executeValidator(@Nonnull ValidatorPlan plan, @Nonnull ValidatorWrapper wrapper, @Nullable String auditTableName, @Nonnull Map<String, AuditTableInformation> result, @Nonnull ValidationResults validationResults, @Nonnull ValidationLog validationLog)
 	{
-		final Map<String, AuditTableInformation> result = new HashMap<>(providedAuditTableInformationMap);
-		final Set<Class<?>> valdidatorsForTargetPhase = validators.getOrDefault(targetPhase, Collections.emptySet());
-		for (Class<?> validator : valdidatorsForTargetPhase)
+		final Object validatorInstance = wrapper.getValidator();
+		for (ValidatorPlan.ValidateMethod validateMethod : plan.getValidateMethods())
 		{
-			if (IgnoreUtils.validationShouldBeIgnored(ignorables, validator))
+			final Method method = validateMethod.getMethod();
+			if (ignoreMatcher.matches(wrapper.getUniqueIdentifier(method)) || (auditTableName != null && ignoreMatcher.matches(createAuditTableIdentifier(plan, method, auditTableName))))
 			{
-				validationResults.addClassToIgnored(validator);
+				validationLog.info("Ignored validation method " + wrapper.getValidationName(method));
+				validationResults.addMethodToIgnored(method);
 				continue;
 			}
 
-			final List<ValidatorWrapper> validatorInstances = createValidatorInstances(validator, result, validationResults);
-
-			for (ValidatorWrapper wrapper : validatorInstances)
+			final String validationName = wrapper.getValidationName(method);
+			validationLog.debug("Started with " + validationName);
+			try
 			{
-				final Object validatorInstance = wrapper.getValidator();
-				for (Method method : wrapper.getValidateMethods())
-				{
-					if (IgnoreUtils.validationShouldBeIgnored(ignorables, wrapper, method))
-					{
-						log.info("Ignored validation method " + wrapper.getValidationName(method));
-						validationResults.addMethodToIgnored(method);
-						continue;
-					}
+				validateMethod.invoke(validatorInstance);
+				validationLog.debug(validationName + " executed successfully.");
+			}
+			catch (InvocationTargetException e)
+			{
+				validationResults.addFailedExecution();
 
-					log.debug("Started with " + wrapper.getValidationName(method));
-					final String validationName = wrapper.getValidationName(method);
-					try
-					{
-						method.invoke(validatorInstance);
-						log.debug(validationName + " executed successfully.");
-					}
-					catch (IllegalAccessException | InvocationTargetException e)
+				final String errorMessage;
+				if (e.getCause() instanceof ValidationException)
+				{
+					errorMessage = e.getCause().getMessage();
+					if (e.getCause() instanceof SetupValidationForSpecificAuditTableInformationException)
 					{
-						validationResults.addFailedExecution();
-
-						final String errorMessage;
-						if (e.getCause() instanceof ValidationException)
-						{
-							errorMessage = e.getCause().getMessage();
-							if (e.getCause() instanceof SetupValidationForSpecificAuditTableInformationException)
-							{
-								result.remove(((SetupValidationForSpecificAuditTableInformationException) e.getCause()).getAuditTableInformation().getAuditTableName());
-							}
-						}
-						else
-						{
-							errorMessage = e.getMessage();
-						}
-						log.error(validationName + " failed, with the following message: " + errorMessage);
+						result.remove(((SetupValidationForSpecificAuditTableInformationException) e.getCause()).getAuditTableInformation().getAuditTableName());
 					}
 				}
+				else
+				{
+					errorMessage = e.getMessage();
+				}
+				validationLog.error(validationName + " failed, with the following message: " + errorMessage);
+			}
+		}
+	}
+
+	/**
+	 * Creates a validator instance for each set of constructor arguments, only when it is requested.
+	 * If an instance could not be created, the failure is recorded and no further instances are created.
+	 */
+	private final class ParameterizedValidatorIterator implements Iterator<ValidatorWrapper>
+	{
+		private final ValidatorPlan plan;
+		private final Iterator<?> generatedData;
+		private final Map<String, AuditTableInformation> auditTableInformationMap;
+		private final ValidationResults validationResults;
+
+		private ValidatorWrapper nextWrapper;
+		private boolean failed;
+		private int index;
+
+		private ParameterizedValidatorIterator(@Nonnull ValidatorPlan plan, @Nonnull Iterator<?> generatedData, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap, int firstIndex, @Nonnull ValidationResults validationResults)
+		{
+			this.plan = plan;
+			this.generatedData = generatedData;
+			this.auditTableInformationMap = auditTableInformationMap;
+			this.validationResults = validationResults;
+			index = firstIndex;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			if (nextWrapper == null && !failed && generatedData.hasNext())
+			{
+				nextWrapper = createNextWrapper();
+			}
+			return nextWrapper != null;
+		}
+
+		@Override
+		public ValidatorWrapper next()
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+
+			final ValidatorWrapper wrapper = nextWrapper;
+			nextWrapper = null;
+			return wrapper;
+		}
+
+		@CheckForNull
+		private ValidatorWrapper createNextWrapper()
+		{
+			final Object[] constructorArguments;
+			try
+			{
+				constructorArguments = (Object[]) generatedData.next();
+			}
+			catch (ClassCastException e)
+			{
+				throw new ValidationException("Unable to create " + plan.getValidatorClass().getCanonicalName() + " test, because parameterized method " + plan.getParameterizedMethodName() + " has an invalid return type");
+			}
+
+			try
+			{
+				final Object validatorInstance = plan.createInstance(constructorArguments, connectionProvider, auditTableInformationMap);
+				final int instanceIndex = index++;
+				return new ParameterizedValidatorWrapper(validatorInstance, plan.getMethods(), plan.renderName(constructorArguments, instanceIndex), plan.renderUniqueIdentifier(constructorArguments, instanceIndex));
+			}
+			catch (IllegalAccessException | InstantiationException | InvocationTargetException | NoSuchMethodException e)
+			{
+				log.error(TargetPhase.class.getSimpleName() + " " + TargetPhase.SETUP + " could not be instantiated.");
+				validationResults.addFailedExecution();
+				failed = true;
+				return null;
 			}
 		}
-		return result;
 	}
 }
\ No newline at end of file
@@ -1,8 +1,6 @@
 package com.github.zeger_tak.enversvalidationplugin.execution;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.text.MessageFormat;
 import java.util.List;
 
 import javax.annotation.Nonnull;
@@ -12,16 +10,22 @@ import com.github.zeger_tak.enversvalidationplugin.annotation.Parameterized;
 public class ParameterizedValidatorWrapper implements ValidatorWrapper
 {
 	private final Object validator;
-	private final Object[] constructorArguments;
 	private final List<Method> validateMethods;
-	private final int index;
+	private final String validatorName;
+	private final String name;
+	private final String uniqueIdentifier;
 
-	public ParameterizedValidatorWrapper(@Nonnull Object validator, @Nonnull Object[] constructorArguments, @Nonnull List<Method> validateMethods, int index)
+	/**
+	 * @param name The rendered {@link Parameterized#name()} of this instance.
+	 * @param uniqueIdentifier The rendered {@link Parameterized#uniqueIdentifier()} of this instance.
+	 */
+	public ParameterizedValidatorWrapper(@Nonnull Object validator, @Nonnull List<Method> validateMethods, @Nonnull String name, @Nonnull String uniqueIdentifier)
 	{
 		this.validator = validator;
-		this.constructorArguments = constructorArguments;
 		this.validateMethods = validateMethods;
-		this.index = index;
+		this.name = name;
+		this.uniqueIdentifier = uniqueIdentifier;
+		validatorName = validator.getClass().getSimpleName();
 	}
 
 	@Nonnull
@@ -35,46 +39,20 @@ public class ParameterizedValidatorWrapper implements ValidatorWrapper
 	@Override
 	public String getValidationName(@Nonnull Method method)
 	{
-		String methodBeingExecuted = determineMethodName(method);
-
-		for (Method staticMethod : validator.getClass().getMethods())
-		{
-			final Parameterized parameterized = staticMethod.getAnnotation(Parameterized.class);
-			if (parameterized != null && Modifier.isStatic(staticMethod.getModifiers()))
-			{
-				final String name = parameterized.name().replaceAll("\\{index\\}", Integer.toString(index));
-				methodBeingExecuted = methodBeingExecuted + "." + name;
-				methodBeingExecuted = MessageFormat.format(methodBeingExecuted, constructorArguments);
-				break;
-			}
-		}
-
-		return methodBeingExecuted;
+		return determineMethodName(method) + "." + name;
 	}
 
 	@Nonnull
 	@Override
 	public String getUniqueIdentifier(@Nonnull Method method)
 	{
-		String methodBeingExecuted = determineMethodName(method);
-
-		for (Method staticMethod : validator.getClass().getMethods())
-		{
-			final Parameterized parameterized = staticMethod.getAnnotation(Parameterized.class);
-			if (parameterized != null && Modifier.isStatic(staticMethod.getModifiers()))
-			{
-				methodBeingExecuted = methodBeingExecuted + "." + parameterized.uniqueIdentifier();
-				methodBeingExecuted = MessageFormat.format(methodBeingExecuted, constructorArguments);
-				break;
-			}
-		}
-		return methodBeingExecuted;
+		return determineMethodName(method) + "." + uniqueIdentifier;
 	}
 
 	@Nonnull
 	private String determineMethodName(@Nonnull Method method)
 	{
-		return validator.getClass().getSimpleName() + "." + method.getName();
+		return validatorName + "." + method.getName();
 	}
 
 	@Nonnull
@@ -83,4 +61,4 @@ public class ParameterizedValidatorWrapper implements ValidatorWrapper
 	{
 		return validateMethods;
 	}
-}
\ No newline at end of file
+}
@@ -1,7 +1,10 @@
 package com.github.zeger_tak.enversvalidationplugin.execution;
 
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -19,25 +22,56 @@ import org.reflections.Reflections;
 import org.reflections.scanners.FieldAnnotationsScanner;
 import org.reflections.scanners.SubTypesScanner;
 import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 
 public class SetupExecutor extends AbstractExecutor
 {
+	private final Log log;
+
 	public SetupExecutor(@Nonnull Log log, @Nonnull List<String> ignorables, @Nonnull ConnectionProviderInstance connectionProvider)
 	{
 		super(connectionProvider, log, ignorables);
+		this.log = log;
 	}
 
 	public void execute(@Nonnull List<String> packagesToScanForValidators, @Nonnull Map<String, AuditTableInformation> providedAuditTableInformationMap, @Nonnull ValidationResults validationResults)
 	{
-		final Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(ReflectionUtils.getPackages(packagesToScanForValidators)).setScanners(new SubTypesScanner(), new FieldAnnotationsScanner(), new TypeAnnotationsScanner()));
-		final Set<Class<?>> allValidators = reflections.getTypesAnnotatedWith(ValidationType.class);
+		final Set<Class<?>> allValidators = findValidators(packagesToScanForValidators);
 
 		final Map<TargetPhase, Set<Class<?>>> validatorsGroupedByTargetPhase = groupByTargetPhase(allValidators);
-		Map<String, AuditTableInformation> auditTableInformationMap = executeValidators(validatorsGroupedByTargetPhase, TargetPhase.SETUP, providedAuditTableInformationMap, validationResults);
-		auditTableInformationMap = executeValidators(validatorsGroupedByTargetPhase, TargetPhase.TABLE_STRUCTURE, auditTableInformationMap, validationResults);
-		auditTableInformationMap = executeValidators(validatorsGroupedByTargetPhase, TargetPhase.CONSTRAINTS, auditTableInformationMap, validationResults);
-		auditTableInformationMap = executeValidators(validatorsGroupedByTargetPhase, TargetPhase.CONTENT, auditTableInformationMap, validationResults);
+		executeValidators(validatorsGroupedByTargetPhase, providedAuditTableInformationMap, validationResults);
+	}
+
+	/**
+	 * Validators of classpath roots compiled with the {@link com.github.zeger_tak.enversvalidationplugin.annotation.ValidatorIndexProcessor} are read from their index,
+	 * only the classpath roots without an index are scanned.
+	 */
+	@Nonnull
+	private Set<Class<?>> findValidators(@Nonnull List<String> packagesToScanForValidators)
+	{
+		final ValidatorIndex validatorIndex = ValidatorIndex.load(ClasspathHelper.classLoaders());
+		final Set<Class<?>> allValidators = new HashSet<>();
+		final List<URL> rootsToScan = new ArrayList<>();
+		for (URL root : new LinkedHashSet<>(ReflectionUtils.getPackages(packagesToScanForValidators)))
+		{
+			if (validatorIndex.isIndexed(root))
+			{
+				allValidators.addAll(validatorIndex.getValidatorClasses(root));
+			}
+			else
+			{
+				rootsToScan.add(root);
+			}
+		}
+
+		if (!rootsToScan.isEmpty())
+		{
+			log.debug("No validator index found in " + rootsToScan + ", scanning these for validators.");
+			final Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(rootsToScan).setScanners(new SubTypesScanner(), new FieldAnnotationsScanner(), new TypeAnnotationsScanner()));
+			allValidators.addAll(reflections.getTypesAnnotatedWith(ValidationType.class));
+		}
+		return allValidators;
 	}
 
 	@Nonnull
@@ -0,0 +1,69 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Log of a single validator instance.
+ * While validator instances are executed in parallel, its messages are buffered and written at once, so they are not interleaved with the messages of other instances.
+ */
+final class ValidationLog
+{
+	private final Log log;
+	private final List<Consumer<Log>> bufferedMessages;
+
+	ValidationLog(@Nonnull Log log, boolean buffered)
+	{
+		this.log = log;
+		bufferedMessages = buffered ? new ArrayList<>() : null;
+	}
+
+	void debug(@Nonnull String message)
+	{
+		write(l -> l.debug(message));
+	}
+
+	void info(@Nonnull String message)
+	{
+		write(l -> l.info(message));
+	}
+
+	void error(@Nonnull String message)
+	{
+		write(l -> l.error(message));
+	}
+
+	private void write(@Nonnull Consumer<Log> message)
+	{
+		if (bufferedMessages == null)
+		{
+			message.accept(log);
+		}
+		else
+		{
+			bufferedMessages.add(message);
+		}
+	}
+
+	/**
+	 * Writes all buffered messages to the log.
+	 */
+	void flush()
+	{
+		if (bufferedMessages == null || bufferedMessages.isEmpty())
+		{
+			return;
+		}
+
+		synchronized (log)
+		{
+			bufferedMessages.forEach(message -> message.accept(log));
+		}
+		bufferedMessages.clear();
+	}
+}
@@ -0,0 +1,126 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+
+/**
+ * Executes {@link ValidationTask}s on a fixed number of threads, each task is started as soon as all its dependencies have finished.
+ * Of the tasks ready at the same time, tasks of earlier phases are started first. So with a single thread all phases are still executed in order.
+ *
+ * If a task fails unexpectedly, no further tasks are started and the failure is rethrown once the running tasks have finished, including any {@link Error}.
+ */
+final class ValidationScheduler
+{
+	private final int parallelism;
+	private final Consumer<ValidationTask> taskExecutor;
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	private ThreadPoolExecutor executorService;
+	private CountDownLatch unfinishedTasks;
+
+	ValidationScheduler(int parallelism, @Nonnull Consumer<ValidationTask> taskExecutor)
+	{
+		this.parallelism = parallelism;
+		this.taskExecutor = taskExecutor;
+	}
+
+	void execute(@Nonnull List<ValidationTask> tasks)
+	{
+		unfinishedTasks = new CountDownLatch(tasks.size());
+		executorService = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
+		// Started threads take all tasks from the queue, so tasks are always started in order of priority.
+		executorService.prestartAllCoreThreads();
+		try
+		{
+			for (ValidationTask task : tasks)
+			{
+				if (task.isReady())
+				{
+					schedule(task);
+				}
+			}
+			unfinishedTasks.await();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new ValidationException("Interrupted while waiting for the validations to finish.", e);
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+
+		final Throwable throwable = failure.get();
+		if (throwable instanceof RuntimeException)
+		{
+			throw (RuntimeException) throwable;
+		}
+		if (throwable instanceof Error)
+		{
+			throw (Error) throwable;
+		}
+		if (throwable != null)
+		{
+			throw new ValidationException("A validation failed unexpectedly.", throwable);
+		}
+	}
+
+	private void schedule(@Nonnull ValidationTask task)
+	{
+		executorService.execute(new ScheduledTask(task));
+	}
+
+	private final class ScheduledTask implements Runnable, Comparable<ScheduledTask>
+	{
+		private final ValidationTask task;
+
+		private ScheduledTask(@Nonnull ValidationTask task)
+		{
+			this.task = task;
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				if (failure.get() == null)
+				{
+					taskExecutor.accept(task);
+				}
+			}
+			catch (Throwable e)
+			{
+				// Errors are kept as well, so a run that stopped part-way never reports success.
+				failure.compareAndSet(null, e);
+			}
+			finally
+			{
+				for (ValidationTask dependent : task.getDependents())
+				{
+					if (dependent.dependencyFinished())
+					{
+						schedule(dependent);
+					}
+				}
+				unfinishedTasks.countDown();
+			}
+		}
+
+		@Override
+		public int compareTo(@Nonnull ScheduledTask other)
+		{
+			return task.compareTo(other.task);
+		}
+	}
+}
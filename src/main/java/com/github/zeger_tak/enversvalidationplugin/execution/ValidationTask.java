@@ -0,0 +1,96 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.zeger_tak.enversvalidationplugin.annotation.TargetPhase;
+
+/**
+ * Execution of a validator for a single audit table, or for all audit tables at once.
+ * A task is only started once all tasks it depends on have finished.
+ */
+final class ValidationTask implements Comparable<ValidationTask>
+{
+	private final Class<?> validatorClass;
+	private final TargetPhase targetPhase;
+	private final String auditTableName;
+	private final int auditTableIndex;
+	private final int sequence;
+	private final List<ValidationTask> dependents = new ArrayList<>();
+	private final AtomicInteger unfinishedDependencies = new AtomicInteger();
+
+	/**
+	 * @param auditTableName The audit table to validate, or null if the validator validates all audit tables at once.
+	 * @param auditTableIndex The position of the audit table amongst all audit tables, used to name the validations.
+	 * @param sequence Determines the order in which tasks of the same phase are started, if they are ready at the same time.
+	 */
+	ValidationTask(@Nonnull Class<?> validatorClass, @Nonnull TargetPhase targetPhase, @Nullable String auditTableName, int auditTableIndex, int sequence)
+	{
+		this.validatorClass = validatorClass;
+		this.targetPhase = targetPhase;
+		this.auditTableName = auditTableName;
+		this.auditTableIndex = auditTableIndex;
+		this.sequence = sequence;
+	}
+
+	void addDependency(@Nonnull ValidationTask dependency)
+	{
+		dependency.dependents.add(this);
+		unfinishedDependencies.incrementAndGet();
+	}
+
+	/**
+	 * @return True if this was the last unfinished dependency, meaning this task is ready to be started.
+	 */
+	boolean dependencyFinished()
+	{
+		return unfinishedDependencies.decrementAndGet() == 0;
+	}
+
+	boolean isReady()
+	{
+		return unfinishedDependencies.get() == 0;
+	}
+
+	@Nonnull
+	List<ValidationTask> getDependents()
+	{
+		return Collections.unmodifiableList(dependents);
+	}
+
+	@Nonnull
+	Class<?> getValidatorClass()
+	{
+		return validatorClass;
+	}
+
+	@CheckForNull
+	String getAuditTableName()
+	{
+		return auditTableName;
+	}
+
+	int getAuditTableIndex()
+	{
+		return auditTableIndex;
+	}
+
+	@Override
+	public int compareTo(@Nonnull ValidationTask other)
+	{
+		final int compare = targetPhase.compareTo(other.targetPhase);
+		return compare != 0 ? compare : Integer.compare(sequence, other.sequence);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ValidationTask[" + validatorClass.getSimpleName() + (auditTableName == null ? "" : ", auditTableName=" + auditTableName) + "]";
+	}
+}
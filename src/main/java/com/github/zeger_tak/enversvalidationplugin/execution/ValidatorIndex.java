@@ -0,0 +1,131 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.annotation.ValidatorIndexProcessor;
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+
+/**
+ * The validator indexes written by the {@link ValidatorIndexProcessor}, grouped by the classpath root holding them.
+ * Classpath roots are identified as {@link org.reflections.util.ClasspathHelper} identifies them, so these can be matched to the roots holding the packages to scan for validators.
+ */
+final class ValidatorIndex
+{
+	private final ClassLoader[] classLoaders;
+	private final Map<String, List<String>> validatorClassNamesPerRoot = new HashMap<>();
+
+	private ValidatorIndex(@Nonnull ClassLoader[] classLoaders)
+	{
+		this.classLoaders = classLoaders;
+	}
+
+	/**
+	 * Reads the indexes of all classpath roots visible to the given class loaders.
+	 */
+	@Nonnull
+	static ValidatorIndex load(@Nonnull ClassLoader... classLoaders)
+	{
+		final ValidatorIndex validatorIndex = new ValidatorIndex(classLoaders);
+		final Set<String> indexUrls = new LinkedHashSet<>();
+		for (ClassLoader classLoader : classLoaders)
+		{
+			try
+			{
+				final Enumeration<URL> resources = classLoader.getResources(ValidatorIndexProcessor.INDEX_RESOURCE_NAME);
+				while (resources.hasMoreElements())
+				{
+					final URL indexUrl = resources.nextElement();
+					if (indexUrls.add(indexUrl.toExternalForm()))
+					{
+						validatorIndex.read(indexUrl);
+					}
+				}
+			}
+			catch (IOException e)
+			{
+				throw new ValidationException("Unable to read the validator index " + ValidatorIndexProcessor.INDEX_RESOURCE_NAME + ".", e);
+			}
+		}
+		return validatorIndex;
+	}
+
+	private void read(@Nonnull URL indexUrl) throws IOException
+	{
+		final String externalForm = indexUrl.toExternalForm();
+		final String root = externalForm.substring(0, externalForm.length() - ValidatorIndexProcessor.INDEX_RESOURCE_NAME.length()).replace(" ", "%20");
+		final List<String> validatorClassNames = validatorClassNamesPerRoot.computeIfAbsent(root, k -> new ArrayList<>());
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(indexUrl.openStream(), StandardCharsets.UTF_8)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.isEmpty())
+				{
+					continue;
+				}
+
+				// Indexes written by earlier versions list the methods after the class name, these are looked up when the validator is executed.
+				validatorClassNames.add(line.split("\t", 2)[0]);
+			}
+		}
+	}
+
+	/**
+	 * @return Whether the classpath root was compiled with the {@link ValidatorIndexProcessor}.
+	 */
+	boolean isIndexed(@Nonnull URL root)
+	{
+		return validatorClassNamesPerRoot.containsKey(root.toExternalForm());
+	}
+
+	/**
+	 * @return The validator classes of an {@link #isIndexed(URL) indexed} classpath root.
+	 */
+	@Nonnull
+	Set<Class<?>> getValidatorClasses(@Nonnull URL root)
+	{
+		final Set<Class<?>> validatorClasses = new LinkedHashSet<>();
+		for (String className : validatorClassNamesPerRoot.getOrDefault(root.toExternalForm(), Collections.emptyList()))
+		{
+			validatorClasses.add(loadClass(className));
+		}
+		return validatorClasses;
+	}
+
+	@Nonnull
+	private Class<?> loadClass(@Nonnull String className)
+	{
+		for (ClassLoader classLoader : classLoaders)
+		{
+			try
+			{
+				return Class.forName(className, false, classLoader);
+			}
+			catch (ClassNotFoundException e)
+			{
+				// Attempted with the next class loader.
+			}
+		}
+		throw new ValidationException("Validator " + className + " is listed in the validator index " + ValidatorIndexProcessor.INDEX_RESOURCE_NAME + ", but could not be loaded.");
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ValidatorIndex[indexedRoots=" + validatorClassNamesPerRoot.size() + "]";
+	}
+}
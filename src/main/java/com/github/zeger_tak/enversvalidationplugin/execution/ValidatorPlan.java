@@ -0,0 +1,458 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.annotation.AuditTableInformationMap;
+import com.github.zeger_tak.enversvalidationplugin.annotation.ConnectionProvider;
+import com.github.zeger_tak.enversvalidationplugin.annotation.Parameterized;
+import com.github.zeger_tak.enversvalidationplugin.annotation.Validate;
+import com.github.zeger_tak.enversvalidationplugin.connection.ConnectionProviderInstance;
+import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+import com.github.zeger_tak.enversvalidationplugin.utils.ReflectionUtils;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.reflect.ConstructorUtils;
+
+/**
+ * Everything needed to create and execute the instances of a validator class, looked up once per validator class instead of once per instance.
+ * Constructors and methods are invoked through method handles, the names of parameterized instances are rendered from templates parsed once.
+ */
+final class ValidatorPlan
+{
+	private static final MethodType SPREAD_INVOCATION_TYPE = MethodType.methodType(Object.class, Object[].class);
+	private static final MethodType VALIDATE_METHOD_TYPE = MethodType.methodType(void.class, Object.class);
+	private static final MethodType FIELD_SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final Class<?> validatorClass;
+	private final List<ValidateMethod> validateMethods;
+	private final List<Method> methods;
+	private final List<Method> parameterizedMethods;
+	private final MethodHandle parameterizedMethodHandle;
+	private final List<Injection> parameterizedMethodInjections;
+	private final boolean perAuditTable;
+	private final NameTemplate nameTemplate;
+	private final NameTemplate uniqueIdentifierTemplate;
+	private final List<FieldInjector> fieldInjectors;
+	private final Map<List<Class<?>>, MethodHandle> constructorsByArgumentTypes = new ConcurrentHashMap<>();
+
+	private ValidatorPlan(@Nonnull Class<?> validatorClass)
+	{
+		this.validatorClass = validatorClass;
+
+		final List<ValidateMethod> validateMethods = new ArrayList<>();
+		final List<Method> parameterizedMethods = new ArrayList<>();
+		for (Method method : validatorClass.getMethods())
+		{
+			if (method.getAnnotation(Validate.class) != null)
+			{
+				if (method.getParameterCount() != 0)
+				{
+					throw new ValidationException(validatorClass.getCanonicalName() + " could not be used for validating, as " + Validate.class.getSimpleName() + " annotated method " + method.getName() + " has parameters.");
+				}
+				validateMethods.add(new ValidateMethod(method, unreflect(method).asType(VALIDATE_METHOD_TYPE)));
+			}
+			else if (method.getAnnotation(Parameterized.class) != null && Modifier.isStatic(method.getModifiers()))
+			{
+				parameterizedMethods.add(method);
+			}
+		}
+		this.validateMethods = Collections.unmodifiableList(validateMethods);
+		this.parameterizedMethods = parameterizedMethods;
+
+		final List<Method> methods = new ArrayList<>(validateMethods.size());
+		validateMethods.forEach(validateMethod -> methods.add(validateMethod.getMethod()));
+		this.methods = Collections.unmodifiableList(methods);
+
+		perAuditTable = parameterizedMethods.stream().anyMatch(method -> method.getAnnotation(Parameterized.class).perAuditTable());
+		if (parameterizedMethods.size() == 1)
+		{
+			final Method parameterizedMethod = parameterizedMethods.get(0);
+			final Parameterized parameterized = parameterizedMethod.getAnnotation(Parameterized.class);
+			parameterizedMethodHandle = unreflect(parameterizedMethod).asSpreader(Object[].class, parameterizedMethod.getParameterCount()).asType(SPREAD_INVOCATION_TYPE);
+			parameterizedMethodInjections = new ArrayList<>(parameterizedMethod.getParameterCount());
+			for (Parameter parameter : parameterizedMethod.getParameters())
+			{
+				final Injection injection = Injection.of(parameter);
+				if (injection != null)
+				{
+					parameterizedMethodInjections.add(injection);
+				}
+			}
+			nameTemplate = new NameTemplate(parameterized.name());
+			uniqueIdentifierTemplate = new NameTemplate(parameterized.uniqueIdentifier());
+		}
+		else
+		{
+			parameterizedMethodHandle = null;
+			parameterizedMethodInjections = Collections.emptyList();
+			nameTemplate = null;
+			uniqueIdentifierTemplate = null;
+		}
+
+		fieldInjectors = new ArrayList<>();
+		for (Field field : ReflectionUtils.getAllDeclaredFields(validatorClass))
+		{
+			final Injection injection = Injection.of(field);
+			if (injection != null)
+			{
+				fieldInjectors.add(new FieldInjector(field, injection));
+			}
+		}
+	}
+
+	@Nonnull
+	static ValidatorPlan compile(@Nonnull Class<?> validatorClass)
+	{
+		return new ValidatorPlan(validatorClass);
+	}
+
+	@Nonnull
+	private static MethodHandle unreflect(@Nonnull Method method)
+	{
+		try
+		{
+			method.setAccessible(true);
+			return MethodHandles.lookup().unreflect(method);
+		}
+		catch (IllegalAccessException e)
+		{
+			throw new ValidationException(method.getDeclaringClass().getCanonicalName() + " could not be used for validating, as method " + method.getName() + " is not accessible.", e);
+		}
+	}
+
+	@Nonnull
+	List<ValidateMethod> getValidateMethods()
+	{
+		return validateMethods;
+	}
+
+	/**
+	 * @return The {@link Validate} annotated methods, in the order of {@link #getValidateMethods()}.
+	 */
+	@Nonnull
+	List<Method> getMethods()
+	{
+		return methods;
+	}
+
+	boolean isParameterized()
+	{
+		if (parameterizedMethods.size() > 1)
+		{
+			throw new ValidationException(validatorClass.getCanonicalName() + " could not be used for validating, as the class defines more than one " + Parameterized.class.getSimpleName() + " annotated methods.");
+		}
+		return parameterizedMethodHandle != null;
+	}
+
+	boolean isPerAuditTable()
+	{
+		return perAuditTable;
+	}
+
+	@Nonnull
+	String getParameterizedMethodName()
+	{
+		return parameterizedMethods.get(0).getName();
+	}
+
+	/**
+	 * @return The result of the {@link Parameterized} method, given the values it requests.
+	 * @throws InvocationTargetException If the method threw an exception.
+	 */
+	@CheckForNull
+	Object generateData(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap) throws InvocationTargetException
+	{
+		final Object[] arguments = new Object[parameterizedMethodInjections.size()];
+		for (int i = 0; i < arguments.length; i++)
+		{
+			arguments[i] = parameterizedMethodInjections.get(i).getValue(connectionProvider, auditTableInformationMap);
+		}
+
+		try
+		{
+			return (Object) parameterizedMethodHandle.invokeExact(arguments);
+		}
+		catch (Throwable e)
+		{
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	/**
+	 * Creates an instance using the constructor matching the arguments, and injects the connection provider and audit table information map into the annotated fields.
+	 */
+	@Nonnull
+	Object createInstance(@Nonnull Object[] constructorArguments, @Nonnull ConnectionProviderInstance connectionProvider, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap) throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException
+	{
+		final MethodHandle constructor = getConstructor(constructorArguments);
+		final Object instance;
+		try
+		{
+			instance = (Object) constructor.invokeExact(constructorArguments);
+		}
+		catch (Throwable e)
+		{
+			throw new InvocationTargetException(e);
+		}
+
+		for (FieldInjector fieldInjector : fieldInjectors)
+		{
+			fieldInjector.inject(instance, connectionProvider, auditTableInformationMap);
+		}
+		return instance;
+	}
+
+	/**
+	 * Validators may define multiple constructors, the one matching the types of the arguments is looked up once for each combination of types.
+	 */
+	@Nonnull
+	private MethodHandle getConstructor(@Nonnull Object[] constructorArguments) throws InstantiationException, IllegalAccessException, NoSuchMethodException
+	{
+		final Class<?>[] argumentTypes = ClassUtils.toClass(constructorArguments);
+		final List<Class<?>> key = Arrays.asList(argumentTypes);
+		final MethodHandle cachedConstructor = constructorsByArgumentTypes.get(key);
+		if (cachedConstructor != null)
+		{
+			return cachedConstructor;
+		}
+
+		if (Modifier.isAbstract(validatorClass.getModifiers()))
+		{
+			throw new InstantiationException(validatorClass.getCanonicalName() + " is abstract.");
+		}
+
+		final Constructor<?> constructor = ConstructorUtils.getMatchingAccessibleConstructor(validatorClass, argumentTypes);
+		if (constructor == null)
+		{
+			throw new NoSuchMethodException("No such accessible constructor on object: " + validatorClass.getName());
+		}
+
+		final MethodHandle constructorHandle = MethodHandles.lookup().unreflectConstructor(constructor).asSpreader(Object[].class, constructor.getParameterCount()).asType(SPREAD_INVOCATION_TYPE);
+		constructorsByArgumentTypes.put(key, constructorHandle);
+		return constructorHandle;
+	}
+
+	/**
+	 * @return The name of an instance of a parameterized validator, appended to the names of its validations.
+	 */
+	@Nonnull
+	String renderName(@Nonnull Object[] constructorArguments, int index)
+	{
+		return nameTemplate.render(constructorArguments, index);
+	}
+
+	/**
+	 * @return The identifier of an instance of a parameterized validator, used to ignore the validations of a specific instance.
+	 */
+	@Nonnull
+	String renderUniqueIdentifier(@Nonnull Object[] constructorArguments, int index)
+	{
+		return uniqueIdentifierTemplate.render(constructorArguments, index);
+	}
+
+	@Nonnull
+	Class<?> getValidatorClass()
+	{
+		return validatorClass;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ValidatorPlan[" + validatorClass.getSimpleName() + ", validateMethods=" + methods.size() + ", parameterized=" + (parameterizedMethodHandle != null) + "]";
+	}
+
+	static final class ValidateMethod
+	{
+		private final Method method;
+		private final MethodHandle methodHandle;
+
+		private ValidateMethod(@Nonnull Method method, @Nonnull MethodHandle methodHandle)
+		{
+			this.method = method;
+			this.methodHandle = methodHandle;
+		}
+
+		@Nonnull
+		Method getMethod()
+		{
+			return method;
+		}
+
+		/**
+		 * @throws InvocationTargetException If the validation threw an exception, as it would be reported by {@link Method#invoke(Object, Object...)}.
+		 */
+		void invoke(@Nonnull Object validator) throws InvocationTargetException
+		{
+			try
+			{
+				methodHandle.invokeExact(validator);
+			}
+			catch (Throwable e)
+			{
+				throw new InvocationTargetException(e);
+			}
+		}
+	}
+
+	private enum Injection
+	{
+		CONNECTION_PROVIDER, AUDIT_TABLE_INFORMATION_MAP;
+
+		@CheckForNull
+		private static Injection of(@Nonnull AnnotatedElement element)
+		{
+			if (element.getAnnotation(ConnectionProvider.class) != null)
+			{
+				return CONNECTION_PROVIDER;
+			}
+			if (element.getAnnotation(AuditTableInformationMap.class) != null)
+			{
+				return AUDIT_TABLE_INFORMATION_MAP;
+			}
+			return null;
+		}
+
+		@Nonnull
+		private Object getValue(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap)
+		{
+			return this == CONNECTION_PROVIDER ? connectionProvider : auditTableInformationMap;
+		}
+	}
+
+	private static final class FieldInjector
+	{
+		private final MethodHandle setter;
+		private final Injection injection;
+
+		private FieldInjector(@Nonnull Field field, @Nonnull Injection injection)
+		{
+			this.injection = injection;
+			try
+			{
+				field.setAccessible(true);
+				final MethodHandle fieldSetter = MethodHandles.lookup().unreflectSetter(field);
+				setter = (Modifier.isStatic(field.getModifiers()) ? MethodHandles.dropArguments(fieldSetter, 0, Object.class) : fieldSetter).asType(FIELD_SETTER_TYPE);
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new ValidationException(field.getDeclaringClass().getCanonicalName() + " could not be used for validating, as field " + field.getName() + " could not be injected.", e);
+			}
+		}
+
+		private void inject(@Nonnull Object instance, @Nonnull ConnectionProviderInstance connectionProvider, @Nonnull Map<String, AuditTableInformation> auditTableInformationMap) throws InvocationTargetException
+		{
+			try
+			{
+				setter.invokeExact(instance, injection.getValue(connectionProvider, auditTableInformationMap));
+			}
+			catch (Throwable e)
+			{
+				throw new InvocationTargetException(e);
+			}
+		}
+	}
+
+	/**
+	 * A {@link Parameterized#name()} or {@link Parameterized#uniqueIdentifier()} pattern, parsed once into literal text, the instance index and constructor arguments.
+	 * Arguments are formatted as {@link MessageFormat} formats them, patterns using format types or quotes are still formatted by {@link MessageFormat} itself.
+	 */
+	private static final class NameTemplate
+	{
+		private static final Pattern PLACEHOLDER = Pattern.compile("\\{(index|\\d+)\\}");
+		private static final int INDEX = -1;
+
+		private final String pattern;
+		private final boolean simple;
+		private final List<String> literals = new ArrayList<>();
+		private final List<Integer> placeholders = new ArrayList<>();
+
+		private NameTemplate(@Nonnull String pattern)
+		{
+			this.pattern = pattern;
+
+			final Matcher matcher = PLACEHOLDER.matcher(pattern);
+			int literalStart = 0;
+			while (matcher.find())
+			{
+				literals.add(pattern.substring(literalStart, matcher.start()));
+				placeholders.add("index".equals(matcher.group(1)) ? INDEX : Integer.parseInt(matcher.group(1)));
+				literalStart = matcher.end();
+			}
+			literals.add(pattern.substring(literalStart));
+			simple = literals.stream().noneMatch(literal -> literal.indexOf('{') >= 0 || literal.indexOf('}') >= 0 || literal.indexOf('\'') >= 0);
+		}
+
+		@Nonnull
+		private String render(@Nonnull Object[] arguments, int index)
+		{
+			if (!simple)
+			{
+				return MessageFormat.format(pattern.replace("{index}", Integer.toString(index)), arguments);
+			}
+
+			final StringBuilder result = new StringBuilder(literals.get(0));
+			for (int i = 0; i < placeholders.size(); i++)
+			{
+				final int placeholder = placeholders.get(i);
+				if (placeholder == INDEX)
+				{
+					result.append(index);
+				}
+				else if (placeholder < arguments.length)
+				{
+					result.append(formatArgument(arguments[placeholder]));
+				}
+				else
+				{
+					result.append('{').append(placeholder).append('}');
+				}
+				result.append(literals.get(i + 1));
+			}
+			return result.toString();
+		}
+
+		@Nonnull
+		private static String formatArgument(@CheckForNull Object argument)
+		{
+			if (argument instanceof String)
+			{
+				return (String) argument;
+			}
+			if (argument instanceof Number)
+			{
+				return NumberFormat.getInstance(Locale.getDefault(Locale.Category.FORMAT)).format(argument);
+			}
+			if (argument instanceof Date)
+			{
+				return DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, Locale.getDefault(Locale.Category.FORMAT)).format(argument);
+			}
+			return String.valueOf(argument);
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package com.github.zeger_tak.enversvalidationplugin.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+
+/**
+ * The ignorables, compiled once into a matcher for the identifiers of validators, validations and individual runs of validations.
+ * An identifier consists of segments separated by dots, e.g. RevisionValidator.validateHistoryIsAValidFlow.AUDIT_TABLE.
+ *
+ * Ignorables are matched in one of three ways:
+ * Exact identifiers are looked up in a hash set and have to match the entire identifier.
+ * Wildcard patterns, in which '*' matches any number of characters and '?' a single character within a segment (e.g. RevisionValidator.*.LOG_*_AUD), are matched segment by segment using a trie.
+ * A wildcard pattern also matches any identifier starting with the segments it matches, e.g. RevisionValidator.validate* matches RevisionValidator.validateRemoveRevisions.AUDIT_TABLE.
+ * Ignorables starting with {@value #REGEX_PREFIX} are regular expressions, combined into a single expression which has to match the entire identifier.
+ */
+public final class IgnoreMatcher
+{
+	public static final String REGEX_PREFIX = "regex:";
+
+	private final Set<String> exactIdentifiers = new HashSet<>();
+	private final Node wildcardPatterns = new Node();
+	private final Pattern regularExpressions;
+
+	private IgnoreMatcher(@Nonnull List<String> ignorables)
+	{
+		final List<String> expressions = new ArrayList<>();
+		for (String ignorable : ignorables)
+		{
+			final String trimmedIgnorable = ignorable.trim();
+			if (trimmedIgnorable.startsWith(REGEX_PREFIX))
+			{
+				expressions.add(compileRegularExpression(trimmedIgnorable.substring(REGEX_PREFIX.length())));
+			}
+			else if (trimmedIgnorable.indexOf('*') >= 0 || trimmedIgnorable.indexOf('?') >= 0)
+			{
+				wildcardPatterns.add(trimmedIgnorable.split("\\.", -1), 0);
+			}
+			else if (!trimmedIgnorable.isEmpty())
+			{
+				exactIdentifiers.add(trimmedIgnorable);
+			}
+		}
+		regularExpressions = expressions.isEmpty() ? null : Pattern.compile(String.join("|", expressions));
+	}
+
+	@Nonnull
+	public static IgnoreMatcher compile(@Nonnull List<String> ignorables)
+	{
+		return new IgnoreMatcher(ignorables);
+	}
+
+	@Nonnull
+	private static String compileRegularExpression(@Nonnull String expression)
+	{
+		try
+		{
+			Pattern.compile(expression);
+		}
+		catch (PatternSyntaxException e)
+		{
+			throw new ValidationException("Ignorable " + REGEX_PREFIX + expression + " is not a valid regular expression.", e);
+		}
+		return "(?:" + expression + ")";
+	}
+
+	/**
+	 * @return True if the identifier is ignored.
+	 */
+	public boolean matches(@Nonnull String identifier)
+	{
+		if (exactIdentifiers.contains(identifier))
+		{
+			return true;
+		}
+
+		if (!wildcardPatterns.isEmpty() && wildcardPatterns.matches(identifier.split("\\.", -1), 0))
+		{
+			return true;
+		}
+
+		return regularExpressions != null && regularExpressions.matcher(identifier).matches();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "IgnoreMatcher[exactIdentifiers=" + exactIdentifiers.size() + ", regularExpressions=" + regularExpressions + "]";
+	}
+
+	/**
+	 * A segment of the wildcard patterns, patterns sharing their leading segments share their nodes.
+	 */
+	private static final class Node
+	{
+		private final Map<String, Node> literalChildren = new HashMap<>();
+		private final Map<String, Node> wildcardChildren = new HashMap<>();
+		private final Map<String, Pattern> wildcardSegments = new HashMap<>();
+		private boolean terminal;
+
+		private void add(@Nonnull String[] segments, int position)
+		{
+			if (position == segments.length)
+			{
+				terminal = true;
+				return;
+			}
+
+			final String segment = segments[position];
+			final Node child;
+			if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0)
+			{
+				wildcardSegments.computeIfAbsent(segment, Node::compileWildcardSegment);
+				child = wildcardChildren.computeIfAbsent(segment, k -> new Node());
+			}
+			else
+			{
+				child = literalChildren.computeIfAbsent(segment, k -> new Node());
+			}
+			child.add(segments, position + 1);
+		}
+
+		private boolean isEmpty()
+		{
+			return literalChildren.isEmpty() && wildcardChildren.isEmpty();
+		}
+
+		/**
+		 * @return True if a pattern ends at this node or any node reached by the remaining segments.
+		 */
+		private boolean matches(@Nonnull String[] segments, int position)
+		{
+			if (terminal)
+			{
+				return true;
+			}
+			if (position == segments.length)
+			{
+				return false;
+			}
+
+			final String segment = segments[position];
+			final Node literalChild = literalChildren.get(segment);
+			if (literalChild != null && literalChild.matches(segments, position + 1))
+			{
+				return true;
+			}
+
+			for (Map.Entry<String, Node> wildcardChild : wildcardChildren.entrySet())
+			{
+				if (wildcardSegments.get(wildcardChild.getKey()).matcher(segment).matches() && wildcardChild.getValue().matches(segments, position + 1))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Nonnull
+		private static Pattern compileWildcardSegment(@Nonnull String segment)
+		{
+			final StringBuilder expression = new StringBuilder();
+			int literalStart = 0;
+			for (int i = 0; i < segment.length(); i++)
+			{
+				final char character = segment.charAt(i);
+				if (character == '*' || character == '?')
+				{
+					appendQuoted(expression, segment, literalStart, i);
+					expression.append(character == '*' ? ".*" : ".");
+					literalStart = i + 1;
+				}
+			}
+			appendQuoted(expression, segment, literalStart, segment.length());
+			return Pattern.compile(expression.toString());
+		}
+
+		private static void appendQuoted(@Nonnull StringBuilder expression, @Nonnull String segment, int start, int end)
+		{
+			if (start < end)
+			{
+				expression.append(Pattern.quote(segment.substring(start, end)));
+			}
+		}
+	}
+}
@@ -16,7 +16,6 @@ import com.github.zeger_tak.enversvalidationplugin.annotation.ValidationType;
 import com.github.zeger_tak.enversvalidationplugin.connection.ConnectionProviderInstance;
 import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
 import com.github.zeger_tak.enversvalidationplugin.exceptions.SetupValidationForSpecificAuditTableInformationException;
-import org.dbunit.database.CachedResultSetTable;
 import org.dbunit.dataset.DataSetException;
 
 @ValidationType(TargetPhase.SETUP)
@@ -31,7 +30,7 @@ public class ConfiguredAuditTablesExistValidator
 		this.auditTableInformation = auditTableInformation;
 	}
 
-	@Parameterized(name = "{index}: auditTableName: {1}", uniqueIdentifier = "{1}")
+	@Parameterized(name = "{index}: auditTableName: {1}", uniqueIdentifier = "{1}", perAuditTable = true)
 	public static List<Object[]> generateTestData(@Nonnull @ConnectionProvider ConnectionProviderInstance connectionProvider, @Nonnull @AuditTableInformationMap Map<String, AuditTableInformation> auditTableInformationMap)
 	{
 		final List<Object[]> testData = new ArrayList<>();
@@ -74,8 +73,7 @@ public class ConfiguredAuditTablesExistValidator
 
 	private void assertTableExists(@Nonnull String tableName) throws SQLException, DataSetException
 	{
-		final CachedResultSetTable auditTable = connectionProvider.getQueries().getTableByName(tableName);
-		if (auditTable.getRowCount() != 1)
+		if (!connectionProvider.getQueries().tableExists(tableName))
 		{
 			throw new TableDoesNotExistException(tableName);
 		}
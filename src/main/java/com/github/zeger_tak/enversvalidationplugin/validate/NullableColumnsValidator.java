@@ -39,7 +39,7 @@ public class NullableColumnsValidator
 		this.nonNullColumns = nonNullColumns;
 	}
 
-	@Parameterized(name = "{index}: auditTableName: {1}", uniqueIdentifier = "{1}")
+	@Parameterized(name = "{index}: auditTableName: {1}", uniqueIdentifier = "{1}", perAuditTable = true)
 	public static List<Object[]> generateTestData(@Nonnull @ConnectionProvider ConnectionProviderInstance connectionProvider, @Nonnull @AuditTableInformationMap Map<String, AuditTableInformation> auditTableInformationMap) throws SQLException, DataSetException
 	{
 		final List<Object[]> testData = new ArrayList<>();
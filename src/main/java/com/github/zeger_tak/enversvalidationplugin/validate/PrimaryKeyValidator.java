@@ -40,7 +40,7 @@ public class PrimaryKeyValidator
 		this.primaryIdentifierColumnNamesContentTable = primaryIdentifierColumnNamesContentTable;
 	}
 
-	@Parameterized(name = "{index}: auditTableName: {1}", uniqueIdentifier = "{1}")
+	@Parameterized(name = "{index}: auditTableName: {1}", uniqueIdentifier = "{1}", perAuditTable = true)
 	public static List<Object[]> generateTestData(@Nonnull @ConnectionProvider ConnectionProviderInstance connectionProvider, @Nonnull @AuditTableInformationMap Map<String, AuditTableInformation> auditTableInformationMap) throws SQLException, DataSetException
 	{
 		final DatabaseQueries databaseQueries = connectionProvider.getQueries();
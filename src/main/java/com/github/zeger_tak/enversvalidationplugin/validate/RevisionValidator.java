@@ -1,11 +1,14 @@
 package com.github.zeger_tak.enversvalidationplugin.validate;
 
-import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import javax.annotation.Nonnull;
@@ -17,11 +20,26 @@ import com.github.zeger_tak.enversvalidationplugin.annotation.Parameterized;
 import com.github.zeger_tak.enversvalidationplugin.annotation.TargetPhase;
 import com.github.zeger_tak.enversvalidationplugin.annotation.Validate;
 import com.github.zeger_tak.enversvalidationplugin.annotation.ValidationType;
+import com.github.zeger_tak.enversvalidationplugin.connection.ChunkedEntityHistorySource;
 import com.github.zeger_tak.enversvalidationplugin.connection.ConnectionProviderInstance;
 import com.github.zeger_tak.enversvalidationplugin.connection.DatabaseQueries;
+import com.github.zeger_tak.enversvalidationplugin.connection.EntityHistoryCursor;
+import com.github.zeger_tak.enversvalidationplugin.connection.EntityHistorySource;
+import com.github.zeger_tak.enversvalidationplugin.connection.InMemoryEntityHistorySource;
+import com.github.zeger_tak.enversvalidationplugin.connection.PooledConnection;
+import com.github.zeger_tak.enversvalidationplugin.connection.RecordSelection;
+import com.github.zeger_tak.enversvalidationplugin.connection.StreamingEntityHistorySource;
 import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.ColumnIndexes;
+import com.github.zeger_tak.enversvalidationplugin.entities.ContentValidationMode;
+import com.github.zeger_tak.enversvalidationplugin.entities.EntityHistory;
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+import com.github.zeger_tak.enversvalidationplugin.entities.RevisionCheckpoint;
 import com.github.zeger_tak.enversvalidationplugin.entities.RevisionConstants;
+import com.github.zeger_tak.enversvalidationplugin.entities.SamplingReport;
 import com.github.zeger_tak.enversvalidationplugin.entities.TableRow;
+import com.github.zeger_tak.enversvalidationplugin.entities.TableRowSchema;
+import com.github.zeger_tak.enversvalidationplugin.entities.ValidationSettings;
 import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
 import org.dbunit.dataset.DataSetException;
 
@@ -33,32 +51,137 @@ public class RevisionValidator
 {
 	private final ConnectionProviderInstance connectionProvider;
 	private final AuditTableInformation auditTableInformation;
-	private final Map<String, List<TableRow>> recordsInAuditTable;
-	private final Map<String, TableRow> recordsInContentTableIdentifiedByPK;
+	private final EntityHistorySource entityHistorySource;
+	private final List<String> primaryIdentifierColumnNames;
 
-	public RevisionValidator(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull AuditTableInformation auditTableInformation, @Nonnull Map<String, List<TableRow>> recordsInAuditTable, @Nonnull Map<String, TableRow> recordsInContentTableIdentifiedByPK)
+	private EvaluationResults evaluationResults;
+	private TableRowSchema comparedContentSchema;
+	private TableRowSchema comparedAuditSchema;
+	private int[] comparedAuditColumnIndexes;
+
+	public <K> RevisionValidator(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull AuditTableInformation auditTableInformation, @Nonnull Map<K, List<TableRow>> recordsInAuditTable, @Nonnull Map<K, TableRow> recordsInContentTableIdentifiedByPK)
+	{
+		this(connectionProvider, auditTableInformation, new InMemoryEntityHistorySource<>(recordsInAuditTable, recordsInContentTableIdentifiedByPK));
+	}
+
+	public RevisionValidator(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull AuditTableInformation auditTableInformation, @Nonnull EntityHistorySource entityHistorySource)
+	{
+		this(connectionProvider, auditTableInformation, entityHistorySource, null);
+	}
+
+	/**
+	 * @param primaryIdentifierColumnNames If provided, validations that support it are evaluated by the database using these columns to identify records.
+	 */
+	public RevisionValidator(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull AuditTableInformation auditTableInformation, @Nonnull EntityHistorySource entityHistorySource, @Nullable List<String> primaryIdentifierColumnNames)
 	{
 		this.connectionProvider = connectionProvider;
 		this.auditTableInformation = auditTableInformation;
-		this.recordsInAuditTable = recordsInAuditTable;
-		this.recordsInContentTableIdentifiedByPK = recordsInContentTableIdentifiedByPK;
+		this.entityHistorySource = entityHistorySource;
+		this.primaryIdentifierColumnNames = primaryIdentifierColumnNames;
+	}
+
+	/**
+	 * The records of each audit table are only loaded once its validator instance is requested, so only the records of a single table are kept in memory.
+	 */
+	@Parameterized(name = "{index}: auditTableName: {1}", uniqueIdentifier = "{1}", perAuditTable = true)
+	public static Iterator<Object[]> generateTestData(@Nonnull @ConnectionProvider ConnectionProviderInstance connectionProvider, @Nonnull @AuditTableInformationMap Map<String, AuditTableInformation> auditTableInformationMap)
+	{
+		// The map may be modified by other validators while the test data is generated.
+		final Iterator<AuditTableInformation> auditTableInformations = new ArrayList<>(auditTableInformationMap.values()).iterator();
+		return new Iterator<Object[]>()
+		{
+			@Override
+			public boolean hasNext()
+			{
+				return auditTableInformations.hasNext();
+			}
+
+			@Override
+			public Object[] next()
+			{
+				final AuditTableInformation auditTableInformation = auditTableInformations.next();
+				try
+				{
+					return generateTestData(connectionProvider, auditTableInformation);
+				}
+				catch (SQLException | DataSetException e)
+				{
+					throw new ValidationException("Unable to load the records of audit table " + auditTableInformation.getAuditTableName() + ".", e);
+				}
+			}
+		};
 	}
 
-	@Parameterized(name = "{index}: auditTableName: {1}", uniqueIdentifier = "{1}")
-	public static List<Object[]> generateTestData(@Nonnull @ConnectionProvider ConnectionProviderInstance connectionProvider, @Nonnull @AuditTableInformationMap Map<String, AuditTableInformation> auditTableInformationMap) throws SQLException, DataSetException
+	@Nonnull
+	private static Object[] generateTestData(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull AuditTableInformation auditTableInformation) throws SQLException, DataSetException
 	{
 		final DatabaseQueries databaseQueries = connectionProvider.getQueries();
-		final List<Object[]> testData = new ArrayList<>();
-		for (Map.Entry<String, AuditTableInformation> auditTableInformation : auditTableInformationMap.entrySet())
+		final List<String> primaryIdentifierColumnNames = databaseQueries.getPrimaryKeyColumnNames(auditTableInformation.getContentTableName());
+		final RevisionCheckpoint revisionCheckpoint = connectionProvider.getRevisionCheckpoint();
+		if (revisionCheckpoint != null)
+		{
+			// Determined before reading the records, revisions added meanwhile are validated again next run.
+			revisionCheckpoint.startValidation(auditTableInformation.getAuditTableName(), databaseQueries.getHighestRevision(auditTableInformation));
+
+			final Long validatedRevision = revisionCheckpoint.getValidatedRevision(auditTableInformation.getAuditTableName());
+			if (validatedRevision != null)
+			{
+				// Revisions below the validated revision may have been committed after it was validated.
+				final long revalidatedRevision = Math.max(0, validatedRevision - connectionProvider.getSettings().getRevisionCheckpointOverlap());
+				return readRecords(connectionProvider, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.changedAfterRevision(revalidatedRevision));
+			}
+		}
+		final SamplingReport samplingReport = connectionProvider.getSamplingReport();
+		if (samplingReport != null)
+		{
+			final long entityCount = databaseQueries.getEntityCount(auditTableInformation, primaryIdentifierColumnNames);
+			samplingReport.startSample(auditTableInformation.getAuditTableName(), entityCount);
+
+			final double fraction = determineSampleFraction(connectionProvider.getSettings(), entityCount);
+			return readRecords(connectionProvider, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.sample(fraction, samplingReport.getSeed()));
+		}
+		if (connectionProvider.getSettings().isSqlPushdown() && revisionCheckpoint == null)
+		{
+			// All validations are evaluated by the database, the streaming source is never opened.
+			return new Object[] { connectionProvider, auditTableInformation, new StreamingEntityHistorySource(connectionProvider, auditTableInformation, primaryIdentifierColumnNames), primaryIdentifierColumnNames };
+		}
+		if (connectionProvider.getSettings().getContentValidationMode() == ContentValidationMode.STREAMING)
 		{
-			final List<String> primaryIdentifierColumnNames = databaseQueries.getPrimaryKeyColumnNames(auditTableInformation.getValue().getContentTableName());
+			// Records are read by each validation, one entity at a time.
+			return new Object[] { connectionProvider, auditTableInformation, new StreamingEntityHistorySource(connectionProvider, auditTableInformation, primaryIdentifierColumnNames) };
+		}
+		if (connectionProvider.getSettings().getContentValidationMode() == ContentValidationMode.CHUNKED)
+		{
+			// Records are read by each validation, one chunk of entities at a time.
+			return new Object[] { connectionProvider, auditTableInformation, new ChunkedEntityHistorySource(connectionProvider, auditTableInformation, primaryIdentifierColumnNames, connectionProvider.getSettings().getChunkSize()) };
+		}
 
-			final Map<String, TableRow> recordsInContentTableById = databaseQueries.getContentRecords(connectionProvider.getDatabaseConnection(), auditTableInformation.getValue(), primaryIdentifierColumnNames);
-			final Map<String, List<TableRow>> auditRecordsGroupedByContentPrimaryKey = databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(connectionProvider.getDatabaseConnection(), auditTableInformation.getValue(), primaryIdentifierColumnNames);
-			testData.add(new Object[] { connectionProvider, auditTableInformation.getValue(), auditRecordsGroupedByContentPrimaryKey, recordsInContentTableById });
+		return readRecords(connectionProvider, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.ALL);
+	}
+
+	/**
+	 * Reads the content records and audit records of the selected entities into memory.
+	 */
+	@Nonnull
+	private static Object[] readRecords(@Nonnull ConnectionProviderInstance connectionProvider, @Nonnull AuditTableInformation auditTableInformation, @Nonnull List<String> primaryIdentifierColumnNames, @Nonnull RecordSelection selection) throws SQLException, DataSetException
+	{
+		final DatabaseQueries databaseQueries = connectionProvider.getQueries();
+		try (PooledConnection connection = connectionProvider.borrowConnection())
+		{
+			final Map<PrimaryIdentifier, TableRow> recordsInContentTableById = databaseQueries.getContentRecords(connection.getDatabaseConnection(), auditTableInformation, primaryIdentifierColumnNames, selection);
+			final Map<PrimaryIdentifier, List<TableRow>> auditRecordsGroupedByContentPrimaryKey = databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(connection.getDatabaseConnection(), auditTableInformation, primaryIdentifierColumnNames, selection);
+			return new Object[] { connectionProvider, auditTableInformation, auditRecordsGroupedByContentPrimaryKey, recordsInContentTableById };
 		}
+	}
 
-		return testData;
+	private static double determineSampleFraction(@Nonnull ValidationSettings settings, long entityCount)
+	{
+		final Double sampleFraction = settings.getSampleFraction();
+		if (sampleFraction != null)
+		{
+			return sampleFraction;
+		}
+		return entityCount <= settings.getSampleSize() ? 1 : (double) settings.getSampleSize() / entityCount;
 	}
 
 	/**
@@ -75,35 +198,26 @@ public class RevisionValidator
 	 * - An Modify revision following after a Remove revision.
 	 */
 	@Validate
-	public void validateHistoryIsAValidFlow()
+	public void validateHistoryIsAValidFlow() throws SQLException, DataSetException
 	{
-		final List<String> identifiersWithInvalidHistory = new ArrayList<>(recordsInAuditTable.size());
-		for (Map.Entry<String, List<TableRow>> auditHistoryPerIdentifier : recordsInAuditTable.entrySet())
+		final List<Object> identifiersWithInvalidHistory = new ArrayList<>();
+		if (primaryIdentifierColumnNames != null)
 		{
-			boolean existingRecord = false;
-
-			for (TableRow tableRow : auditHistoryPerIdentifier.getValue())
+			final List<PrimaryIdentifier> identifiersWithoutRevType = new ArrayList<>();
+			identifiersWithInvalidHistory.addAll(connectionProvider.getQueries().getIdentifiersWithInvalidHistory(auditTableInformation, primaryIdentifierColumnNames, identifiersWithoutRevType));
+			if (!identifiersWithoutRevType.isEmpty())
 			{
-				final Object columnValue = tableRow.getColumnValue(connectionProvider.getQueries().getRevTypeColumnName());
-				if (columnValue == RevisionConstants.DO_NOT_VALIDATE_REVISION)
-				{
-					throw new ValidationException("The audit table " + auditTableInformation.getAuditTableName() + " does not have a column referring to the revision table.");
-				}
-				final int revType = ((BigDecimal) columnValue).intValue();
-				if (!existingRecord && revType != RevisionConstants.ADD_REVISION)
-				{
-					identifiersWithInvalidHistory.add(auditHistoryPerIdentifier.getKey());
-					break;
-				}
-
-				if (existingRecord && revType == RevisionConstants.ADD_REVISION)
-				{
-					identifiersWithInvalidHistory.add(auditHistoryPerIdentifier.getKey());
-					break;
-				}
-
-				existingRecord = !(existingRecord && revType == RevisionConstants.REMOVE_REVISION);
+				throw createMissingRevTypeException();
+			}
+		}
+		else
+		{
+			final EvaluationResults evaluationResults = evaluateEntityHistories();
+			if (evaluationResults.historyFlowMissesRevType)
+			{
+				throw createMissingRevTypeException();
 			}
+			identifiersWithInvalidHistory.addAll(evaluationResults.identifiersWithInvalidHistory);
 		}
 
 		if (!identifiersWithInvalidHistory.isEmpty())
@@ -116,35 +230,26 @@ public class RevisionValidator
 	 * Validates that the latest revision for each primary key is not an Add/Modify revision if there is no corresponding record in the content table.
 	 */
 	@Validate
-	public void validateLatestAddOrModifyRevisionRefersToExistingContent()
+	public void validateLatestAddOrModifyRevisionRefersToExistingContent() throws SQLException, DataSetException
 	{
-		final List<String> recordsWithAnAddOrModifyLatestRevisionButNoExistingContent = new ArrayList<>(recordsInAuditTable.size());
-		for (Map.Entry<String, List<TableRow>> auditHistoryPerIdentifier : recordsInAuditTable.entrySet())
+		final List<Object> recordsWithAnAddOrModifyLatestRevisionButNoExistingContent = new ArrayList<>();
+		if (primaryIdentifierColumnNames != null)
 		{
-			final List<TableRow> historyFlow = auditHistoryPerIdentifier.getValue();
-			if (historyFlow.isEmpty())
-			{
-				continue;
-			}
-
-			final TableRow latestRevision = historyFlow.get(historyFlow.size() - 1);
-
-			final Object columnValue = latestRevision.getColumnValue(connectionProvider.getQueries().getRevTypeColumnName());
-			if (columnValue == RevisionConstants.DO_NOT_VALIDATE_REVISION)
-			{
-				throw new ValidationException("The audit table " + auditTableInformation.getAuditTableName() + " does not have a column referring to the revision table.");
-			}
-			final int revType = ((BigDecimal) columnValue).intValue();
-			if (revType == RevisionConstants.REMOVE_REVISION)
+			final List<PrimaryIdentifier> identifiersWithoutRevType = new ArrayList<>();
+			recordsWithAnAddOrModifyLatestRevisionButNoExistingContent.addAll(connectionProvider.getQueries().getIdentifiersWithAddOrModifyLatestRevisionWithoutContent(auditTableInformation, primaryIdentifierColumnNames, identifiersWithoutRevType));
+			if (!identifiersWithoutRevType.isEmpty())
 			{
-				continue;
+				throw createMissingRevTypeException();
 			}
-
-			final TableRow contentTableRow = recordsInContentTableIdentifiedByPK.get(auditHistoryPerIdentifier.getKey());
-			if (contentTableRow == null)
+		}
+		else
+		{
+			final EvaluationResults evaluationResults = evaluateEntityHistories();
+			if (evaluationResults.latestRevisionMissesRevType)
 			{
-				recordsWithAnAddOrModifyLatestRevisionButNoExistingContent.add(auditHistoryPerIdentifier.getKey());
+				throw createMissingRevTypeException();
 			}
+			recordsWithAnAddOrModifyLatestRevisionButNoExistingContent.addAll(evaluationResults.identifiersWithAddOrModifyLatestRevisionWithoutContent);
 		}
 
 		if (!recordsWithAnAddOrModifyLatestRevisionButNoExistingContent.isEmpty())
@@ -161,121 +266,267 @@ public class RevisionValidator
 	 * - The content table may not have columns which are not present in the audit table.
 	 */
 	@Validate
-	public void validateAllRecordsInContentTableHaveAValidLatestRevision()
+	public void validateAllRecordsInContentTableHaveAValidLatestRevision() throws SQLException, DataSetException
 	{
-		final List<String> identifiersWhichShouldHaveAnAddOrModifyRevision = new ArrayList<>(recordsInContentTableIdentifiedByPK.size());
-		final Map<String, Map<String, TableRow>> rowsWithDifferentValues = new HashMap<>();
-		for (Map.Entry<String, TableRow> contentRow : recordsInContentTableIdentifiedByPK.entrySet())
+		final List<Object> identifiersWhichShouldHaveAnAddOrModifyRevision = new ArrayList<>();
+		final Map<Object, Map<String, TableRow>> rowsWithDifferentValues = new HashMap<>();
+		if (primaryIdentifierColumnNames != null)
 		{
-			final String primaryKeyIdentifier = contentRow.getKey();
-			final List<TableRow> auditHistoryValue = recordsInAuditTable.get(primaryKeyIdentifier);
-			if (auditHistoryValue == null)
+			final String revTypeColumnName = connectionProvider.getQueries().getRevTypeColumnName();
+			for (EntityHistory entityHistory : connectionProvider.getQueries().getContentRecordsWithInvalidLatestRevision(auditTableInformation, primaryIdentifierColumnNames))
 			{
-				identifiersWhichShouldHaveAnAddOrModifyRevision.add(primaryKeyIdentifier);
-				continue;
+				final TableRow latestAuditRow = entityHistory.getLatestAuditRow();
+				final Object latestRevType = latestAuditRow == null ? null : latestAuditRow.getColumnValue(revTypeColumnName);
+				if (!validateLatestRevision(entityHistory, latestRevType, identifiersWhichShouldHaveAnAddOrModifyRevision, rowsWithDifferentValues))
+				{
+					throw createMissingRevTypeException();
+				}
 			}
-
-			final TableRow lastRecord = auditHistoryValue.get(auditHistoryValue.size() - 1);
-			final Object columnValue = lastRecord.getColumnValue(connectionProvider.getQueries().getRevTypeColumnName());
-			if (columnValue == RevisionConstants.DO_NOT_VALIDATE_REVISION)
+		}
+		else
+		{
+			final EvaluationResults evaluationResults = evaluateEntityHistories();
+			if (evaluationResults.contentComparisonMissesRevType)
 			{
-				throw new ValidationException("The audit table " + auditTableInformation.getAuditTableName() + " does not have a column referring to the revision table.");
+				throw createMissingRevTypeException();
 			}
-			final int revType = ((BigDecimal) columnValue).intValue();
-			if (revType == RevisionConstants.REMOVE_REVISION)
+			identifiersWhichShouldHaveAnAddOrModifyRevision.addAll(evaluationResults.identifiersWhichShouldHaveAnAddOrModifyRevision);
+			rowsWithDifferentValues.putAll(evaluationResults.rowsWithDifferentValues);
+		}
+
+		validateLatestRevisionComparisonResult(identifiersWhichShouldHaveAnAddOrModifyRevision, rowsWithDifferentValues);
+	}
+
+	/**
+	 * @return False if the revision type of the latest revision is missing, in which case the latest revision could not be validated.
+	 */
+	private boolean validateLatestRevision(@Nonnull EntityHistory entityHistory, @Nullable Object latestRevType, @Nonnull List<Object> identifiersWhichShouldHaveAnAddOrModifyRevision, @Nonnull Map<Object, Map<String, TableRow>> rowsWithDifferentValues)
+	{
+		final TableRow contentRow = entityHistory.getContentRow();
+		if (contentRow == null)
+		{
+			return true;
+		}
+
+		final Object primaryKeyIdentifier = entityHistory.getIdentifier();
+		final TableRow lastRecord = entityHistory.getLatestAuditRow();
+		if (lastRecord == null)
+		{
+			identifiersWhichShouldHaveAnAddOrModifyRevision.add(primaryKeyIdentifier);
+			return true;
+		}
+
+		if (latestRevType == RevisionConstants.DO_NOT_VALIDATE_REVISION)
+		{
+			return false;
+		}
+		if (((Number) latestRevType).intValue() == RevisionConstants.REMOVE_REVISION)
+		{
+			identifiersWhichShouldHaveAnAddOrModifyRevision.add(primaryKeyIdentifier);
+			return true;
+		}
+
+		final Map<String, TableRow> incorrectColumns = determineIncorrectColumns(contentRow, lastRecord);
+		if (!incorrectColumns.isEmpty())
+		{
+			rowsWithDifferentValues.put(primaryKeyIdentifier, incorrectColumns);
+		}
+		return true;
+	}
+
+	@Validate
+	public void validateRemoveRevisions() throws SQLException, DataSetException
+	{
+		final Map<?, List<Object>> identifiersWithNonPrimaryKeyColumnsFilled;
+		if (primaryIdentifierColumnNames != null)
+		{
+			identifiersWithNonPrimaryKeyColumnsFilled = connectionProvider.getQueries().getRemoveRevisionsWithNullableColumnsFilled(auditTableInformation, primaryIdentifierColumnNames);
+		}
+		else
+		{
+			final EvaluationResults evaluationResults = evaluateEntityHistories();
+			if (evaluationResults.removeRevisionsMissRevType)
 			{
-				identifiersWhichShouldHaveAnAddOrModifyRevision.add(primaryKeyIdentifier);
-				continue;
+				throw createMissingRevTypeException();
 			}
+			identifiersWithNonPrimaryKeyColumnsFilled = evaluationResults.removeRevisionsWithNullableColumnsFilled;
+		}
 
-			final Map<String, TableRow> incorrectColumns = determineIncorrectColumns(contentRow.getValue(), lastRecord);
-			if (!incorrectColumns.isEmpty())
+		if (!identifiersWithNonPrimaryKeyColumnsFilled.isEmpty())
+		{
+			final StringBuilder errorMessage = new StringBuilder();
+			errorMessage.append("Identifiers found with nonnull values in nullable columns for Remove revisions: \n");
+			for (Map.Entry<?, List<Object>> identifierWithNonPrimaryKeyColumnsFilled : identifiersWithNonPrimaryKeyColumnsFilled.entrySet())
 			{
-				rowsWithDifferentValues.put(primaryKeyIdentifier, incorrectColumns);
+				errorMessage.append("Identifier ");
+				errorMessage.append(identifierWithNonPrimaryKeyColumnsFilled.getKey());
+				errorMessage.append(", with the following revisions ");
+				errorMessage.append(identifierWithNonPrimaryKeyColumnsFilled.getValue());
+				errorMessage.append("\n");
 			}
+
+			throw new ValidationException(errorMessage.toString());
 		}
+	}
 
-		validateLatestRevisionComparisonResult(identifiersWhichShouldHaveAnAddOrModifyRevision, rowsWithDifferentValues);
+	@Nonnull
+	private ValidationException createMissingRevTypeException()
+	{
+		return new ValidationException("The audit table " + auditTableInformation.getAuditTableName() + " does not have a column referring to the revision table.");
 	}
 
-	@Validate
-	public void validateRemoveRevisions() throws SQLException, DataSetException
+	/**
+	 * Evaluates all validations in a single pass over the entity histories, the first validation executed triggers the pass.
+	 * Each validation reports its own results, so they can still be ignored separately.
+	 * If all validations succeed, or fail but are ignored for this audit table, the revisions read are marked as validated in the {@link RevisionCheckpoint}.
+	 * If only a sample of the entities was read, the outcome is added to the {@link SamplingReport}.
+	 */
+	@Nonnull
+	private EvaluationResults evaluateEntityHistories() throws SQLException, DataSetException
 	{
-		final Map<String, List<Object>> identifiersWithNonPrimaryKeyColumnsFilled = new HashMap<>();
-		final String revTypeColumnName = connectionProvider.getQueries().getRevTypeColumnName();
-		final String revisionTableIdentifierColumnName = connectionProvider.getQueries().getRevisionTableIdentifierColumnName();
-		final Set<String> nonnullColumns = connectionProvider.getQueries().getAllNonnullColumns(auditTableInformation.getAuditTableName());
-		for (Map.Entry<String, List<TableRow>> auditHistoryPerIdentifier : recordsInAuditTable.entrySet())
-		{
-			final List<Object> revisionsWithNullableColumnsWithNonnullValues = new ArrayList<>();
-			for (TableRow tableRow : auditHistoryPerIdentifier.getValue())
+		if (evaluationResults == null)
+		{
+			final EvaluationResults results = new EvaluationResults();
+			final ColumnIndexes revisionColumnIndexes = new ColumnIndexes(connectionProvider.getQueries().getRevTypeColumnName(), connectionProvider.getQueries().getRevisionTableIdentifierColumnName());
+			final Set<String> nonnullColumns = connectionProvider.getQueries().getAllNonnullColumns(auditTableInformation.getAuditTableName());
+			try (EntityHistoryCursor entityHistories = entityHistorySource.open())
 			{
-				final Object columnValue = tableRow.getColumnValue(revTypeColumnName);
-				if (columnValue == RevisionConstants.DO_NOT_VALIDATE_REVISION)
-				{
-					throw new ValidationException("The audit table " + auditTableInformation.getAuditTableName() + " does not have a column referring to the revision table.");
-				}
-				final int revType = ((BigDecimal) columnValue).intValue();
-				if (revType != RevisionConstants.REMOVE_REVISION)
+				while (entityHistories.next())
 				{
-					continue;
+					evaluateEntityHistory(entityHistories.getEntityHistory(), revisionColumnIndexes, nonnullColumns, results);
 				}
+			}
+			evaluationResults = results;
+
+			final RevisionCheckpoint revisionCheckpoint = connectionProvider.getRevisionCheckpoint();
+			if (revisionCheckpoint != null && isValidOrIgnored(results))
+			{
+				revisionCheckpoint.validationSucceeded(auditTableInformation.getAuditTableName());
+			}
 
-				boolean hasNullableColumnsWithNonnullValues = false;
-				for (String columnName : tableRow.getColumnNames())
+			final SamplingReport samplingReport = connectionProvider.getSamplingReport();
+			if (samplingReport != null)
+			{
+				samplingReport.sampleValidated(auditTableInformation.getAuditTableName(), results.entityCount, results.getInvalidEntityCount());
+			}
+		}
+		return evaluationResults;
+	}
+
+	private boolean isValidOrIgnored(@Nonnull EvaluationResults results)
+	{
+		//@formatter:off
+		return (results.isHistoryFlowValid() || isIgnored("validateHistoryIsAValidFlow"))
+				&& (results.isLatestRevisionValid() || isIgnored("validateLatestAddOrModifyRevisionRefersToExistingContent"))
+				&& (results.isContentComparisonValid() || isIgnored("validateAllRecordsInContentTableHaveAValidLatestRevision"))
+				&& (results.isRemoveRevisionsValid() || isIgnored("validateRemoveRevisions"));
+		//@formatter:on
+	}
+
+	/**
+	 * @return True if the validation is ignored for the audit table of this validator, validations ignored entirely are never executed.
+	 */
+	private boolean isIgnored(@Nonnull String validationName)
+	{
+		return connectionProvider.getSettings().getIgnoreMatcher().matches(RevisionValidator.class.getSimpleName() + "." + validationName + "." + auditTableInformation.getAuditTableName());
+	}
+
+	/**
+	 * @param revisionColumnIndexes The indexes of the revision type and revision columns.
+	 */
+	private void evaluateEntityHistory(@Nonnull EntityHistory entityHistory, @Nonnull ColumnIndexes revisionColumnIndexes, @Nonnull Set<String> nonnullColumns, @Nonnull EvaluationResults results)
+	{
+		results.entityCount++;
+		boolean existingRecord = false;
+		boolean validatingHistoryFlow = true;
+		Object latestRevType = null;
+		List<Object> revisionsWithNullableColumnsWithNonnullValues = null;
+
+		for (TableRow tableRow : entityHistory.getAuditRows())
+		{
+			final int[] columnIndexes = revisionColumnIndexes.of(tableRow);
+			latestRevType = tableRow.getColumnValue(columnIndexes[0]);
+			if (latestRevType == RevisionConstants.DO_NOT_VALIDATE_REVISION)
+			{
+				results.historyFlowMissesRevType |= validatingHistoryFlow;
+				results.removeRevisionsMissRevType = true;
+				validatingHistoryFlow = false;
+				continue;
+			}
+			final int revType = ((Number) latestRevType).intValue();
+
+			if (validatingHistoryFlow)
+			{
+				// Starts with an Add revision, after which only a Remove revision may be followed by another Add revision.
+				if (existingRecord == (revType == RevisionConstants.ADD_REVISION))
 				{
-					if (!nonnullColumns.contains(columnName) && tableRow.getColumnValue(columnName) != null)
-					{
-						hasNullableColumnsWithNonnullValues = true;
-						break;
-					}
+					results.identifiersWithInvalidHistory.add(entityHistory.getIdentifier());
+					validatingHistoryFlow = false;
 				}
-				if (hasNullableColumnsWithNonnullValues)
+				existingRecord = !(existingRecord && revType == RevisionConstants.REMOVE_REVISION);
+			}
+
+			if (revType == RevisionConstants.REMOVE_REVISION && hasNullableColumnsWithNonnullValues(tableRow, nonnullColumns))
+			{
+				if (revisionsWithNullableColumnsWithNonnullValues == null)
 				{
-					revisionsWithNullableColumnsWithNonnullValues.add(tableRow.getColumnValue(revisionTableIdentifierColumnName));
+					revisionsWithNullableColumnsWithNonnullValues = new ArrayList<>();
+					results.removeRevisionsWithNullableColumnsFilled.put(entityHistory.getIdentifier(), revisionsWithNullableColumnsWithNonnullValues);
 				}
+				revisionsWithNullableColumnsWithNonnullValues.add(tableRow.getColumnValue(columnIndexes[1]));
 			}
+		}
 
-			if (!revisionsWithNullableColumnsWithNonnullValues.isEmpty())
+		final TableRow latestAuditRow = entityHistory.getLatestAuditRow();
+		if (latestAuditRow != null)
+		{
+			if (latestRevType == RevisionConstants.DO_NOT_VALIDATE_REVISION)
+			{
+				results.latestRevisionMissesRevType = true;
+			}
+			else if (((Number) latestRevType).intValue() != RevisionConstants.REMOVE_REVISION && entityHistory.getContentRow() == null)
 			{
-				identifiersWithNonPrimaryKeyColumnsFilled.put(auditHistoryPerIdentifier.getKey(), revisionsWithNullableColumnsWithNonnullValues);
+				results.identifiersWithAddOrModifyLatestRevisionWithoutContent.add(entityHistory.getIdentifier());
 			}
 		}
 
-		if (!identifiersWithNonPrimaryKeyColumnsFilled.isEmpty())
+		if (!validateLatestRevision(entityHistory, latestRevType, results.identifiersWhichShouldHaveAnAddOrModifyRevision, results.rowsWithDifferentValues))
 		{
-			final StringBuilder errorMessage = new StringBuilder();
-			errorMessage.append("Identifiers found with nonnull values in nullable columns for Remove revisions: \n");
-			for (Map.Entry<String, List<Object>> identifierWithNonPrimaryKeyColumnsFilled : identifiersWithNonPrimaryKeyColumnsFilled.entrySet())
+			results.contentComparisonMissesRevType = true;
+		}
+	}
+
+	private static boolean hasNullableColumnsWithNonnullValues(@Nonnull TableRow tableRow, @Nonnull Set<String> nonnullColumns)
+	{
+		final TableRowSchema schema = tableRow.getSchema();
+		for (int i = 0; i < schema.size(); i++)
+		{
+			if (tableRow.getColumnValue(i) != null && !nonnullColumns.contains(schema.getColumnName(i)))
 			{
-				errorMessage.append("Identifier ");
-				errorMessage.append(identifierWithNonPrimaryKeyColumnsFilled.getKey());
-				errorMessage.append(", with the following revisions ");
-				errorMessage.append(identifierWithNonPrimaryKeyColumnsFilled.getValue());
-				errorMessage.append("\n");
+				return true;
 			}
-
-			throw new ValidationException(errorMessage.toString());
 		}
+		return false;
 	}
 
 	@Nonnull
 	Map<String, TableRow> determineIncorrectColumns(@Nonnull TableRow actualRecord, @Nonnull TableRow lastRevision)
 	{
-		final Set<String> columnNames = actualRecord.getColumnNames();
+		final TableRowSchema contentSchema = actualRecord.getSchema();
+		final int[] auditColumnIndexes = getAuditColumnIndexes(contentSchema, lastRevision.getSchema());
 		final Map<String, TableRow> incorrectColumns = new HashMap<>();
-		for (String columnName : columnNames)
+		for (int i = 0; i < contentSchema.size(); i++)
 		{
-			final Object auditValue = lastRevision.getColumnValue(columnName);
-			final Object actualColumnValue = actualRecord.getColumnValue(columnName);
+			final String columnName = contentSchema.getColumnName(i);
+			final Object auditValue = lastRevision.getColumnValue(auditColumnIndexes[i]);
+			final Object actualColumnValue = actualRecord.getColumnValue(i);
 
 			if (auditValue == null && auditTableInformation.getColumnNamesPresentInContentTableButNotInAuditTable().contains(columnName.toUpperCase()))
 			{
 				continue;
 			}
 
-			final int compare = compare((Comparable) actualColumnValue, (Comparable) auditValue);
-			if (compare != 0)
+			if (!isEqual(actualColumnValue, auditValue))
 			{
 				if (incorrectColumns.isEmpty())
 				{
@@ -290,6 +541,39 @@ public class RevisionValidator
 		return incorrectColumns;
 	}
 
+	/**
+	 * The content rows and latest audit rows of a table share their schemas, so the indexes are only determined again once either schema differs from the previous comparison.
+	 *
+	 * @return For each column of the content schema, the index of the same column in the audit schema.
+	 */
+	@Nonnull
+	private int[] getAuditColumnIndexes(@Nonnull TableRowSchema contentSchema, @Nonnull TableRowSchema auditSchema)
+	{
+		if (contentSchema != comparedContentSchema || auditSchema != comparedAuditSchema)
+		{
+			comparedAuditColumnIndexes = auditSchema.indexesOf(contentSchema.getColumnNames());
+			comparedContentSchema = contentSchema;
+			comparedAuditSchema = auditSchema;
+		}
+		return comparedAuditColumnIndexes;
+	}
+
+	/**
+	 * Values that are not comparable, such as the byte arrays read from binary large objects, are compared by their content.
+	 */
+	private static boolean isEqual(@Nullable Object value, @Nullable Object otherValue)
+	{
+		if (value instanceof byte[] && otherValue instanceof byte[])
+		{
+			return Arrays.equals((byte[]) value, (byte[]) otherValue);
+		}
+		if (value instanceof Comparable && otherValue instanceof Comparable)
+		{
+			return compare((Comparable) value, (Comparable) otherValue) == 0;
+		}
+		return Objects.equals(value, otherValue);
+	}
+
 	public static <T extends Comparable<? super T>> int compare(@Nullable final Comparable c1, @Nullable final Comparable c2)
 	{
 		if (c1 == c2)
@@ -316,7 +600,7 @@ public class RevisionValidator
 		return c1.compareTo(c2);
 	}
 
-	void validateLatestRevisionComparisonResult(@Nonnull List<String> identifiersWhichShouldHaveAnAddOrModifyRevision, @Nonnull Map<String, Map<String, TableRow>> rowsWithDifferentValues)
+	void validateLatestRevisionComparisonResult(@Nonnull List<?> identifiersWhichShouldHaveAnAddOrModifyRevision, @Nonnull Map<?, Map<String, TableRow>> rowsWithDifferentValues)
 	{
 		final StringBuilder errorMessage = new StringBuilder();
 		if (!identifiersWhichShouldHaveAnAddOrModifyRevision.isEmpty())
@@ -335,7 +619,7 @@ public class RevisionValidator
 			}
 		}
 
-		for (Map.Entry<String, Map<String, TableRow>> identifierWithDifferentRowValues : rowsWithDifferentValues.entrySet())
+		for (Map.Entry<?, Map<String, TableRow>> identifierWithDifferentRowValues : rowsWithDifferentValues.entrySet())
 		{
 			errorMessage.append("Row with identifier ");
 			errorMessage.append(identifierWithDifferentRowValues.getKey());
@@ -362,4 +646,56 @@ public class RevisionValidator
 			throw new ValidationException(errorMessage.toString());
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Results of all validations, gathered in a single pass over the entity histories.
+	 * A validation that encountered a revision without revision type fails as a whole, its other results are not reported.
+	 */
+	private static final class EvaluationResults
+	{
+		private final List<Object> identifiersWithInvalidHistory = new ArrayList<>();
+		private final List<Object> identifiersWithAddOrModifyLatestRevisionWithoutContent = new ArrayList<>();
+		private final List<Object> identifiersWhichShouldHaveAnAddOrModifyRevision = new ArrayList<>();
+		private final Map<Object, Map<String, TableRow>> rowsWithDifferentValues = new HashMap<>();
+		private final Map<Object, List<Object>> removeRevisionsWithNullableColumnsFilled = new HashMap<>();
+
+		private boolean historyFlowMissesRevType;
+		private boolean latestRevisionMissesRevType;
+		private boolean contentComparisonMissesRevType;
+		private boolean removeRevisionsMissRevType;
+		private int entityCount;
+
+		/**
+		 * @return The number of entities failing at least one validation.
+		 */
+		private int getInvalidEntityCount()
+		{
+			final Set<Object> invalidIdentifiers = new HashSet<>(identifiersWithInvalidHistory);
+			invalidIdentifiers.addAll(identifiersWithAddOrModifyLatestRevisionWithoutContent);
+			invalidIdentifiers.addAll(identifiersWhichShouldHaveAnAddOrModifyRevision);
+			invalidIdentifiers.addAll(rowsWithDifferentValues.keySet());
+			invalidIdentifiers.addAll(removeRevisionsWithNullableColumnsFilled.keySet());
+			return invalidIdentifiers.size();
+		}
+
+		private boolean isHistoryFlowValid()
+		{
+			return identifiersWithInvalidHistory.isEmpty() && !historyFlowMissesRevType;
+		}
+
+		private boolean isLatestRevisionValid()
+		{
+			return identifiersWithAddOrModifyLatestRevisionWithoutContent.isEmpty() && !latestRevisionMissesRevType;
+		}
+
+		private boolean isContentComparisonValid()
+		{
+			return identifiersWhichShouldHaveAnAddOrModifyRevision.isEmpty() && rowsWithDifferentValues.isEmpty() && !contentComparisonMissesRevType;
+		}
+
+		private boolean isRemoveRevisionsValid()
+		{
+			return removeRevisionsWithNullableColumnsFilled.isEmpty() && !removeRevisionsMissRevType;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.github.zeger_tak.enversvalidationplugin.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ValidatorIndexProcessorTest
+{
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+	@Test
+	public void testIndexListsValidatorClassesByBinaryName() throws IOException
+	{
+		// Given
+		final File outputDirectory = temporaryFolder.newFolder("classes");
+		final File source = writeSource("example/OuterValidator.java", "package example;\n" +
+				"@com.github.zeger_tak.enversvalidationplugin.annotation.ValidationType\n" +
+				"public class OuterValidator {\n" +
+				"	@com.github.zeger_tak.enversvalidationplugin.annotation.ValidationType\n" +
+				"	public static class InnerValidator {}\n" +
+				"	public static class NotAValidator {}\n" +
+				"}\n");
+
+		// When
+		final boolean compiled = compile(outputDirectory, source);
+
+		// Then
+		assertTrue(diagnostics.getDiagnostics().toString(), compiled);
+		assertEquals(Arrays.asList("example.OuterValidator", "example.OuterValidator$InnerValidator"), readIndex(outputDirectory));
+	}
+
+	@Test
+	public void testIndexOfEarlierCompilationIsMerged() throws IOException
+	{
+		// Given
+		final File outputDirectory = temporaryFolder.newFolder("classes");
+		final File firstSource = writeSource("example/FirstValidator.java", "package example;\n@com.github.zeger_tak.enversvalidationplugin.annotation.ValidationType\npublic class FirstValidator {}\n");
+		final File secondSource = writeSource("example/SecondValidator.java", "package example;\n@com.github.zeger_tak.enversvalidationplugin.annotation.ValidationType\npublic class SecondValidator {}\n");
+		assertTrue(diagnostics.getDiagnostics().toString(), compile(outputDirectory, firstSource));
+
+		// When
+		final boolean compiled = compile(outputDirectory, secondSource);
+
+		// Then
+		assertTrue(diagnostics.getDiagnostics().toString(), compiled);
+		assertEquals(Arrays.asList("example.FirstValidator", "example.SecondValidator"), readIndex(outputDirectory));
+	}
+
+	@Test
+	public void testValidatorWithMultipleParameterizedMethodsFailsCompilation() throws IOException
+	{
+		// Given
+		final File outputDirectory = temporaryFolder.newFolder("classes");
+		final File source = writeSource("example/InvalidValidator.java", "package example;\n" +
+				"@com.github.zeger_tak.enversvalidationplugin.annotation.ValidationType\n" +
+				"public class InvalidValidator {\n" +
+				"	@com.github.zeger_tak.enversvalidationplugin.annotation.Parameterized\n" +
+				"	public static java.util.List<Object[]> first() { return null; }\n" +
+				"	@com.github.zeger_tak.enversvalidationplugin.annotation.Parameterized\n" +
+				"	public static java.util.List<Object[]> second() { return null; }\n" +
+				"}\n");
+
+		// When
+		final boolean compiled = compile(outputDirectory, source);
+
+		// Then
+		assertFalse(compiled);
+		assertEquals(1, diagnostics.getDiagnostics().stream().filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR).count());
+		assertTrue(diagnostics.getDiagnostics().get(0).getMessage(null).contains("example.InvalidValidator defines more than one Parameterized annotated method."));
+	}
+
+	@Nonnull
+	private File writeSource(@Nonnull String path, @Nonnull String content) throws IOException
+	{
+		final File source = new File(temporaryFolder.getRoot(), "sources/" + path);
+		Files.createDirectories(source.getParentFile().toPath());
+		Files.write(source.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return source;
+	}
+
+	private boolean compile(@Nonnull File outputDirectory, @Nonnull File source) throws IOException
+	{
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8))
+		{
+			// The output directory is on the classpath, as in a partial recompilation by maven.
+			final List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path") + File.pathSeparator + outputDirectory.getPath(), "-d", outputDirectory.getPath());
+			final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjects(source));
+			task.setProcessors(Collections.singletonList(new ValidatorIndexProcessor()));
+			return task.call();
+		}
+	}
+
+	@Nonnull
+	private static List<String> readIndex(@Nonnull File outputDirectory) throws IOException
+	{
+		return Files.readAllLines(new File(outputDirectory, ValidatorIndexProcessor.INDEX_RESOURCE_NAME).toPath(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,111 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.DataSetException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChunkUpperBoundTest
+{
+	private final AuditTableInformation auditTableInformation = new AuditTableInformation("TABLE_AUD", "TABLE");
+	private final List<String> primaryIdentifierColumnNames = Arrays.asList("ID", "CODE");
+	private final IDatabaseConnection databaseConnection = mock(IDatabaseConnection.class);
+
+	private AbstractQueries postgresQueries;
+	private AbstractQueries oracleQueries;
+
+	@Before
+	public void init()
+	{
+		postgresQueries = spy(new PostgresQueries(mock(ConnectionProviderInstance.class)));
+		oracleQueries = spy(new OracleQueries(mock(ConnectionProviderInstance.class)));
+	}
+
+	@Test
+	public void testChunkKeysQueryLimitsEachTableBeforeMerging()
+	{
+		// Given
+		final List<Object> parameters = new ArrayList<>();
+
+		// When
+		final String query = postgresQueries.createChunkKeysQuery(auditTableInformation, primaryIdentifierColumnNames, new PrimaryIdentifier(new Object[] { 5L, "B" }), 100, parameters);
+
+		// Then
+		//@formatter:off
+		final String expectedQuery = "select * from ("
+				+ "select * from (select TABLE.ID, TABLE.CODE from TABLE TABLE where ((TABLE.ID > ?) or (TABLE.ID = ? and TABLE.CODE > ?)) order by TABLE.ID, TABLE.CODE limit 100) content_keys union "
+				+ "select * from (select distinct TABLE_AUD.ID, TABLE_AUD.CODE from TABLE_AUD TABLE_AUD where ((TABLE_AUD.ID > ?) or (TABLE_AUD.ID = ? and TABLE_AUD.CODE > ?)) order by TABLE_AUD.ID, TABLE_AUD.CODE limit 100) audit_keys"
+				+ ") chunk_keys order by chunk_keys.ID, chunk_keys.CODE limit 100";
+		//@formatter:on
+		assertEquals(expectedQuery, query);
+		assertEquals(Arrays.<Object> asList(BigDecimal.valueOf(5), BigDecimal.valueOf(5), "B", BigDecimal.valueOf(5), BigDecimal.valueOf(5), "B"), parameters);
+	}
+
+	@Test
+	public void testChunkKeysQueryOfFirstChunkHasNoRangePredicate()
+	{
+		// Given
+		final List<Object> parameters = new ArrayList<>();
+
+		// When
+		final String query = oracleQueries.createChunkKeysQuery(auditTableInformation, Collections.singletonList("ID"), null, 10, parameters);
+
+		// Then
+		//@formatter:off
+		final String expectedQuery = "select * from (select * from (select * from ("
+				+ "select * from (select TABLE.ID from TABLE TABLE order by TABLE.ID) where rownum <= 10) content_keys union "
+				+ "select * from (select * from (select distinct TABLE_AUD.ID from TABLE_AUD TABLE_AUD order by TABLE_AUD.ID) where rownum <= 10) audit_keys"
+				+ ") chunk_keys order by chunk_keys.ID) where rownum <= 10";
+		//@formatter:on
+		assertEquals(expectedQuery, query);
+		assertEquals(Collections.emptyList(), parameters);
+	}
+
+	@Test
+	public void testChunkUpperBoundIsLastKeyOfFullChunk() throws SQLException, DataSetException
+	{
+		// Given
+		final PrimaryIdentifier afterKey = new PrimaryIdentifier(new Object[] { 1L });
+		final List<PrimaryIdentifier> mergedKeys = Arrays.asList(new PrimaryIdentifier(new Object[] { 2L }), new PrimaryIdentifier(new Object[] { 3L }), new PrimaryIdentifier(new Object[] { 7L }));
+		doReturn(mergedKeys).when(postgresQueries).selectPrimaryIdentifiers(eq(databaseConnection), eq("TABLE_AUD"), anyString(), eq(Arrays.asList(BigDecimal.ONE, BigDecimal.ONE)), any());
+
+		// When
+		final PrimaryIdentifier upperBound = postgresQueries.getChunkUpperBound(databaseConnection, auditTableInformation, Collections.singletonList("ID"), afterKey, 3);
+
+		// Then
+		assertEquals(new PrimaryIdentifier(new Object[] { 7L }), upperBound);
+	}
+
+	@Test
+	public void testChunkUpperBoundIsNullForLastChunk() throws SQLException, DataSetException
+	{
+		// Given
+		final List<PrimaryIdentifier> mergedKeys = Arrays.asList(new PrimaryIdentifier(new Object[] { 2L }), new PrimaryIdentifier(new Object[] { 3L }));
+		doReturn(mergedKeys).when(postgresQueries).selectPrimaryIdentifiers(eq(databaseConnection), eq("TABLE_AUD"), anyString(), anyListOf(Object.class), any());
+
+		// When
+		final PrimaryIdentifier upperBound = postgresQueries.getChunkUpperBound(databaseConnection, auditTableInformation, Collections.singletonList("ID"), null, 3);
+
+		// Then
+		assertNull(upperBound);
+	}
+}
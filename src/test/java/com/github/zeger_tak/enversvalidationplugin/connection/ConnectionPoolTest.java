@@ -0,0 +1,110 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.dbunit.database.IDatabaseConnection;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectionPoolTest
+{
+	private IDatabaseConnection databaseConnection;
+	private Connection connection;
+	private ConnectionPool connectionPool;
+
+	@Before
+	public void init() throws SQLException
+	{
+		connection = mock(Connection.class);
+		databaseConnection = mock(IDatabaseConnection.class);
+		when(databaseConnection.getConnection()).thenReturn(connection);
+		connectionPool = new ConnectionPool(ConnectionPoolTest::createDatabaseConnection, 1);
+		connectionPool.addIdleConnection(databaseConnection);
+	}
+
+	private static IDatabaseConnection createDatabaseConnection() throws SQLException
+	{
+		final IDatabaseConnection newDatabaseConnection = mock(IDatabaseConnection.class);
+		when(newDatabaseConnection.getConnection()).thenReturn(mock(Connection.class));
+		return newDatabaseConnection;
+	}
+
+	@Test
+	public void testBorrowingAgainFromSameThreadReturnsSameConnection()
+	{
+		// Given
+		try (PooledConnection pooledConnection = connectionPool.borrow())
+		{
+			// When
+			try (PooledConnection borrowedAgain = connectionPool.borrow())
+			{
+				// Then
+				assertSame(pooledConnection, borrowedAgain);
+			}
+			assertEquals(1, connectionPool.getActiveCount());
+		}
+		assertEquals(0, connectionPool.getActiveCount());
+		assertEquals(1, connectionPool.getIdleCount());
+	}
+
+	@Test
+	public void testTransactionIsRolledBackOnceConnectionIsReturned() throws SQLException
+	{
+		// Given
+		when(connection.getAutoCommit()).thenReturn(false);
+		final PooledConnection pooledConnection = connectionPool.borrow();
+		final PooledConnection borrowedAgain = connectionPool.borrow();
+
+		// When
+		borrowedAgain.close();
+		verify(connection, never()).rollback();
+		pooledConnection.close();
+
+		// Then
+		verify(connection).rollback();
+		assertEquals(1, connectionPool.getIdleCount());
+	}
+
+	@Test
+	public void testConnectionWithAutoCommitIsNotRolledBack() throws SQLException
+	{
+		// Given
+		when(connection.getAutoCommit()).thenReturn(true);
+
+		// When
+		connectionPool.borrow().close();
+
+		// Then
+		verify(connection, never()).rollback();
+		assertEquals(1, connectionPool.getIdleCount());
+	}
+
+	@Test
+	public void testConnectionIsClosedIfRollbackFails() throws SQLException
+	{
+		// Given
+		when(connection.getAutoCommit()).thenReturn(false);
+		doThrow(new SQLException("Connection lost")).when(connection).rollback();
+
+		// When
+		connectionPool.borrow().close();
+
+		// Then
+		verify(databaseConnection).close();
+		assertEquals(0, connectionPool.getIdleCount());
+		try (PooledConnection pooledConnection = connectionPool.borrow())
+		{
+			assertNotSame(databaseConnection, pooledConnection.getDatabaseConnection());
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.datatype.DataType;
+import org.junit.Test;
+
+public class OracleQueriesTest
+{
+	private final OracleQueries oracleQueries = new OracleQueries(mock(ConnectionProviderInstance.class));
+
+	@Test
+	public void testLargeObjectAndXmlColumnsAreComparedAfterReading()
+	{
+		// When & Then
+		assertFalse(oracleQueries.isComparableInDatabase(new Column("c", DataType.CLOB, "CLOB", Column.NULLABLE)));
+		assertFalse(oracleQueries.isComparableInDatabase(new Column("c", DataType.BLOB, "BLOB", Column.NULLABLE)));
+		assertFalse(oracleQueries.isComparableInDatabase(new Column("c", DataType.LONGVARCHAR, "LONG", Column.NULLABLE)));
+		assertFalse(oracleQueries.isComparableInDatabase(new Column("c", DataType.UNKNOWN, "SYS.XMLTYPE", Column.NULLABLE)));
+		assertTrue(oracleQueries.isComparableInDatabase(new Column("c", DataType.VARCHAR, "VARCHAR2", Column.NULLABLE)));
+		assertTrue(oracleQueries.isComparableInDatabase(new Column("c", DataType.NUMERIC, "NUMBER", Column.NULLABLE)));
+	}
+
+	@Test
+	public void testDifferenceOfComparableValuesUsesDecode()
+	{
+		// When & Then
+		assertEquals("decode(TABLE.NAME, latest.NAME, 0, 1) = 1", oracleQueries.createDifferencePredicate("TABLE.NAME", "latest.NAME", false, true));
+		assertEquals("(TABLE.DATA is not null or latest.DATA is not null)", oracleQueries.createDifferencePredicate("TABLE.DATA", "latest.DATA", false, false));
+	}
+}
@@ -0,0 +1,162 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.ValidationSettings;
+import org.dbunit.dataset.Column;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.datatype.DataType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PostgresQueriesTest
+{
+	private final List<String> queries = new ArrayList<>();
+
+	private final ConnectionProviderInstance connectionProvider = mock(ConnectionProviderInstance.class);
+
+	private PostgresQueries postgresQueries;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void init() throws SQLException, DataSetException
+	{
+		postgresQueries = spy(new PostgresQueries(connectionProvider));
+		doAnswer(invocation -> {
+			queries.add((String) invocation.getArguments()[1]);
+			final Collection<String> result = (Collection<String>) invocation.getArguments()[4];
+			result.add("value");
+			return result;
+		}).when(postgresQueries).selectColumnValues(anyString(), anyString(), anyListOf(Object.class), anyString(), any(Collection.class));
+		doAnswer(invocation -> {
+			queries.add((String) invocation.getArguments()[1]);
+			return null;
+		}).when(postgresQueries).selectColumnValues(anyString(), anyString(), anyString(), anyString(), any(BiConsumer.class));
+	}
+
+	@Test
+	public void testSchemaMetadataIsRetrievedFromCurrentSchemaOnly() throws SQLException, DataSetException
+	{
+		// When
+		postgresQueries.loadSchemaMetadata();
+
+		// Then
+		assertEquals(4, queries.size());
+		assertAllQueriesFilterOnCurrentSchema();
+	}
+
+	@Test
+	public void testSchemaFingerprintIsCalculatedForCurrentSchemaOnly() throws SQLException, DataSetException
+	{
+		// When
+		postgresQueries.selectSchemaFingerprint();
+
+		// Then
+		assertEquals(1, queries.size());
+		assertEquals(3, queries.get(0).split("current_schema\\(\\)", -1).length - 1);
+	}
+
+	@Test
+	public void testTablesByNameEndingWithAreAnsweredFromSchemaMetadata() throws SQLException, DataSetException
+	{
+		// Given
+		when(connectionProvider.getSettings()).thenReturn(new ValidationSettings());
+
+		// When
+		final Set<String> tables = postgresQueries.getTablesByNameEndingWith("lue");
+		postgresQueries.getTablesByNameEndingWith("_AUD");
+
+		// Then
+		assertEquals(Collections.singleton("VALUE"), tables);
+		assertEquals(4, queries.size());
+		assertAllQueriesFilterOnCurrentSchema();
+		assertEquals(4, postgresQueries.getSchemaMetadata().getQueryCount());
+		assertEquals(2, postgresQueries.getSchemaMetadata().getLookupCount());
+	}
+
+	@Test
+	public void testJsonAndXmlColumnsAreComparedAfterReading()
+	{
+		// When & Then
+		assertFalse(postgresQueries.isComparableInDatabase(new Column("c", DataType.UNKNOWN, "json", Column.NULLABLE)));
+		assertFalse(postgresQueries.isComparableInDatabase(new Column("c", DataType.UNKNOWN, "xml", Column.NULLABLE)));
+		assertTrue(postgresQueries.isComparableInDatabase(new Column("c", DataType.UNKNOWN, "jsonb", Column.NULLABLE)));
+		assertTrue(postgresQueries.isComparableInDatabase(new Column("c", DataType.LONGVARCHAR, "text", Column.NULLABLE)));
+		assertTrue(postgresQueries.isComparableInDatabase(new Column("c", DataType.BINARY, "bytea", Column.NULLABLE)));
+	}
+
+	@Test
+	public void testDifferenceOfValuesNotComparableInDatabaseOnlyExcludesNullValues()
+	{
+		// When & Then
+		assertEquals("(TABLE.DATA is not null or latest.DATA is not null)", postgresQueries.createDifferencePredicate("TABLE.DATA", "latest.DATA", false, false));
+		assertEquals("latest.DATA is not null", postgresQueries.createDifferencePredicate("TABLE.DATA", "latest.DATA", true, false));
+		assertEquals("TABLE.DATA is distinct from latest.DATA", postgresQueries.createDifferencePredicate("TABLE.DATA", "latest.DATA", false, true));
+		assertEquals("(latest.DATA is not null and TABLE.DATA is distinct from latest.DATA)", postgresQueries.createDifferencePredicate("TABLE.DATA", "latest.DATA", true, true));
+	}
+
+	@Test
+	public void testInvalidHistoryQueryReportsRevisionsWithoutRevTypeSeparately()
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation("TABLE_AUD", "TABLE");
+
+		// When
+		final String query = postgresQueries.createInvalidHistoryQuery(auditTableInformation, Collections.singletonList("ID"));
+
+		// Then
+		//@formatter:off
+		final String invalidRevision = "(history.revtype <> 0 and (history.previous_rev is null or history.previous_revtype = 2)) or (history.revtype = 0 and history.previous_revtype <> 2)";
+		final String window = " over (partition by TABLE_AUD.ID order by TABLE_AUD.rev)";
+		final String expectedQuery = "select history.ID, min(case when history.revtype is null then history.rev end) first_missing_revtype, "
+				+ "min(case when " + invalidRevision + " then history.rev end) first_invalid_rev "
+				+ "from (select TABLE_AUD.ID, TABLE_AUD.rev rev, TABLE_AUD.revtype revtype, lag(TABLE_AUD.rev)" + window + " previous_rev, lag(TABLE_AUD.revtype)" + window + " previous_revtype from TABLE_AUD TABLE_AUD ) history "
+				+ "where history.revtype is null or " + invalidRevision + " group by history.ID order by history.ID";
+		//@formatter:on
+		assertEquals(expectedQuery, query);
+	}
+
+	@Test
+	public void testLatestRevisionWithoutContentQuerySelectsLatestRevisionsWithoutRevType()
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation("TABLE_AUD", "TABLE");
+
+		// When
+		final String query = postgresQueries.createLatestRevisionWithoutContentQuery(auditTableInformation, Collections.singletonList("ID"));
+
+		// Then
+		//@formatter:off
+		final String expectedQuery = "select latest.ID, latest.revtype latest_revtype from ("
+				+ "select distinct on (TABLE_AUD.ID) TABLE_AUD.ID, TABLE_AUD.revtype from TABLE_AUD TABLE_AUD  order by TABLE_AUD.ID, TABLE_AUD.rev desc"
+				+ ") latest where latest.revtype is null or (latest.revtype <> 2 and not exists (select 1 from TABLE TABLE  where TABLE.ID = latest.ID)) order by latest.ID";
+		//@formatter:on
+		assertEquals(expectedQuery, query);
+	}
+
+	private void assertAllQueriesFilterOnCurrentSchema()
+	{
+		for (String query : queries)
+		{
+			assertTrue(query, query.contains("table_schema = current_schema()"));
+		}
+	}
+}
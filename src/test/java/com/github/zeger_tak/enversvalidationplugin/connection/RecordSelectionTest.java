@@ -0,0 +1,95 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+import org.junit.Test;
+
+public class RecordSelectionTest
+{
+	private final AuditTableInformation auditTableInformation = new AuditTableInformation("TABLE_AUD", "TABLE");
+	private final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+	private final AbstractQueries queries = new PostgresQueries(mock(ConnectionProviderInstance.class));
+
+	@Test
+	public void testAllRecordsAreSelectedWithoutPredicate()
+	{
+		// Given
+		final List<Object> parameters = new ArrayList<>();
+
+		// When
+		final String predicate = queries.createSelectionPredicate(RecordSelection.ALL, "TABLE", auditTableInformation, primaryIdentifierColumnNames, parameters);
+
+		// Then
+		assertEquals("", predicate);
+		assertEquals(Collections.emptyList(), parameters);
+	}
+
+	@Test
+	public void testChangedAfterRevisionSelectsEntitiesByTheirAuditRecords()
+	{
+		// Given
+		final List<Object> parameters = new ArrayList<>();
+
+		// When
+		final String predicate = queries.createSelectionPredicate(RecordSelection.changedAfterRevision(5L), "TABLE", auditTableInformation, primaryIdentifierColumnNames, parameters);
+
+		// Then
+		assertEquals(" where (TABLE.ID) in (select changed.ID from TABLE_AUD changed where changed.rev > ?)", predicate);
+		assertEquals(Collections.<Object> singletonList(5L), parameters);
+	}
+
+	@Test
+	public void testSampleBindsSeedAndBucketThreshold()
+	{
+		// Given
+		final List<Object> parameters = new ArrayList<>();
+
+		// When
+		final String predicate = queries.createSelectionPredicate(RecordSelection.sample(0.01, 42L), "TABLE_AUD", auditTableInformation, primaryIdentifierColumnNames, parameters);
+
+		// Then
+		assertEquals(" where mod(hashtext(concat_ws('|', TABLE_AUD.ID, cast(? as text)))::bigint + 2147483648, 10000) < ?", predicate);
+		assertEquals(Arrays.<Object> asList("42", 100L), parameters);
+	}
+
+	@Test
+	public void testKeyRangeIsBoundedOnBothSides()
+	{
+		// Given
+		final List<Object> parameters = new ArrayList<>();
+		final RecordSelection selection = RecordSelection.keyRange(new PrimaryIdentifier(new Object[] { 1L }), new PrimaryIdentifier(new Object[] { 9L }));
+
+		// When
+		final String predicate = queries.createSelectionPredicate(selection, "TABLE", auditTableInformation, primaryIdentifierColumnNames, parameters);
+
+		// Then
+		assertEquals(" where ((TABLE.ID > ?)) and ((TABLE.ID < ?) or (TABLE.ID = ?))", predicate);
+		assertEquals(Arrays.<Object> asList(BigDecimal.ONE, BigDecimal.valueOf(9), BigDecimal.valueOf(9)), parameters);
+	}
+
+	@Test
+	public void testSelectionsAreEqualByPredicateAndValues()
+	{
+		// Given
+		final RecordSelection selection = RecordSelection.sample(0.5, 1L);
+
+		// When
+		final RecordSelection sameSelection = RecordSelection.sample(0.5, 1L);
+
+		// Then
+		assertEquals(selection, sameSelection);
+		assertEquals(selection.hashCode(), sameSelection.hashCode());
+		assertNotEquals(selection, RecordSelection.sample(0.5, 2L));
+		assertNotEquals(RecordSelection.ALL, RecordSelection.keyRange(null, null));
+	}
+}
@@ -0,0 +1,73 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SchemaMetadataCacheTest
+{
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testMetadataIsReadForTheSameFingerprint() throws IOException
+	{
+		// Given
+		final File file = new File(temporaryFolder.getRoot(), "target/schema-metadata.properties");
+		final SchemaMetadata schemaMetadata = new SchemaMetadata();
+		schemaMetadata.addTable("TABLE_AUD");
+		schemaMetadata.addPrimaryKeyColumn("TABLE_AUD", "ID");
+		schemaMetadata.addPrimaryKeyColumn("TABLE_AUD", "REV");
+		new SchemaMetadataCache(file, "jdbc:postgresql://localhost/db|public").write("fingerprint", schemaMetadata);
+
+		// When
+		final SchemaMetadata cachedSchemaMetadata = new SchemaMetadataCache(file, "jdbc:postgresql://localhost/db|public").read("fingerprint");
+
+		// Then
+		assertNotNull(cachedSchemaMetadata);
+		assertTrue(cachedSchemaMetadata.containsTable("table_aud"));
+		assertEquals(Arrays.asList("ID", "REV"), cachedSchemaMetadata.getPrimaryKeyColumnNames("TABLE_AUD"));
+		assertEquals(Collections.singletonList("schema-metadata.properties"), Arrays.asList(file.getParentFile().list()));
+	}
+
+	@Test
+	public void testMetadataOfAnotherFingerprintOrSchemaIsNotRead()
+	{
+		// Given
+		final File file = new File(temporaryFolder.getRoot(), "schema-metadata.properties");
+		new SchemaMetadataCache(file, "jdbc:postgresql://localhost/db|public").write("fingerprint", new SchemaMetadata());
+
+		// Then
+		assertNull(new SchemaMetadataCache(file, "jdbc:postgresql://localhost/db|public").read("changed fingerprint"));
+		assertNull(new SchemaMetadataCache(file, "jdbc:postgresql://localhost/db|other").read("fingerprint"));
+	}
+
+	@Test
+	public void testMissingOrUnwritableFileIsNotCached() throws IOException
+	{
+		// Given
+		final File missingFile = new File(temporaryFolder.getRoot(), "missing.properties");
+		final File blockingFile = temporaryFolder.newFile("not-a-directory");
+		Files.write(blockingFile.toPath(), "content".getBytes(StandardCharsets.UTF_8));
+		final File unwritableFile = new File(blockingFile, "schema-metadata.properties");
+
+		// When
+		new SchemaMetadataCache(unwritableFile, "schema").write("fingerprint", new SchemaMetadata());
+
+		// Then
+		assertNull(new SchemaMetadataCache(missingFile, "schema").read("fingerprint"));
+		assertNull(new SchemaMetadataCache(unwritableFile, "schema").read("fingerprint"));
+	}
+}
@@ -0,0 +1,114 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SchemaMetadataTest
+{
+	@Test
+	public void testTablesAreLookedUpCaseInsensitively()
+	{
+		// Given
+		final SchemaMetadata schemaMetadata = createSchemaMetadata();
+
+		// Then
+		assertTrue(schemaMetadata.containsTable("table_aud"));
+		assertTrue(schemaMetadata.containsTable("Table"));
+		assertFalse(schemaMetadata.containsTable("OTHER_TABLE"));
+		assertEquals(Arrays.asList("id", "REV"), schemaMetadata.getPrimaryKeyColumnNames("Table_Aud"));
+		assertEquals(Collections.singleton("NAME"), schemaMetadata.getNonnullColumnNames("table"));
+		assertEquals(Collections.emptyList(), schemaMetadata.getPrimaryKeyColumnNames("OTHER_TABLE"));
+		assertEquals(Collections.emptySet(), schemaMetadata.getNonnullColumnNames("OTHER_TABLE"));
+		assertEquals(7, schemaMetadata.getLookupCount());
+		assertEquals(0, schemaMetadata.getQueryCount());
+	}
+
+	@Test
+	public void testTablesByNameEndingWithAreAnsweredFromTheTables()
+	{
+		// Given
+		final SchemaMetadata schemaMetadata = createSchemaMetadata();
+
+		// When
+		final Set<String> auditTables = schemaMetadata.getTablesByNameEndingWith("_aud");
+
+		// Then
+		assertEquals(Collections.singleton("TABLE_AUD"), auditTables);
+		assertEquals(Collections.emptySet(), schemaMetadata.getTablesByNameEndingWith("_HIST"));
+		assertEquals(2, schemaMetadata.getLookupCount());
+	}
+
+	@Test
+	public void testReturnedColumnsDoNotChangeTheMetadata()
+	{
+		// Given
+		final SchemaMetadata schemaMetadata = createSchemaMetadata();
+
+		// When
+		schemaMetadata.getPrimaryKeyColumnNames("TABLE_AUD").clear();
+		schemaMetadata.getNonnullColumnNames("TABLE").clear();
+		schemaMetadata.getTablesWithForeignKeysToRevisionTable().clear();
+
+		// Then
+		assertEquals(Arrays.asList("id", "REV"), schemaMetadata.getPrimaryKeyColumnNames("TABLE_AUD"));
+		assertEquals(Collections.singleton("NAME"), schemaMetadata.getNonnullColumnNames("TABLE"));
+		assertEquals(Collections.singleton("table_aud"), schemaMetadata.getTablesWithForeignKeysToRevisionTable());
+	}
+
+	@Test
+	public void testPropertiesRoundTrip()
+	{
+		// Given
+		final Properties properties = new Properties();
+		createSchemaMetadata().writeTo(properties);
+
+		// When
+		final SchemaMetadata schemaMetadata = SchemaMetadata.readFrom(properties);
+
+		// Then
+		assertTrue(schemaMetadata.containsTable("table_aud"));
+		assertTrue(schemaMetadata.containsTable("TABLE"));
+		assertTrue(schemaMetadata.containsTable("EMPTY_TABLE"));
+		assertFalse(schemaMetadata.containsTable("OTHER_TABLE"));
+		assertEquals(Arrays.asList("id", "REV"), schemaMetadata.getPrimaryKeyColumnNames("table_aud"));
+		assertEquals(Collections.singletonList("id"), schemaMetadata.getPrimaryKeyColumnNames("TABLE"));
+		assertEquals(new HashSet<>(Arrays.asList("NAME")), schemaMetadata.getNonnullColumnNames("Table"));
+		assertEquals(Collections.emptySet(), schemaMetadata.getNonnullColumnNames("TABLE_AUD"));
+		assertEquals(Collections.singleton("table_aud"), schemaMetadata.getTablesWithForeignKeysToRevisionTable());
+		assertEquals(0, SchemaMetadata.readFrom(properties).getLookupCount());
+	}
+
+	@Test
+	public void testEmptyPropertiesReadAsEmptyMetadata()
+	{
+		// When
+		final SchemaMetadata schemaMetadata = SchemaMetadata.readFrom(new Properties());
+
+		// Then
+		assertFalse(schemaMetadata.containsTable("TABLE"));
+		assertEquals(Collections.emptySet(), schemaMetadata.getTablesWithForeignKeysToRevisionTable());
+	}
+
+	private static SchemaMetadata createSchemaMetadata()
+	{
+		final SchemaMetadata schemaMetadata = new SchemaMetadata();
+		schemaMetadata.addTable("table_aud");
+		schemaMetadata.addTable("TABLE");
+		schemaMetadata.addTable("Empty_Table");
+		schemaMetadata.addPrimaryKeyColumn("table_aud", "id");
+		schemaMetadata.addPrimaryKeyColumn("TABLE_AUD", "REV");
+		schemaMetadata.addPrimaryKeyColumn("TABLE", "id");
+		schemaMetadata.addNonnullColumn("table", "NAME");
+		schemaMetadata.addTablesWithForeignKeysToRevisionTable(Collections.singleton("table_aud"));
+		return schemaMetadata;
+	}
+}
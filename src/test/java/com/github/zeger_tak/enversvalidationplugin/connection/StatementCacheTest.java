@@ -0,0 +1,167 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StatementCacheTest
+{
+	private final Connection connection = mock(Connection.class);
+	private final StatementStatistics statistics = new StatementStatistics();
+
+	@Before
+	public void init() throws SQLException
+	{
+		when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+	}
+
+	@Test
+	public void testReleasedStatementIsReused() throws SQLException
+	{
+		// Given
+		final StatementCache statementCache = new StatementCache(connection, 100, 2, statistics);
+		final PreparedStatement statement = statementCache.acquire("select 1");
+		statementCache.release("select 1", statement);
+
+		// When
+		final PreparedStatement reusedStatement = statementCache.acquire("select 1");
+
+		// Then
+		assertSame(statement, reusedStatement);
+		verify(statement).setFetchSize(100);
+		verify(statement, never()).close();
+		assertEquals(1, statistics.getPrepareCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedStatementIsClosedWhenFull() throws SQLException
+	{
+		// Given
+		final StatementCache statementCache = new StatementCache(connection, 100, 2, statistics);
+		final PreparedStatement first = statementCache.acquire("select 1");
+		final PreparedStatement second = statementCache.acquire("select 2");
+		final PreparedStatement third = statementCache.acquire("select 3");
+		statementCache.release("select 1", first);
+		statementCache.release("select 2", second);
+		statementCache.release("select 1", statementCache.acquire("select 1"));
+
+		// When
+		statementCache.release("select 3", third);
+
+		// Then
+		verify(second).close();
+		verify(first, never()).close();
+		verify(third, never()).close();
+		assertSame(first, statementCache.acquire("select 1"));
+		assertSame(third, statementCache.acquire("select 3"));
+		assertNotSame(second, statementCache.acquire("select 2"));
+		assertEquals(4, statistics.getPrepareCount());
+	}
+
+	@Test
+	public void testStatementsOfTheSameQueryInUseAtOnceAreDistinct() throws SQLException
+	{
+		// Given
+		final StatementCache statementCache = new StatementCache(connection, 100, 2, statistics);
+		final PreparedStatement first = statementCache.acquire("select 1");
+		final PreparedStatement second = statementCache.acquire("select 1");
+		statementCache.release("select 1", first);
+
+		// When
+		statementCache.release("select 1", second);
+
+		// Then
+		assertNotSame(first, second);
+		verify(first).close();
+		verify(second, never()).close();
+		assertSame(second, statementCache.acquire("select 1"));
+	}
+
+	@Test
+	public void testConcurrentAcquiresNeverShareAStatement() throws Exception
+	{
+		// Given
+		final int threads = 8;
+		final StatementCache statementCache = new StatementCache(connection, 100, 2, statistics);
+		final CountDownLatch allAcquired = new CountDownLatch(threads);
+		final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		final List<Future<PreparedStatement>> acquiredStatements = new ArrayList<>();
+
+		// When
+		try
+		{
+			for (int i = 0; i < threads; i++)
+			{
+				acquiredStatements.add(executorService.submit((Callable<PreparedStatement>) () -> {
+					final PreparedStatement statement = statementCache.acquire("select 1");
+					allAcquired.countDown();
+					allAcquired.await();
+					statementCache.release("select 1", statement);
+					return statement;
+				}));
+			}
+
+			final Set<PreparedStatement> distinctStatements = new HashSet<>();
+			for (Future<PreparedStatement> acquiredStatement : acquiredStatements)
+			{
+				distinctStatements.add(acquiredStatement.get());
+			}
+
+			// Then
+			assertEquals(threads, distinctStatements.size());
+			assertEquals(threads, statistics.getPrepareCount());
+
+			final PreparedStatement idleStatement = statementCache.acquire("select 1");
+			for (PreparedStatement statement : distinctStatements)
+			{
+				verify(statement, times(statement == idleStatement ? 0 : 1)).close();
+			}
+			assertEquals(threads, statistics.getPrepareCount());
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCloseClosesIdleStatements() throws SQLException
+	{
+		// Given
+		final StatementCache statementCache = new StatementCache(connection, 100, 2, statistics);
+		final PreparedStatement idleStatement = statementCache.acquire("select 1");
+		final PreparedStatement discardedStatement = statementCache.acquire("select 2");
+		statementCache.release("select 1", idleStatement);
+		statementCache.discard(discardedStatement);
+
+		// When
+		statementCache.close();
+
+		// Then
+		verify(idleStatement).close();
+		verify(discardedStatement).close();
+		assertNotSame(idleStatement, statementCache.acquire("select 1"));
+	}
+}
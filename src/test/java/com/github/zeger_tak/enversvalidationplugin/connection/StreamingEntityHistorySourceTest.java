@@ -0,0 +1,51 @@
+package com.github.zeger_tak.enversvalidationplugin.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+
+public class StreamingEntityHistorySourceTest
+{
+	@Test
+	public void testNumericKeysAreComparedByValueRegardlessOfTheirType()
+	{
+		// Then
+		assertTrue(compare(1L, 2L) < 0);
+		assertTrue(compare(Long.MAX_VALUE, Long.MIN_VALUE) > 0);
+		assertEquals(0, compare(1L, new BigDecimal("1.00")));
+		assertEquals(0, compare(BigInteger.TEN, 10));
+		assertTrue(compare(1.5d, 2L) < 0);
+		assertTrue(compare(new BigDecimal("2.5"), 2.25f) > 0);
+		assertTrue(compare(new BigDecimal("9223372036854775808"), Long.MAX_VALUE) > 0);
+	}
+
+	@Test
+	public void testNotFiniteFloatingPointKeysAreOrderedAsDoubles()
+	{
+		// Then
+		assertTrue(compare(Double.NaN, 1L) > 0);
+		assertTrue(compare(Double.POSITIVE_INFINITY, new BigDecimal("1E+300")) > 0);
+		assertTrue(compare(Float.NEGATIVE_INFINITY, Long.MIN_VALUE) < 0);
+		assertEquals(0, compare(Double.NaN, Double.NaN));
+	}
+
+	@Test
+	public void testNullKeysAreOrderedLast()
+	{
+		// Then
+		assertTrue(compare(null, 1L) > 0);
+		assertTrue(compare("A", null) < 0);
+		assertTrue(compare("A", "B") < 0);
+	}
+
+	private static int compare(Object value1, Object value2)
+	{
+		return StreamingEntityHistorySource.compareKeys(new PrimaryIdentifier(new Object[] { value1 }), new PrimaryIdentifier(new Object[] { value2 }));
+	}
+}
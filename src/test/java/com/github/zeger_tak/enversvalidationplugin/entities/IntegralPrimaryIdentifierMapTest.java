@@ -0,0 +1,163 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class IntegralPrimaryIdentifierMapTest
+{
+	@Test
+	public void testKeysOfDifferentIntegralTypesAreTheSameKey()
+	{
+		// Given
+		final IntegralPrimaryIdentifierMap<String> map = new IntegralPrimaryIdentifierMap<>();
+		map.put(new PrimaryIdentifier(new Object[] { 1L }), "first");
+
+		// When
+		final String previousValue = map.put(new PrimaryIdentifier(new Object[] { new BigDecimal("1.0") }), "second");
+
+		// Then
+		assertEquals("first", previousValue);
+		assertEquals(1, map.size());
+		assertEquals("second", map.get(new PrimaryIdentifier(new Object[] { 1 })));
+		assertEquals("second", map.get(new PrimaryIdentifier(new Object[] { BigInteger.ONE })));
+		assertNull(map.get(new PrimaryIdentifier(new Object[] { 2L })));
+	}
+
+	@Test
+	public void testIteratedKeysEqualTheKeysPut()
+	{
+		// Given
+		final IntegralPrimaryIdentifierMap<String> map = new IntegralPrimaryIdentifierMap<>();
+		final PrimaryIdentifier key = new PrimaryIdentifier(new Object[] { 7L });
+		map.put(key, "value");
+
+		// When
+		final Map.Entry<PrimaryIdentifier, String> entry = map.entrySet().iterator().next();
+
+		// Then
+		assertEquals(key, entry.getKey());
+		assertEquals(key.hashCode(), entry.getKey().hashCode());
+		assertEquals("value", entry.getValue());
+	}
+
+	@Test
+	public void testAllKeysRemainAfterResizingWithCollidingSlots()
+	{
+		// Given
+		final IntegralPrimaryIdentifierMap<Long> map = new IntegralPrimaryIdentifierMap<>();
+
+		// When
+		for (long i = -500; i < 500; i++)
+		{
+			map.put(new PrimaryIdentifier(new Object[] { i * 1024 }), i);
+		}
+		map.put(new PrimaryIdentifier(new Object[] { Long.MAX_VALUE }), Long.MAX_VALUE);
+		map.put(new PrimaryIdentifier(new Object[] { Long.MIN_VALUE }), Long.MIN_VALUE);
+
+		// Then
+		assertEquals(1002, map.size());
+		for (long i = -500; i < 500; i++)
+		{
+			assertEquals(Long.valueOf(i), map.get(new PrimaryIdentifier(new Object[] { BigDecimal.valueOf(i * 1024) })));
+		}
+		assertEquals(Long.valueOf(Long.MAX_VALUE), map.get(new PrimaryIdentifier(new Object[] { Long.MAX_VALUE })));
+		assertEquals(Long.valueOf(Long.MIN_VALUE), map.get(new PrimaryIdentifier(new Object[] { Long.MIN_VALUE })));
+		assertNull(map.get(new PrimaryIdentifier(new Object[] { 1L })));
+
+		final Map<PrimaryIdentifier, Long> iterated = new HashMap<>(map);
+		assertEquals(1002, iterated.size());
+		assertEquals(Long.valueOf(3), iterated.get(new PrimaryIdentifier(new Object[] { 3L * 1024 })));
+	}
+
+	@Test
+	public void testOtherIdentifiersAreStoredByEquality()
+	{
+		// Given
+		final IntegralPrimaryIdentifierMap<String> map = new IntegralPrimaryIdentifierMap<>();
+		final BigInteger beyondLong = BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE);
+
+		// When
+		map.put(new PrimaryIdentifier(new Object[] { 1L, "A" }), "composite");
+		map.put(new PrimaryIdentifier(new Object[] { "A" }), "textual");
+		map.put(new PrimaryIdentifier(new Object[] { new BigDecimal("1.5") }), "fractional");
+		map.put(new PrimaryIdentifier(new Object[] { beyondLong }), "beyond long");
+		map.put(new PrimaryIdentifier(new Object[] { 1L }), "integral");
+
+		// Then
+		assertEquals(5, map.size());
+		assertEquals("composite", map.get(new PrimaryIdentifier(new Object[] { BigDecimal.ONE, "A" })));
+		assertEquals("textual", map.get(new PrimaryIdentifier(new Object[] { "A" })));
+		assertEquals("fractional", map.get(new PrimaryIdentifier(new Object[] { new BigDecimal("1.50") })));
+		assertEquals("beyond long", map.get(new PrimaryIdentifier(new Object[] { new BigDecimal(beyondLong) })));
+		assertEquals("integral", map.get(new PrimaryIdentifier(new Object[] { 1 })));
+		assertTrue(map.containsKey(new PrimaryIdentifier(new Object[] { "A" })));
+		assertFalse(map.containsKey(new PrimaryIdentifier(new Object[] { "B" })));
+		assertFalse(map.containsKey("A"));
+	}
+
+	@Test
+	public void testNullValuesAreRejected()
+	{
+		// Given
+		final IntegralPrimaryIdentifierMap<String> map = new IntegralPrimaryIdentifierMap<>();
+
+		try
+		{
+			// When
+			map.put(new PrimaryIdentifier(new Object[] { 1L }), null);
+			fail("Expected an " + IllegalArgumentException.class.getSimpleName());
+		}
+		catch (IllegalArgumentException e)
+		{
+			// Then
+			assertEquals("Null values are not supported.", e.getMessage());
+			assertEquals(0, map.size());
+		}
+	}
+
+	@Test
+	public void testRemovalIsNotSupported()
+	{
+		// Given
+		final IntegralPrimaryIdentifierMap<String> map = new IntegralPrimaryIdentifierMap<>();
+		final PrimaryIdentifier key = new PrimaryIdentifier(new Object[] { 1L });
+		map.put(key, "value");
+
+		try
+		{
+			// When
+			map.remove(key);
+			fail("Expected an " + UnsupportedOperationException.class.getSimpleName());
+		}
+		catch (UnsupportedOperationException e)
+		{
+			// Then
+			assertEquals("value", map.get(key));
+		}
+
+		final Iterator<Map.Entry<PrimaryIdentifier, String>> iterator = map.entrySet().iterator();
+		iterator.next();
+		try
+		{
+			// When
+			iterator.remove();
+			fail("Expected an " + UnsupportedOperationException.class.getSimpleName());
+		}
+		catch (UnsupportedOperationException e)
+		{
+			// Then
+			assertEquals(1, map.size());
+		}
+	}
+}
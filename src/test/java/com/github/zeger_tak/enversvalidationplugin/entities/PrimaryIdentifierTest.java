@@ -0,0 +1,55 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+public class PrimaryIdentifierTest
+{
+	@Test
+	public void testIntegralValuesAreEqualRegardlessOfTheirType()
+	{
+		// Given
+		final PrimaryIdentifier longIdentifier = new PrimaryIdentifier(new Object[] { 1L, "A" });
+		final PrimaryIdentifier integerIdentifier = new PrimaryIdentifier(new Object[] { 1, "A" });
+		final PrimaryIdentifier bigIntegerIdentifier = new PrimaryIdentifier(new Object[] { BigInteger.ONE, "A" });
+		final PrimaryIdentifier bigDecimalIdentifier = new PrimaryIdentifier(new Object[] { new BigDecimal("1.00"), "A" });
+
+		// Then
+		assertEquals(longIdentifier, integerIdentifier);
+		assertEquals(longIdentifier, bigIntegerIdentifier);
+		assertEquals(longIdentifier, bigDecimalIdentifier);
+		assertEquals(longIdentifier.hashCode(), integerIdentifier.hashCode());
+		assertEquals(longIdentifier.hashCode(), bigIntegerIdentifier.hashCode());
+		assertEquals(longIdentifier.hashCode(), bigDecimalIdentifier.hashCode());
+		assertEquals("1-A", bigDecimalIdentifier.toString());
+	}
+
+	@Test
+	public void testFractionalValuesAreComparedByValue()
+	{
+		// Given
+		final PrimaryIdentifier identifier = new PrimaryIdentifier(new Object[] { new BigDecimal("1.50") });
+
+		// Then
+		assertEquals(new PrimaryIdentifier(new Object[] { new BigDecimal("1.5") }), identifier);
+		assertNotEquals(new PrimaryIdentifier(new Object[] { 1L }), identifier);
+	}
+
+	@Test
+	public void testIntegralValuesAreHeldAsBigDecimal()
+	{
+		// Given
+		final PrimaryIdentifier identifier = new PrimaryIdentifier(new Object[] { 5L, new BigDecimal("1E+2"), "B", null });
+
+		// Then
+		assertEquals(BigDecimal.valueOf(5), identifier.getValue(0));
+		assertEquals(BigDecimal.valueOf(100), identifier.getValue(1));
+		assertEquals("B", identifier.getValue(2));
+		assertEquals(null, identifier.getValue(3));
+	}
+}
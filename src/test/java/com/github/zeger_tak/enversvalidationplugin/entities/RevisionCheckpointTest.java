@@ -0,0 +1,64 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+
+public class RevisionCheckpointTest
+{
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testSavedRevisionsReplaceThePreviousFile()
+	{
+		// Given
+		final File file = new File(temporaryFolder.getRoot(), "target/validated-revisions.properties");
+		final RevisionCheckpoint revisionCheckpoint = RevisionCheckpoint.load(file, "schema");
+		revisionCheckpoint.startValidation("TABLE_AUD", 5L);
+		revisionCheckpoint.validationSucceeded("TABLE_AUD");
+		revisionCheckpoint.save();
+		revisionCheckpoint.startValidation("TABLE_AUD", 8L);
+		revisionCheckpoint.validationSucceeded("TABLE_AUD");
+
+		// When
+		revisionCheckpoint.save();
+
+		// Then
+		assertEquals(Long.valueOf(8), RevisionCheckpoint.load(file, "schema").getValidatedRevision("TABLE_AUD"));
+		assertNull(RevisionCheckpoint.load(file, "other schema").getValidatedRevision("TABLE_AUD"));
+		assertArrayEquals(new String[] { "validated-revisions.properties" }, file.getParentFile().list());
+	}
+
+	@Test
+	public void testFailedSaveLeavesNoTemporaryFile() throws IOException
+	{
+		// Given
+		final File file = temporaryFolder.newFolder("validated-revisions.properties");
+		temporaryFolder.newFile("validated-revisions.properties/occupied");
+		final RevisionCheckpoint revisionCheckpoint = RevisionCheckpoint.load(file, "schema");
+
+		try
+		{
+			// When
+			revisionCheckpoint.save();
+			fail("Expected a " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("Unable to write the revision checkpoint file " + file + ".", e.getMessage());
+			assertArrayEquals(new String[] { "validated-revisions.properties" }, temporaryFolder.getRoot().list());
+		}
+	}
+}
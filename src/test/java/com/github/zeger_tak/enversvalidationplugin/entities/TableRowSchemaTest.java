@@ -0,0 +1,73 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TableRowSchemaTest
+{
+	@Test
+	public void testColumnsAreIndexedInOrderOfAppearance()
+	{
+		// Given
+		final TableRowSchema schema = new TableRowSchema(Arrays.asList("ID", "NAME", "REV"));
+
+		// When
+		final int nameIndex = schema.indexOf("NAME");
+
+		// Then
+		assertEquals(1, nameIndex);
+		assertEquals(3, schema.size());
+		assertEquals("REV", schema.getColumnName(2));
+		assertEquals(Arrays.asList("ID", "NAME", "REV"), Arrays.asList(schema.getColumnNames().toArray()));
+	}
+
+	@Test
+	public void testDuplicateColumnKeepsFirstIndex()
+	{
+		// Given
+		final TableRowSchema schema = new TableRowSchema(Arrays.asList("ID", "NAME", "ID"));
+
+		// When
+		final int idIndex = schema.indexOf("ID");
+
+		// Then
+		assertEquals(0, idIndex);
+		assertEquals(2, schema.size());
+		assertEquals("NAME", schema.getColumnName(1));
+	}
+
+	@Test
+	public void testUnknownColumnHasNoIndex()
+	{
+		// Given
+		final TableRowSchema schema = new TableRowSchema(Arrays.asList("ID", "NAME"));
+
+		// When
+		final int[] indexes = schema.indexesOf(Arrays.asList("NAME", "UNKNOWN", "ID"));
+
+		// Then
+		assertEquals(-1, schema.indexOf("UNKNOWN"));
+		assertArrayEquals(new int[] { 1, -1, 0 }, indexes);
+	}
+
+	@Test
+	public void testCopyCanBeExtendedWithoutChangingTheOriginal()
+	{
+		// Given
+		final TableRowSchema schema = new TableRowSchema(Arrays.asList("ID"));
+		final TableRowSchema copy = schema.copy();
+
+		// When
+		final int index = copy.addColumn("NAME");
+
+		// Then
+		assertEquals(1, index);
+		assertEquals("NAME", copy.getColumnName(1));
+		assertEquals(1, schema.size());
+		assertEquals(-1, schema.indexOf("NAME"));
+	}
+}
@@ -0,0 +1,138 @@
+package com.github.zeger_tak.enversvalidationplugin.entities;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class TableRowTest
+{
+	@Test
+	public void testRowsReadBySameQueryShareTheirSchema()
+	{
+		// Given
+		final TableRowSchema schema = new TableRowSchema(Arrays.asList("ID", "NAME"));
+		final TableRow firstRow = new TableRow(schema, new Object[] { 1L, "first" });
+		final TableRow secondRow = new TableRow(schema, new Object[] { 2L, "second" });
+
+		// When
+		final int nameIndex = firstRow.getSchema().indexOf("NAME");
+
+		// Then
+		assertSame(firstRow.getSchema(), secondRow.getSchema());
+		assertEquals("first", firstRow.getColumnValue(nameIndex));
+		assertEquals("second", secondRow.getColumnValue(nameIndex));
+		assertEquals("second", secondRow.getColumnValue("NAME"));
+	}
+
+	@Test
+	public void testValuesMustMatchSchema()
+	{
+		// Given
+		final TableRowSchema schema = new TableRowSchema(Arrays.asList("ID", "NAME"));
+
+		try
+		{
+			// When
+			new TableRow(schema, new Object[] { 1L });
+			fail("Expected an " + IllegalArgumentException.class.getSimpleName());
+		}
+		catch (IllegalArgumentException e)
+		{
+			// Then
+			assertEquals("Expected 2 values but got 1.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testUnknownColumnHasNoValue()
+	{
+		// Given
+		final TableRow tableRow = new TableRow(new TableRowSchema(Collections.singletonList("ID")), new Object[] { 1L });
+
+		// When
+		final Object value = tableRow.getColumnValue("UNKNOWN");
+
+		// Then
+		assertNull(value);
+		assertNull(tableRow.getColumnValue(-1));
+		assertNull(tableRow.getColumnValue(1));
+		assertNull(new TableRow().getColumnValue("ID"));
+	}
+
+	@Test
+	public void testAddingColumnDoesNotChangeSharedSchema()
+	{
+		// Given
+		final TableRowSchema schema = new TableRowSchema(Collections.singletonList("ID"));
+		final TableRow tableRow = new TableRow(schema, new Object[] { 1L });
+		final TableRow otherRow = new TableRow(schema, new Object[] { 2L });
+
+		// When
+		tableRow.addColumn("NAME", "name");
+		tableRow.addColumn("ID", 3L);
+
+		// Then
+		assertEquals(1, schema.size());
+		assertEquals("name", tableRow.getColumnValue("NAME"));
+		assertEquals(3L, tableRow.getColumnValue("ID"));
+		assertEquals(2L, otherRow.getColumnValue("ID"));
+		assertNull(otherRow.getColumnValue("NAME"));
+	}
+
+	@Test
+	public void testRowBuiltColumnByColumn()
+	{
+		// Given
+		final TableRow tableRow = new TableRow();
+
+		// When
+		for (int i = 0; i < 10; i++)
+		{
+			tableRow.addColumn("COLUMN" + i, i);
+		}
+
+		// Then
+		assertEquals(10, tableRow.getColumnNames().size());
+		assertEquals(9, tableRow.getColumnValue("COLUMN9"));
+		assertEquals(4, tableRow.getColumnValue(tableRow.getSchema().indexOf("COLUMN4")));
+	}
+
+	@Test
+	public void testToString()
+	{
+		// Given
+		final TableRow tableRow = new TableRow(new TableRowSchema(Arrays.asList("ID", "NAME")), new Object[] { 1L, null });
+
+		// When
+		final String string = tableRow.toString();
+
+		// Then
+		assertEquals("TableRow[columns={ID=1, NAME=null}]", string);
+		assertEquals("TableRow[columns={}]", new TableRow().toString());
+	}
+
+	@Test
+	public void testColumnIndexesAreLookedUpPerSchema()
+	{
+		// Given
+		final ColumnIndexes columnIndexes = new ColumnIndexes("REV", "REVTYPE");
+		final TableRow fullRow = new TableRow(new TableRowSchema(Arrays.asList("ID", "REVTYPE", "REV")), new Object[] { 1L, 0, 10L });
+		final TableRow compactRow = new TableRow(new TableRowSchema(Arrays.asList("REVTYPE", "REV")), new Object[] { 1, 11L });
+
+		// When
+		final int[] fullRowIndexes = columnIndexes.of(fullRow);
+		final int[] compactRowIndexes = columnIndexes.of(compactRow);
+
+		// Then
+		assertArrayEquals(new int[] { 2, 1 }, fullRowIndexes);
+		assertArrayEquals(new int[] { 1, 0 }, compactRowIndexes);
+		assertSame(fullRowIndexes, columnIndexes.of(new TableRow(fullRow.getSchema(), new Object[] { 2L, 1, 12L })));
+	}
+}
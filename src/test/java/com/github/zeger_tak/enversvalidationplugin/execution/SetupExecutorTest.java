@@ -0,0 +1,85 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Test;
+
+import com.github.zeger_tak.enversvalidationplugin.annotation.Parameterized;
+import com.github.zeger_tak.enversvalidationplugin.annotation.TargetPhase;
+import com.github.zeger_tak.enversvalidationplugin.annotation.Validate;
+import com.github.zeger_tak.enversvalidationplugin.connection.ConnectionProviderInstance;
+import com.github.zeger_tak.enversvalidationplugin.entities.ValidationResults;
+import com.github.zeger_tak.enversvalidationplugin.entities.ValidationSettings;
+
+public class SetupExecutorTest
+{
+	@Test
+	public void testTasksPerAuditTableDependOnTasksForAllAuditTablesOfEarlierPhases()
+	{
+		// Given
+		final ConnectionProviderInstance connectionProvider = mock(ConnectionProviderInstance.class);
+		when(connectionProvider.getSettings()).thenReturn(new ValidationSettings());
+		final SetupExecutor setupExecutor = new SetupExecutor(mock(Log.class), Collections.emptyList(), connectionProvider);
+
+		final Map<TargetPhase, Set<Class<?>>> validators = new HashMap<>();
+		validators.put(TargetPhase.TABLE_STRUCTURE, Collections.singleton(PerAuditTableValidator.class));
+		validators.put(TargetPhase.CONSTRAINTS, Collections.singleton(AllAuditTablesValidator.class));
+		validators.put(TargetPhase.CONTENT, Collections.singleton(PerAuditTableValidator.class));
+
+		// When
+		final List<ValidationTask> tasks = setupExecutor.createValidationTasks(validators, Arrays.asList("FIRST_AUD", "SECOND_AUD"), new ValidationResults());
+
+		// Then
+		assertEquals(5, tasks.size());
+		final ValidationTask firstStructureTask = tasks.get(0);
+		final ValidationTask allAuditTablesTask = tasks.get(2);
+		final ValidationTask firstContentTask = tasks.get(3);
+		final ValidationTask secondContentTask = tasks.get(4);
+		assertNull(allAuditTablesTask.getAuditTableName());
+		assertEquals("FIRST_AUD", firstContentTask.getAuditTableName());
+
+		assertTrue(firstStructureTask.isReady());
+		assertFalse(allAuditTablesTask.isReady());
+		assertEquals(Arrays.asList(allAuditTablesTask, firstContentTask), firstStructureTask.getDependents());
+		assertEquals(Arrays.asList(firstContentTask, secondContentTask), allAuditTablesTask.getDependents());
+
+		// The content task of an audit table waits for its own structure task and the task for all audit tables.
+		assertFalse(firstContentTask.dependencyFinished());
+		assertTrue(firstContentTask.dependencyFinished());
+	}
+
+	public static class PerAuditTableValidator
+	{
+		@Parameterized(uniqueIdentifier = "{0}", perAuditTable = true)
+		public static List<Object[]> generateData()
+		{
+			return Collections.emptyList();
+		}
+
+		@Validate
+		public void validate()
+		{
+		}
+	}
+
+	public static class AllAuditTablesValidator
+	{
+		@Validate
+		public void validate()
+		{
+		}
+	}
+}
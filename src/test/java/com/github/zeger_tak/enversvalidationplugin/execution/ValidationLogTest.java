@@ -0,0 +1,53 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class ValidationLogTest
+{
+	private final Log log = mock(Log.class);
+
+	@Test
+	public void testUnbufferedMessagesAreWrittenImmediately()
+	{
+		// Given
+		final ValidationLog validationLog = new ValidationLog(log, false);
+
+		// When
+		validationLog.info("info");
+		validationLog.error("error");
+
+		// Then
+		verify(log).info("info");
+		verify(log).error("error");
+	}
+
+	@Test
+	public void testBufferedMessagesAreWrittenInOrderOnFlush()
+	{
+		// Given
+		final ValidationLog validationLog = new ValidationLog(log, true);
+		validationLog.debug("debug");
+		validationLog.info("info");
+		validationLog.error("error");
+		verifyZeroInteractions(log);
+
+		// When
+		validationLog.flush();
+		validationLog.flush();
+
+		// Then
+		final InOrder inOrder = inOrder(log);
+		inOrder.verify(log).debug("debug");
+		inOrder.verify(log).info("info");
+		inOrder.verify(log).error("error");
+		verifyNoMoreInteractions(log);
+	}
+}
@@ -0,0 +1,182 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.zeger_tak.enversvalidationplugin.annotation.TargetPhase;
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+
+public class ValidationSchedulerTest
+{
+	@Test
+	public void testTaskIsReadyOnceAllDependenciesFinished()
+	{
+		// Given
+		final ValidationTask firstDependency = new ValidationTask(Object.class, TargetPhase.SETUP, "TABLE_AUD", 0, 0);
+		final ValidationTask secondDependency = new ValidationTask(Object.class, TargetPhase.TABLE_STRUCTURE, "TABLE_AUD", 0, 1);
+		final ValidationTask task = new ValidationTask(Object.class, TargetPhase.CONTENT, "TABLE_AUD", 0, 2);
+		task.addDependency(firstDependency);
+		task.addDependency(secondDependency);
+
+		// When
+		final boolean readyAfterFirstDependency = task.dependencyFinished();
+
+		// Then
+		assertFalse(readyAfterFirstDependency);
+		assertFalse(task.isReady());
+		assertTrue(task.dependencyFinished());
+		assertTrue(task.isReady());
+		assertEquals(Collections.singletonList(task), firstDependency.getDependents());
+		assertEquals(Collections.singletonList(task), secondDependency.getDependents());
+	}
+
+	@Test
+	public void testTasksAreOrderedByPhaseBeforeSequence()
+	{
+		// Given
+		final ValidationTask setup = new ValidationTask(Object.class, TargetPhase.SETUP, null, 0, 5);
+		final ValidationTask firstContent = new ValidationTask(Object.class, TargetPhase.CONTENT, "FIRST_AUD", 0, 1);
+		final ValidationTask secondContent = new ValidationTask(Object.class, TargetPhase.CONTENT, "SECOND_AUD", 1, 2);
+		final List<ValidationTask> tasks = new ArrayList<>(Arrays.asList(secondContent, firstContent, setup));
+
+		// When
+		Collections.sort(tasks);
+
+		// Then
+		assertEquals(Arrays.asList(setup, firstContent, secondContent), tasks);
+	}
+
+	@Test
+	public void testSingleThreadExecutesReadyTasksInPhaseOrderAfterTheirDependencies()
+	{
+		// Given
+		final ValidationTask setup = new ValidationTask(Object.class, TargetPhase.SETUP, null, 0, 0);
+		final ValidationTask firstStructure = new ValidationTask(Object.class, TargetPhase.TABLE_STRUCTURE, "FIRST_AUD", 0, 1);
+		final ValidationTask secondStructure = new ValidationTask(Object.class, TargetPhase.TABLE_STRUCTURE, "SECOND_AUD", 1, 2);
+		final ValidationTask firstContent = new ValidationTask(Object.class, TargetPhase.CONTENT, "FIRST_AUD", 0, 3);
+		final ValidationTask secondContent = new ValidationTask(Object.class, TargetPhase.CONTENT, "SECOND_AUD", 1, 4);
+		firstStructure.addDependency(setup);
+		secondStructure.addDependency(setup);
+		firstContent.addDependency(firstStructure);
+		secondContent.addDependency(secondStructure);
+
+		final List<ValidationTask> executedTasks = Collections.synchronizedList(new ArrayList<>());
+		final ValidationScheduler scheduler = new ValidationScheduler(1, executedTasks::add);
+
+		// When
+		scheduler.execute(Arrays.asList(secondContent, firstContent, secondStructure, firstStructure, setup));
+
+		// Then
+		assertEquals(Arrays.asList(setup, firstStructure, secondStructure, firstContent, secondContent), executedTasks);
+	}
+
+	@Test
+	public void testParallelTasksStartOnlyAfterTheirDependenciesFinished()
+	{
+		// Given
+		final List<ValidationTask> dependencies = new ArrayList<>();
+		final List<ValidationTask> tasks = new ArrayList<>();
+		for (int i = 0; i < 8; i++)
+		{
+			final ValidationTask dependency = new ValidationTask(Object.class, TargetPhase.TABLE_STRUCTURE, "TABLE_" + i + "_AUD", i, i);
+			final ValidationTask dependent = new ValidationTask(Object.class, TargetPhase.CONTENT, "TABLE_" + i + "_AUD", i, 8 + i);
+			dependent.addDependency(dependency);
+			dependencies.add(dependency);
+			tasks.add(dependency);
+			tasks.add(dependent);
+		}
+
+		final List<ValidationTask> finishedTasks = Collections.synchronizedList(new ArrayList<>());
+		final List<ValidationTask> startedTooEarly = Collections.synchronizedList(new ArrayList<>());
+		final ValidationScheduler scheduler = new ValidationScheduler(4, task -> {
+			if (!dependencies.contains(task) && !finishedTasks.contains(dependencies.get(task.getAuditTableIndex())))
+			{
+				startedTooEarly.add(task);
+			}
+			finishedTasks.add(task);
+		});
+
+		// When
+		scheduler.execute(tasks);
+
+		// Then
+		assertEquals(16, finishedTasks.size());
+		assertEquals(Collections.emptyList(), startedTooEarly);
+	}
+
+	@Test
+	public void testFailureStopsFurtherTasksAndIsRethrown()
+	{
+		// Given
+		final ValidationTask failingTask = new ValidationTask(Object.class, TargetPhase.SETUP, "FIRST_AUD", 0, 0);
+		final ValidationTask dependent = new ValidationTask(Object.class, TargetPhase.CONTENT, "FIRST_AUD", 0, 1);
+		final ValidationTask laterDependent = new ValidationTask(Object.class, TargetPhase.CONTENT, null, 0, 2);
+		dependent.addDependency(failingTask);
+		laterDependent.addDependency(dependent);
+
+		final ValidationException failure = new ValidationException("Setup failed unexpectedly.");
+		final List<ValidationTask> executedTasks = Collections.synchronizedList(new ArrayList<>());
+		final ValidationScheduler scheduler = new ValidationScheduler(2, task -> {
+			executedTasks.add(task);
+			if (task == failingTask)
+			{
+				throw failure;
+			}
+		});
+
+		try
+		{
+			// When
+			scheduler.execute(Arrays.asList(failingTask, dependent, laterDependent));
+			fail("Expected a " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertSame(failure, e);
+			assertEquals(Collections.singletonList(failingTask), executedTasks);
+		}
+	}
+
+	@Test
+	public void testErrorStopsFurtherTasksAndIsRethrown()
+	{
+		// Given
+		final ValidationTask failingTask = new ValidationTask(Object.class, TargetPhase.CONSTRAINTS, "FIRST_AUD", 0, 0);
+		final ValidationTask dependent = new ValidationTask(Object.class, TargetPhase.CONTENT, "FIRST_AUD", 0, 1);
+		dependent.addDependency(failingTask);
+
+		final LinkageError error = new LinkageError("Validator could not be loaded.");
+		final List<ValidationTask> executedTasks = Collections.synchronizedList(new ArrayList<>());
+		final ValidationScheduler scheduler = new ValidationScheduler(2, task -> {
+			executedTasks.add(task);
+			if (task == failingTask)
+			{
+				throw error;
+			}
+		});
+
+		try
+		{
+			// When
+			scheduler.execute(Arrays.asList(failingTask, dependent));
+			fail("Expected a " + LinkageError.class.getSimpleName());
+		}
+		catch (LinkageError e)
+		{
+			// Then
+			assertSame(error, e);
+			assertEquals(Collections.singletonList(failingTask), executedTasks);
+		}
+	}
+}
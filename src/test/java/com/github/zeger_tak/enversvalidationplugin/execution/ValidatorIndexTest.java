@@ -0,0 +1,109 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.annotation.ValidatorIndexProcessor;
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+import com.github.zeger_tak.enversvalidationplugin.validate.PrimaryKeyValidator;
+import com.github.zeger_tak.enversvalidationplugin.validate.RevisionValidator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ValidatorIndexTest
+{
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testValidatorClassesAreReadPerClasspathRoot() throws IOException
+	{
+		// Given
+		final File indexedRoot = createRoot("indexed", RevisionValidator.class.getName(), "", PrimaryKeyValidator.class.getName() + "\tvalidate=validatePrimaryKey");
+		final File otherRoot = temporaryFolder.newFolder("not indexed");
+
+		// When
+		final ValidatorIndex validatorIndex = ValidatorIndex.load(createClassLoader(indexedRoot, otherRoot));
+
+		// Then
+		assertTrue(validatorIndex.isIndexed(toUrl(indexedRoot)));
+		assertFalse(validatorIndex.isIndexed(toUrl(otherRoot)));
+		assertEquals(new LinkedHashSet<>(Arrays.asList(RevisionValidator.class, PrimaryKeyValidator.class)), validatorIndex.getValidatorClasses(toUrl(indexedRoot)));
+		assertTrue(validatorIndex.getValidatorClasses(toUrl(otherRoot)).isEmpty());
+	}
+
+	@Test
+	public void testIndexVisibleToMultipleClassLoadersIsReadOnce() throws IOException
+	{
+		// Given
+		final File indexedRoot = createRoot("indexed", RevisionValidator.class.getName());
+		final ClassLoader classLoader = createClassLoader(indexedRoot);
+
+		// When
+		final ValidatorIndex validatorIndex = ValidatorIndex.load(classLoader, classLoader);
+
+		// Then
+		assertEquals(1, validatorIndex.getValidatorClasses(toUrl(indexedRoot)).size());
+	}
+
+	@Test
+	public void testUnknownValidatorClassIsReported() throws IOException
+	{
+		// Given
+		final File indexedRoot = createRoot("indexed", "com.example.MissingValidator");
+		final ValidatorIndex validatorIndex = ValidatorIndex.load(createClassLoader(indexedRoot));
+
+		try
+		{
+			// When
+			validatorIndex.getValidatorClasses(toUrl(indexedRoot));
+			fail("Expected a " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("Validator com.example.MissingValidator is listed in the validator index " + ValidatorIndexProcessor.INDEX_RESOURCE_NAME + ", but could not be loaded.", e.getMessage());
+		}
+	}
+
+	@Nonnull
+	private File createRoot(@Nonnull String name, @Nonnull String... indexLines) throws IOException
+	{
+		final File root = temporaryFolder.newFolder(name);
+		final File index = new File(root, ValidatorIndexProcessor.INDEX_RESOURCE_NAME);
+		Files.createDirectories(index.getParentFile().toPath());
+		Files.write(index.toPath(), Arrays.asList(indexLines), StandardCharsets.UTF_8);
+		return root;
+	}
+
+	@Nonnull
+	private static ClassLoader createClassLoader(@Nonnull File... roots) throws IOException
+	{
+		final URL[] urls = new URL[roots.length];
+		for (int i = 0; i < roots.length; i++)
+		{
+			urls[i] = toUrl(roots[i]);
+		}
+		return new URLClassLoader(urls, ValidatorIndexTest.class.getClassLoader());
+	}
+
+	@Nonnull
+	private static URL toUrl(@Nonnull File root) throws IOException
+	{
+		return root.toURI().toURL();
+	}
+}
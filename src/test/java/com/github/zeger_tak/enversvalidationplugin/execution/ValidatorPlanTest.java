@@ -0,0 +1,104 @@
+package com.github.zeger_tak.enversvalidationplugin.execution;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.zeger_tak.enversvalidationplugin.annotation.Parameterized;
+
+public class ValidatorPlanTest
+{
+	private static final List<Object[]> ARGUMENTS = Arrays.asList(
+			new Object[] { "TABLE_AUD", "CONTENT_TABLE" },
+			new Object[] { 1234567L, 1.5d },
+			new Object[] { new Date(1500000000000L), null },
+			new Object[] { Collections.singletonList("TABLE"), new StringBuilder("builder") },
+			new Object[] { "only argument" },
+			new Object[] {});
+
+	private final Locale defaultLocale = Locale.getDefault();
+
+	@After
+	public void restoreLocale()
+	{
+		Locale.setDefault(defaultLocale);
+	}
+
+	@Test
+	public void testSimplePatternsAreRenderedAsMessageFormatRendersThem()
+	{
+		assertRenderedAsMessageFormat(ValidatorPlan.compile(SimplePatternValidator.class), "{index}: {0} - {1}", "{1}.{0}.{2}");
+	}
+
+	@Test
+	public void testSimplePatternsFormatNumbersAndDatesInTheDefaultLocale()
+	{
+		// Given
+		Locale.setDefault(Locale.GERMANY);
+
+		// Then
+		assertRenderedAsMessageFormat(ValidatorPlan.compile(SimplePatternValidator.class), "{index}: {0} - {1}", "{1}.{0}.{2}");
+	}
+
+	@Test
+	public void testPatternsWithFormatTypesOrQuotesAreRenderedAsMessageFormatRendersThem()
+	{
+		assertRenderedAsMessageFormat(ValidatorPlan.compile(FormattedPatternValidator.class), "'{index}' {0,number,#} it''s {index}", "{0} '{1}' {index}");
+	}
+
+	@Test
+	public void testDefaultPatternIsTheIndex()
+	{
+		assertRenderedAsMessageFormat(ValidatorPlan.compile(DefaultPatternValidator.class), "{index}", "{index}");
+	}
+
+	private static void assertRenderedAsMessageFormat(ValidatorPlan validatorPlan, String namePattern, String uniqueIdentifierPattern)
+	{
+		for (int index = 0; index < ARGUMENTS.size(); index++)
+		{
+			final Object[] arguments = ARGUMENTS.get(index);
+			if (namePattern.contains("number") && arguments.length > 0 && !(arguments[0] instanceof Number))
+			{
+				continue;
+			}
+
+			assertEquals(MessageFormat.format(namePattern.replace("{index}", Integer.toString(index)), arguments), validatorPlan.renderName(arguments, index));
+			assertEquals(MessageFormat.format(uniqueIdentifierPattern.replace("{index}", Integer.toString(index)), arguments), validatorPlan.renderUniqueIdentifier(arguments, index));
+		}
+	}
+
+	public static class SimplePatternValidator
+	{
+		@Parameterized(name = "{index}: {0} - {1}", uniqueIdentifier = "{1}.{0}.{2}")
+		public static List<Object[]> generateData()
+		{
+			return ARGUMENTS;
+		}
+	}
+
+	public static class FormattedPatternValidator
+	{
+		@Parameterized(name = "'{index}' {0,number,#} it''s {index}", uniqueIdentifier = "{0} '{1}' {index}")
+		public static List<Object[]> generateData()
+		{
+			return ARGUMENTS;
+		}
+	}
+
+	public static class DefaultPatternValidator
+	{
+		@Parameterized
+		public static List<Object[]> generateData()
+		{
+			return ARGUMENTS;
+		}
+	}
+}
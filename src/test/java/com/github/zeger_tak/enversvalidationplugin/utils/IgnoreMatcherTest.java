@@ -0,0 +1,131 @@
+package com.github.zeger_tak.enversvalidationplugin.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+import org.junit.Test;
+
+public class IgnoreMatcherTest
+{
+	@Test
+	public void testExactIdentifierOnlyMatchesEntireIdentifier()
+	{
+		// Given
+		final IgnoreMatcher ignoreMatcher = IgnoreMatcher.compile(Collections.singletonList(" RevisionValidator.validateRemoveRevisions "));
+
+		// When & Then
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.AUDIT_TABLE"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator.validateRemoveRevision"));
+	}
+
+	@Test
+	public void testEmptyIgnorablesMatchNothing()
+	{
+		// Given
+		final IgnoreMatcher ignoreMatcher = IgnoreMatcher.compile(Arrays.asList("", "  "));
+
+		// When & Then
+		assertFalse(ignoreMatcher.matches(""));
+		assertFalse(ignoreMatcher.matches("RevisionValidator"));
+	}
+
+	@Test
+	public void testStarMatchesAnyCharactersWithinASegment()
+	{
+		// Given
+		final IgnoreMatcher ignoreMatcher = IgnoreMatcher.compile(Collections.singletonList("RevisionValidator.*.LOG_*_AUD"));
+
+		// When & Then
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.LOG_ENTRY_AUD"));
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.LOG__AUD"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.ENTRY_AUD"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions"));
+		assertFalse(ignoreMatcher.matches("PrimaryKeyValidator.validateRemoveRevisions.LOG_ENTRY_AUD"));
+	}
+
+	@Test
+	public void testQuestionMarkMatchesASingleCharacter()
+	{
+		// Given
+		final IgnoreMatcher ignoreMatcher = IgnoreMatcher.compile(Collections.singletonList("RevisionValidator.validateRemoveRevisions.TABLE_?_AUD"));
+
+		// When & Then
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.TABLE_1_AUD"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.TABLE_12_AUD"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.TABLE__AUD"));
+	}
+
+	@Test
+	public void testWildcardPatternMatchesIdentifiersStartingWithItsSegments()
+	{
+		// Given
+		final IgnoreMatcher ignoreMatcher = IgnoreMatcher.compile(Collections.singletonList("RevisionValidator.validate*"));
+
+		// When & Then
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions"));
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.AUDIT_TABLE"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator"));
+	}
+
+	@Test
+	public void testWildcardCharactersAreTheOnlySpecialCharacters()
+	{
+		// Given
+		final IgnoreMatcher ignoreMatcher = IgnoreMatcher.compile(Collections.singletonList("RevisionValidator.validate*.TABLE[1]_AUD"));
+
+		// When & Then
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.TABLE[1]_AUD"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.TABLE1_AUD"));
+	}
+
+	@Test
+	public void testWildcardPatternsSharingSegmentsAreMatchedIndependently()
+	{
+		// Given
+		final IgnoreMatcher ignoreMatcher = IgnoreMatcher.compile(Arrays.asList("RevisionValidator.*.A_AUD", "RevisionValidator.validate*.B_AUD", "RevisionValidator.validateRemoveRevisions.C_*"));
+
+		// When & Then
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateHistoryIsAValidFlow.A_AUD"));
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateHistoryIsAValidFlow.B_AUD"));
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.C_AUD"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator.validateHistoryIsAValidFlow.C_AUD"));
+	}
+
+	@Test
+	public void testRegularExpressionMatchesEntireIdentifier()
+	{
+		// Given
+		final IgnoreMatcher ignoreMatcher = IgnoreMatcher.compile(Arrays.asList("regex:RevisionValidator\\.validate.*\\.LOG_.*", "regex:PrimaryKeyValidator"));
+
+		// When & Then
+		assertTrue(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.LOG_ENTRY_AUD"));
+		assertTrue(ignoreMatcher.matches("PrimaryKeyValidator"));
+		assertFalse(ignoreMatcher.matches("PrimaryKeyValidator.validateX"));
+		assertFalse(ignoreMatcher.matches("XRevisionValidator.validateRemoveRevisions.LOG_ENTRY_AUD"));
+		assertFalse(ignoreMatcher.matches("RevisionValidator.validateRemoveRevisions.ENTRY_AUD"));
+	}
+
+	@Test
+	public void testInvalidRegularExpressionIsRejected()
+	{
+		try
+		{
+			// When
+			IgnoreMatcher.compile(Collections.singletonList("regex:RevisionValidator("));
+			fail("Expected a " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("Ignorable regex:RevisionValidator( is not a valid regular expression.", e.getMessage());
+		}
+	}
+}
@@ -19,7 +19,6 @@ import com.github.zeger_tak.enversvalidationplugin.connection.ConnectionProvider
 import com.github.zeger_tak.enversvalidationplugin.connection.DatabaseQueries;
 import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
 import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
-import org.dbunit.database.CachedResultSetTable;
 import org.dbunit.dataset.DataSetException;
 import org.junit.Before;
 import org.junit.Test;
@@ -46,7 +45,7 @@ public class ConfiguredAuditTablesExistValidatorParameterizedTest
 
 		for (String tableName : allTableNames)
 		{
-			prepareMockedResults(tableName, tablesThatDoNotExist.contains(tableName) ? 0 : 1);
+			prepareMockedResults(tableName, !tablesThatDoNotExist.contains(tableName));
 		}
 	}
 
@@ -147,10 +146,8 @@ public class ConfiguredAuditTablesExistValidatorParameterizedTest
 		assertTrue(true);
 	}
 
-	private void prepareMockedResults(@Nonnull String tableName, int rowCount) throws SQLException, DataSetException
+	private void prepareMockedResults(@Nonnull String tableName, boolean tableExists) throws SQLException, DataSetException
 	{
-		final CachedResultSetTable result = mock(CachedResultSetTable.class);
-		when(queries.getTableByName(tableName)).thenReturn(result);
-		when(result.getRowCount()).thenReturn(rowCount);
+		when(queries.tableExists(tableName)).thenReturn(tableExists);
 	}
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -22,6 +23,7 @@ import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformatio
 import com.github.zeger_tak.enversvalidationplugin.entities.RevisionConstants;
 import com.github.zeger_tak.enversvalidationplugin.entities.TableRow;
 import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+import org.dbunit.dataset.DataSetException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -184,7 +186,7 @@ public class RevisionValidatorHistoryFlowParameterizedTest
 	}
 
 	@Test
-	public void testValidateHistoryIsAValidFlow()
+	public void testValidateHistoryIsAValidFlow() throws SQLException, DataSetException
 	{
 		if (expectedExceptionMessageValidFlow == null)
 		{
@@ -205,7 +207,7 @@ public class RevisionValidatorHistoryFlowParameterizedTest
 	}
 
 	@Test
-	public void testValidateLatestAddOrModfyRevisionRefersToExistingContent()
+	public void testValidateLatestAddOrModfyRevisionRefersToExistingContent() throws SQLException, DataSetException
 	{
 		if (expectedExceptionMessageAddOrModifyContent == null)
 		{
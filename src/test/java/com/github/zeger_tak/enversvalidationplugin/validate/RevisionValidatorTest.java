@@ -1,10 +1,13 @@
 package com.github.zeger_tak.enversvalidationplugin.validate;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -14,24 +17,51 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nonnull;
+
+import com.github.zeger_tak.enversvalidationplugin.connection.ChunkedEntityHistorySource;
 import com.github.zeger_tak.enversvalidationplugin.connection.ConnectionProviderInstance;
 import com.github.zeger_tak.enversvalidationplugin.connection.DatabaseQueries;
+import com.github.zeger_tak.enversvalidationplugin.connection.InMemoryEntityHistorySource;
+import com.github.zeger_tak.enversvalidationplugin.connection.PooledConnection;
+import com.github.zeger_tak.enversvalidationplugin.connection.RecordSelection;
+import com.github.zeger_tak.enversvalidationplugin.connection.StreamingEntityHistorySource;
+import com.github.zeger_tak.enversvalidationplugin.connection.TableRowCursor;
 import com.github.zeger_tak.enversvalidationplugin.entities.AuditTableInformation;
+import com.github.zeger_tak.enversvalidationplugin.entities.CompactAuditRows;
+import com.github.zeger_tak.enversvalidationplugin.entities.ContentValidationMode;
+import com.github.zeger_tak.enversvalidationplugin.entities.EntityHistory;
+import com.github.zeger_tak.enversvalidationplugin.entities.PrimaryIdentifier;
+import com.github.zeger_tak.enversvalidationplugin.entities.RevisionCheckpoint;
+import com.github.zeger_tak.enversvalidationplugin.entities.SamplingReport;
 import com.github.zeger_tak.enversvalidationplugin.entities.RevisionConstants;
 import com.github.zeger_tak.enversvalidationplugin.entities.TableRow;
+import com.github.zeger_tak.enversvalidationplugin.entities.ValidationSettings;
 import com.github.zeger_tak.enversvalidationplugin.exceptions.ValidationException;
+import com.github.zeger_tak.enversvalidationplugin.utils.IgnoreMatcher;
 import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.Column;
 import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultTable;
+import org.dbunit.dataset.ITable;
+import org.dbunit.dataset.datatype.DataType;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
@@ -44,6 +74,9 @@ public class RevisionValidatorTest
 	@Rule
 	public MockitoRule mockitoRule = MockitoJUnit.rule();
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	@Mock
 	private Map<String, AuditTableInformation> auditTableInformationMap;
 
@@ -53,24 +86,31 @@ public class RevisionValidatorTest
 	@Mock
 	private IDatabaseConnection databaseConnection;
 
+	@Mock
+	private PooledConnection pooledConnection;
+
 	@Mock
 	private DatabaseQueries databaseQueries;
 
+	private final ValidationSettings validationSettings = new ValidationSettings();
+
 	@Before
 	public void init()
 	{
 		when(connectionProvider.getQueries()).thenReturn(databaseQueries);
-		when(connectionProvider.getDatabaseConnection()).thenReturn(databaseConnection);
+		when(connectionProvider.borrowConnection()).thenReturn(pooledConnection);
+		when(pooledConnection.getDatabaseConnection()).thenReturn(databaseConnection);
+		when(connectionProvider.getSettings()).thenReturn(validationSettings);
 	}
 
 	@Test
 	public void testGenerateTestDataWithEmptyAuditTableInformationMap() throws SQLException, DataSetException
 	{
 		// Given
-		when(auditTableInformationMap.entrySet()).thenReturn(Collections.emptySet());
+		when(auditTableInformationMap.values()).thenReturn(Collections.emptySet());
 
 		// When
-		final List<Object[]> testData = RevisionValidator.generateTestData(connectionProvider, auditTableInformationMap);
+		final List<Object[]> testData = toList(RevisionValidator.generateTestData(connectionProvider, auditTableInformationMap));
 
 		// Then
 		assertTrue(testData.isEmpty());
@@ -84,16 +124,16 @@ public class RevisionValidatorTest
 		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, contentTable);
 		final List<String> primaryIdentifierColumnNames = Collections.singletonList(AUDIT_TABLE);
 
-		final Map<String, List<TableRow>> auditTableRecords = Collections.singletonMap(AUDIT_TABLE, Collections.singletonList(new TableRow()));
-		final Map<String, TableRow> contentTableRecords = Collections.singletonMap(contentTable, new TableRow());
+		final Map<PrimaryIdentifier, List<TableRow>> auditTableRecords = Collections.singletonMap(new PrimaryIdentifier(AUDIT_TABLE), Collections.singletonList(new TableRow()));
+		final Map<PrimaryIdentifier, TableRow> contentTableRecords = Collections.singletonMap(new PrimaryIdentifier(contentTable), new TableRow());
 
-		when(auditTableInformationMap.entrySet()).thenReturn(Collections.singleton(new HashMap.SimpleEntry<>(AUDIT_TABLE, new AuditTableInformation(AUDIT_TABLE, contentTable))));
+		when(auditTableInformationMap.values()).thenReturn(Collections.singleton(auditTableInformation));
 		when(databaseQueries.getPrimaryKeyColumnNames(contentTable)).thenReturn(primaryIdentifierColumnNames);
-		when(databaseQueries.getContentRecords(databaseConnection, auditTableInformation, primaryIdentifierColumnNames)).thenReturn(contentTableRecords);
-		when(databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(databaseConnection, auditTableInformation, primaryIdentifierColumnNames)).thenReturn(auditTableRecords);
+		when(databaseQueries.getContentRecords(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.ALL)).thenReturn(contentTableRecords);
+		when(databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.ALL)).thenReturn(auditTableRecords);
 
 		// When
-		final List<Object[]> testData = RevisionValidator.generateTestData(connectionProvider, auditTableInformationMap);
+		final List<Object[]> testData = toList(RevisionValidator.generateTestData(connectionProvider, auditTableInformationMap));
 
 		// Then
 		assertEquals(1, testData.size());
@@ -104,7 +144,454 @@ public class RevisionValidatorTest
 	}
 
 	@Test
-	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionWithEmptyContentList()
+	public void testGenerateTestDataLoadsRecordsPerAuditTable() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation firstAuditTableInformation = new AuditTableInformation(AUDIT_TABLE, "firstContentTable");
+		final AuditTableInformation secondAuditTableInformation = new AuditTableInformation(AUDIT_TABLE, "secondContentTable");
+		when(auditTableInformationMap.values()).thenReturn(Arrays.asList(firstAuditTableInformation, secondAuditTableInformation));
+		when(databaseQueries.getPrimaryKeyColumnNames(any())).thenReturn(Collections.singletonList("ID"));
+		when(databaseQueries.getContentRecords(any(), any(), any(), any())).thenReturn(Collections.emptyMap());
+		when(databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(any(), any(), any(), any())).thenReturn(Collections.emptyMap());
+
+		// When
+		final Iterator<Object[]> testData = RevisionValidator.generateTestData(connectionProvider, auditTableInformationMap);
+
+		// Then
+		verify(databaseQueries, never()).getContentRecords(any(), any(), any(), any());
+		assertEquals(firstAuditTableInformation, testData.next()[1]);
+		verify(databaseQueries, times(1)).getContentRecords(any(), any(), any(), any());
+		assertEquals(secondAuditTableInformation, testData.next()[1]);
+		verify(databaseQueries, times(2)).getContentRecords(any(), any(), any(), any());
+		assertFalse(testData.hasNext());
+	}
+
+	@Test
+	public void testGenerateTestDataWhileStreaming() throws SQLException, DataSetException
+	{
+		// Given
+		final String contentTable = "";
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, contentTable);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList(AUDIT_TABLE);
+
+		validationSettings.setContentValidationMode(ContentValidationMode.STREAMING);
+		when(auditTableInformationMap.values()).thenReturn(Collections.singleton(auditTableInformation));
+		when(databaseQueries.getPrimaryKeyColumnNames(contentTable)).thenReturn(primaryIdentifierColumnNames);
+
+		// When
+		final List<Object[]> testData = toList(RevisionValidator.generateTestData(connectionProvider, auditTableInformationMap));
+
+		// Then
+		assertEquals(1, testData.size());
+		assertEquals(connectionProvider, testData.get(0)[0]);
+		assertEquals(auditTableInformation, testData.get(0)[1]);
+		assertTrue(testData.get(0)[2] instanceof StreamingEntityHistorySource);
+		verify(databaseQueries, never()).getContentRecords(any(), any(), any(), any());
+		verify(databaseQueries, never()).getAuditRecordsGroupedByContentPrimaryKey(any(), any(), any(), any());
+	}
+
+	@Test
+	public void testValidateHistoryIsAValidFlowWhileStreaming() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		prepareStreamingRecords(auditTableInformation);
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, new StreamingEntityHistorySource(connectionProvider, auditTableInformation, Collections.singletonList("ID")));
+
+		try
+		{
+			// When
+			validator.validateHistoryIsAValidFlow();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("The following identifiers [4] have an invalid audit history in auditTable for the table auditTable", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testValidateHistoryIsAValidFlowWhileChunked() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+		final PrimaryIdentifier firstKey = new PrimaryIdentifier(BigDecimal.ONE);
+		final PrimaryIdentifier secondKey = new PrimaryIdentifier(BigDecimal.valueOf(2));
+
+		final TableRow contentRow = new TableRow();
+		contentRow.addColumn("ID", BigDecimal.ONE);
+		contentRow.addColumn("NAME", "name");
+
+		when(databaseQueries.getRevTypeColumnName()).thenReturn("REVTYPE");
+		when(databaseQueries.getRevisionTableIdentifierColumnName()).thenReturn("REV");
+		when(databaseQueries.getChunkUpperBound(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, null, 1)).thenReturn(firstKey);
+		when(databaseQueries.getChunkUpperBound(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, firstKey, 1)).thenThrow(new SQLException("snapshot too old")).thenReturn(null);
+		when(databaseQueries.getContentRecords(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.keyRange(null, firstKey))).thenReturn(Collections.singletonMap(firstKey, contentRow));
+		when(databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.keyRange(null, firstKey))).thenReturn(Collections.singletonMap(firstKey, Collections.singletonList(createAuditRow(1, RevisionConstants.ADD_REVISION, "name"))));
+		when(databaseQueries.getContentRecords(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.keyRange(firstKey, null))).thenReturn(Collections.emptyMap());
+		when(databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.keyRange(firstKey, null))).thenReturn(Collections.singletonMap(secondKey, Collections.singletonList(createAuditRow(2, RevisionConstants.MODIFY_REVISION, "name"))));
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, new ChunkedEntityHistorySource(connectionProvider, auditTableInformation, primaryIdentifierColumnNames, 1));
+
+		try
+		{
+			// When
+			validator.validateHistoryIsAValidFlow();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("The following identifiers [2] have an invalid audit history in auditTable for the table auditTable", e.getMessage());
+			verify(databaseQueries, times(3)).getChunkUpperBound(any(), any(), any(), any(), anyInt());
+		}
+	}
+
+	@Test
+	public void testValidateLatestAddOrModifyRevisionRefersToExistingContentWhileStreaming() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		prepareStreamingRecords(auditTableInformation);
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, new StreamingEntityHistorySource(connectionProvider, auditTableInformation, Collections.singletonList("ID")));
+
+		try
+		{
+			// When
+			validator.validateLatestAddOrModifyRevisionRefersToExistingContent();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("The following identifiers [4] have a latest revision of type Add/Modify but have no record present in content table auditTable.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionWhileStreaming() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		prepareStreamingRecords(auditTableInformation);
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, new StreamingEntityHistorySource(connectionProvider, auditTableInformation, Collections.singletonList("ID")));
+
+		try
+		{
+			// When
+			validator.validateAllRecordsInContentTableHaveAValidLatestRevision();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("The following identifiers [0, 2] in table auditTable do not have an Add/Modify revision in table auditTable as their last revision or do not have a revision at all.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testGenerateTestDataWithSqlPushdown() throws SQLException, DataSetException
+	{
+		// Given
+		final String contentTable = "";
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, contentTable);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList(AUDIT_TABLE);
+
+		validationSettings.setSqlPushdown(true);
+		when(auditTableInformationMap.values()).thenReturn(Collections.singleton(auditTableInformation));
+		when(databaseQueries.getPrimaryKeyColumnNames(contentTable)).thenReturn(primaryIdentifierColumnNames);
+
+		// When
+		final List<Object[]> testData = toList(RevisionValidator.generateTestData(connectionProvider, auditTableInformationMap));
+
+		// Then
+		assertEquals(1, testData.size());
+		assertTrue(testData.get(0)[2] instanceof StreamingEntityHistorySource);
+		assertEquals(primaryIdentifierColumnNames, testData.get(0)[3]);
+		verify(databaseQueries, never()).getContentRecords(any(), any(), any(), any());
+		verify(databaseQueries, never()).getAuditRecordsGroupedByContentPrimaryKey(any(), any(), any(), any());
+	}
+
+	@Test
+	public void testValidateHistoryIsAValidFlowWithSqlPushdown() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+		final StreamingEntityHistorySource entityHistorySource = mock(StreamingEntityHistorySource.class);
+		when(databaseQueries.getIdentifiersWithInvalidHistory(eq(auditTableInformation), eq(primaryIdentifierColumnNames), any())).thenReturn(Collections.singletonList(new PrimaryIdentifier(BigDecimal.valueOf(4))));
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, entityHistorySource, primaryIdentifierColumnNames);
+
+		try
+		{
+			// When
+			validator.validateHistoryIsAValidFlow();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("The following identifiers [4] have an invalid audit history in auditTable for the table auditTable", e.getMessage());
+			verify(entityHistorySource, never()).open();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testValidateHistoryIsAValidFlowWithSqlPushdownAndRevisionWithoutRevType() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+		when(databaseQueries.getIdentifiersWithInvalidHistory(eq(auditTableInformation), eq(primaryIdentifierColumnNames), any())).thenAnswer(invocation -> {
+			((Collection<PrimaryIdentifier>) invocation.getArguments()[2]).add(new PrimaryIdentifier(BigDecimal.valueOf(4)));
+			return Collections.emptyList();
+		});
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, mock(StreamingEntityHistorySource.class), primaryIdentifierColumnNames);
+
+		try
+		{
+			// When
+			validator.validateHistoryIsAValidFlow();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("The audit table auditTable does not have a column referring to the revision table.", e.getMessage());
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testValidateLatestAddOrModifyRevisionRefersToExistingContentWithSqlPushdownAndLatestRevisionWithoutRevType() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+		when(databaseQueries.getIdentifiersWithAddOrModifyLatestRevisionWithoutContent(eq(auditTableInformation), eq(primaryIdentifierColumnNames), any())).thenAnswer(invocation -> {
+			((Collection<PrimaryIdentifier>) invocation.getArguments()[2]).add(new PrimaryIdentifier(BigDecimal.valueOf(4)));
+			return Collections.emptyList();
+		});
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, mock(StreamingEntityHistorySource.class), primaryIdentifierColumnNames);
+
+		try
+		{
+			// When
+			validator.validateLatestAddOrModifyRevisionRefersToExistingContent();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("The audit table auditTable does not have a column referring to the revision table.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testValidateLatestAddOrModifyRevisionRefersToExistingContentWithSqlPushdown() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+		final StreamingEntityHistorySource entityHistorySource = mock(StreamingEntityHistorySource.class);
+		when(databaseQueries.getIdentifiersWithAddOrModifyLatestRevisionWithoutContent(eq(auditTableInformation), eq(primaryIdentifierColumnNames), any())).thenReturn(Collections.singletonList(new PrimaryIdentifier(BigDecimal.valueOf(4))));
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, entityHistorySource, primaryIdentifierColumnNames);
+
+		try
+		{
+			// When
+			validator.validateLatestAddOrModifyRevisionRefersToExistingContent();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("The following identifiers [4] have a latest revision of type Add/Modify but have no record present in content table auditTable.", e.getMessage());
+			verify(entityHistorySource, never()).open();
+		}
+	}
+
+	@Test
+	public void testValidateRemoveRevisionsWithSqlPushdown() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+		final StreamingEntityHistorySource entityHistorySource = mock(StreamingEntityHistorySource.class);
+		when(databaseQueries.getRemoveRevisionsWithNullableColumnsFilled(auditTableInformation, primaryIdentifierColumnNames)).thenReturn(Collections.singletonMap(new PrimaryIdentifier(BigDecimal.valueOf(4)), Collections.singletonList(BigDecimal.valueOf(7))));
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, entityHistorySource, primaryIdentifierColumnNames);
+
+		try
+		{
+			// When
+			validator.validateRemoveRevisions();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("Identifiers found with nonnull values in nullable columns for Remove revisions: \nIdentifier 4, with the following revisions [7]\n", e.getMessage());
+			verify(entityHistorySource, never()).open();
+			verify(databaseQueries, never()).getAllNonnullColumns(any());
+		}
+	}
+
+	@Test
+	public void testValidateRemoveRevisionsWithCompactAuditRows() throws SQLException, DataSetException
+	{
+		// Given
+		final CompactAuditRows auditRows = new CompactAuditRows(new CompactAuditRows.Layout("REVTYPE", "REV", Collections.singletonList("ID")));
+		auditRows.add(createAuditRow(1, RevisionConstants.ADD_REVISION, "name"));
+		auditRows.add(createAuditRow(2, RevisionConstants.REMOVE_REVISION, "name"));
+		auditRows.add(createAuditRow(3, RevisionConstants.ADD_REVISION, "name"));
+		auditRows.add(createAuditRow(4, RevisionConstants.REMOVE_REVISION, null));
+		auditRows.add(createAuditRow(5, RevisionConstants.ADD_REVISION, "name"));
+
+		when(databaseQueries.getRevTypeColumnName()).thenReturn("REVTYPE");
+		when(databaseQueries.getRevisionTableIdentifierColumnName()).thenReturn("REV");
+		when(databaseQueries.getAllNonnullColumns(AUDIT_TABLE)).thenReturn(new HashSet<>(Arrays.asList("ID", "REV", "REVTYPE")));
+
+		final Map<PrimaryIdentifier, List<TableRow>> recordsInAuditTable = Collections.singletonMap(new PrimaryIdentifier(BigDecimal.ONE), auditRows);
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE), recordsInAuditTable, Collections.emptyMap());
+
+		// When
+		validator.validateHistoryIsAValidFlow();
+		try
+		{
+			validator.validateRemoveRevisions();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("Identifiers found with nonnull values in nullable columns for Remove revisions: \nIdentifier 1, with the following revisions [2]\n", e.getMessage());
+			assertEquals(Arrays.asList("REVTYPE", "REV"), new ArrayList<>(auditRows.get(0).getColumnNames()));
+			assertEquals("name", auditRows.get(4).getColumnValue("NAME"));
+		}
+	}
+
+	@Test
+	public void testValidationsReadEntityHistoriesOnce() throws SQLException, DataSetException
+	{
+		// Given
+		final List<TableRow> auditRows = Arrays.asList(createAuditRow(1, RevisionConstants.MODIFY_REVISION, "name"), createAuditRow(2, RevisionConstants.REMOVE_REVISION, "name"));
+		final Map<PrimaryIdentifier, List<TableRow>> recordsInAuditTable = Collections.singletonMap(new PrimaryIdentifier(BigDecimal.ONE), auditRows);
+		final InMemoryEntityHistorySource<PrimaryIdentifier> entityHistorySource = spy(new InMemoryEntityHistorySource<>(recordsInAuditTable, Collections.emptyMap()));
+
+		when(databaseQueries.getRevTypeColumnName()).thenReturn("REVTYPE");
+		when(databaseQueries.getRevisionTableIdentifierColumnName()).thenReturn("REV");
+		when(databaseQueries.getAllNonnullColumns(AUDIT_TABLE)).thenReturn(new HashSet<>(Arrays.asList("ID", "REV", "REVTYPE")));
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE), entityHistorySource);
+
+		// When
+		validator.validateLatestAddOrModifyRevisionRefersToExistingContent();
+		validator.validateAllRecordsInContentTableHaveAValidLatestRevision();
+		try
+		{
+			validator.validateHistoryIsAValidFlow();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("The following identifiers [1] have an invalid audit history in auditTable for the table auditTable", e.getMessage());
+		}
+		try
+		{
+			validator.validateRemoveRevisions();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals("Identifiers found with nonnull values in nullable columns for Remove revisions: \nIdentifier 1, with the following revisions [2]\n", e.getMessage());
+		}
+		verify(entityHistorySource, times(1)).open();
+	}
+
+	@Nonnull
+	private TableRow createAuditRow(int revision, int revType, String name)
+	{
+		final TableRow tableRow = new TableRow();
+		tableRow.addColumn("ID", BigDecimal.ONE);
+		tableRow.addColumn("REV", BigDecimal.valueOf(revision));
+		tableRow.addColumn("REVTYPE", BigDecimal.valueOf(revType));
+		tableRow.addColumn("NAME", name);
+		return tableRow;
+	}
+
+	@Test
+	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionWithSqlPushdown() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+		final StreamingEntityHistorySource entityHistorySource = mock(StreamingEntityHistorySource.class);
+
+		final TableRow contentRow = new TableRow();
+		contentRow.addColumn("column", "actualValue");
+		final TableRow latestRevision = new TableRow();
+		latestRevision.addColumn("column", "auditValue");
+		latestRevision.addColumn("REVTYPE", BigDecimal.valueOf(RevisionConstants.MODIFY_REVISION));
+
+		when(databaseQueries.getRevTypeColumnName()).thenReturn("REVTYPE");
+		when(databaseQueries.getContentRecordsWithInvalidLatestRevision(auditTableInformation, primaryIdentifierColumnNames)).thenReturn(Arrays.asList(new EntityHistory("1", Collections.emptyList(), new TableRow()), new EntityHistory("2", Collections.singletonList(latestRevision), contentRow)));
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, entityHistorySource, primaryIdentifierColumnNames);
+
+		try
+		{
+			// When
+			validator.validateAllRecordsInContentTableHaveAValidLatestRevision();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			//@formatter:off
+			assertEquals("The following identifiers [1] in table auditTable do not have an Add/Modify revision in table auditTable as their last revision or do not have a revision at all.\n" +
+						"Row with identifier 2 has a different audit row than the actual value in the content table, the following columns differ: \n" +
+						"\tActual value for column column: actualValue, audit value: auditValue.\n", e.getMessage());
+			//@formatter:on
+			verify(entityHistorySource, never()).open();
+		}
+	}
+
+	private void prepareStreamingRecords(@Nonnull AuditTableInformation auditTableInformation) throws SQLException, DataSetException
+	{
+		final DefaultTable contentTable = new DefaultTable(AUDIT_TABLE, new Column[] { new Column("ID", DataType.NUMERIC) });
+		contentTable.addRow(new Object[] { BigDecimal.valueOf(0) });
+		contentTable.addRow(new Object[] { BigDecimal.valueOf(1) });
+		contentTable.addRow(new Object[] { BigDecimal.valueOf(2) });
+		contentTable.addRow(new Object[] { BigDecimal.valueOf(3) });
+
+		final DefaultTable auditTable = new DefaultTable(AUDIT_TABLE, new Column[] { new Column("ID", DataType.NUMERIC), new Column("REV", DataType.NUMERIC), new Column("REVTYPE", DataType.NUMERIC) });
+		auditTable.addRow(new Object[] { BigDecimal.valueOf(1), BigDecimal.valueOf(1), BigDecimal.valueOf(RevisionConstants.ADD_REVISION) });
+		auditTable.addRow(new Object[] { BigDecimal.valueOf(2), BigDecimal.valueOf(2), BigDecimal.valueOf(RevisionConstants.ADD_REVISION) });
+		auditTable.addRow(new Object[] { BigDecimal.valueOf(2), BigDecimal.valueOf(3), BigDecimal.valueOf(RevisionConstants.REMOVE_REVISION) });
+		auditTable.addRow(new Object[] { BigDecimal.valueOf(3), BigDecimal.valueOf(4), BigDecimal.valueOf(RevisionConstants.ADD_REVISION) });
+		auditTable.addRow(new Object[] { BigDecimal.valueOf(4), BigDecimal.valueOf(5), BigDecimal.valueOf(RevisionConstants.MODIFY_REVISION) });
+
+		when(databaseQueries.getRevTypeColumnName()).thenReturn("REVTYPE");
+		when(databaseQueries.getContentRecordsOrderedByPrimaryKey(databaseConnection, auditTableInformation, Collections.singletonList("ID"))).thenAnswer(invocation -> new TableRowCursor(contentTable));
+		when(databaseQueries.getAuditRecordsOrderedByPrimaryKeyAndRevision(databaseConnection, auditTableInformation, Collections.singletonList("ID"))).thenAnswer(invocation -> new TableRowCursor(auditTable));
+		when(databaseQueries.getPrimaryIdentifier(any(ITable.class), anyInt(), any())).thenAnswer(invocation -> new PrimaryIdentifier(((ITable) invocation.getArguments()[0]).getValue((Integer) invocation.getArguments()[1], "ID")));
+	}
+
+	@Test
+	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionWithEmptyContentList() throws SQLException, DataSetException
 	{
 		// Given
 		final Map<String, TableRow> recordsInContentTable = Collections.emptyMap();
@@ -118,7 +605,7 @@ public class RevisionValidatorTest
 	}
 
 	@Test
-	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionWithEmptyAuditTable()
+	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionWithEmptyAuditTable() throws SQLException, DataSetException
 	{
 		// Given
 		final Map<String, TableRow> recordsInContentTable = Collections.singletonMap(AUDIT_TABLE, new TableRow());
@@ -140,17 +627,17 @@ public class RevisionValidatorTest
 	}
 
 	@Test
-	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionAuditTableWithoutRevColumn()
+	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionAuditTableWithoutRevColumn() throws SQLException, DataSetException
 	{
 		// Given
 		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
 		final String revColumnName = "revColumnName";
-		final TableRow auditTableRow = mock(TableRow.class);
+		final TableRow auditTableRow = new TableRow();
 		final Map<String, TableRow> recordsInContentTable = Collections.singletonMap(AUDIT_TABLE, new TableRow());
 		final Map<String, List<TableRow>> recordsInAuditTable = Collections.singletonMap(AUDIT_TABLE, Collections.singletonList(auditTableRow));
 
 		when(databaseQueries.getRevTypeColumnName()).thenReturn(revColumnName);
-		when(auditTableRow.getColumnValue(revColumnName)).thenReturn(null);
+		auditTableRow.addColumn(revColumnName, null);
 
 		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, recordsInAuditTable, recordsInContentTable);
 
@@ -167,17 +654,17 @@ public class RevisionValidatorTest
 	}
 
 	@Test
-	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionAuditTableWithRemoveRevision()
+	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionAuditTableWithRemoveRevision() throws SQLException, DataSetException
 	{
 		// Given
 		final String revColumnName = "revColumnName";
-		final TableRow auditTableRow = mock(TableRow.class);
+		final TableRow auditTableRow = new TableRow();
 		final Map<String, TableRow> recordsInContentTable = Collections.singletonMap(AUDIT_TABLE, new TableRow());
 		final Map<String, List<TableRow>> recordsInAuditTable = Collections.singletonMap(AUDIT_TABLE, Collections.singletonList(auditTableRow));
 		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
 
 		when(databaseQueries.getRevTypeColumnName()).thenReturn(revColumnName);
-		when(auditTableRow.getColumnValue(revColumnName)).thenReturn(BigDecimal.valueOf(RevisionConstants.REMOVE_REVISION));
+		auditTableRow.addColumn(revColumnName, BigDecimal.valueOf(RevisionConstants.REMOVE_REVISION));
 
 		final RevisionValidator validator = spy(new RevisionValidator(connectionProvider, auditTableInformation, recordsInAuditTable, recordsInContentTable));
 
@@ -195,12 +682,12 @@ public class RevisionValidatorTest
 	}
 
 	@Test
-	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionAuditTableWithValidAddRevision()
+	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionAuditTableWithValidAddRevision() throws SQLException, DataSetException
 	{
 		// Given
 		final String revColumnName = "revColumnName";
 		final TableRow actualRecord = mock(TableRow.class);
-		final TableRow auditTableRow = mock(TableRow.class);
+		final TableRow auditTableRow = new TableRow();
 		final Map<String, TableRow> recordsInContentTable = Collections.singletonMap(AUDIT_TABLE, actualRecord);
 		final Map<String, List<TableRow>> recordsInAuditTable = Collections.singletonMap(AUDIT_TABLE, Collections.singletonList(auditTableRow));
 		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
@@ -208,7 +695,7 @@ public class RevisionValidatorTest
 		final RevisionValidator validator = spy(new RevisionValidator(connectionProvider, auditTableInformation, recordsInAuditTable, recordsInContentTable));
 
 		when(databaseQueries.getRevTypeColumnName()).thenReturn(revColumnName);
-		when(auditTableRow.getColumnValue(revColumnName)).thenReturn(BigDecimal.valueOf(RevisionConstants.ADD_REVISION));
+		auditTableRow.addColumn(revColumnName, BigDecimal.valueOf(RevisionConstants.ADD_REVISION));
 		doReturn(Collections.emptyMap()).when(validator).determineIncorrectColumns(actualRecord, auditTableRow);
 
 		// When
@@ -216,13 +703,13 @@ public class RevisionValidatorTest
 	}
 
 	@Test
-	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionAuditTableWithInvalidModifyRevision()
+	public void testValidateAllRecordsInContentTableHaveAValidLatestRevisionAuditTableWithInvalidModifyRevision() throws SQLException, DataSetException
 	{
 		// Given
 		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
 		final String revColumnName = "revColumnName";
 		final TableRow actualRecord = mock(TableRow.class);
-		final TableRow auditTableRow = mock(TableRow.class);
+		final TableRow auditTableRow = new TableRow();
 		final Map<String, TableRow> recordsInContentTable = Collections.singletonMap(AUDIT_TABLE, actualRecord);
 		final Map<String, List<TableRow>> recordsInAuditTable = Collections.singletonMap(AUDIT_TABLE, Collections.singletonList(auditTableRow));
 
@@ -231,7 +718,7 @@ public class RevisionValidatorTest
 		final RevisionValidator validator = spy(new RevisionValidator(connectionProvider, auditTableInformation, recordsInAuditTable, recordsInContentTable));
 
 		when(databaseQueries.getRevTypeColumnName()).thenReturn(revColumnName);
-		when(auditTableRow.getColumnValue(revColumnName)).thenReturn(BigDecimal.valueOf(RevisionConstants.ADD_REVISION));
+		auditTableRow.addColumn(revColumnName, BigDecimal.valueOf(RevisionConstants.ADD_REVISION));
 
 		doReturn(incorrectColumns).when(validator).determineIncorrectColumns(actualRecord, auditTableRow);
 		doNothing().when(validator).validateLatestRevisionComparisonResult(any(), any());
@@ -270,6 +757,32 @@ public class RevisionValidatorTest
 		assertTrue(incorrectColumns.isEmpty());
 	}
 
+	@Test
+	public void testDetermineIncorrectColumnsComparesBinaryValuesByContent()
+	{
+		// Given
+		final TableRow actualTableRow = new TableRow();
+		actualTableRow.addColumn("equal", new byte[] { 1, 2 });
+		actualTableRow.addColumn("different", new byte[] { 1, 2 });
+		final TableRow auditTableRow = new TableRow();
+		auditTableRow.addColumn("equal", new byte[] { 1, 2 });
+		auditTableRow.addColumn("different", new byte[] { 1, 3 });
+
+		// Method under test is not dependent on the constructor parameters
+		final Map<String, TableRow> recordsInContentTable = Collections.emptyMap();
+		final Map<String, List<TableRow>> recordsInAuditTable = Collections.emptyMap();
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, recordsInAuditTable, recordsInContentTable);
+
+		// When
+		final Map<String, TableRow> incorrectColumns = validator.determineIncorrectColumns(actualTableRow, auditTableRow);
+
+		// Then
+		assertEquals(2, incorrectColumns.size());
+		assertEquals(Collections.singleton("different"), incorrectColumns.get("actual").getColumnNames());
+	}
+
 	@Test
 	public void testDetermineIncorrectColumnsWithContentTableHavingMoreColumns()
 	{
@@ -468,7 +981,139 @@ public class RevisionValidatorTest
 	}
 
 	@Test
-	public void testValidateHistoryIsAValidFlowWithEmptyAuditTable()
+	public void testGenerateTestDataOnlyLoadsEntitiesChangedAfterValidatedRevision() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+		final RevisionCheckpoint revisionCheckpoint = RevisionCheckpoint.load(new File(temporaryFolder.getRoot(), "checkpoint.properties"), "schema");
+		revisionCheckpoint.startValidation(AUDIT_TABLE, 5L);
+		revisionCheckpoint.validationSucceeded(AUDIT_TABLE);
+		validationSettings.setRevisionCheckpointOverlap(2);
+
+		final Map<PrimaryIdentifier, List<TableRow>> auditTableRecords = Collections.singletonMap(new PrimaryIdentifier(BigDecimal.ONE), Collections.singletonList(createAuditRow(6, RevisionConstants.ADD_REVISION, "name")));
+		final Map<PrimaryIdentifier, TableRow> contentTableRecords = Collections.emptyMap();
+
+		when(auditTableInformationMap.values()).thenReturn(Collections.singleton(auditTableInformation));
+		when(connectionProvider.getRevisionCheckpoint()).thenReturn(revisionCheckpoint);
+		when(databaseQueries.getPrimaryKeyColumnNames(AUDIT_TABLE)).thenReturn(primaryIdentifierColumnNames);
+		when(databaseQueries.getHighestRevision(auditTableInformation)).thenReturn(6L);
+		when(databaseQueries.getContentRecords(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.changedAfterRevision(3L))).thenReturn(contentTableRecords);
+		when(databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.changedAfterRevision(3L))).thenReturn(auditTableRecords);
+
+		// When
+		final List<Object[]> testData = toList(RevisionValidator.generateTestData(connectionProvider, auditTableInformationMap));
+
+		// Then
+		assertEquals(1, testData.size());
+		assertEquals(auditTableRecords, testData.get(0)[2]);
+		assertEquals(contentTableRecords, testData.get(0)[3]);
+		verify(databaseQueries, never()).getContentRecords(any(IDatabaseConnection.class), any(AuditTableInformation.class), any(), eq(RecordSelection.ALL));
+		verify(databaseQueries, never()).getAuditRecordsGroupedByContentPrimaryKey(any(IDatabaseConnection.class), any(AuditTableInformation.class), any(), eq(RecordSelection.ALL));
+	}
+
+	@Test
+	public void testRevisionCheckpointOnlyAdvancesWhenAllValidationsSucceed() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final RevisionCheckpoint revisionCheckpoint = RevisionCheckpoint.load(new File(temporaryFolder.getRoot(), "checkpoint.properties"), "schema");
+		when(connectionProvider.getRevisionCheckpoint()).thenReturn(revisionCheckpoint);
+		when(databaseQueries.getRevTypeColumnName()).thenReturn("REVTYPE");
+		when(databaseQueries.getRevisionTableIdentifierColumnName()).thenReturn("REV");
+
+		final TableRow contentRow = new TableRow();
+		contentRow.addColumn("ID", BigDecimal.ONE);
+		contentRow.addColumn("NAME", "name");
+		final Map<Integer, TableRow> recordsInContentTable = Collections.singletonMap(1, contentRow);
+		final Map<Integer, List<TableRow>> invalidRecordsInAuditTable = Collections.singletonMap(1, Collections.singletonList(createAuditRow(1, RevisionConstants.MODIFY_REVISION, "name")));
+		final Map<Integer, List<TableRow>> validRecordsInAuditTable = Collections.singletonMap(1, Collections.singletonList(createAuditRow(1, RevisionConstants.ADD_REVISION, "name")));
+
+		// When
+		revisionCheckpoint.startValidation(AUDIT_TABLE, 1L);
+		try
+		{
+			new RevisionValidator(connectionProvider, auditTableInformation, invalidRecordsInAuditTable, recordsInContentTable).validateHistoryIsAValidFlow();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertNull(revisionCheckpoint.getValidatedRevision(AUDIT_TABLE));
+		}
+
+		// When
+		revisionCheckpoint.startValidation(AUDIT_TABLE, 1L);
+		new RevisionValidator(connectionProvider, auditTableInformation, validRecordsInAuditTable, recordsInContentTable).validateHistoryIsAValidFlow();
+
+		// Then
+		assertEquals(Long.valueOf(1L), revisionCheckpoint.getValidatedRevision(AUDIT_TABLE));
+	}
+
+	@Test
+	public void testRevisionCheckpointAdvancesWhenFailingValidationsAreIgnored() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final RevisionCheckpoint revisionCheckpoint = RevisionCheckpoint.load(new File(temporaryFolder.getRoot(), "checkpoint.properties"), "schema");
+		when(connectionProvider.getRevisionCheckpoint()).thenReturn(revisionCheckpoint);
+		when(databaseQueries.getRevTypeColumnName()).thenReturn("REVTYPE");
+		when(databaseQueries.getRevisionTableIdentifierColumnName()).thenReturn("REV");
+		validationSettings.setIgnoreMatcher(IgnoreMatcher.compile(Collections.singletonList("RevisionValidator.validateHistoryIsAValidFlow." + AUDIT_TABLE)));
+
+		final TableRow contentRow = new TableRow();
+		contentRow.addColumn("ID", BigDecimal.ONE);
+		contentRow.addColumn("NAME", "name");
+		final Map<Integer, TableRow> recordsInContentTable = Collections.singletonMap(1, contentRow);
+		final Map<Integer, List<TableRow>> recordsInAuditTable = Collections.singletonMap(1, Collections.singletonList(createAuditRow(1, RevisionConstants.MODIFY_REVISION, "name")));
+
+		// When
+		revisionCheckpoint.startValidation(AUDIT_TABLE, 1L);
+		new RevisionValidator(connectionProvider, auditTableInformation, recordsInAuditTable, recordsInContentTable).validateRemoveRevisions();
+
+		// Then
+		assertEquals(Long.valueOf(1L), revisionCheckpoint.getValidatedRevision(AUDIT_TABLE));
+	}
+
+	@Test
+	public void testGenerateTestDataLoadsSampleAndReportsItsErrorRate() throws SQLException, DataSetException
+	{
+		// Given
+		final AuditTableInformation auditTableInformation = new AuditTableInformation(AUDIT_TABLE, AUDIT_TABLE);
+		final List<String> primaryIdentifierColumnNames = Collections.singletonList("ID");
+		final SamplingReport samplingReport = new SamplingReport(42L);
+		validationSettings.setSampleSize(10);
+
+		final Map<PrimaryIdentifier, List<TableRow>> auditTableRecords = Collections.singletonMap(new PrimaryIdentifier(BigDecimal.ONE), Collections.singletonList(createAuditRow(1, RevisionConstants.MODIFY_REVISION, "name")));
+		final Map<PrimaryIdentifier, TableRow> contentTableRecords = Collections.emptyMap();
+
+		when(auditTableInformationMap.values()).thenReturn(Collections.singleton(auditTableInformation));
+		when(connectionProvider.getSamplingReport()).thenReturn(samplingReport);
+		when(databaseQueries.getRevTypeColumnName()).thenReturn("REVTYPE");
+		when(databaseQueries.getRevisionTableIdentifierColumnName()).thenReturn("REV");
+		when(databaseQueries.getPrimaryKeyColumnNames(AUDIT_TABLE)).thenReturn(primaryIdentifierColumnNames);
+		when(databaseQueries.getEntityCount(auditTableInformation, primaryIdentifierColumnNames)).thenReturn(1000L);
+		when(databaseQueries.getContentRecords(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.sample(0.01, 42L))).thenReturn(contentTableRecords);
+		when(databaseQueries.getAuditRecordsGroupedByContentPrimaryKey(databaseConnection, auditTableInformation, primaryIdentifierColumnNames, RecordSelection.sample(0.01, 42L))).thenReturn(auditTableRecords);
+
+		// When
+		final Object[] testData = toList(RevisionValidator.generateTestData(connectionProvider, auditTableInformationMap)).get(0);
+		final RevisionValidator validator = new RevisionValidator(connectionProvider, auditTableInformation, (Map<PrimaryIdentifier, List<TableRow>>) testData[2], (Map<PrimaryIdentifier, TableRow>) testData[3]);
+		try
+		{
+			validator.validateHistoryIsAValidFlow();
+			fail("Expected " + ValidationException.class.getSimpleName());
+		}
+		catch (ValidationException e)
+		{
+			// Then
+			assertEquals(Collections.singletonList(AUDIT_TABLE + ": 1 out of 1000 entities sampled, 1 invalid, estimated error rate 100.00% (95% upper bound 100.00%)."), samplingReport.getSummaries());
+			verify(databaseQueries, never()).getContentRecords(any(IDatabaseConnection.class), any(AuditTableInformation.class), any(), eq(RecordSelection.ALL));
+		}
+	}
+
+	@Test
+	public void testValidateHistoryIsAValidFlowWithEmptyAuditTable() throws SQLException, DataSetException
 	{
 		// Given
 		final Map<String, List<TableRow>> recordsInAuditTable = Collections.emptyMap();
@@ -478,4 +1123,12 @@ public class RevisionValidatorTest
 		// When
 		validator.validateHistoryIsAValidFlow();
 	}
-}
\ No newline at end of file
+
+	@Nonnull
+	private static List<Object[]> toList(@Nonnull Iterator<Object[]> testData)
+	{
+		final List<Object[]> result = new ArrayList<>();
+		testData.forEachRemaining(result::add);
+		return result;
+	}
+}